@@ -0,0 +1,95 @@
+package benchmark;
+
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.profile.GCProfiler;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+/** Driver class running the JMH benchmarks with the GC profiler and comparing them with their baseline
+ * Run from the project folder as java -jar target/benchmarks.jar, after mvn -P jmh package. Other arguments are passed to JMH,
+ * "--write-baseline" replaces the baseline in jmh/JmhBaseline.csv, in the format of src/BenchmarkBaseline.csv.
+ * The simulator classes are in the default package, which cannot be imported, and JMH does not accept benchmarks
+ * in the default package, so the benchmarks reach BenchmarkDriver by reflection.
+ * @author Ogechi
+ */
+public class BenchmarkMain {
+
+    private static final String BASELINE_PATH = "jmh/JmhBaseline.csv"; //baseline of the JMH benchmarks, relative to the project folder
+    private static final double REGRESSION_RATIO = 1.5; //benchmarks slower or allocating more than the baseline by more than this are reported as regressions
+
+    public static void main(String args[]) throws RunnerException, CommandLineOptionException, ReflectiveOperationException {
+        boolean writeBaseline = Arrays.asList(args).contains("--write-baseline");
+        String[] jmhArgs = Arrays.stream(args).filter(arg -> !arg.equals("--write-baseline")).toArray(String[]::new);
+
+        Collection<RunResult> runs = new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(jmhArgs))
+                .include(BenchmarkMain.class.getPackageName() + "\\.")
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+
+        Map<String, double[]> baseline = readBaseline();
+        Map<String, double[]> measured = new LinkedHashMap<>();
+        System.out.println("benchmark, ns per operation, bytes allocated per operation, baseline ns per operation, baseline bytes per operation");
+        for (RunResult run : runs) {
+            String name = run.getParams().getParam("name");
+            Result allocation = run.getSecondaryResults().get("gc.alloc.rate.norm");
+            double[] result = {run.getPrimaryResult().getScore(), allocation == null ? Double.NaN : allocation.getScore()};
+            measured.put(name, result);
+
+            double[] old = baseline.get(name);
+            String line = String.format(Locale.ROOT, "%s, %.4g, %.1f", name, result[0], result[1]);
+            if (old == null) System.out.println(line + ", none, none");
+            else {
+                line += String.format(Locale.ROOT, ", %.4g, %.1f", old[0], old[1]);
+                //allocation is compared with a margin of a byte per operation, so allocation free benchmarks do not flag rounding
+                if (result[0] > REGRESSION_RATIO * old[0] || result[1] > REGRESSION_RATIO * old[1] + 1) line += ", REGRESSION";
+                System.out.println(line);
+            }
+        }
+        if (writeBaseline) writeBaseline(measured);
+    }
+
+    /** Helper method creating the bodies of the benchmarks in BenchmarkDriver
+     *
+     * @param factory createKernelBenchmarks or createRunBenchmarks
+     * @return body of each benchmark by name
+     * @throws ReflectiveOperationException if BenchmarkDriver is not on the class path or cannot create its benchmarks
+     * @author Ogechi
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, DoubleSupplier> getDriverBenchmarks(String factory) throws ReflectiveOperationException {
+        return (Map<String, DoubleSupplier>) Class.forName("BenchmarkDriver").getMethod(factory).invoke(null);
+    }
+
+    /** Helper method reading the baseline with BenchmarkDriver.readBaseline, so both suites share one file format
+     *
+     * @return nanoseconds and bytes per operation by benchmark name, empty if the file cannot be read
+     * @throws ReflectiveOperationException if BenchmarkDriver is not on the class path
+     * @author Ogechi
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, double[]> readBaseline() throws ReflectiveOperationException {
+        return (Map<String, double[]>) Class.forName("BenchmarkDriver").getMethod("readBaseline", String.class).invoke(null, BASELINE_PATH);
+    }
+
+    /** Helper method writing the baseline with BenchmarkDriver.writeBaseline
+     *
+     * @param results nanoseconds and bytes per operation by benchmark name
+     * @throws ReflectiveOperationException if BenchmarkDriver is not on the class path
+     * @author Ogechi
+     */
+    private static void writeBaseline(Map<String, double[]> results) throws ReflectiveOperationException {
+        Class.forName("BenchmarkDriver").getMethod("writeBaseline", String.class, Map.class).invoke(null, BASELINE_PATH, results);
+    }
+}
@@ -0,0 +1,55 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/** JMH benchmark of the reactor right-hand side, the reaction rate and the dead time queue
+ * Each invocation runs a body of BenchmarkDriver.createKernelBenchmarks, which does BenchmarkDriver.KERNEL_BATCH operations.
+ * @author Ogechi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KernelBenchmark {
+
+    @Param({"CSTRReactor.rhs", "Reaction.calculateReactionRate", "Queue enqueue and dequeue"})
+    public String name; //name of the body in BenchmarkDriver.createKernelBenchmarks
+    private DoubleSupplier body; //body run by each invocation
+
+    /** Method reading the input files and creating the body of this benchmark
+     *
+     * @throws ReflectiveOperationException if BenchmarkDriver cannot create its benchmarks
+     * @author Ogechi
+     */
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        this.body = BenchmarkMain.getDriverBenchmarks("createKernelBenchmarks").get(this.name);
+    }
+
+    /** Method running one body, its result returned so JMH consumes it
+     *
+     * @return sum computed by the body
+     * @author Ogechi
+     */
+    @Benchmark
+    @OperationsPerInvocation(1000) //BenchmarkDriver.KERNEL_BATCH, which a class in a package cannot name
+    public double run() {
+        return this.body.getAsDouble();
+    }
+}
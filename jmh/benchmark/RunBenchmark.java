@@ -0,0 +1,54 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/** JMH benchmark of the RK45 solve, the simulation of each shipped input file and the CSV output Driver writes
+ * Each invocation runs a body of BenchmarkDriver.createRunBenchmarks, which does one operation.
+ * @author Ogechi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RunBenchmark {
+
+    @Param({"RK45.solve analytical problem", "PIDController.simulate PIDControlledCSTR", "PIDController.simulate TestCase1_Uncontrolled",
+            "PIDController.simulate TestCase2_PI", "Driver CSV output PIDControlledCSTR"})
+    public String name; //name of the body in BenchmarkDriver.createRunBenchmarks
+    private DoubleSupplier body; //body run by each invocation
+
+    /** Method reading the input files and creating the body of this benchmark
+     *
+     * @throws ReflectiveOperationException if BenchmarkDriver cannot create its benchmarks
+     * @author Ogechi
+     */
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        this.body = BenchmarkMain.getDriverBenchmarks("createRunBenchmarks").get(this.name);
+    }
+
+    /** Method running one body, its result returned so JMH consumes it
+     *
+     * @return result of the solve, the simulation or the size of the CSV file
+     * @author Ogechi
+     */
+    @Benchmark
+    public double run() {
+        return this.body.getAsDouble();
+    }
+}
@@ -0,0 +1,250 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/** Driver class running every input file of a directory or glob, several at the same time, as Driver runs a single one
+ * Each input file is read only when its simulation starts and its rows are written to its "populate to file" target as they are
+ * produced, so memory holds the simulations in progress, at most the parallelism, and a few values per finished file.
+ * An input file that cannot be read, is invalid or fails to simulate is recorded as failed in the summary and the others go on.
+ * Two input files writing the same output file would overwrite each other, the second one to start fails instead.
+ * The summary has one line per input file with its status, wall time, output file, rows, time saved by the steady state detection,
+ * right-hand side evaluations and performance metrics, written as the files finish so it can be followed while the batch runs.
+ * Run it from the folder the output files are relative to, with a directory or glob such as "scenarios/*_PI", the number of
+ * simulations to run at the same time and the path of the summary, the last two are optional.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class BatchDriver {
+
+    public static final String DEFAULT_SUMMARY_PATH = "BatchSummary.csv"; //summary written if no path is given
+
+    /** Main method running every input file of a directory or glob and exiting with status 1 if one of them failed
+     * @param args directory or glob of input files, optional number of simulations to run at the same time, every processor
+     *             if not given, and optional path of the summary, BatchSummary.csv if not given
+     * @throws IOException if the directory cannot be listed or the summary cannot be written
+     * @author Ogechi
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: java BatchDriver <directory or glob of input files> [parallelism] [summary file]");
+            return;
+        }
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        if (args.length > 1) {
+            try {
+                parallelism = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Parallelism must be an integer");
+            }
+        }
+        String summaryPath = args.length > 2 ? args[2] : DEFAULT_SUMMARY_PATH;
+
+        List<String> scenarios = findScenarios(args[0]);
+        System.out.println(scenarios.size() + " input files found for " + args[0]);
+        ScenarioResult[] results;
+        try (SimulationExecutor executor = new SimulationExecutor(parallelism)) {
+            results = runAll(scenarios, executor, summaryPath, System.out);
+        }
+        int failures = 0;
+        for (ScenarioResult result : results) {
+            if (result.getStatus() == ScenarioResult.STATUS.FAILED) failures++;
+        }
+        System.out.println("Batch summary generated or overwritten called: " + summaryPath);
+        System.out.println(failures == 0 ? "All " + results.length + " input files completed" : failures + " of " + results.length + " input files failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    /** Lists the input files of a directory or matching a glob
+     *
+     * @param pattern directory, in which case every regular file directly inside it is an input file, or glob of input files
+     *                such as "scenarios/*_PI" or "scenarios/**", matched from the folder before its first wildcard
+     * @return paths of the input files in alphabetical order
+     * @throws IOException if the directory cannot be listed
+     * @throws IllegalArgumentException if pattern is null
+     * @author Ogechi
+     */
+    public static List<String> findScenarios(String pattern) throws IOException {
+        if (pattern == null) throw new IllegalArgumentException("Directory or glob of input files cannot be null");
+        Path directory = Paths.get(pattern);
+        PathMatcher matcher = null;
+        int depth = 1;
+        if (!Files.isDirectory(directory)) {
+            //the folder before the first wildcard is walked, only as deep as the glob reaches unless it has **
+            int wildcard = firstWildcard(pattern);
+            int separator = Math.max(pattern.lastIndexOf('/', wildcard), pattern.lastIndexOf(File.separatorChar, wildcard));
+            directory = separator < 0 ? Paths.get("") : Paths.get(pattern.substring(0, separator + 1));
+            String glob = pattern.substring(separator + 1);
+            matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+            depth = glob.contains("**") ? Integer.MAX_VALUE : Paths.get(glob).getNameCount();
+            if (!Files.isDirectory(directory)) return new ArrayList<>();
+        }
+        Path root = directory;
+        PathMatcher filter = matcher;
+        try (Stream<Path> paths = Files.walk(root, depth)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> filter == null || filter.matches(root.relativize(path)))
+                    .map(Path::toString)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /** Runs the input files concurrently, writing the summary as they finish, and waits for all of them
+     *
+     * @param scenarios paths of the input files
+     * @param executor executor running the simulations, its parallelism bounds the simulations in memory
+     * @param summaryPath path of the CSV summary to create or overwrite, or null for no summary
+     * @param log stream receiving a line per finished input file, or null for none
+     * @return results in the order of the input files
+     * @throws IllegalArgumentException if scenarios or executor is null
+     * @throws IOException if the summary cannot be written
+     * @throws RuntimeException if the calling thread is interrupted
+     * @author Ogechi
+     */
+    public static ScenarioResult[] runAll(List<String> scenarios, SimulationExecutor executor, String summaryPath, PrintStream log) throws IOException {
+        if (scenarios == null) throw new IllegalArgumentException("Input files cannot be null");
+        if (executor == null) throw new IllegalArgumentException("Executor cannot be null");
+        ScenarioResult[] results = new ScenarioResult[scenarios.size()];
+        //output file of every started input file, so that two input files never write the same file at the same time
+        Map<Path, String> outputs = new ConcurrentHashMap<>();
+        try (Summary summary = new Summary(summaryPath, log, results.length)) {
+            Future<?>[] runs = new Future<?>[results.length];
+            for (int i = 0; i < runs.length; i++) {
+                int run = i;
+                runs[i] = executor.submit(() -> {
+                    results[run] = runScenario(scenarios.get(run), outputs, executor);
+                    summary.add(results[run]);
+                    return null;
+                });
+            }
+            for (int i = 0; i < runs.length; i++) {
+                try {
+                    runs[i].get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for " + scenarios.get(i), e);
+                } catch (ExecutionException e) {
+                    //only the summary can fail here, failed input files are recorded in their result
+                    throw new IOException(scenarios.get(i) + " could not be recorded: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+        }
+        return results;
+    }
+
+    /** Reads, simulates and writes one input file, every failure is recorded in the result
+     *
+     * @param scenario path of the input file
+     * @param outputs output file of every input file started so far, this one's is added
+     * @param executor executor of the batch, also running the candidates of an autotuned controller so the batch never uses more threads
+     * @return result of the input file
+     * @author Ogechi
+     */
+    private static ScenarioResult runScenario(String scenario, Map<Path, String> outputs, SimulationExecutor executor) {
+        long start = System.nanoTime();
+        try {
+            Map<String, String> dict = Driver.populateFromFile(scenario);
+            //the path the sink writes to, with the extension of the output format
+            String target = Driver.getOutputFile(dict);
+            String other = outputs.putIfAbsent(Paths.get(target).toAbsolutePath().normalize(), scenario);
+            if (other != null) throw new IllegalArgumentException("Error, output file " + target + " is also written by " + other);
+            ScenarioResult result = Driver.run(scenario, dict, true, executor, null);
+            //the wall time of the batch includes reading the input file
+            return new ScenarioResult(scenario, result.getStatus(), null, (System.nanoTime() - start) / 1e6, result.getOutputFile(),
+                    result.getRowCount(), result.getFilledRowCount(), result.getSkippedTime(), result.getTimeSaved(), result.getRhsEvaluations(), result.getMetrics());
+        } catch (RuntimeException | IOException e) {
+            String message = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            return ScenarioResult.failed(scenario, message, (System.nanoTime() - start) / 1e6);
+        }
+    }
+
+    /** Helper method finding the first wildcard of a glob
+     *
+     * @param pattern glob
+     * @return index of the first *, ?, [ or {, the length of the glob if it has none
+     * @author Ogechi
+     */
+    private static int firstWildcard(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') return i;
+        }
+        return pattern.length();
+    }
+
+    /** Summary and progress of one call to runAll, shared by the worker threads
+     * Results are written and reported one at a time under the summary's lock, the only point where the input files meet.
+     * @author Ogechi
+     */
+    private static class Summary implements AutoCloseable {
+
+        private final BufferedWriter writer; //open summary, or null for no summary
+        private final PrintStream log; //stream receiving a line per result, or null
+        private final int totalRuns; //input files in the batch
+        private int finishedRuns; //input files recorded so far
+
+        private Summary(String summaryPath, PrintStream log, int totalRuns) throws IOException {
+            this.writer = summaryPath == null ? null : new BufferedWriter(new FileWriter(summaryPath, StandardCharsets.UTF_8));
+            this.log = log;
+            this.totalRuns = totalRuns;
+            if (this.writer != null) {
+                this.writer.write("input file,status,wall time (ms),output file,rows,filled rows,skipped time,time saved (ms),rhs evaluations");
+                for (String label : PerformanceMetrics.getLabels()) this.writer.write("," + label);
+                this.writer.write(",message");
+                this.writer.newLine();
+                this.writer.flush();
+            }
+        }
+
+        /** Appends a result to the summary, flushing it so the summary can be followed while the batch runs, and reports it
+         *
+         * @param result result of an input file that finished
+         * @throws IOException if the summary cannot be written
+         * @author Ogechi
+         */
+        private synchronized void add(ScenarioResult result) throws IOException {
+            this.finishedRuns++;
+            if (this.writer != null) {
+                this.writer.write(result.getScenarioFile() + "," + result.getStatus() + "," + result.getWallTime() + ","
+                        + (result.getOutputFile() == null ? "" : result.getOutputFile()) + "," + result.getRowCount() + ","
+                        + result.getFilledRowCount() + "," + result.getSkippedTime() + "," + result.getTimeSaved() + "," + result.getRhsEvaluations());
+                if (result.getMetrics() != null) {
+                    for (double value : result.getMetrics().getValues()) this.writer.write("," + value);
+                } else {
+                    for (int j = 0; j < PerformanceMetrics.getLabels().length; j++) this.writer.write(",");
+                }
+                //the message is the last column, commas and line breaks would split it
+                this.writer.write("," + (result.getMessage() == null ? "" : result.getMessage().replace(',', ';').replaceAll("\\s+", " ")));
+                this.writer.newLine();
+                this.writer.flush();
+            }
+            if (this.log != null) {
+                this.log.println(this.finishedRuns + "/" + this.totalRuns + " " + result.getScenarioFile() + " " + result.getStatus()
+                        + String.format(Locale.ROOT, " in %.1f ms", result.getWallTime())
+                        + (result.getMessage() == null ? "" : ": " + result.getMessage()));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.writer != null) this.writer.close();
+        }
+    }
+}
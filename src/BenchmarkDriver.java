@@ -0,0 +1,1062 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+/** Driver class timing the integration methods on the shipped scenarios and on stiff variants of them
+ * Run from the command line, every configuration is simulated once to warm up the JIT and then timed over several repeats.
+ * It starts with a suite of micro-benchmarks of the hot paths, measuring time, allocation and garbage collection per operation,
+ * compared with the baseline in src/BenchmarkBaseline.csv. Run it from the project folder, with "--write-baseline" to replace the baseline.
+ * The same micro-benchmarks are run by JMH with the GC profiler in the jmh/ module of the Maven build, these timings being a quicker fallback.
+ * The shipped scenarios are read from their input files in src/ by Driver, as the simulations Driver runs.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class BenchmarkDriver {
+
+    private static final int WARMUP_RUNS = 1; //untimed runs before each measurement
+    private static final int TIMED_RUNS = 5; //timed runs of which the fastest is reported
+    private static long singleWorkerSweepTime; //fastest time of the last sweep timed with one worker, for the speedup
+    private static final String BASELINE_PATH = "src/BenchmarkBaseline.csv"; //baseline of the micro-benchmarks, relative to the project folder
+    private static final String INPUT_FOLDER = "src/"; //folder of the shipped input files, relative to the project folder
+    private static final double REGRESSION_RATIO = 1.5; //micro-benchmarks slower than the baseline by more than this are reported as regressions
+    private static final long MEASURE_NANOS = 500_000_000L; //time each micro-benchmark is warmed up for, and then measured for
+    private static final int MEASURED_ROUNDS = 5; //rounds the measurement is split into, the fastest is reported as it is the least disturbed
+    public static final int KERNEL_BATCH = 1000; //operations per call of the micro-benchmarks too short to time one at a time
+    private static volatile double blackhole; //results of the micro-benchmarks are added here so their work cannot be optimized away
+
+    public static void main(String args[]) {
+        boolean writeBaseline = args.length > 0 && args[0].equals("--write-baseline");
+        Map<String, double[]> measured = runMicroBenchmarks(readBaseline(BASELINE_PATH));
+        if (writeBaseline) writeBaseline(BASELINE_PATH, measured);
+        runSolverBenchmarks();
+        runRateKernelBenchmarks();
+        runReactionNetworkBenchmarks();
+        runDeadTimeQueueBenchmarks();
+        runCsvWriterBenchmarks();
+        runResultLoadBenchmarks();
+        runCompressionBenchmarks();
+        runSweepBenchmarks();
+        runTunerBenchmarks();
+        runMetricsBenchmarks();
+        runSteadyStateBenchmarks();
+        runSolverStatisticsBenchmarks();
+    }
+
+    /** Helper method reading a shipped input file into a controller, as Driver does before simulating it
+     *
+     * @param name name of the input file in the input folder
+     * @return controller of the input file, with the largest integration step Driver gives it
+     * @throws FileNotFoundException if the input file is not found
+     * @throws IllegalArgumentException if a parameter of the input file is missing or has an invalid value
+     * @author Ogechi
+     */
+    private static PIDController loadScenario(String name) throws FileNotFoundException {
+        return Driver.createController(Driver.populateFromFile(INPUT_FOLDER + name));
+    }
+
+    /** Helper method copying a controller with another solver type for its reactor
+     *
+     * @param controller controller to copy, never modified
+     * @param type solver type of the copy's reactor
+     * @return copy of the controller whose reactor uses the solver type
+     * @author Ogechi
+     */
+    private static PIDController withSolver(PIDController controller, OdeSolver.SOLVER_TYPE type) {
+        PIDController copy = controller.clone();
+        Reactor reactor = (Reactor) copy.getControllable();
+        reactor.setSolverType(type);
+        copy.setControllable(reactor);
+        return copy;
+    }
+
+    /** Times the shipped scenarios and their stiff variants with every solver type
+     * @author Ogechi
+     */
+    private static void runSolverBenchmarks() {
+        System.out.println();
+        System.out.println("scenario, solver, best time (ms), final CA, final CB");
+        OdeSolver.SOLVER_TYPE[] allSolvers = OdeSolver.SOLVER_TYPE.values();
+        try {
+            //shipped uncontrolled case with k = 0.2 1/s
+            benchmarkScenario("TestCase1_Uncontrolled", loadScenario("TestCase1_Uncontrolled"), allSolvers);
+        } catch (FileNotFoundException e) {
+            System.out.println(e.getMessage());
+        }
+        //the same reactor with a reaction ten thousand times faster than the flow, the explicit methods are limited by stability
+        benchmarkUncontrolled("stiff k = 2000", "A->B", 2000, 100, 1e-6, new double[][]{{0, 0.2}}, allSolvers);
+        //second order reaction that only becomes stiff after a large feed disturbance at t = 500, since dr/dCA grows with CA
+        //RK45 is left out, its error control takes the smallest component error so it lets the unstable component overflow and then stalls
+        OdeSolver.SOLVER_TYPE[] solvers = {OdeSolver.SOLVER_TYPE.DORMAND_PRINCE, OdeSolver.SOLVER_TYPE.ROSENBROCK, OdeSolver.SOLVER_TYPE.AUTO};
+        benchmarkUncontrolled("stiff after disturbance 2A -> B", "2 A->B", 100, 1000, 1e-6, new double[][]{{0, 0.2}, {500, 2000}}, solvers);
+        try {
+            //shipped controlled case, the solver is called once per time step
+            benchmarkScenario("PIDControlledCSTR", loadScenario("PIDControlledCSTR"), allSolvers);
+        } catch (FileNotFoundException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /** Compares the compiled rate kernel with the per species rate evaluation it replaced
+     * @author Ogechi
+     */
+    private static void runRateKernelBenchmarks() {
+        System.out.println();
+        System.out.println("reaction, path, ns per right-hand side");
+        benchmarkRateKernel("A -> B", 2);
+        benchmarkRateKernel("A + 2 B -> 3 C", 3);
+        benchmarkRateKernel("2 A + B + 3 C -> D + E", 5);
+    }
+
+    /** Compares the sparse and dense evaluation of reaction networks of growing size
+     * @author Ogechi
+     */
+    private static void runReactionNetworkBenchmarks() {
+        System.out.println();
+        System.out.println("reactions, species, nonzeros, sparse ns per right-hand side, dense ns per right-hand side");
+        benchmarkReactionNetwork(10);
+        benchmarkReactionNetwork(100);
+        benchmarkReactionNetwork(1000);
+    }
+
+    /** Compares the linked queue and the ring buffer as dead time pipelines of growing length
+     * @author Ogechi
+     */
+    private static void runDeadTimeQueueBenchmarks() {
+        System.out.println();
+        System.out.println("dead time steps, linked queue ns per step, ring buffer ns per step");
+        benchmarkDeadTimeQueue(15);
+        benchmarkDeadTimeQueue(200);
+        benchmarkDeadTimeQueue(2000);
+    }
+
+    /** Compares the CSV writers on a table the size of a shipped run and on a larger one
+     * @author Ogechi
+     */
+    private static void runCsvWriterBenchmarks() {
+        System.out.println();
+        System.out.println("rows, columns, writer, MB/s");
+        benchmarkCsvWriter(20_003, 8);
+        benchmarkCsvWriter(200_000, 20);
+    }
+
+    /** Compares writing and loading a large result file as CSV and as columnar file
+     * @author Ogechi
+     */
+    private static void runResultLoadBenchmarks() {
+        System.out.println();
+        System.out.println("rows, columns, format, file MB, write ms, load all ms, load one column ms");
+        benchmarkResultLoad(1_000_000, 8);
+    }
+
+    /** Compares the compressed result files of the shipped PID and uncontrolled cases with their other formats
+     * @author Ogechi
+     */
+    private static void runCompressionBenchmarks() {
+        System.out.println();
+        System.out.println("scenario, error bound, compressed KB, ratio to raw doubles, ratio to CSV, ratio to columnar, write ms, decode ms");
+        try {
+            benchmarkCompression("PIDControlledCSTR", loadScenario("PIDControlledCSTR"));
+            benchmarkCompression("TestCase1_Uncontrolled", loadScenario("TestCase1_Uncontrolled"));
+        } catch (FileNotFoundException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /** Times a sweep over the controller gain of the shipped PID case, shortened to 100 s, with one worker up to every processor
+     * @author Ogechi
+     */
+    private static void runSweepBenchmarks() {
+        System.out.println();
+        System.out.println("runs, workers, sweep ms, runs per second, speedup");
+        try {
+            PIDController PID = loadScenario("PIDControlledCSTR");
+            PID.setEndTime(100);
+            for (int workers = 1; workers <= Runtime.getRuntime().availableProcessors(); workers *= 2) {
+                benchmarkSweep(PID, 64, workers);
+            }
+        } catch (FileNotFoundException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /** Times the PID tuner on the shipped PID case with one worker and with every processor
+     * @author Ogechi
+     */
+    private static void runTunerBenchmarks() {
+        System.out.println();
+        System.out.println("objective, workers, tuning ms, candidates, cancelled early, starting objective, tuned objective");
+        try {
+            PIDController PID = loadScenario("PIDControlledCSTR");
+            benchmarkTuner(PID, PIDTuner.OBJECTIVE.IAE, 1);
+            benchmarkTuner(PID, PIDTuner.OBJECTIVE.IAE, Runtime.getRuntime().availableProcessors());
+            benchmarkTuner(PID, PIDTuner.OBJECTIVE.ITAE, Runtime.getRuntime().availableProcessors());
+        } catch (FileNotFoundException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /** Compares the performance metrics measured while simulating the shipped PID case with reading its CSV file back
+     * @author Ogechi
+     */
+    private static void runMetricsBenchmarks() {
+        System.out.println();
+        System.out.println("scenario, simulate to CSV ms, with online metrics ms, read CSV back for metrics ms");
+        try {
+            benchmarkMetrics("PIDControlledCSTR", loadScenario("PIDControlledCSTR"));
+        } catch (FileNotFoundException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /** Times the shipped scenarios with and without steady state detection
+     * @author Ogechi
+     */
+    private static void runSteadyStateBenchmarks() {
+        System.out.println();
+        System.out.println("scenario, steady from, rows filled, full ms, with detection ms, saved ms, largest difference");
+        try {
+            benchmarkSteadyState("TestCase1_Uncontrolled", loadScenario("TestCase1_Uncontrolled"), 1e-8, 10);
+            PIDController PID = loadScenario("PIDControlledCSTR");
+            benchmarkSteadyState("PIDControlledCSTR", PID, 1e-8, 10);
+            benchmarkSteadyState("TestCase2_PI", loadScenario("TestCase2_PI"), 1e-8, 10);
+            //the shipped PID case with its autotuned parameters, the product concentration settles with the residence time
+            PID.setControllerGain(1.565);
+            PID.setIntegratingTimeConstant(1.289);
+            PID.setDerivativeTimeConstant(0.3455);
+            benchmarkSteadyState("PIDControlledCSTR tuned", PID, 1e-5, 10);
+        } catch (FileNotFoundException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /** Times the shipped PID case with and without solver statistics for every solver type
+     * @author Ogechi
+     */
+    private static void runSolverStatisticsBenchmarks() {
+        System.out.println();
+        System.out.println("scenario, solver, without statistics ms, with statistics ms, rhs evaluations, accepted steps, rejected steps, rhs ms, bookkeeping ms, max rhs evaluations per interval");
+        try {
+            PIDController PID = loadScenario("PIDControlledCSTR");
+            for (OdeSolver.SOLVER_TYPE type : OdeSolver.SOLVER_TYPE.values()) {
+                benchmarkSolverStatistics("PIDControlledCSTR", withSolver(PID, type));
+            }
+        } catch (FileNotFoundException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /** Helper method timing a run with and without solver statistics and printing the statistics
+     *
+     * @param name scenario name to print
+     * @param controller controller of a reactor to simulate, never modified
+     * @author Ogechi
+     */
+    public static void benchmarkSolverStatistics(String name, PIDController controller) {
+        PIDController collecting = controller.clone();
+        collecting.setCollectSolverStatistics(true);
+        long bestPlain = Long.MAX_VALUE;
+        long bestCollecting = Long.MAX_VALUE;
+        PIDController run = null;
+        for (int i = 0; i < WARMUP_RUNS + TIMED_RUNS; i++) {
+            InMemorySink rows = new InMemorySink();
+            long start = System.nanoTime();
+            controller.clone().simulate(rows);
+            long plain = System.nanoTime() - start;
+            run = collecting.clone();
+            rows = new InMemorySink();
+            start = System.nanoTime();
+            run.simulate(rows);
+            long measured = System.nanoTime() - start;
+            if (i >= WARMUP_RUNS) {
+                bestPlain = Math.min(bestPlain, plain);
+                bestCollecting = Math.min(bestCollecting, measured);
+            }
+        }
+        SolverStatistics statistics = run.getSolverStatistics();
+        System.out.printf("%s, %s, %.1f, %.1f, %d, %d, %d, %.1f, %.1f, %d%n", name, ((Reactor) controller.getControllable()).getSolverType(), bestPlain / 1e6, bestCollecting / 1e6,
+                statistics.getRhsEvaluations(), statistics.getAcceptedSteps(), statistics.getRejectedSteps(), statistics.getRhsNanos() / 1e6,
+                statistics.getBookkeepingNanos() / 1e6, statistics.getMaxIntervalRhsEvaluations());
+    }
+
+    /** Helper method timing a run with and without steady state detection and reporting the time saved
+     *
+     * @param name scenario name to print
+     * @param controller controller to simulate, never modified
+     * @param tolerance largest rate of change counted as steady
+     * @param window time the run must stay steady
+     * @author Ogechi
+     */
+    public static void benchmarkSteadyState(String name, PIDController controller, double tolerance, double window) {
+        PIDController detecting = controller.clone();
+        detecting.setSteadyStateTolerance(tolerance);
+        detecting.setSteadyStateWindow(window);
+        long bestFull = Long.MAX_VALUE;
+        long bestDetecting = Long.MAX_VALUE;
+        double[][] full = null;
+        double[][] filled = null;
+        PIDController run = null;
+        for (int i = 0; i < WARMUP_RUNS + TIMED_RUNS; i++) {
+            long start = System.nanoTime();
+            full = controller.clone().simulate();
+            long fullTime = System.nanoTime() - start;
+            run = detecting.clone();
+            start = System.nanoTime();
+            filled = run.simulate();
+            long detectingTime = System.nanoTime() - start;
+            if (i >= WARMUP_RUNS) {
+                bestFull = Math.min(bestFull, fullTime);
+                bestDetecting = Math.min(bestDetecting, detectingTime);
+            }
+        }
+        double difference = 0;
+        for (int i = 0; i < full.length; i++) {
+            for (int j = 0; j < full[i].length; j++) difference = Math.max(difference, Math.abs(full[i][j] - filled[i][j]));
+        }
+        System.out.printf("%s, %s, %d, %.1f, %.1f, %.1f, %.2g%n", name, Double.isNaN(run.getSteadyStateTime()) ? "never" : String.format("%.1f", run.getSteadyStateTime()),
+                run.getFilledRowCount(), bestFull / 1e6, bestDetecting / 1e6, (bestFull - bestDetecting) / 1e6, difference);
+    }
+
+    /** Runs the micro-benchmarks of the solver, the reactor right-hand side, the reaction rate, the dead time queue,
+     * the simulation of each shipped input file and the CSV output Driver writes
+     *
+     * @param baseline nanoseconds and bytes per operation of each benchmark in an earlier run, empty if there is none
+     * @return nanoseconds and bytes per operation of each benchmark, in the order they ran
+     * @author Ogechi
+     */
+    public static Map<String, double[]> runMicroBenchmarks(Map<String, double[]> baseline) {
+        System.out.println("benchmark, ns per operation, bytes allocated per operation, collections, collection ms, baseline ns per operation, ratio to baseline");
+        Map<String, double[]> results = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, DoubleSupplier> body : createKernelBenchmarks().entrySet()) {
+                results.put(body.getKey(), measure(body.getKey(), KERNEL_BATCH, body.getValue(), baseline));
+            }
+            for (Map.Entry<String, DoubleSupplier> body : createRunBenchmarks().entrySet()) {
+                results.put(body.getKey(), measure(body.getKey(), 1, body.getValue(), baseline));
+            }
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+        return results;
+    }
+
+    /** Creates the micro-benchmarks too short to time one operation at a time, each call of a body doing KERNEL_BATCH operations
+     * The JMH benchmarks in jmh/ run the same bodies, so both suites measure the same work.
+     *
+     * @return body of the right-hand side, reaction rate and queue benchmarks by name
+     * @throws FileNotFoundException if the shipped PID input file is not found
+     * @author Ogechi
+     */
+    public static Map<String, DoubleSupplier> createKernelBenchmarks() throws FileNotFoundException {
+        Map<String, DoubleSupplier> bodies = new LinkedHashMap<>();
+
+        //the reactor of the shipped PID case
+        CSTRReactor CSTR = (CSTRReactor) loadScenario("PIDControlledCSTR").getControllable();
+        double[] y = {0.04, 0.16};
+        double[] dydt = new double[2];
+        bodies.put("CSTRReactor.rhs", () -> {
+            double sum = 0;
+            for (int i = 0; i < KERNEL_BATCH; i++) {
+                CSTR.rhs(i, y, dydt);
+                sum += dydt[0];
+            }
+            return sum;
+        });
+
+        Reaction reaction = new Reaction("2 A + B -> C", 0.2);
+        double[] concentrations = {0.3, 0.2, 0.1};
+        bodies.put("Reaction.calculateReactionRate", () -> {
+            double sum = 0;
+            for (int i = 0; i < KERNEL_BATCH; i++) sum += reaction.calculateReactionRate(concentrations);
+            return sum;
+        });
+
+        Queue<double[]> queue = new Queue<>();
+        double[] item = {0, 1.2};
+        bodies.put("Queue enqueue and dequeue", () -> {
+            for (int i = 0; i < KERNEL_BATCH; i++) queue.enqueue(item);
+            double sum = 0;
+            while (!queue.isEmpty()) sum += queue.dequeue()[1];
+            return sum;
+        });
+        return bodies;
+    }
+
+    /** Creates the micro-benchmarks timed one operation at a time, a solve, a simulation or a CSV file per call of a body
+     * The JMH benchmarks in jmh/ run the same bodies, so both suites measure the same work.
+     *
+     * @return body of the RK45, simulation and CSV output benchmarks by name
+     * @throws IOException if a shipped input file is not found or the temporary CSV file cannot be created
+     * @author Ogechi
+     */
+    public static Map<String, DoubleSupplier> createRunBenchmarks() throws IOException {
+        Map<String, DoubleSupplier> bodies = new LinkedHashMap<>();
+
+        //the validation problem of RK45.main, y' = y - t^2 + 1 with y(0) = 0.5, whose solution is (t + 1)^2 - 0.5 e^t
+        DifferentialEquation[] equations = {(t, y) -> y - t * t + 1};
+        double[] y0 = {0.5};
+        bodies.put("RK45.solve analytical problem", () -> RK45.solve(0, y0, 2, equations, 1e-5)[0]);
+
+        //the shipped input files, read as Driver reads them
+        String[] names = {"PIDControlledCSTR", "TestCase1_Uncontrolled", "TestCase2_PI"};
+        PIDController[] inputs = new PIDController[names.length];
+        for (int i = 0; i < names.length; i++) {
+            inputs[i] = loadScenario(names[i]);
+            PIDController controller = inputs[i];
+            bodies.put("PIDController.simulate " + names[i], () -> {
+                InMemorySink rows = new InMemorySink();
+                controller.clone().simulate(rows);
+                return rows.getResults()[rows.getResults().length - 1][1];
+            });
+        }
+
+        //Driver's output, the rows of the shipped PID case written by a CSV sink to a file removed when the JVM exits
+        double[][] data = inputs[0].clone().simulate();
+        String[] header = {"Time", " CA", " CB", "CA0", " v0", " P", " I", " D"};
+        File csv = File.createTempFile("benchmark", ".csv");
+        csv.deleteOnExit();
+        bodies.put("Driver CSV output PIDControlledCSTR", () -> {
+            CsvSink sink = new CsvSink(csv.getPath(), header);
+            sink.start(data[0].length, data.length);
+            for (double[] row : data) sink.accept(row);
+            sink.finish();
+            return csv.length();
+        });
+        return bodies;
+    }
+
+    /** Helper method measuring a micro-benchmark after warming it up, and printing it next to its baseline
+     * The time per operation is the fastest of several rounds, so other processes on the machine disturb it less. Allocation is counted by the JVM for the calling thread, so it is NaN on JVMs without that count.
+     *
+     * @param name benchmark name to print
+     * @param operationsPerCall operations done by each call of the body
+     * @param body work to measure, its result is kept so the work cannot be optimized away
+     * @param baseline nanoseconds and bytes per operation of each benchmark in an earlier run
+     * @return nanoseconds and bytes allocated per operation
+     * @author Ogechi
+     */
+    public static double[] measure(String name, int operationsPerCall, DoubleSupplier body, Map<String, double[]> baseline) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocation = threads instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) threads : null;
+        long threadId = Thread.currentThread().getId();
+
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < MEASURE_NANOS) blackhole += body.getAsDouble();
+
+        long collections = 0;
+        long collectionTime = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collections -= collector.getCollectionCount();
+            collectionTime -= collector.getCollectionTime();
+        }
+        long allocated = allocation == null ? 0 : allocation.getThreadAllocatedBytes(threadId);
+        long totalCalls = 0;
+        double nanos = Double.POSITIVE_INFINITY;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long calls = 0;
+            long elapsed;
+            start = System.nanoTime();
+            do {
+                blackhole += body.getAsDouble();
+                calls++;
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < MEASURE_NANOS / MEASURED_ROUNDS);
+            nanos = Math.min(nanos, (double) elapsed / (calls * operationsPerCall));
+            totalCalls += calls;
+        }
+        double bytes = allocation == null ? Double.NaN : (double) (allocation.getThreadAllocatedBytes(threadId) - allocated) / (totalCalls * operationsPerCall);
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collections += collector.getCollectionCount();
+            collectionTime += collector.getCollectionTime();
+        }
+
+        double[] reference = baseline.get(name);
+        String comparison = ", none, ";
+        if (reference != null) {
+            double ratio = nanos / reference[0];
+            comparison = String.format(", %.4g, %.2f%s", reference[0], ratio, ratio > REGRESSION_RATIO ? " REGRESSION" : "");
+        }
+        System.out.printf("%s, %.4g, %.1f, %d, %d%s%n", name, nanos, bytes, collections, collectionTime, comparison);
+        return new double[]{nanos, bytes};
+    }
+
+    /** Helper method reading the baseline of the micro-benchmarks
+     *
+     * @param path path of the baseline file with a header and lines of name, nanoseconds per operation and bytes per operation
+     * @return nanoseconds and bytes per operation by benchmark name, empty if the file cannot be read
+     * @author Ogechi
+     */
+    public static Map<String, double[]> readBaseline(String path) {
+        Map<String, double[]> baseline = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(path, StandardCharsets.UTF_8))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.split(",");
+                if (values.length >= 3) baseline.put(values[0].trim(), new double[]{Double.parseDouble(values[1].trim()), Double.parseDouble(values[2].trim())});
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("No baseline read from " + path + ": " + e.getMessage());
+        }
+        return baseline;
+    }
+
+    /** Helper method writing the baseline of the micro-benchmarks, read back by readBaseline
+     *
+     * @param path path of the baseline file to create or overwrite
+     * @param results nanoseconds and bytes per operation by benchmark name
+     * @author Ogechi
+     */
+    public static void writeBaseline(String path, Map<String, double[]> results) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(path, StandardCharsets.UTF_8))) {
+            writer.write("benchmark, ns per operation, bytes allocated per operation");
+            writer.newLine();
+            for (Map.Entry<String, double[]> result : results.entrySet()) {
+                writer.write(String.format(Locale.ROOT, "%s, %.4g, %.1f", result.getKey(), result.getValue()[0], result.getValue()[1]));
+                writer.newLine();
+            }
+            System.out.println("Baseline written to " + path);
+        } catch (IOException e) {
+            System.out.println("Baseline could not be written to " + path + ": " + e.getMessage());
+        }
+    }
+
+    /** Helper method comparing performance metrics measured while simulating with metrics computed by reading the CSV file back
+     * The online metrics add a few operations per row to the simulation, the second pass parses every row of the file again.
+     *
+     * @param name scenario name to print
+     * @param controller controller to simulate, never modified
+     * @author Ogechi
+     */
+    public static void benchmarkMetrics(String name, PIDController controller) {
+        try {
+            File csv = File.createTempFile("benchmark", ".csv");
+            csv.deleteOnExit();
+            String[] header = {"Time", "CA", "CB", "CA0", "v0", "P", "I", "D"};
+            long bestPlain = Long.MAX_VALUE;
+            long bestOnline = Long.MAX_VALUE;
+            long bestSecondPass = Long.MAX_VALUE;
+            double checksum = 0; //printed so the second pass cannot be optimized away
+            for (int run = 0; run < WARMUP_RUNS + TIMED_RUNS; run++) {
+                long start = System.nanoTime();
+                controller.clone().simulate(new CsvSink(csv.getPath(), header));
+                long plain = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                PerformanceMetricsSink online = PerformanceMetricsSink.forController(controller, new CsvSink(csv.getPath(), header));
+                controller.clone().simulate(online);
+                checksum += online.getMetrics().getIntegralAbsoluteError();
+                long measured = System.nanoTime() - start;
+
+                //the second pass the metrics replace, parsing the file row by row into a sink
+                start = System.nanoTime();
+                PerformanceMetricsSink secondPass = PerformanceMetricsSink.forController(controller, null);
+                try (BufferedReader reader = new BufferedReader(new FileReader(csv))) {
+                    reader.readLine();
+                    secondPass.start(header.length, 0);
+                    double[] row = new double[header.length];
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        String[] values = line.split(",");
+                        for (int j = 0; j < row.length; j++) row[j] = Double.parseDouble(values[j]);
+                        secondPass.accept(row);
+                    }
+                    secondPass.finish();
+                }
+                checksum += secondPass.getMetrics().getIntegralAbsoluteError();
+                long read = System.nanoTime() - start;
+                if (run >= WARMUP_RUNS) {
+                    bestPlain = Math.min(bestPlain, plain);
+                    bestOnline = Math.min(bestOnline, measured);
+                    bestSecondPass = Math.min(bestSecondPass, read);
+                }
+            }
+            System.out.printf("%s, %.1f, %.1f, %.1f (checksum %.6g)%n", name, bestPlain / 1e6, bestOnline / 1e6, bestSecondPass / 1e6, checksum);
+            csv.delete();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /** Helper method timing the PID tuner on a controller
+     *
+     * @param controller controller to tune, never modified
+     * @param objective objective to minimize
+     * @param workers number of worker threads evaluating the candidates
+     * @author Ogechi
+     */
+    public static void benchmarkTuner(PIDController controller, PIDTuner.OBJECTIVE objective, int workers) {
+        PIDTuner tuner = new PIDTuner(controller, objective);
+        long best = Long.MAX_VALUE;
+        try (SimulationExecutor executor = new SimulationExecutor(workers)) {
+            for (int run = 0; run < WARMUP_RUNS + TIMED_RUNS; run++) {
+                long start = System.nanoTime();
+                tuner.tune(executor);
+                if (run >= WARMUP_RUNS) best = Math.min(best, System.nanoTime() - start);
+            }
+        }
+        System.out.printf("%s, %d, %.1f, %d, %d, %.6g, %.6g%n", objective, workers, best / 1e6, tuner.getEvaluationCount(), tuner.getCancelledCount(), tuner.evaluate(controller), tuner.getBestObjective());
+    }
+
+    /** Helper method timing a parameter sweep over the controller gain of a controller
+     * Runs are independent, so the speedup over one worker should stay close to the number of workers up to the core count.
+     *
+     * @param controller controller whose gain is swept, never modified
+     * @param runs number of runs in the sweep
+     * @param workers number of worker threads
+     * @author Ogechi
+     */
+    public static void benchmarkSweep(PIDController controller, int runs, int workers) {
+        double[][] gains = new double[1][runs];
+        for (int i = 0; i < runs; i++) gains[0][i] = 5 + 0.1 * i;
+        ParameterSweep sweep = ParameterSweep.grid(controller, new ParameterSweep.PARAMETER[]{ParameterSweep.PARAMETER.CONTROLLER_GAIN}, gains);
+        long best = Long.MAX_VALUE;
+        try (SimulationExecutor executor = new SimulationExecutor(workers)) {
+            for (int run = 0; run < WARMUP_RUNS + TIMED_RUNS; run++) {
+                long start = System.nanoTime();
+                sweep.run(executor, null, null);
+                if (run >= WARMUP_RUNS) best = Math.min(best, System.nanoTime() - start);
+            }
+        }
+        //the single worker time of the same sweep is kept to report the speedup
+        if (workers == 1) singleWorkerSweepTime = best;
+        System.out.printf("%d, %d, %.1f, %.1f, %.2f%n", runs, workers, best / 1e6, runs / (best / 1e9), (double) singleWorkerSweepTime / best);
+    }
+
+    /** Helper method comparing the compressed result file with the raw doubles, CSV and columnar files of the same run
+     * The run is simulated once, then written lossless and with two error bounds and decoded row by row.
+     *
+     * @param name scenario name to print
+     * @param controller controller to simulate, never modified
+     * @author Ogechi
+     */
+    public static void benchmarkCompression(String name, PIDController controller) {
+        double[][] data = controller.clone().simulate();
+        int columns = data[0].length;
+        long rawSize = 8L * data.length * columns;
+        double checksum = 0; //printed so the decoding cannot be optimized away
+
+        try {
+            File file = File.createTempFile("benchmark", ".gor");
+            File csv = File.createTempFile("benchmark", ".csv");
+            File columnar = File.createTempFile("benchmark", ".col");
+            file.deleteOnExit();
+            csv.deleteOnExit();
+            columnar.deleteOnExit();
+            CsvResultWriter.writeAll(csv.getPath(), null, data, null, CsvResultWriter.EXACT, 1);
+            ColumnarSink columnarSink = new ColumnarSink(columnar.getPath(), null);
+            columnarSink.start(columns, data.length);
+            for (double[] row : data) columnarSink.accept(row);
+            columnarSink.finish();
+
+            for (double errorBound : new double[]{0, 1e-9, 1e-6}) {
+                long bestWrite = Long.MAX_VALUE;
+                long bestRead = Long.MAX_VALUE;
+                long size = 0;
+                for (int run = 0; run < WARMUP_RUNS + TIMED_RUNS; run++) {
+                    long start = System.nanoTime();
+                    CompressedSink sink = new CompressedSink(file.getPath(), null, errorBound);
+                    sink.start(columns, data.length);
+                    for (double[] row : data) sink.accept(row);
+                    sink.finish();
+                    long write = System.nanoTime() - start;
+                    size = sink.getBytesWritten();
+
+                    start = System.nanoTime();
+                    try (CompressedResultReader reader = new CompressedResultReader(file.getPath())) {
+                        double[] row = new double[columns];
+                        while (reader.nextRow(row)) checksum += row[columns - 1];
+                    }
+                    long read = System.nanoTime() - start;
+                    if (run >= WARMUP_RUNS) {
+                        bestWrite = Math.min(bestWrite, write);
+                        bestRead = Math.min(bestRead, read);
+                    }
+                }
+                System.out.printf("%s, %s, %.1f, %.1f, %.1f, %.1f, %.1f, %.1f%n", name, errorBound == 0 ? "lossless" : Double.toString(errorBound), size / 1e3,
+                        (double) rawSize / size, (double) csv.length() / size, (double) columnar.length() / size, bestWrite / 1e6, bestRead / 1e6);
+            }
+            System.out.printf("(checksum %.3e)%n", checksum);
+            file.delete();
+            csv.delete();
+            columnar.delete();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /** Helper method comparing a CSV result file with a columnar one, for writing, loading every row and loading one column
+     * The CSV file is parsed line by line the way post-processing scripts read it, the columnar file is memory-mapped.
+     *
+     * @param rows number of rows
+     * @param columns number of values in every row
+     * @author Ogechi
+     */
+    public static void benchmarkResultLoad(int rows, int columns) {
+        double[][] data = new double[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            data[i][0] = 0.05 * i;
+            for (int j = 1; j < columns; j++) {
+                data[i][j] = 0.2 * j * (1 - Math.exp(-1e-5 * i * j)) + 1e-3 * Math.sin(0.01 * i);
+            }
+        }
+        String[] header = new String[columns];
+        for (int j = 0; j < columns; j++) header[j] = "C" + j;
+        double checksum = 0; //printed so the loads cannot be optimized away
+
+        try {
+            File csv = File.createTempFile("benchmark", ".csv");
+            File columnar = File.createTempFile("benchmark", ".col");
+            csv.deleteOnExit();
+            columnar.deleteOnExit();
+            long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+            for (int run = 0; run < WARMUP_RUNS + TIMED_RUNS; run++) {
+                long[] times = new long[6];
+                long start = System.nanoTime();
+                CsvResultWriter.writeAll(csv.getPath(), header, data, null, CsvResultWriter.EXACT, 1);
+                times[0] = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                double[][] loaded = new double[rows][];
+                try (BufferedReader reader = new BufferedReader(new FileReader(csv), 1 << 16)) {
+                    reader.readLine();
+                    for (int i = 0; i < rows; i++) {
+                        String[] values = reader.readLine().split(",");
+                        loaded[i] = new double[columns];
+                        for (int j = 0; j < columns; j++) loaded[i][j] = Double.parseDouble(values[j]);
+                    }
+                }
+                times[1] = System.nanoTime() - start;
+                checksum += loaded[rows - 1][columns - 1];
+
+                start = System.nanoTime();
+                double[] column = new double[rows];
+                try (BufferedReader reader = new BufferedReader(new FileReader(csv), 1 << 16)) {
+                    reader.readLine();
+                    for (int i = 0; i < rows; i++) {
+                        String line = reader.readLine();
+                        int first = line.indexOf(',');
+                        column[i] = Double.parseDouble(line.substring(first + 1, line.indexOf(',', first + 1)));
+                    }
+                }
+                times[2] = System.nanoTime() - start;
+                checksum += column[rows - 1];
+
+                start = System.nanoTime();
+                ColumnarSink sink = new ColumnarSink(columnar.getPath(), header);
+                sink.start(columns, rows);
+                for (double[] row : data) sink.accept(row);
+                sink.finish();
+                times[3] = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                try (ColumnarResultFile file = new ColumnarResultFile(columnar.getPath())) {
+                    loaded = file.readAll();
+                }
+                times[4] = System.nanoTime() - start;
+                checksum += loaded[rows - 1][columns - 1];
+
+                start = System.nanoTime();
+                try (ColumnarResultFile file = new ColumnarResultFile(columnar.getPath())) {
+                    column = file.getColumn(1);
+                }
+                times[5] = System.nanoTime() - start;
+                checksum += column[rows - 1];
+
+                if (run >= WARMUP_RUNS) {
+                    for (int t = 0; t < times.length; t++) best[t] = Math.min(best[t], times[t]);
+                }
+            }
+            System.out.printf("%d, %d, CSV, %.1f, %.1f, %.1f, %.1f%n", rows, columns, csv.length() / 1e6, best[0] / 1e6, best[1] / 1e6, best[2] / 1e6);
+            System.out.printf("%d, %d, columnar, %.1f, %.1f, %.1f, %.1f (checksum %.3e)%n", rows, columns, columnar.length() / 1e6, best[3] / 1e6, best[4] / 1e6, best[5] / 1e6, checksum);
+            csv.delete();
+            columnar.delete();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /** Helper method timing the CSV output of a result table, the unbuffered per value path Driver used against CsvResultWriter
+     * The table holds smooth values like reactor results, every timed run writes the whole file to a temporary file.
+     *
+     * @param rows number of rows
+     * @param columns number of values in every row
+     * @author Ogechi
+     */
+    public static void benchmarkCsvWriter(int rows, int columns) {
+        double[][] data = new double[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            data[i][0] = 0.05 * i;
+            for (int j = 1; j < columns; j++) {
+                data[i][j] = 0.2 * j * (1 - Math.exp(-0.001 * i * j)) + 1e-3 * Math.sin(0.01 * i);
+            }
+        }
+        String[] header = new String[columns];
+        for (int j = 0; j < columns; j++) header[j] = "C" + j;
+        int parallelism = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        try {
+            File file = File.createTempFile("benchmark", ".csv");
+            file.deleteOnExit();
+            String path = file.getPath();
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < WARMUP_RUNS + TIMED_RUNS; run++) {
+                long start = System.nanoTime();
+                FileWriter outputFile = new FileWriter(file);
+                for (String s : header) {
+                    outputFile.append(s);
+                    outputFile.append(",");
+                }
+                outputFile.append('\n');
+                for (double[] d : data) {
+                    for (double value : d) {
+                        outputFile.append(Double.toString(value));
+                        outputFile.append(",");
+                    }
+                    outputFile.append("\n");
+                }
+                outputFile.close();
+                if (run >= WARMUP_RUNS) best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%d, %d, FileWriter per value, %.1f%n", rows, columns, file.length() / (best / 1e9) / 1e6);
+
+            //17 significant digits also read back to the same double, in more characters than Double.toString
+            String[] names = {"CsvResultWriter exact", "CsvResultWriter 17 digits", "CsvResultWriter 6 digits",
+                    "CsvResultWriter exact " + parallelism + " threads", "CsvResultWriter 6 digits " + parallelism + " threads"};
+            int[] precisions = {CsvResultWriter.EXACT, 17, 6, CsvResultWriter.EXACT, 6};
+            int[] threads = {1, 1, 1, parallelism, parallelism};
+            for (int w = 0; w < names.length; w++) {
+                best = Long.MAX_VALUE;
+                long bytes = 0;
+                for (int run = 0; run < WARMUP_RUNS + TIMED_RUNS; run++) {
+                    long start = System.nanoTime();
+                    bytes = CsvResultWriter.writeAll(path, header, data, null, precisions[w], threads[w]);
+                    if (run >= WARMUP_RUNS) best = Math.min(best, System.nanoTime() - start);
+                }
+                System.out.printf("%d, %d, %s, %.1f%n", rows, columns, names[w], bytes / (best / 1e9) / 1e6);
+            }
+            file.delete();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /** Helper method timing the dead time pipeline of the controller with the linked queue of pairs and with the ring buffer
+     * Every step enqueues one controller action and dequeues the one that has waited out the dead time, as in PIDController.simulate.
+     *
+     * @param delaySteps number of time steps the dead time spans, which is the length of the pipeline
+     * @author Ogechi
+     */
+    public static void benchmarkDeadTimeQueue(int delaySteps) {
+        final int steps = 20_000;
+        double checksum = 0; //printed so the queue operations cannot be optimized away
+
+        long bestQueue = Long.MAX_VALUE;
+        long bestRing = Long.MAX_VALUE;
+        for (int run = 0; run < WARMUP_RUNS + TIMED_RUNS; run++) {
+            long start = System.nanoTime();
+            Queue<double[]> queue = new Queue<>();
+            for (int step = 0; step < steps; step++) {
+                queue.enqueue(new double[]{step + delaySteps, 0.001 * step});
+                if (queue.peek()[0] <= step) {
+                    checksum += queue.peek()[1];
+                    queue.dequeue();
+                }
+            }
+            if (run >= WARMUP_RUNS) bestQueue = Math.min(bestQueue, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            DoubleRingBuffer ring = new DoubleRingBuffer(delaySteps + 2);
+            for (int step = 0; step < steps; step++) {
+                ring.enqueue(step + delaySteps, 0.001 * step);
+                if (ring.peekTime() <= step) {
+                    checksum += ring.dequeue();
+                }
+            }
+            if (run >= WARMUP_RUNS) bestRing = Math.min(bestRing, System.nanoTime() - start);
+        }
+        System.out.printf("%d, %.1f, %.1f (checksum %.3e)%n", delaySteps, (double) bestQueue / steps, (double) bestRing / steps, checksum);
+    }
+
+    /** Helper method timing the sparse evaluation of a reaction network against a dense stoichiometric matrix product
+     * The network is a chain of first and second order steps, X(i) -> X(i+1) and X(i) + X(i+2) -> 2 X(i+1),
+     * so the number of nonzeros grows linearly with the number of reactions while the dense matrix grows quadratically.
+     *
+     * @param reactions number of reactions in the network, rounded down to an even number
+     * @author Ogechi
+     */
+    public static void benchmarkReactionNetwork(int reactions) {
+        String[] equations = new String[reactions / 2 * 2];
+        double[] k = new double[equations.length];
+        for (int i = 0; i < equations.length / 2; i++) {
+            equations[2 * i] = "X" + i + " -> X" + (i + 1);
+            equations[2 * i + 1] = "X" + i + " + X" + (i + 2) + " -> 2 X" + (i + 1);
+            k[2 * i] = 0.1 + 0.001 * i;
+            k[2 * i + 1] = 0.5;
+        }
+        ReactionNetwork network = new ReactionNetwork(equations, k);
+        int species = network.getSpeciesCount();
+        double[][] matrix = network.getStoichiometricMatrix();
+        double[] concentrations = new double[species];
+        double[] rates = new double[equations.length];
+        double[] dcdt = new double[species];
+        for (int i = 0; i < species; i++) {
+            concentrations[i] = 0.5 + 0.01 * i;
+        }
+        int evaluations = Math.max(1000, 20_000_000 / (equations.length * species));
+        double checksum = 0; //printed so the evaluations cannot be optimized away
+
+        long bestSparse = Long.MAX_VALUE;
+        long bestDense = Long.MAX_VALUE;
+        for (int run = 0; run < WARMUP_RUNS + TIMED_RUNS; run++) {
+            long start = System.nanoTime();
+            for (int e = 0; e < evaluations; e++) {
+                concentrations[e % species] += 1e-12;
+                Arrays.fill(dcdt, 0);
+                network.addSpeciesRates(concentrations, dcdt);
+                checksum += dcdt[e % species];
+            }
+            if (run >= WARMUP_RUNS) bestSparse = Math.min(bestSparse, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int e = 0; e < evaluations; e++) {
+                concentrations[e % species] += 1e-12;
+                network.calculateReactionRates(concentrations, rates);
+                for (int i = 0; i < species; i++) {
+                    double sum = 0;
+                    for (int r = 0; r < rates.length; r++) {
+                        sum += matrix[i][r] * rates[r];
+                    }
+                    dcdt[i] = sum;
+                }
+                checksum += dcdt[e % species];
+            }
+            if (run >= WARMUP_RUNS) bestDense = Math.min(bestDense, System.nanoTime() - start);
+        }
+        System.out.printf("%d, %d, %d, %.1f, %.1f (checksum %.3e)%n", equations.length, species, network.getNonZeroCount(),
+                (double) bestSparse / evaluations, (double) bestDense / evaluations, checksum);
+    }
+
+    /** Helper method comparing the compiled rate kernel with the per species rate evaluation it replaced
+     * The old path evaluated the full rate law with Math.pow once for every species and signed it by the species index.
+     *
+     * @param equation reaction equation
+     * @param species number of species in the reaction
+     * @author Ogechi
+     */
+    public static void benchmarkRateKernel(String equation, int species) {
+        final int evaluations = 5_000_000;
+        Reaction reaction = new Reaction(equation, 0.2);
+        Species[] reactants = reaction.getReactants();
+        double[] concentrations = new double[species];
+        double[] dcdt = new double[species];
+        double checksum = 0; //printed so the evaluations cannot be optimized away
+
+        long bestOld = Long.MAX_VALUE;
+        long bestKernel = Long.MAX_VALUE;
+        for (int run = 0; run < WARMUP_RUNS + TIMED_RUNS; run++) {
+            long start = System.nanoTime();
+            for (int e = 0; e < evaluations; e++) {
+                concentrations[e % species] = 0.5 + 1e-9 * e;
+                for (int i = 0; i < species; i++) {
+                    double prod = 1;
+                    for (int j = 0; j < reactants.length; j++) {
+                        prod *= Math.pow(concentrations[j], reactants[j].getCoefficient());
+                    }
+                    dcdt[i] = (i + 1) <= reactants.length ? -0.2 * prod : 0.2 * prod;
+                }
+                checksum += dcdt[species - 1];
+            }
+            if (run >= WARMUP_RUNS) bestOld = Math.min(bestOld, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int e = 0; e < evaluations; e++) {
+                concentrations[e % species] = 0.5 + 1e-9 * e;
+                Arrays.fill(dcdt, 0);
+                reaction.addSpeciesRates(concentrations, dcdt);
+                checksum += dcdt[species - 1];
+            }
+            if (run >= WARMUP_RUNS) bestKernel = Math.min(bestKernel, System.nanoTime() - start);
+        }
+        System.out.printf("%s, Math.pow per species, %.1f%n", equation, (double) bestOld / evaluations);
+        System.out.printf("%s, compiled kernel, %.1f (checksum %.3e)%n", equation, (double) bestKernel / evaluations, checksum);
+    }
+
+    /** Helper method timing an uncontrolled CSTR with every solver type
+     *
+     * @param name scenario name to print
+     * @param equation reaction equation
+     * @param k reaction rate constant
+     * @param endTime end time of the simulation
+     * @param tolerance solver tolerance
+     * @param feedChanges pairs of time and feed concentration of A
+     * @param solvers solver types to time
+     * @author Ogechi
+     */
+    public static void benchmarkUncontrolled(String name, String equation, double k, double endTime, double tolerance, double[][] feedChanges, OdeSolver.SOLVER_TYPE[] solvers) {
+        for (OdeSolver.SOLVER_TYPE type : solvers) {
+            try {
+                CSTRReactor CSTR = new CSTRReactor(1, 0.05, new Reaction(equation, k), new double[]{0, 0}, new double[]{0, 0});
+                CSTR.setSolverType(type);
+                CSTR.setMaxStepSize(10 * 0.05);
+                Queue<double[]> disturbances = new Queue<>();
+                for (double[] feedChange : feedChanges) {
+                    disturbances.enqueue(feedChange.clone());
+                }
+                PIDController PID = new PIDController(-0.05, endTime, 0.05, 0, 0, 0, PIDController.CONTROLLER_TYPE.UNCONTROLLED, 0, CSTR, tolerance, disturbances, 0);
+                time(name, type, PID);
+            } catch (CloneNotSupportedException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    /** Helper method timing a controller with every given solver type
+     *
+     * @param name scenario name to print
+     * @param controller controller to simulate, never modified
+     * @param solvers solver types to time
+     * @author Ogechi
+     */
+    public static void benchmarkScenario(String name, PIDController controller, OdeSolver.SOLVER_TYPE[] solvers) {
+        for (OdeSolver.SOLVER_TYPE type : solvers) {
+            time(name, type, withSolver(controller, type));
+        }
+    }
+
+    /** Helper method simulating copies of the controller and printing the fastest wall time
+     *
+     * @param name scenario name to print
+     * @param type solver type of the controller's reactor
+     * @param controller controller to simulate, never modified
+     * @author Ogechi
+     */
+    public static void time(String name, OdeSolver.SOLVER_TYPE type, PIDController controller) {
+        double[][] results = null;
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            results = controller.clone().simulate();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            PIDController copy = controller.clone();
+            long start = System.nanoTime();
+            results = copy.simulate();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        int last = results.length - 1;
+        System.out.printf("%s, %s, %.1f, %.6e, %.6e%n", name, type, best / 1e6, results[last][1], results[last][2]);
+    }
+}
@@ -0,0 +1,152 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/** Simulation sink writing every row to a binary file as it is produced
+ * The file holds a magic number, the column count and the row count, then the rows one after the other as big-endian doubles.
+ * Values are stored exactly and take 8 bytes each, compared to about 20 characters each in CSV.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class BinarySink implements SimulationSink {
+
+    public static final int MAGIC = 0x43535452; //"CSTR" in ASCII, marks a file written by this sink
+    private static final int BUFFER_SIZE = 1 << 16; //bytes buffered between writes to the file
+
+    private final String filePath; //path of the output file including the .bin extension
+    private DataOutputStream output; //open between start and finish
+
+    /** Constructor for a binary sink, the file is not touched until the simulation starts
+     *
+     * @param filePath path of the output file, .bin is appended if it has no such extension
+     * @throws IllegalArgumentException if file path is null
+     * @author Ogechi
+     */
+    public BinarySink(String filePath) {
+        if (filePath == null) throw new IllegalArgumentException("File path cannot be null");
+        this.filePath = withExtension(filePath);
+    }
+
+    /** Returns the path a sink writes to for the given path, so the output file can be named before the sink exists
+     *
+     * @param filePath path of the output file
+     * @return the path with .bin appended if it has no such extension
+     * @author Ogechi
+     */
+    public static String withExtension(String filePath) {
+        return filePath.toLowerCase().endsWith(".bin") ? filePath : filePath + ".bin";
+    }
+
+    /** Accessor method for the path of the output file
+     *
+     * @return path including the .bin extension
+     * @author Ogechi
+     */
+    public String getFilePath() {
+        return this.filePath;
+    }
+
+    /** Creates or overwrites the file and writes the header
+     *
+     * @param columnCount number of values in every row
+     * @param rowCount number of rows that will follow
+     * @throws RuntimeException if the file cannot be written
+     * @author Ogechi
+     */
+    @Override
+    public void start(int columnCount, int rowCount) {
+        this.output = null;
+        try {
+            this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.filePath), BUFFER_SIZE));
+            this.output.writeInt(MAGIC);
+            this.output.writeInt(columnCount);
+            this.output.writeInt(rowCount);
+        } catch (IOException e) {
+            RuntimeException failure = new RuntimeException(e);
+            //only a started sink is aborted by the simulation, so a file opened before the failure is closed and removed here
+            if (this.output != null) {
+                try {
+                    abort();
+                } catch (RuntimeException abortFailure) {
+                    failure.addSuppressed(abortFailure);
+                }
+            }
+            throw failure;
+        }
+    }
+
+    /** Writes a row to the file
+     *
+     * @param row values of the row
+     * @throws RuntimeException if the file cannot be written
+     * @author Ogechi
+     */
+    @Override
+    public void accept(double[] row) {
+        try {
+            for (double value : row) {
+                this.output.writeDouble(value);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Flushes and closes the file
+     *
+     * @throws RuntimeException if the file cannot be written
+     * @author Ogechi
+     */
+    @Override
+    public void finish() {
+        try {
+            this.output.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Closes the file and deletes it, so the output of a failed simulation is never mistaken for a complete one
+     *
+     * @throws RuntimeException if the file cannot be closed, it is deleted anyway
+     * @author Ogechi
+     */
+    @Override
+    public void abort() {
+        try {
+            this.output.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            new File(this.filePath).delete();
+        }
+    }
+
+    /** Reads a file written by a binary sink back into an array of rows
+     *
+     * @param filePath path of the file
+     * @return array of rows with the layout of PIDController.simulate()
+     * @throws IOException if the file cannot be read or ends early
+     * @throws IllegalArgumentException if the file was not written by a binary sink
+     * @author Ogechi
+     */
+    public static double[][] read(String filePath) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(filePath), BUFFER_SIZE))) {
+            if (input.readInt() != MAGIC) throw new IllegalArgumentException("Error, " + filePath + " is not a binary simulation file");
+            int columnCount = input.readInt();
+            int rowCount = input.readInt();
+            double[][] rows = new double[rowCount][columnCount];
+            for (double[] row : rows) {
+                for (int j = 0; j < columnCount; j++) {
+                    row[j] = input.readDouble();
+                }
+            }
+            return rows;
+        }
+    }
+}
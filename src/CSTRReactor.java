@@ -1,3 +1,5 @@
+import java.util.Arrays;
+
 /** Concrete class for the CSTR reactor
  * @author Alex
  * @author Dylan
@@ -5,6 +7,8 @@
  */
 public class CSTRReactor extends Reactor {
 
+    private double[] solution; //integration workspace reused every time step, never copied so each copy allocates its own
+
     /** Constructor for Uncontrolled CSTR reactor
      *
      * @param V reactor volume
@@ -73,23 +77,64 @@ public class CSTRReactor extends Reactor {
         return super.equals(comparator);
     }
 
-    //
+    /**Obtains the output of the CSTR after a time step by integrating all species balances together.
+     * WARNING: This method is responsible for updating the current concentrations of the reactor.
+     * @param t time
+     * @param timeStep end time of the step
+     * @param tolerance tolerance for error between RK4 and RK5 method
+     * @return Array of current concentrations
+     * @author Ogechi
+     * @author Dylan
+     */
     public double[] getSystemOutput(double t, double timeStep, double tolerance) {
-        int n = super.getCurrentConcentrations().length;
-        super.setCurrentSpeciesNumber(0);
-        DifferentialEquation[] equations =  new DifferentialEquation[n];
-        for (int i =0; i<n; i++){
-            equations[i] = this;
-        }
-        double[] solution = RK45.solve(t, super.getCurrentConcentrations(), timeStep, equations, tolerance);
+        double[] solution = getSolution();
+        SolverStatistics statistics = super.getSolverStatistics();
+        if (statistics != null) statistics.startInterval();
+        super.getSolver().integrate(t, solution, timeStep, super.getOdeSystem(), tolerance);
+        if (statistics != null) statistics.endInterval();
 
         //Controlled object is responsible for taking care of its own state when a timeStep occurs
         //in other words, maintain the fact that classes should take care of their own business when possible
         super.setCurrentConcentrations(solution);
 
-        return solution;
+        return solution.clone();
+
+    }
+    /**Obtains the output of the CSTR over an interval with constant inputs, sending the concentrations at every output time to the listener.
+     * WARNING: This method is responsible for updating the current concentrations of the reactor.
+     * @param t time
+     * @param endTime end time of the interval
+     * @param tolerance tolerance for error between RK4 and RK5 method
+     * @param outputStep spacing of the output times
+     * @param listener listener receiving the concentrations at each output time
+     * @return Array of current concentrations
+     * @author Ogechi
+     */
+    public double[] getSystemOutput(double t, double endTime, double tolerance, double outputStep, DenseOutputListener listener) {
+        double[] solution = getSolution();
+        SolverStatistics statistics = super.getSolverStatistics();
+        if (statistics != null) statistics.startInterval();
+        super.getSolver().integrate(t, solution, endTime, super.getOdeSystem(), tolerance, outputStep, listener);
+        if (statistics != null) statistics.endInterval();
+        super.setCurrentConcentrations(solution);
 
+        return solution.clone();
     }
+
+    /** Helper method to load the current concentrations into the integration workspace
+     *
+     * @return workspace holding a copy of the current concentrations
+     * @author Ogechi
+     */
+    private double[] getSolution() {
+        double[] currentConcentrations = super.getCurrentConcentrationsView();
+        if (this.solution == null || this.solution.length != currentConcentrations.length) {
+            this.solution = new double[currentConcentrations.length];
+        }
+        System.arraycopy(currentConcentrations, 0, this.solution, 0, currentConcentrations.length);
+        return this.solution;
+    }
+
     /**Applies the disturbance to the controlled parameter of the Controllable object
      *
      * @param dist value of applied disturbance
@@ -107,8 +152,7 @@ public class CSTRReactor extends Reactor {
      */
     @Override
     public double getControlledVar() {
-        double[] currentConcentrations = super.getCurrentConcentrations();
-        return currentConcentrations[super.getControlled()];
+        return super.getCurrentConcentrationsView()[super.getControlled()];
     }
     /**Returns the Initial Values at the current state of the Controllable Object.
      *
@@ -138,44 +182,59 @@ public class CSTRReactor extends Reactor {
         super.setInitialFlow(var);
     }
 
-    /** Applied function to calculate in RK45
+    /** Mol balance of every species in the CSTR, evaluated at the concentrations of the current RK45 stage
      *
      * @param x time
-     * @param y array of ys for time t
-     * @return Rate of change of the dependent variable with respect to the independent variable, here is change in concentration
+     * @param y array of concentrations at time x
+     * @param dydt array filled with the rate of change of each concentration
      * @author Ogechi
      */
     @Override
-    public double apply(double x, double y) {
-        double reactionRate = 0;
-        Reaction reaction = super.getReaction();
-        double[] currentConcentrations = super.getCurrentConcentrations();
+    public void rhs(double x, double[] y, double[] dydt) {
+        super.countRhsEvaluation();
+        //read-only views, nothing is copied on the hot path
+        RateKernel rateKernel = super.getRateKernel();
         double volume = super.getVolume();
         double  initialFlow = super.getInitialFlow();
-        int currSpeciesNumber = super.getCurrentSpeciesNumber();
-        double[] initialConcentrations = super.getInitialConcentrations();
+        double[] initialConcentrations = super.getInitialConcentrationsView();
 
+        //flow terms of the mass balance
+        for (int i = 0; i < y.length; i++) {
+            dydt[i] = initialFlow*(initialConcentrations[i]-y[i])/volume;
+        }
         try {
-            reactionRate = reaction.calculateReactionRate(currentConcentrations, currSpeciesNumber);
-
+            //the rate kernel evaluates the rates once and adds the stoichiometric coefficients times the rates for every species
+            rateKernel.addSpeciesRates(y, dydt);
         }
         catch (IllegalArgumentException e) {
             System.out.println("Failed to simulate step: " + e.getMessage());
         }
-        //reactant mass balance, the
-        double changeRate =  initialFlow*(initialConcentrations[currSpeciesNumber]-currentConcentrations[currSpeciesNumber])/volume + reactionRate ;
-        if(++currSpeciesNumber < currentConcentrations.length){ //increment before logical expression
-            super.setCurrentSpeciesNumber(currSpeciesNumber);
-        }else{super.setCurrentSpeciesNumber(0);}
+        //changed rate can be negative, need to check for negative concentration else where since they don't get changed here.
+    }
 
-        return changeRate; //changed rate can be negative, need to check for negative concentration else where since they don't get changed here.
+    /** Jacobian of the mol balances, used by implicit solvers instead of finite differences
+     * Each balance depends on its own concentration through the outflow and on the reactant concentrations through the rate.
+     *
+     * @param x time
+     * @param y array of concentrations at time x
+     * @param dfdy matrix filled with the derivative of each balance with respect to each concentration
+     * @author Ogechi
+     */
+    @Override
+    public void jacobian(double x, double[] y, double[][] dfdy) {
+        double dilutionRate = super.getInitialFlow()/super.getVolume();
+        for (int i = 0; i < y.length; i++) {
+            Arrays.fill(dfdy[i], 0);
+            dfdy[i][i] = -dilutionRate;
+        }
+        super.getRateKernel().addJacobian(y, dfdy);
     }
     /**Returns the value of the variable eligible to be disturbed in the Controllable object
      * @return value of disturbed variable
      * @author Ogechi
      */
     public double getDisturbedVar(){
-        return super.getInitialConcentrations()[super.getControlled()];
+        return super.getInitialConcentrationsView()[super.getControlled()];
     }
     /**
      * Returns the current value of the variable set to be manipulated by the PIDController.
@@ -0,0 +1,108 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/** Simulation sink passing every row on to another sink until it is cancelled, used to stop a running simulation from another thread
+ * PIDController.simulate has no cancellation of its own, so the next row received after cancel() throws a CancellationException
+ * out of simulate. The flag can be shared by many sinks to stop a whole batch of simulations at once.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class CancellableSink implements SimulationSink {
+
+    private final SimulationSink target; //sink receiving the rows, or null to only allow cancelling
+    private final AtomicBoolean cancelled; //set once to stop the simulation, possibly shared with other sinks
+    private int rowsReceived; //rows received since start
+
+    /** Constructor for a cancellable sink with its own flag
+     *
+     * @param target sink receiving the rows, or null if the rows are not needed
+     * @author Ogechi
+     */
+    public CancellableSink(SimulationSink target) {
+        this(target, new AtomicBoolean());
+    }
+
+    /** Constructor for a cancellable sink with a shared flag
+     *
+     * @param target sink receiving the rows, or null if the rows are not needed
+     * @param cancelled flag stopping the simulation once it is set
+     * @throws IllegalArgumentException if the flag is null
+     * @author Ogechi
+     */
+    public CancellableSink(SimulationSink target, AtomicBoolean cancelled) {
+        if (cancelled == null) throw new IllegalArgumentException("Cancellation flag cannot be null");
+        this.target = target;
+        this.cancelled = cancelled;
+    }
+
+    /** Stops the simulation at its next row, safe to call from any thread
+     *
+     * @author Ogechi
+     */
+    public void cancel() {
+        this.cancelled.set(true);
+    }
+
+    /** Accessor method for the cancellation flag
+     *
+     * @return true if cancel() was called on this sink or on another sink sharing the flag
+     * @author Ogechi
+     */
+    public boolean isCancelled() {
+        return this.cancelled.get();
+    }
+
+    /** Accessor method for the number of rows passed on
+     *
+     * @return rows received since the simulation started
+     * @author Ogechi
+     */
+    public int getRowsReceived() {
+        return this.rowsReceived;
+    }
+
+    /** Passes the shape of the results on to the target
+     *
+     * @param columnCount number of values in every row
+     * @param rowCount number of rows that will follow
+     * @throws CancellationException if the sink was cancelled before the simulation started
+     * @author Ogechi
+     */
+    @Override
+    public void start(int columnCount, int rowCount) {
+        if (this.cancelled.get()) throw new CancellationException("Simulation cancelled before it started");
+        this.rowsReceived = 0;
+        if (this.target != null) this.target.start(columnCount, rowCount);
+    }
+
+    /** Passes a row on to the target
+     *
+     * @param row values of the row
+     * @throws CancellationException if the sink was cancelled, the target does not receive the row or the end of the simulation
+     * @author Ogechi
+     */
+    @Override
+    public void accept(double[] row) {
+        if (this.cancelled.get()) throw new CancellationException("Simulation cancelled after " + this.rowsReceived + " rows");
+        this.rowsReceived++;
+        if (this.target != null) this.target.accept(row);
+    }
+
+    /** Passes the end of the simulation on to the target
+     *
+     * @author Ogechi
+     */
+    @Override
+    public void finish() {
+        if (this.target != null) this.target.finish();
+    }
+
+    /** Passes the failure of the simulation on to the target
+     *
+     * @author Ogechi
+     */
+    @Override
+    public void abort() {
+        if (this.target != null) this.target.abort();
+    }
+}
@@ -0,0 +1,273 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/** Reader for the binary columnar result files written by ColumnarSink
+ * Every column is memory-mapped, so opening a file only reads the header, and single values, rows or whole columns
+ * are read from the mapping without parsing. Also converts between the columnar format and the CSV layout Driver writes.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class ColumnarResultFile implements AutoCloseable {
+
+    private final String filePath; //path of the file
+    private final String[] columnNames; //names from the header
+    private final long rowCount; //number of rows in every column
+    private final DoubleBuffer[] columns; //mapping of every column
+    private FileChannel channel; //open until the reader is closed
+
+    /** Constructor opening a columnar file and mapping its columns
+     *
+     * @param filePath path of the file
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file was not written by a ColumnarSink, has another data type or is shorter than its header says
+     * @author Ogechi
+     */
+    public ColumnarResultFile(String filePath) throws IOException {
+        this.filePath = filePath;
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(ColumnarSink.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(header, 0);
+            byte[] magic = new byte[ColumnarSink.MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, ColumnarSink.MAGIC)) throw new IllegalArgumentException("Error, " + filePath + " is not a columnar result file");
+            int columnCount = header.getInt();
+            header.getInt();
+            this.rowCount = header.getLong();
+            long dataOffset = header.getLong();
+            byte[] dataType = new byte[8];
+            header.get(dataType);
+            if (!new String(dataType, StandardCharsets.US_ASCII).trim().equals(ColumnarSink.DATA_TYPE)) throw new IllegalArgumentException("Error, unsupported data type " + new String(dataType, StandardCharsets.US_ASCII).trim());
+            if (columnCount < 0 || this.rowCount < 0 || this.rowCount > Integer.MAX_VALUE / 8) throw new IllegalArgumentException("Error, invalid column count or row count in " + filePath);
+            if (this.channel.size() < dataOffset + 8 * this.rowCount * columnCount) throw new IllegalArgumentException("Error, " + filePath + " is shorter than its header says");
+
+            ByteBuffer names = ByteBuffer.allocate((int) (dataOffset - ColumnarSink.HEADER_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(names, ColumnarSink.HEADER_SIZE);
+            this.columnNames = new String[columnCount];
+            this.columns = new DoubleBuffer[columnCount];
+            for (int j = 0; j < columnCount; j++) {
+                byte[] name = new byte[names.getInt()];
+                names.get(name);
+                this.columnNames[j] = new String(name, StandardCharsets.UTF_8);
+                //one mapping per column keeps every mapping below the 2 GB limit of a MappedByteBuffer
+                MappedByteBuffer mapping = this.channel.map(FileChannel.MapMode.READ_ONLY, dataOffset + 8 * j * this.rowCount, 8 * this.rowCount);
+                this.columns[j] = mapping.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            }
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /** Helper method filling a buffer from the file
+     *
+     * @param buffer buffer to fill
+     * @param position offset in the file
+     * @throws IOException if the file cannot be read or ends early
+     * @author Ogechi
+     */
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = this.channel.read(buffer, position);
+            if (read < 0) throw new IOException("Unexpected end of " + this.filePath);
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    /** Accessor method for the number of rows
+     *
+     * @return number of rows
+     * @author Ogechi
+     */
+    public int getRowCount() {
+        return (int) this.rowCount;
+    }
+
+    /** Accessor method for the number of columns
+     *
+     * @return number of columns
+     * @author Ogechi
+     */
+    public int getColumnCount() {
+        return this.columns.length;
+    }
+
+    /** Accessor method for the column names
+     *
+     * @return copy of the names in column order
+     * @author Ogechi
+     */
+    public String[] getColumnNames() {
+        return this.columnNames.clone();
+    }
+
+    /** Returns the index of a column by its name, ignoring the spaces around names that headers in input files often have
+     *
+     * @param name name of the column
+     * @return index of the first column with that name, or -1 if there is none
+     * @author Ogechi
+     */
+    public int getColumnIndex(String name) {
+        for (int j = 0; j < this.columnNames.length; j++) {
+            if (this.columnNames[j].trim().equals(name.trim())) return j;
+        }
+        return -1;
+    }
+
+    /** Reads a single value
+     *
+     * @param row row index
+     * @param column column index
+     * @return value at the row and column
+     * @throws IndexOutOfBoundsException if the row or column is out of range
+     * @author Ogechi
+     */
+    public double get(int row, int column) {
+        return this.columns[column].get(row);
+    }
+
+    /** Reads a whole column
+     *
+     * @param column column index
+     * @return values of the column in row order
+     * @throws IndexOutOfBoundsException if the column is out of range
+     * @author Ogechi
+     */
+    public double[] getColumn(int column) {
+        double[] values = new double[(int) this.rowCount];
+        this.columns[column].get(0, values);
+        return values;
+    }
+
+    /** Reads a row into an array
+     *
+     * @param row row index
+     * @param values array of at least the column count the row is written to
+     * @throws IndexOutOfBoundsException if the row is out of range or the array is too short
+     * @author Ogechi
+     */
+    public void getRow(int row, double[] values) {
+        for (int j = 0; j < this.columns.length; j++) {
+            values[j] = this.columns[j].get(row);
+        }
+    }
+
+    /** Reads every row, in the layout returned by PIDController.simulate()
+     *
+     * @return array of rows
+     * @author Ogechi
+     */
+    public double[][] readAll() {
+        double[][] rows = new double[(int) this.rowCount][this.columns.length];
+        for (int j = 0; j < this.columns.length; j++) {
+            DoubleBuffer column = this.columns[j];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i][j] = column.get(i);
+            }
+        }
+        return rows;
+    }
+
+    /** Closes the file, the mappings stay readable until they are garbage collected
+     *
+     * @throws IOException if the file cannot be closed
+     * @author Ogechi
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /** Converts a CSV file in the layout Driver writes into a columnar file
+     * The CSV file is read twice, once to count the rows and once to stream them to a ColumnarSink, so it is never held in memory.
+     *
+     * @param csvPath path of the CSV file, with a header line naming the columns
+     * @param columnarPath path of the columnar file to create or overwrite, .col is appended if it has no such extension
+     * @return number of rows converted
+     * @throws IOException if a file cannot be read or written
+     * @throws IllegalArgumentException if a row does not have a value for every column or a value is not a number,
+     *                                  the partial columnar file is deleted
+     * @author Ogechi
+     */
+    public static int fromCsv(String csvPath, String columnarPath) throws IOException {
+        String[] names;
+        int rowCount = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(csvPath, StandardCharsets.UTF_8), 1 << 16)) {
+            String header = reader.readLine();
+            if (header == null) throw new IllegalArgumentException("Error, " + csvPath + " has no header");
+            names = header.split(",");
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) rowCount++;
+            }
+        }
+
+        ColumnarSink sink = new ColumnarSink(columnarPath, names);
+        sink.start(names.length, rowCount);
+        double[] row = new double[names.length];
+        try (BufferedReader reader = new BufferedReader(new FileReader(csvPath, StandardCharsets.UTF_8), 1 << 16)) {
+            reader.readLine();
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) continue;
+                int start = 0;
+                for (int j = 0; j < row.length; j++) {
+                    int end = line.indexOf(',', start);
+                    if (end < 0) end = line.length();
+                    if (start >= end) throw new IllegalArgumentException("Error, line " + lineNumber + " of " + csvPath + " has fewer than " + row.length + " values");
+                    try {
+                        row[j] = Double.parseDouble(line.substring(start, end));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Error, value " + (j + 1) + " on line " + lineNumber + " of " + csvPath + " is not a number");
+                    }
+                    start = end + 1;
+                }
+                sink.accept(row);
+            }
+        } catch (IOException | RuntimeException e) {
+            //aborting deletes the file instead of padding the rows that were never read, which would look like a complete conversion
+            try {
+                sink.abort();
+            } catch (RuntimeException abortFailure) {
+                e.addSuppressed(abortFailure);
+            }
+            throw e;
+        }
+        sink.finish();
+        return rowCount;
+    }
+
+    /** Converts a columnar file into a CSV file in the layout Driver writes, with every value written exactly
+     *
+     * @param columnarPath path of the columnar file
+     * @param csvPath path of the CSV file to create or overwrite
+     * @return number of rows converted
+     * @throws IOException if a file cannot be read or written
+     * @author Ogechi
+     */
+    public static int toCsv(String columnarPath, String csvPath) throws IOException {
+        try (ColumnarResultFile file = new ColumnarResultFile(columnarPath);
+             CsvResultWriter writer = new CsvResultWriter(csvPath)) {
+            writer.writeHeader(file.getColumnNames());
+            double[] row = new double[file.getColumnCount()];
+            for (int i = 0; i < file.getRowCount(); i++) {
+                file.getRow(i, row);
+                writer.writeRow(row);
+            }
+            return file.getRowCount();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/** Simulation sink writing the results to a binary columnar file read back by ColumnarResultFile
+ * The file starts with a header holding the column names, the row count and the data type, followed by every column
+ * as a contiguous block of little-endian float64 values. Rows are collected in a small buffer per column, and each
+ * full buffer is written at its place in its column through a FileChannel, so memory does not grow with the number of rows.
+ * <p>
+ * Header layout, all little-endian: the 8 byte magic "CSTRCOL1", int32 column count, int32 reserved 0, int64 row count,
+ * int64 offset of the first column from the start of the file, 8 bytes of data type "&lt;f8" padded with spaces,
+ * then for each column an int32 byte length and the UTF-8 bytes of its name. Column j starts at offset + 8 * j * row count.
+ * </p>
+ * @author Ogechi
+ * @author Dylan
+ */
+public class ColumnarSink implements SimulationSink {
+
+    public static final byte[] MAGIC = "CSTRCOL1".getBytes(StandardCharsets.US_ASCII); //marks a file written by this sink
+    public static final String DATA_TYPE = "<f8"; //little-endian float64, in the notation of numpy
+    public static final int HEADER_SIZE = 40; //bytes before the column names
+    public static final int ALIGNMENT = 64; //the first column starts at a multiple of this many bytes
+    private static final int CHUNK_ROWS = 8192; //rows buffered per column between writes
+
+    private final String filePath; //path of the output file including the .col extension
+    private final String[] columnNames; //names written to the header, or null to name the columns by index
+    private FileChannel channel; //open between start and finish
+    private ByteBuffer[] columnBuffers; //buffered values of every column
+    private long rowCount; //number of rows given at start
+    private long dataOffset; //offset of the first column
+    private long rowsReceived; //rows received since start
+    private long rowsWritten; //rows written to the file since start
+
+    /** Constructor for a columnar sink, the file is not touched until the simulation starts
+     *
+     * @param filePath path of the output file, .col is appended if it has no such extension
+     * @param columnNames names of the columns, or null to name the columns by their index
+     * @throws IllegalArgumentException if file path is null
+     * @author Ogechi
+     */
+    public ColumnarSink(String filePath, String[] columnNames) {
+        if (filePath == null) throw new IllegalArgumentException("File path cannot be null");
+        this.filePath = withExtension(filePath);
+        this.columnNames = columnNames == null ? null : columnNames.clone();
+    }
+
+    /** Returns the path a sink writes to for the given path, so the output file can be named before the sink exists
+     *
+     * @param filePath path of the output file
+     * @return the path with .col appended if it has no such extension
+     * @author Ogechi
+     */
+    public static String withExtension(String filePath) {
+        return filePath.toLowerCase().endsWith(".col") ? filePath : filePath + ".col";
+    }
+
+    /** Accessor method for the path of the output file
+     *
+     * @return path including the .col extension
+     * @author Ogechi
+     */
+    public String getFilePath() {
+        return this.filePath;
+    }
+
+    /** Creates or overwrites the file and writes the header
+     *
+     * @param columnCount number of values in every row
+     * @param rowCount number of rows that will follow
+     * @throws IllegalArgumentException if the column names do not match the column count
+     * @throws RuntimeException if the file cannot be written
+     * @author Ogechi
+     */
+    @Override
+    public void start(int columnCount, int rowCount) {
+        if (this.columnNames != null && this.columnNames.length != columnCount) throw new IllegalArgumentException("Error, " + this.columnNames.length + " column names given for " + columnCount + " columns");
+        byte[][] names = new byte[columnCount][];
+        int namesSize = 0;
+        for (int j = 0; j < columnCount; j++) {
+            names[j] = (this.columnNames == null ? Integer.toString(j) : this.columnNames[j]).getBytes(StandardCharsets.UTF_8);
+            namesSize += 4 + names[j].length;
+        }
+        this.dataOffset = (HEADER_SIZE + namesSize + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+        this.rowCount = rowCount;
+        this.rowsReceived = 0;
+        this.rowsWritten = 0;
+
+        ByteBuffer header = ByteBuffer.allocate((int) this.dataOffset).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC);
+        header.putInt(columnCount);
+        header.putInt(0);
+        header.putLong(rowCount);
+        header.putLong(this.dataOffset);
+        header.put(String.format("%-8s", DATA_TYPE).getBytes(StandardCharsets.US_ASCII));
+        for (byte[] name : names) {
+            header.putInt(name.length);
+            header.put(name);
+        }
+        header.position(0);
+
+        this.columnBuffers = new ByteBuffer[columnCount];
+        for (int j = 0; j < columnCount; j++) {
+            this.columnBuffers[j] = ByteBuffer.allocateDirect(8 * Math.min(CHUNK_ROWS, Math.max(1, rowCount))).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        this.channel = null;
+        try {
+            this.channel = FileChannel.open(Paths.get(this.filePath), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            while (header.hasRemaining()) this.channel.write(header);
+        } catch (IOException e) {
+            RuntimeException failure = new RuntimeException(e);
+            //only a started sink is aborted by the simulation, so a file opened before the failure is closed and removed here
+            if (this.channel != null) {
+                try {
+                    abort();
+                } catch (RuntimeException abortFailure) {
+                    failure.addSuppressed(abortFailure);
+                }
+            }
+            throw failure;
+        }
+    }
+
+    /** Adds a row to the column buffers, writing them out when they are full
+     *
+     * @param row values of the row
+     * @throws IllegalArgumentException if more rows are received than given at start or the row length does not match
+     * @throws RuntimeException if the file cannot be written
+     * @author Ogechi
+     */
+    @Override
+    public void accept(double[] row) {
+        if (this.rowsReceived == this.rowCount) throw new IllegalArgumentException("Error, more rows received than given at start");
+        if (row.length != this.columnBuffers.length) throw new IllegalArgumentException("Error, row length does not match the column count");
+        for (int j = 0; j < row.length; j++) {
+            this.columnBuffers[j].putDouble(row[j]);
+        }
+        this.rowsReceived++;
+        if (!this.columnBuffers[0].hasRemaining()) writeColumnBuffers();
+    }
+
+    /** Writes the remaining rows and closes the file
+     *
+     * @throws RuntimeException if the file cannot be written
+     * @author Ogechi
+     */
+    @Override
+    public void finish() {
+        writeColumnBuffers();
+        try {
+            //rows that were never received are left as zeros so every column keeps its place
+            if (this.channel.size() < this.dataOffset + 8 * this.rowCount * this.columnBuffers.length) {
+                this.channel.write(ByteBuffer.allocate(1), this.dataOffset + 8 * this.rowCount * this.columnBuffers.length - 1);
+            }
+            this.channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Closes the file and deletes it, so the output of a failed simulation is never mistaken for a complete one
+     *
+     * @throws RuntimeException if the file cannot be closed, it is deleted anyway
+     * @author Ogechi
+     */
+    @Override
+    public void abort() {
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            new File(this.filePath).delete();
+        }
+    }
+
+    /** Helper method writing the buffered values of every column at their place in the file
+     *
+     * @throws RuntimeException if the file cannot be written
+     * @author Ogechi
+     */
+    private void writeColumnBuffers() {
+        try {
+            for (int j = 0; j < this.columnBuffers.length; j++) {
+                ByteBuffer buffer = this.columnBuffers[j];
+                buffer.flip();
+                long position = this.dataOffset + 8 * (j * this.rowCount + this.rowsWritten);
+                while (buffer.hasRemaining()) {
+                    position += this.channel.write(buffer, position);
+                }
+                buffer.clear();
+            }
+            this.rowsWritten = this.rowsReceived;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
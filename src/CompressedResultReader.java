@@ -0,0 +1,237 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/** Streaming decoder for the compressed result files written by CompressedSink
+ * Rows are decoded one at a time in order, keeping only the state of every column, so a file of any length is read in constant memory.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class CompressedResultReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 16; //bytes read from the file at a time
+
+    private final InputStream input; //stream positioned after the header
+    private final String[] columnNames; //names from the header
+    private final int rowCount; //number of rows in the file
+    private final double errorBound; //error bound of the file, 0 for lossless
+    private final byte[] buffer = new byte[BUFFER_SIZE]; //bytes read from the file and not decoded yet
+    private int position; //index of the next byte in the buffer
+    private int limit; //number of bytes in the buffer
+    private long bitBuffer; //bits read but not decoded yet, in the low bitCount bits
+    private int bitCount; //number of bits in bitBuffer
+
+    //state of every column, the same as the state the sink kept while encoding
+    private final double[] previousValues; //value of the previous row
+    private final double[] secondPreviousValues; //value of the row before the previous one
+    private final int[] leadingZeros; //leading zeros of the current XOR window
+    private final int[] trailingZeros; //trailing zeros of the current XOR window
+    private final long[] previousMultiples; //previous multiple of twice the error bound, bounded error mode
+    private final long[] previousDeltas; //previous difference of the multiples, bounded error mode
+    private int rowsRead; //rows decoded so far
+
+    /** Constructor opening a compressed file and reading its header
+     *
+     * @param filePath path of the file
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file was not written by a CompressedSink
+     * @author Ogechi
+     */
+    public CompressedResultReader(String filePath) throws IOException {
+        this.input = new BufferedInputStream(new FileInputStream(filePath), BUFFER_SIZE);
+        try {
+            DataInputStream header = new DataInputStream(this.input);
+            byte[] magic = new byte[CompressedSink.MAGIC.length];
+            header.readFully(magic);
+            if (!Arrays.equals(magic, CompressedSink.MAGIC)) throw new IllegalArgumentException("Error, " + filePath + " is not a compressed result file");
+            int columnCount = header.readInt();
+            this.rowCount = header.readInt();
+            this.errorBound = header.readDouble();
+            if (columnCount < 0 || this.rowCount < 0 || !(this.errorBound >= 0)) throw new IllegalArgumentException("Error, invalid header in " + filePath);
+            this.columnNames = new String[columnCount];
+            for (int j = 0; j < columnCount; j++) {
+                byte[] name = new byte[header.readInt()];
+                header.readFully(name);
+                this.columnNames[j] = new String(name, StandardCharsets.UTF_8);
+            }
+        } catch (IOException | RuntimeException e) {
+            this.input.close();
+            throw e;
+        }
+        int columnCount = this.columnNames.length;
+        this.previousValues = new double[columnCount];
+        this.secondPreviousValues = new double[columnCount];
+        this.leadingZeros = new int[columnCount];
+        this.trailingZeros = new int[columnCount];
+        this.previousMultiples = new long[columnCount];
+        this.previousDeltas = new long[columnCount];
+    }
+
+    /** Accessor method for the number of rows
+     *
+     * @return number of rows in the file
+     * @author Ogechi
+     */
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /** Accessor method for the number of columns
+     *
+     * @return number of columns
+     * @author Ogechi
+     */
+    public int getColumnCount() {
+        return this.columnNames.length;
+    }
+
+    /** Accessor method for the column names
+     *
+     * @return copy of the names in column order
+     * @author Ogechi
+     */
+    public String[] getColumnNames() {
+        return this.columnNames.clone();
+    }
+
+    /** Accessor method for the error bound
+     *
+     * @return largest difference between a value except the time and its decoded value, 0 for a lossless file
+     * @author Ogechi
+     */
+    public double getErrorBound() {
+        return this.errorBound;
+    }
+
+    /** Decodes the next row
+     *
+     * @param row array of at least the column count the row is written to
+     * @return true if a row was decoded, false if every row has been read
+     * @throws IOException if the file cannot be read or ends early
+     * @author Ogechi
+     */
+    public boolean nextRow(double[] row) throws IOException {
+        if (this.rowsRead == this.rowCount) return false;
+        for (int j = 0; j < this.columnNames.length; j++) {
+            double value;
+            if (j > 0 && this.errorBound > 0) {
+                value = decodeBounded(j);
+            } else if (this.rowsRead == 0) {
+                value = Double.longBitsToDouble(readBits(64));
+            } else {
+                double prediction = CompressedSink.predict(this.rowsRead, this.previousValues[j], this.secondPreviousValues[j]);
+                value = Double.longBitsToDouble(Double.doubleToRawLongBits(prediction) ^ decodeXor(j));
+            }
+            row[j] = value;
+            this.secondPreviousValues[j] = this.previousValues[j];
+            this.previousValues[j] = value;
+        }
+        this.rowsRead++;
+        return true;
+    }
+
+    /** Decodes every remaining row, in the layout returned by PIDController.simulate()
+     *
+     * @return array of rows
+     * @throws IOException if the file cannot be read or ends early
+     * @author Ogechi
+     */
+    public double[][] readAll() throws IOException {
+        double[][] rows = new double[this.rowCount - this.rowsRead][this.columnNames.length];
+        for (double[] row : rows) nextRow(row);
+        return rows;
+    }
+
+    /** Closes the file
+     *
+     * @throws IOException if the file cannot be closed
+     * @author Ogechi
+     */
+    @Override
+    public void close() throws IOException {
+        this.input.close();
+    }
+
+    /** Helper method decoding the XOR of a value with its prediction
+     *
+     * @param column column index
+     * @return XOR of the bits of the value and the prediction
+     * @throws IOException if the file cannot be read or ends early
+     * @author Ogechi
+     */
+    private long decodeXor(int column) throws IOException {
+        if (readBits(1) == 0) return 0;
+        if (readBits(1) == 1) {
+            this.leadingZeros[column] = (int) readBits(5);
+            int length = (int) readBits(6) + 1;
+            this.trailingZeros[column] = 64 - this.leadingZeros[column] - length;
+        }
+        return readBits(64 - this.leadingZeros[column] - this.trailingZeros[column]) << this.trailingZeros[column];
+    }
+
+    /** Helper method decoding a value stored as a delta-of-delta of multiples of twice the error bound, or as its raw bits
+     *
+     * @param column column index
+     * @return decoded value
+     * @throws IOException if the file cannot be read or ends early
+     * @author Ogechi
+     */
+    private double decodeBounded(int column) throws IOException {
+        int code = 0;
+        while (code <= CompressedSink.DELTA_BITS.length && readBits(1) == 1) code++;
+        double step = 2 * this.errorBound;
+        if (code > CompressedSink.DELTA_BITS.length) {
+            double value = Double.longBitsToDouble(readBits(64));
+            double scaled = value / step;
+            if (Math.abs(scaled) < 0x1p52) {
+                long multiple = Math.round(scaled);
+                this.previousDeltas[column] = multiple - this.previousMultiples[column];
+                this.previousMultiples[column] = multiple;
+            }
+            return value;
+        }
+        long deltaOfDelta = 0;
+        if (code > 0) {
+            long zigzag = readBits(CompressedSink.DELTA_BITS[code - 1]);
+            deltaOfDelta = (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+        long delta = this.previousDeltas[column] + deltaOfDelta;
+        long multiple = this.previousMultiples[column] + delta;
+        this.previousDeltas[column] = delta;
+        this.previousMultiples[column] = multiple;
+        return multiple * step;
+    }
+
+    /** Helper method reading bits from the stream, most significant bit first
+     *
+     * @param bits number of bits from 1 to 64
+     * @return bits read in the low bits
+     * @throws IOException if the file cannot be read or ends early
+     * @author Ogechi
+     */
+    private long readBits(int bits) throws IOException {
+        if (bits > 32) {
+            long high = readBits(bits - 32);
+            return (high << 32) | readBits(32);
+        }
+        while (this.bitCount < bits) {
+            if (this.position == this.limit) {
+                this.limit = this.input.read(this.buffer, 0, this.buffer.length);
+                this.position = 0;
+                if (this.limit <= 0) {
+                    this.limit = 0;
+                    throw new EOFException("Unexpected end of compressed results");
+                }
+            }
+            this.bitBuffer = (this.bitBuffer << 8) | (this.buffer[this.position++] & 0xFF);
+            this.bitCount += 8;
+        }
+        this.bitCount -= bits;
+        return (this.bitBuffer >>> this.bitCount) & (bits == 64 ? -1L : (1L << bits) - 1);
+    }
+}
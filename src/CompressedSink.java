@@ -0,0 +1,334 @@
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/** Simulation sink compressing the results into a bit stream in the style of the Gorilla time series encoding, read back by CompressedResultReader
+ * Rows are encoded one after the other so the file is written and read as a stream. Every value is predicted by linear
+ * extrapolation from the two previous values of its column, a delta-of-delta in floating point.
+ * <p>
+ * In lossless mode a value is stored as the XOR of its bits with the bits of the prediction: a single 0 bit if they are equal,
+ * otherwise the meaningful bits between the leading and trailing zeros, reusing the previous window of the column when they fit.
+ * In bounded error mode every column except the time is rounded to a multiple of twice the error bound and the multiple is
+ * stored as a delta-of-delta in 1 to 37 bits, so columns that are constant or change smoothly take one or a few bits a row.
+ * </p>
+ * <p>
+ * File layout: the 8 byte magic "CSTRGOR1", int32 column count, int32 row count, float64 error bound (0 for lossless),
+ * for each column an int32 byte length and the UTF-8 bytes of its name, all big-endian, then the bit stream.
+ * </p>
+ * @author Ogechi
+ * @author Dylan
+ */
+public class CompressedSink implements SimulationSink {
+
+    public static final byte[] MAGIC = "CSTRGOR1".getBytes(StandardCharsets.US_ASCII); //marks a file written by this sink
+    static final int ESCAPE = 0b11111; //5 bit code of a value stored as its raw 64 bits in bounded error mode
+    static final int[] DELTA_BITS = {4, 7, 12, 32}; //bits of the zigzag delta-of-delta after the codes 10, 110, 1110 and 11110
+    private static final int BUFFER_SIZE = 1 << 16; //bytes buffered between writes to the file
+
+    private final String filePath; //path of the output file including the .gor extension
+    private final String[] columnNames; //names written to the header, or null to name the columns by index
+    private final double errorBound; //largest difference between a value and its decoded value, 0 for lossless
+    private OutputStream output; //open between start and finish
+    private final byte[] buffer = new byte[BUFFER_SIZE]; //encoded bytes not written to the file yet
+    private int position; //number of bytes in the buffer
+    private long bitBuffer; //bits not yet forming a whole byte, in the low bitCount bits
+    private int bitCount; //number of bits in bitBuffer
+    private long bytesWritten; //bytes written to the file since start, header included
+
+    //state of every column, the same as the state the reader rebuilds
+    private double[] previousValues; //value of the previous row
+    private double[] secondPreviousValues; //value of the row before the previous one
+    private int[] leadingZeros; //leading zeros of the current XOR window, -1 before the first window
+    private int[] trailingZeros; //trailing zeros of the current XOR window
+    private long[] previousMultiples; //previous multiple of twice the error bound, bounded error mode
+    private long[] previousDeltas; //previous difference of the multiples, bounded error mode
+    private int rowCount; //number of rows given at start
+    private int rowsReceived; //rows received since start
+
+    /** Constructor for a lossless compressed sink, the file is not touched until the simulation starts
+     *
+     * @param filePath path of the output file, .gor is appended if it has no such extension
+     * @param columnNames names of the columns, or null to name the columns by their index
+     * @throws IllegalArgumentException if file path is null
+     * @author Ogechi
+     */
+    public CompressedSink(String filePath, String[] columnNames) {
+        this(filePath, columnNames, 0);
+    }
+
+    /** Constructor for a compressed sink, the file is not touched until the simulation starts
+     *
+     * @param filePath path of the output file, .gor is appended if it has no such extension
+     * @param columnNames names of the columns, or null to name the columns by their index
+     * @param errorBound largest difference between a value except the time and its decoded value, 0 for lossless
+     * @throws IllegalArgumentException if file path is null or error bound is negative or not finite
+     * @author Ogechi
+     */
+    public CompressedSink(String filePath, String[] columnNames, double errorBound) {
+        if (filePath == null) throw new IllegalArgumentException("File path cannot be null");
+        if (!(errorBound >= 0) || Double.isInfinite(errorBound)) throw new IllegalArgumentException("Error bound must be 0 for lossless or a positive number");
+        this.filePath = withExtension(filePath);
+        this.columnNames = columnNames == null ? null : columnNames.clone();
+        this.errorBound = errorBound;
+    }
+
+    /** Returns the path a sink writes to for the given path, so the output file can be named before the sink exists
+     *
+     * @param filePath path of the output file
+     * @return the path with .gor appended if it has no such extension
+     * @author Ogechi
+     */
+    public static String withExtension(String filePath) {
+        return filePath.toLowerCase().endsWith(".gor") ? filePath : filePath + ".gor";
+    }
+
+    /** Accessor method for the path of the output file
+     *
+     * @return path including the .gor extension
+     * @author Ogechi
+     */
+    public String getFilePath() {
+        return this.filePath;
+    }
+
+    /** Accessor method for the error bound
+     *
+     * @return largest difference between a value and its decoded value, 0 for lossless
+     * @author Ogechi
+     */
+    public double getErrorBound() {
+        return this.errorBound;
+    }
+
+    /** Accessor method for the size of the file once the simulation has finished
+     *
+     * @return bytes written since the last start
+     * @author Ogechi
+     */
+    public long getBytesWritten() {
+        return this.bytesWritten + this.position;
+    }
+
+    /** Creates or overwrites the file and writes the header
+     *
+     * @param columnCount number of values in every row
+     * @param rowCount number of rows that will follow
+     * @throws IllegalArgumentException if the column names do not match the column count
+     * @throws RuntimeException if the file cannot be written
+     * @author Ogechi
+     */
+    @Override
+    public void start(int columnCount, int rowCount) {
+        if (this.columnNames != null && this.columnNames.length != columnCount) throw new IllegalArgumentException("Error, " + this.columnNames.length + " column names given for " + columnCount + " columns");
+        this.previousValues = new double[columnCount];
+        this.secondPreviousValues = new double[columnCount];
+        this.leadingZeros = new int[columnCount];
+        this.trailingZeros = new int[columnCount];
+        this.previousMultiples = new long[columnCount];
+        this.previousDeltas = new long[columnCount];
+        Arrays.fill(this.leadingZeros, -1);
+        this.rowCount = rowCount;
+        this.rowsReceived = 0;
+        this.position = 0;
+        this.bitBuffer = 0;
+        this.bitCount = 0;
+        this.output = null;
+        try {
+            this.output = new FileOutputStream(this.filePath);
+            DataOutputStream header = new DataOutputStream(this.output);
+            header.write(MAGIC);
+            header.writeInt(columnCount);
+            header.writeInt(rowCount);
+            header.writeDouble(this.errorBound);
+            for (int j = 0; j < columnCount; j++) {
+                byte[] name = (this.columnNames == null ? Integer.toString(j) : this.columnNames[j]).getBytes(StandardCharsets.UTF_8);
+                header.writeInt(name.length);
+                header.write(name);
+            }
+            this.bytesWritten = header.size();
+        } catch (IOException e) {
+            RuntimeException failure = new RuntimeException(e);
+            //only a started sink is aborted by the simulation, so a file opened before the failure is closed and removed here
+            if (this.output != null) {
+                try {
+                    abort();
+                } catch (RuntimeException abortFailure) {
+                    failure.addSuppressed(abortFailure);
+                }
+            }
+            throw failure;
+        }
+    }
+
+    /** Encodes a row
+     *
+     * @param row values of the row
+     * @throws IllegalArgumentException if more rows are received than given at start or the row length does not match
+     * @throws RuntimeException if the file cannot be written
+     * @author Ogechi
+     */
+    @Override
+    public void accept(double[] row) {
+        if (this.rowsReceived == this.rowCount) throw new IllegalArgumentException("Error, more rows received than given at start");
+        if (row.length != this.previousValues.length) throw new IllegalArgumentException("Error, row length does not match the column count");
+        for (int j = 0; j < row.length; j++) {
+            double value = row[j];
+            if (j > 0 && this.errorBound > 0) {
+                encodeBounded(j, value);
+            } else if (this.rowsReceived == 0) {
+                writeBits(Double.doubleToRawLongBits(value), 64);
+            } else {
+                double prediction = predict(this.rowsReceived, this.previousValues[j], this.secondPreviousValues[j]);
+                encodeXor(j, Double.doubleToRawLongBits(value) ^ Double.doubleToRawLongBits(prediction));
+            }
+            this.secondPreviousValues[j] = this.previousValues[j];
+            this.previousValues[j] = value;
+        }
+        this.rowsReceived++;
+    }
+
+    /** Writes the last bits padded with zeros to a whole byte and closes the file
+     *
+     * @throws RuntimeException if the file cannot be written
+     * @author Ogechi
+     */
+    @Override
+    public void finish() {
+        if (this.bitCount > 0) writeBits(0, 8 - this.bitCount);
+        try {
+            this.output.write(this.buffer, 0, this.position);
+            this.bytesWritten += this.position;
+            this.position = 0;
+            this.output.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Closes the file and deletes it, so the output of a failed simulation is never mistaken for a complete one
+     *
+     * @throws RuntimeException if the file cannot be closed, it is deleted anyway
+     * @author Ogechi
+     */
+    @Override
+    public void abort() {
+        try {
+            this.output.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            new File(this.filePath).delete();
+        }
+    }
+
+    /** Predicts the value of a column by extrapolating its two previous values, the reader makes the same prediction
+     * The prediction is exact for the evenly spaced times and for constant stretches, and close for smoothly changing values.
+     *
+     * @param rowIndex index of the row, at least 1
+     * @param previous value in the previous row
+     * @param secondPrevious value in the row before the previous one
+     * @return predicted value
+     * @author Ogechi
+     */
+    static double predict(int rowIndex, double previous, double secondPrevious) {
+        return rowIndex == 1 ? previous : previous + (previous - secondPrevious);
+    }
+
+    /** Helper method encoding the XOR of a value with its prediction
+     *
+     * @param column column index
+     * @param xor XOR of the bits of the value and the prediction
+     * @author Ogechi
+     */
+    private void encodeXor(int column, long xor) {
+        if (xor == 0) {
+            writeBits(0, 1);
+            return;
+        }
+        int leading = Math.min(31, Long.numberOfLeadingZeros(xor));
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (this.leadingZeros[column] >= 0 && leading >= this.leadingZeros[column] && trailing >= this.trailingZeros[column]) {
+            //meaningful bits fit in the previous window
+            writeBits(0b10, 2);
+            writeBits(xor >>> this.trailingZeros[column], 64 - this.leadingZeros[column] - this.trailingZeros[column]);
+        } else {
+            int length = 64 - leading - trailing;
+            writeBits(0b11, 2);
+            writeBits(leading, 5);
+            writeBits(length - 1, 6);
+            writeBits(xor >>> trailing, length);
+            this.leadingZeros[column] = leading;
+            this.trailingZeros[column] = trailing;
+        }
+    }
+
+    /** Helper method encoding a value rounded to a multiple of twice the error bound as a delta-of-delta of the multiples
+     * Values too large to round, or whose delta-of-delta needs more than 32 bits, are stored as their raw 64 bits.
+     *
+     * @param column column index
+     * @param value value to encode
+     * @author Ogechi
+     */
+    private void encodeBounded(int column, double value) {
+        double scaled = value / (2 * this.errorBound);
+        if (Math.abs(scaled) < 0x1p52) {
+            long multiple = Math.round(scaled);
+            long delta = multiple - this.previousMultiples[column];
+            long deltaOfDelta = delta - this.previousDeltas[column];
+            long zigzag = (deltaOfDelta << 1) ^ (deltaOfDelta >> 63);
+            if (zigzag == 0) {
+                writeBits(0, 1);
+            } else {
+                int code = 0;
+                while (code < DELTA_BITS.length && (zigzag >>> DELTA_BITS[code]) != 0) code++;
+                if (code == DELTA_BITS.length) {
+                    writeBits(ESCAPE, 5);
+                    writeBits(Double.doubleToRawLongBits(value), 64);
+                } else {
+                    //code 0 is written as 10, code 1 as 110, code 2 as 1110 and code 3 as 11110
+                    writeBits((1L << (code + 2)) - 2, code + 2);
+                    writeBits(zigzag, DELTA_BITS[code]);
+                }
+            }
+            this.previousMultiples[column] = multiple;
+            this.previousDeltas[column] = delta;
+        } else {
+            //not a number, infinite or too large to round, the multiples of the column are left as they were
+            writeBits(ESCAPE, 5);
+            writeBits(Double.doubleToRawLongBits(value), 64);
+        }
+    }
+
+    /** Helper method appending bits to the stream, most significant bit first
+     *
+     * @param value bits to append in the low bits
+     * @param bits number of bits from 1 to 64
+     * @throws RuntimeException if the file cannot be written
+     * @author Ogechi
+     */
+    private void writeBits(long value, int bits) {
+        if (bits > 32) {
+            writeBits(value >>> 32, bits - 32);
+            bits = 32;
+        }
+        this.bitBuffer = (this.bitBuffer << bits) | (value & ((1L << bits) - 1));
+        this.bitCount += bits;
+        while (this.bitCount >= 8) {
+            this.bitCount -= 8;
+            if (this.position == this.buffer.length) {
+                try {
+                    this.output.write(this.buffer, 0, this.position);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                this.bytesWritten += this.position;
+                this.position = 0;
+            }
+            this.buffer[this.position++] = (byte) (this.bitBuffer >>> this.bitCount);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event spanning one control interval of PIDController.simulate, or one segment between disturbances of an uncontrolled run
+ * @author Ogechi
+ * @author Dylan
+ */
+@Name("cstr.ControlInterval")
+@Label("Control Interval")
+@Category({"CSTR", "Simulation"})
+@Description("One control interval of a controlled run, or one segment of rows between disturbances of an uncontrolled run")
+public class ControlIntervalEvent extends jdk.jfr.Event {
+
+    @Label("Step")
+    int step; //index of the first row produced by the interval
+
+    @Label("Rows")
+    int rows; //rows produced by the interval, 1 for controlled runs
+
+    @Label("Simulated Time")
+    double time; //simulated time at the end of the first row of the interval
+
+    @Label("Step Size")
+    @Description("Step size h of the last step accepted by the solver, NaN if the controllable is not a reactor")
+    double stepSize; //h of the last accepted solver step
+
+    @Label("Error")
+    double error; //set point minus the controlled variable at the start of the interval
+
+    @Label("Controller Output")
+    @Description("Output computed by the controller, the manipulated variable for uncontrolled runs")
+    double controllerOutput; //controller output computed in the interval
+}
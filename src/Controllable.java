@@ -43,6 +43,7 @@ public interface Controllable {
 
     /**Obtains the output of the Controllable object after a time step.
      * WARNING: This method is responsible for updating the current state of the Controllable object.
+     * Implementations keep their integrator between calls so each interval starts from the step size the previous one ended with.
      * @param t time
      * @param tolerance tolerance for error between RK4 and RK5 method
      * @return Array of current state output values
@@ -52,6 +53,19 @@ public interface Controllable {
     double[] getSystemOutput(double t, double timeStep, double tolerance);
 
 
+    /**Obtains the output of the Controllable object over a longer interval in which nothing changes its inputs,
+     * sending its state at every output time t + k*outputStep up to endTime to the listener without restarting the integrator.
+     * WARNING: This method is responsible for updating the current state of the Controllable object.
+     * @param t time
+     * @param endTime end time of the interval
+     * @param tolerance tolerance for error between RK4 and RK5 method
+     * @param outputStep spacing of the output times
+     * @param listener listener receiving the state at each output time
+     * @return Array of current state output values at endTime
+     * @author Ogechi
+     */
+    double[] getSystemOutput(double t, double endTime, double tolerance, double outputStep, DenseOutputListener listener);
+
     /**Applies the disturbance to the controlled parameter of the Controllable object
      *
      * @param dist value of applied disturbance
@@ -0,0 +1,31 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/** JFR event spanning the creation of the reaction, reactor and controller of a simulation by Driver.createController
+ * @author Ogechi
+ * @author Dylan
+ */
+@Name("cstr.ControllerSetup")
+@Label("Controller Setup")
+@Category({"CSTR", "Simulation"})
+@Description("Creating the reaction, reactor and controller of a simulation")
+public class ControllerSetupEvent extends jdk.jfr.Event {
+
+    @Label("Controller Type")
+    String controllerType; //PID controller type, UNCONTROLLED for open loop runs
+
+    @Label("Solver Type")
+    String solverType; //integration method of the reactor
+
+    @Label("Steps")
+    long steps; //rows the simulation will produce
+
+    @Label("Time Step")
+    double timeStep; //simulated time between rows
+
+    @Label("Dead Time")
+    double deadTime; //simulated time between a controller action and its delivery
+}
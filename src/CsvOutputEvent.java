@@ -0,0 +1,24 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event spanning one write of the buffer of a CsvResultWriter to its stream
+ * @author Ogechi
+ * @author Dylan
+ */
+@Name("cstr.CsvOutput")
+@Label("CSV Output")
+@Category({"CSTR", "Simulation"})
+@Description("Formatted CSV rows written from the buffer to the output stream")
+public class CsvOutputEvent extends jdk.jfr.Event {
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes; //bytes written by this write
+
+    @Label("Total Bytes")
+    @DataAmount
+    long totalBytes; //bytes written by the writer so far, this write included
+}
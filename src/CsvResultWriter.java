@@ -0,0 +1,423 @@
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/** Buffered writer for simulation results in the CSV layout Driver writes, every value followed by a comma and every line by a new line
+ * Rows are formatted straight into a large reusable byte buffer that is written to the stream only when it is full.
+ * Values are either written exactly with Double.toString, or with a fixed number of significant digits in scientific notation
+ * formatted digit by digit without creating a String, where 17 digits also read back to the same double.
+ * A subset of the columns can be written in any order, and a whole table can be formatted in chunks on several threads.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class CsvResultWriter implements AutoCloseable {
+
+    public static final int EXACT = 0; //precision writing every value with Double.toString, which reads back to the same double
+    public static final int MAX_PRECISION = 17; //largest number of significant digits, enough for any double
+    private static final int BUFFER_SIZE = 1 << 18; //bytes buffered between writes to the stream
+    private static final int MAX_VALUE_LENGTH = 32; //longest formatted value including its comma
+    private static final int CHUNK_ROWS = 4096; //rows formatted by one task when writing in parallel
+    private static final long[] POWERS_OF_TEN = new long[MAX_PRECISION + 2]; //10^i as long, exact up to 10^18
+    private static final double[] DOUBLE_POWERS_OF_TEN = new double[23]; //10^i as double, exact up to 10^22
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) POWERS_OF_TEN[i] = 10 * POWERS_OF_TEN[i - 1];
+        DOUBLE_POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < DOUBLE_POWERS_OF_TEN.length; i++) DOUBLE_POWERS_OF_TEN[i] = 10 * DOUBLE_POWERS_OF_TEN[i - 1];
+    }
+
+    private final OutputStream output; //stream the buffer is written to
+    private final int[] columns; //indices of the row values to write in order, null for every value
+    private final int precision; //significant digits, or EXACT
+    private final byte[] buffer; //formatted bytes not written to the stream yet
+    private int position; //number of bytes in the buffer
+    private long bytesWritten; //number of bytes written to the stream so far
+
+    /** Constructor for a writer creating or overwriting a file, writing every column exactly
+     *
+     * @param filePath path of the file
+     * @throws IOException if the file cannot be created
+     * @author Ogechi
+     */
+    public CsvResultWriter(String filePath) throws IOException {
+        this(new FileOutputStream(filePath), null, EXACT);
+    }
+
+    /** Constructor for a writer creating or overwriting a file
+     *
+     * @param filePath path of the file
+     * @param columns indices of the row values to write in order, null for every value
+     * @param precision significant digits from 1 to MAX_PRECISION, or EXACT
+     * @throws IOException if the file cannot be created
+     * @throws IllegalArgumentException if precision is out of range or a column index is negative
+     * @author Ogechi
+     */
+    public CsvResultWriter(String filePath, int[] columns, int precision) throws IOException {
+        this(new FileOutputStream(filePath), columns, precision);
+    }
+
+    /** Constructor for a writer to any stream, the stream is closed with the writer
+     *
+     * @param output stream the formatted rows are written to
+     * @param columns indices of the row values to write in order, null for every value
+     * @param precision significant digits from 1 to MAX_PRECISION, or EXACT
+     * @throws IllegalArgumentException if output is null, precision is out of range or a column index is negative
+     * @author Ogechi
+     */
+    public CsvResultWriter(OutputStream output, int[] columns, int precision) {
+        this(output, columns, precision, BUFFER_SIZE);
+    }
+
+    /** Helper constructor with the size of the buffer
+     *
+     * @param output stream the formatted rows are written to
+     * @param columns indices of the row values to write in order, null for every value
+     * @param precision significant digits from 1 to MAX_PRECISION, or EXACT
+     * @param bufferSize bytes buffered between writes to the stream
+     * @author Ogechi
+     */
+    private CsvResultWriter(OutputStream output, int[] columns, int precision, int bufferSize) {
+        if (output == null) throw new IllegalArgumentException("Output stream cannot be null");
+        if (precision < EXACT || precision > MAX_PRECISION) throw new IllegalArgumentException("Precision must be from 1 to " + MAX_PRECISION + " significant digits, or 0 for exact values");
+        if (columns != null) {
+            for (int column : columns) {
+                if (column < 0) throw new IllegalArgumentException("Column indices cannot be negative");
+            }
+        }
+        this.output = output;
+        this.columns = columns == null ? null : columns.clone();
+        this.precision = precision;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /** Accessor method for the precision
+     *
+     * @return significant digits, or EXACT
+     * @author Ogechi
+     */
+    public int getPrecision() {
+        return this.precision;
+    }
+
+    /** Accessor method for the number of bytes written, including those still in the buffer
+     *
+     * @return bytes written since the writer was created
+     * @author Ogechi
+     */
+    public long getBytesWritten() {
+        return this.bytesWritten + this.position;
+    }
+
+    /** Writes a header line, every name followed by a comma
+     *
+     * @param header names to write
+     * @throws IOException if the stream cannot be written
+     * @author Ogechi
+     */
+    public void writeHeader(String[] header) throws IOException {
+        for (String s : header) {
+            for (int i = 0; i < s.length(); i++) {
+                ensureCapacity(4);
+                appendChar(s.charAt(i));
+            }
+            ensureCapacity(1);
+            this.buffer[this.position++] = ',';
+        }
+        ensureCapacity(1);
+        this.buffer[this.position++] = '\n';
+    }
+
+    /** Writes a row, the selected values each followed by a comma
+     *
+     * @param row values of the row
+     * @throws IOException if the stream cannot be written
+     * @throws ArrayIndexOutOfBoundsException if a selected column is not in the row
+     * @author Ogechi
+     */
+    public void writeRow(double[] row) throws IOException {
+        int count = this.columns == null ? row.length : this.columns.length;
+        for (int j = 0; j < count; j++) {
+            ensureCapacity(MAX_VALUE_LENGTH);
+            appendDouble(this.columns == null ? row[j] : row[this.columns[j]]);
+            this.buffer[this.position++] = ',';
+        }
+        ensureCapacity(1);
+        this.buffer[this.position++] = '\n';
+    }
+
+    /** Writes the buffered bytes to the stream
+     *
+     * @throws IOException if the stream cannot be written
+     * @author Ogechi
+     */
+    public void flush() throws IOException {
+        writeBuffer();
+        this.output.flush();
+    }
+
+    /** Writes the buffered bytes and closes the stream
+     *
+     * @throws IOException if the stream cannot be written
+     * @author Ogechi
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        this.output.close();
+    }
+
+    /** Helper method writing the buffer out if fewer than the given number of bytes are free
+     *
+     * @param bytes bytes about to be appended
+     * @throws IOException if the stream cannot be written
+     * @author Ogechi
+     */
+    private void ensureCapacity(int bytes) throws IOException {
+        if (this.position + bytes > this.buffer.length) writeBuffer();
+    }
+
+    /** Helper method writing the buffer to the stream and emptying it, timed as a JFR event
+     *
+     * @throws IOException if the stream cannot be written
+     * @author Ogechi
+     */
+    private void writeBuffer() throws IOException {
+        CsvOutputEvent event = new CsvOutputEvent();
+        event.begin();
+        this.output.write(this.buffer, 0, this.position);
+        this.bytesWritten += this.position;
+        if (event.shouldCommit()) {
+            event.bytes = this.position;
+            event.totalBytes = this.bytesWritten;
+            event.commit();
+        }
+        this.position = 0;
+    }
+
+    /** Helper method appending a character as UTF-8, at most 3 bytes for a char
+     *
+     * @param c character to append
+     * @author Ogechi
+     */
+    private void appendChar(char c) {
+        if (c < 0x80) {
+            this.buffer[this.position++] = (byte) c;
+        } else if (c < 0x800) {
+            this.buffer[this.position++] = (byte) (0xC0 | (c >> 6));
+            this.buffer[this.position++] = (byte) (0x80 | (c & 0x3F));
+        } else {
+            this.buffer[this.position++] = (byte) (0xE0 | (c >> 12));
+            this.buffer[this.position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            this.buffer[this.position++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    /** Helper method appending a value with the precision of the writer
+     *
+     * @param value value to append
+     * @author Ogechi
+     */
+    private void appendDouble(double value) {
+        if (this.precision == EXACT) {
+            String s = Double.toString(value);
+            for (int i = 0; i < s.length(); i++) {
+                this.buffer[this.position++] = (byte) s.charAt(i);
+            }
+        } else {
+            this.position = formatScientific(value, this.precision, this.buffer, this.position);
+        }
+    }
+
+    /** Formats a value in scientific notation with a number of significant digits, in the layout of printf %.(precision-1)e
+     * The digits are the value rounded half up, taken from the value scaled by a power of ten in double-double arithmetic
+     * so the rounding decision is made on the scaled value to about 30 significant digits.
+     *
+     * @param value value to format
+     * @param precision significant digits from 1 to MAX_PRECISION
+     * @param buffer buffer the characters are written to, with at least MAX_VALUE_LENGTH bytes free from position
+     * @param position index of the first character
+     * @return index after the last character
+     * @author Ogechi
+     */
+    static int formatScientific(double value, int precision, byte[] buffer, int position) {
+        if (Double.isNaN(value)) {
+            buffer[position++] = 'N';
+            buffer[position++] = 'a';
+            buffer[position++] = 'N';
+            return position;
+        }
+        if (value < 0 || (value == 0 && 1 / value < 0)) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        if (Double.isInfinite(value)) {
+            for (char c : "Infinity".toCharArray()) buffer[position++] = (byte) c;
+            return position;
+        }
+
+        long digits = 0;
+        int exponent = 0;
+        if (value > 0) {
+            //estimate the decimal exponent from the binary one, it is either right or one too small
+            exponent = value < Double.MIN_NORMAL ? (int) Math.floor(Math.log10(value)) : (int) Math.floor(Math.getExponent(value) * 0.30102999566398120);
+            digits = roundScaled(value, precision - 1 - exponent);
+            if (digits >= POWERS_OF_TEN[precision]) {
+                exponent++;
+                digits = roundScaled(value, precision - 1 - exponent);
+            } else if (digits < POWERS_OF_TEN[precision - 1]) {
+                exponent--;
+                digits = roundScaled(value, precision - 1 - exponent);
+            }
+            if (digits >= POWERS_OF_TEN[precision]) { //rounding up to the next power of ten, e.g. 9.9999996 with 6 digits
+                digits = POWERS_OF_TEN[precision - 1];
+                exponent++;
+            }
+        }
+
+        //significant digits, the first one followed by the decimal point
+        int end = position + precision + (precision > 1 ? 1 : 0);
+        for (int i = end - 1; i > position; i--) {
+            if (i == position + 1 && precision > 1) {
+                buffer[i] = '.';
+            } else {
+                buffer[i] = (byte) ('0' + digits % 10);
+                digits /= 10;
+            }
+        }
+        buffer[position] = (byte) ('0' + digits);
+        position = end;
+
+        //exponent with a sign and at least two digits
+        buffer[position++] = 'e';
+        buffer[position++] = (byte) (exponent < 0 ? '-' : '+');
+        int magnitude = Math.abs(exponent);
+        if (magnitude >= 100) buffer[position++] = (byte) ('0' + magnitude / 100);
+        buffer[position++] = (byte) ('0' + magnitude / 10 % 10);
+        buffer[position++] = (byte) ('0' + magnitude % 10);
+        return position;
+    }
+
+    /** Helper method rounding a positive value times 10^power half up to a whole number
+     * The product is carried as the sum of two doubles, the exact rounding error of every multiplication or division
+     * by a power of ten up to 10^22 (all exact doubles) is kept in the low part.
+     *
+     * @param value positive value to scale
+     * @param power power of ten
+     * @return value times 10^power rounded half up, which must be below 2^63
+     * @author Ogechi
+     */
+    private static long roundScaled(double value, int power) {
+        double high = value;
+        double low = 0;
+        while (power > 0) {
+            int step = Math.min(power, 22);
+            double factor = DOUBLE_POWERS_OF_TEN[step];
+            double product = high * factor;
+            low = Math.fma(high, factor, -product) + low * factor;
+            high = product;
+            power -= step;
+        }
+        while (power < 0) {
+            int step = Math.min(-power, 22);
+            double divisor = DOUBLE_POWERS_OF_TEN[step];
+            double quotient = high / divisor;
+            low = (Math.fma(-quotient, divisor, high) + low) / divisor;
+            high = quotient;
+            power += step;
+        }
+        long whole = (long) high; //exact, high is an integer once it is above 2^52
+        double fraction = (high - whole) + low;
+        long carry = (long) Math.floor(fraction);
+        return whole + carry + (fraction - carry >= 0.5 ? 1 : 0);
+    }
+
+    /** Writes a header and all rows to a file, formatting chunks of rows on several threads and writing them in order
+     * At most two chunks per thread are held in memory at a time.
+     *
+     * @param filePath path of the file to create or overwrite
+     * @param header names for the header line, or null for no header
+     * @param rows rows to write
+     * @param columns indices of the row values to write in order, null for every value
+     * @param precision significant digits from 1 to MAX_PRECISION, or EXACT
+     * @param parallelism number of threads formatting rows, 1 formats on the calling thread
+     * @return number of bytes written
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if rows is null, parallelism is not greater than 0 or precision is out of range
+     * @author Ogechi
+     */
+    public static long writeAll(String filePath, String[] header, double[][] rows, int[] columns, int precision, int parallelism) throws IOException {
+        if (rows == null) throw new IllegalArgumentException("Rows cannot be null");
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be greater than 0");
+        try (CsvResultWriter writer = new CsvResultWriter(filePath, columns, precision)) {
+            if (header != null) writer.writeHeader(header);
+            if (parallelism == 1) {
+                for (double[] row : rows) writer.writeRow(row);
+                return writer.getBytesWritten();
+            }
+
+            writer.flush();
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                int chunkCount = (rows.length + CHUNK_ROWS - 1) / CHUNK_ROWS;
+                int window = 2 * parallelism;
+                for (int first = 0; first < chunkCount; first += window) {
+                    int last = Math.min(chunkCount, first + window);
+                    ForkJoinTask<ByteArrayOutputStream>[] tasks = newTaskArray(last - first);
+                    for (int c = first; c < last; c++) {
+                        final int start = c * CHUNK_ROWS;
+                        final int end = Math.min(rows.length, start + CHUNK_ROWS);
+                        tasks[c - first] = pool.submit(() -> formatChunk(rows, start, end, columns, precision));
+                    }
+                    for (ForkJoinTask<ByteArrayOutputStream> task : tasks) {
+                        ByteArrayOutputStream chunk = task.get();
+                        chunk.writeTo(writer.output);
+                        writer.bytesWritten += chunk.size();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while formatting rows", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Formatting rows failed: " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+            return writer.getBytesWritten();
+        }
+    }
+
+    /** Helper method formatting a range of rows into memory
+     *
+     * @param rows rows to format
+     * @param start index of the first row
+     * @param end index after the last row
+     * @param columns indices of the row values to write in order, null for every value
+     * @param precision significant digits from 1 to MAX_PRECISION, or EXACT
+     * @return formatted rows
+     * @throws IOException never for an in-memory stream
+     * @author Ogechi
+     */
+    private static ByteArrayOutputStream formatChunk(double[][] rows, int start, int end, int[] columns, int precision) throws IOException {
+        ByteArrayOutputStream chunk = new ByteArrayOutputStream((end - start) * 16 * (columns == null ? rows[start].length : columns.length));
+        CsvResultWriter writer = new CsvResultWriter(chunk, columns, precision, 1 << 14);
+        for (int i = start; i < end; i++) writer.writeRow(rows[i]);
+        writer.flush();
+        return chunk;
+    }
+
+    /** Helper method to create a generic task array
+     *
+     * @param length number of tasks
+     * @return empty array of tasks
+     * @author Ogechi
+     */
+    @SuppressWarnings("unchecked")
+    private static ForkJoinTask<ByteArrayOutputStream>[] newTaskArray(int length) {
+        return (ForkJoinTask<ByteArrayOutputStream>[]) new ForkJoinTask<?>[length];
+    }
+}
@@ -0,0 +1,149 @@
+import java.io.File;
+import java.io.IOException;
+
+/** Simulation sink writing every row to a CSV file as it is produced, in the layout Driver has always written
+ * The header and every value are followed by a comma and every line ends with a new line.
+ * The file is opened when the simulation starts and closed when it finishes, rows are formatted by a CsvResultWriter.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class CsvSink implements SimulationSink {
+
+    private final String filePath; //path of the output file including the .csv extension
+    private final String[] header; //header written before the first row
+    private final int[] columns; //indices of the row values to write in order, null for every value
+    private final int precision; //significant digits, or CsvResultWriter.EXACT
+    private CsvResultWriter writer; //open between start and finish
+
+    /** Constructor for a CSV sink writing every value exactly, the file is not touched until the simulation starts
+     *
+     * @param filePath path of the output file, .csv is appended if it has no such extension
+     * @param header header for the CSV file
+     * @throws IllegalArgumentException if file path or header is null
+     * @author Ogechi
+     */
+    public CsvSink(String filePath, String[] header) {
+        this(filePath, header, null, CsvResultWriter.EXACT);
+    }
+
+    /** Constructor for a CSV sink writing some of the columns, the file is not touched until the simulation starts
+     *
+     * @param filePath path of the output file, .csv is appended if it has no such extension
+     * @param header header for the CSV file, naming the written columns
+     * @param columns indices of the row values to write in order, null for every value
+     * @param precision significant digits from 1 to CsvResultWriter.MAX_PRECISION, or CsvResultWriter.EXACT
+     * @throws IllegalArgumentException if file path or header is null, precision is out of range or a column index is negative
+     * @author Ogechi
+     */
+    public CsvSink(String filePath, String[] header, int[] columns, int precision) {
+        if (filePath == null) throw new IllegalArgumentException("File path cannot be null");
+        if (header == null) throw new IllegalArgumentException("Header cannot be null");
+        if (precision < CsvResultWriter.EXACT || precision > CsvResultWriter.MAX_PRECISION) throw new IllegalArgumentException("Precision must be from 1 to " + CsvResultWriter.MAX_PRECISION + " significant digits, or 0 for exact values");
+        if (columns != null) {
+            for (int column : columns) {
+                if (column < 0) throw new IllegalArgumentException("Column indices cannot be negative");
+            }
+        }
+        this.filePath = withExtension(filePath);
+        this.header = header.clone();
+        this.columns = columns == null ? null : columns.clone();
+        this.precision = precision;
+    }
+
+    /** Returns the path a sink writes to for the given path, so the output file can be named before the sink exists
+     *
+     * @param filePath path of the output file
+     * @return the path with .csv appended if it has no such extension
+     * @author Ogechi
+     */
+    public static String withExtension(String filePath) {
+        return filePath.toLowerCase().endsWith(".csv") ? filePath : filePath + ".csv";
+    }
+
+    /** Accessor method for the path of the output file
+     *
+     * @return path including the .csv extension
+     * @author Ogechi
+     */
+    public String getFilePath() {
+        return this.filePath;
+    }
+
+    /** Creates or overwrites the file and writes the header
+     *
+     * @param columnCount number of values in every row
+     * @param rowCount number of rows that will follow
+     * @throws RuntimeException if the file cannot be written
+     * @throws IllegalArgumentException if a selected column is not in the rows
+     * @author Ogechi
+     */
+    @Override
+    public void start(int columnCount, int rowCount) {
+        if (this.columns != null) {
+            for (int column : this.columns) {
+                if (column >= columnCount) throw new IllegalArgumentException("Column " + column + " is not in rows of " + columnCount + " values");
+            }
+        }
+        this.writer = null;
+        try {
+            this.writer = new CsvResultWriter(this.filePath, this.columns, this.precision);
+            this.writer.writeHeader(this.header);
+        } catch (IOException e) {
+            RuntimeException failure = new RuntimeException(e);
+            //only a started sink is aborted by the simulation, so a file opened before the failure is closed and removed here
+            if (this.writer != null) {
+                try {
+                    abort();
+                } catch (RuntimeException abortFailure) {
+                    failure.addSuppressed(abortFailure);
+                }
+            }
+            throw failure;
+        }
+    }
+
+    /** Writes a row to the file
+     *
+     * @param row values of the row
+     * @throws RuntimeException if the file cannot be written
+     * @author Ogechi
+     */
+    @Override
+    public void accept(double[] row) {
+        try {
+            this.writer.writeRow(row);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Flushes and closes the file
+     *
+     * @throws RuntimeException if the file cannot be written
+     * @author Ogechi
+     */
+    @Override
+    public void finish() {
+        try {
+            this.writer.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Closes the file and deletes it, so the output of a failed simulation is never mistaken for a complete one
+     *
+     * @throws RuntimeException if the file cannot be closed, it is deleted anyway
+     * @author Ogechi
+     */
+    @Override
+    public void abort() {
+        try {
+            this.writer.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            new File(this.filePath).delete();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event marking a controller action delivered to the controllable after the dead time by PIDController.simulate
+ * @author Ogechi
+ * @author Dylan
+ */
+@Name("cstr.DeadTimeDelivery")
+@Label("Dead Time Delivery")
+@Category({"CSTR", "Simulation"})
+@Description("A controller action leaving the dead time queue and set as the manipulated variable")
+public class DeadTimeDeliveryEvent extends jdk.jfr.Event {
+
+    @Label("Step")
+    int step; //index of the row the action is delivered in
+
+    @Label("Delivery Time")
+    double deliveryTime; //simulated time the action was due
+
+    @Label("Action")
+    double action; //value set as the manipulated variable
+
+    @Label("Queued Actions")
+    int queued; //actions still waiting out the dead time after this one
+}
@@ -0,0 +1,91 @@
+/** Simulation sink passing only every interval-th row on to another sink, for long runs where the full time resolution is not needed
+ * The first row and the last row are always passed on, so the start and the final state of the run are kept.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class DecimatingSink implements SimulationSink {
+
+    private final SimulationSink target; //sink receiving the rows that are kept
+    private final int interval; //every interval-th row is kept
+    private int rowCount; //number of rows given at start
+    private int rowIndex; //index of the next row to be received
+
+    /** Constructor for a decimating sink
+     *
+     * @param target sink receiving the rows that are kept
+     * @param interval keep one row in this many, 1 keeps every row
+     * @throws IllegalArgumentException if target is null or interval is not greater than 0
+     * @author Ogechi
+     */
+    public DecimatingSink(SimulationSink target, int interval) {
+        if (target == null) throw new IllegalArgumentException("Target sink cannot be null");
+        if (interval < 1) throw new IllegalArgumentException("Interval must be greater than 0");
+        this.target = target;
+        this.interval = interval;
+    }
+
+    /** Accessor method for the interval
+     *
+     * @return number of rows for every row kept
+     * @author Ogechi
+     */
+    public int getInterval() {
+        return this.interval;
+    }
+
+    /** Returns the number of rows kept out of a number of rows
+     *
+     * @param rowCount number of rows received
+     * @return number of rows passed on, every interval-th row from the first one plus the last row if it is not one of them
+     * @author Ogechi
+     */
+    public int getKeptRowCount(int rowCount) {
+        if (rowCount <= 0) return 0;
+        int kept = (rowCount - 1) / this.interval + 1;
+        return (rowCount - 1) % this.interval == 0 ? kept : kept + 1;
+    }
+
+    /** Passes the shape of the decimated results on to the target
+     *
+     * @param columnCount number of values in every row
+     * @param rowCount number of rows that will follow
+     * @author Ogechi
+     */
+    @Override
+    public void start(int columnCount, int rowCount) {
+        this.rowCount = rowCount;
+        this.rowIndex = 0;
+        this.target.start(columnCount, getKeptRowCount(rowCount));
+    }
+
+    /** Passes the row on to the target if it is kept
+     *
+     * @param row values of the row
+     * @author Ogechi
+     */
+    @Override
+    public void accept(double[] row) {
+        if (this.rowIndex % this.interval == 0 || this.rowIndex == this.rowCount - 1) {
+            this.target.accept(row);
+        }
+        this.rowIndex++;
+    }
+
+    /** Passes the end of the simulation on to the target
+     *
+     * @author Ogechi
+     */
+    @Override
+    public void finish() {
+        this.target.finish();
+    }
+
+    /** Passes the failure of the simulation on to the target
+     *
+     * @author Ogechi
+     */
+    @Override
+    public void abort() {
+        this.target.abort();
+    }
+}
@@ -0,0 +1,85 @@
+/** Cubic Hermite interpolant over the last accepted step of an OdeSolver
+ * Built from the values and derivatives at both ends of the step, so it is continuous with continuous first derivative
+ * across steps and third order accurate, which is below the error of the RK steps it interpolates.
+ * @author Ogechi
+ */
+public class DenseOutput {
+
+    private final double[] y0; //values at the start of the step
+    private final double[] f0; //derivatives at the start of the step
+    private final double[] y1; //values at the end of the step
+    private final double[] f1; //derivatives at the end of the step
+    private final double[] out; //interpolated values passed to listeners
+    private double t0; //start time of the step
+    private double h; //size of the step
+
+    /** Constructor for an interpolant with a workspace sized for the given system
+     *
+     * @param dimension number of dependent variables
+     * @author Ogechi
+     */
+    public DenseOutput(int dimension) {
+        this.y0 = new double[dimension];
+        this.f0 = new double[dimension];
+        this.y1 = new double[dimension];
+        this.f1 = new double[dimension];
+        this.out = new double[dimension];
+    }
+
+    /** Stores the end points of an accepted step, the arrays are copied
+     *
+     * @param t0 start time of the step
+     * @param h size of the step
+     * @param y0 values at t0
+     * @param f0 derivatives at t0
+     * @param y1 values at t0 + h
+     * @param f1 derivatives at t0 + h
+     * @author Ogechi
+     */
+    public void setStep(double t0, double h, double[] y0, double[] f0, double[] y1, double[] f1) {
+        this.t0 = t0;
+        this.h = h;
+        System.arraycopy(y0, 0, this.y0, 0, this.y0.length);
+        System.arraycopy(f0, 0, this.f0, 0, this.f0.length);
+        System.arraycopy(y1, 0, this.y1, 0, this.y1.length);
+        System.arraycopy(f1, 0, this.f1, 0, this.f1.length);
+    }
+
+    /** Evaluates the interpolant at a time inside the stored step
+     *
+     * @param t time between t0 and t0 + h
+     * @param out array filled with the interpolated values
+     * @author Ogechi
+     */
+    public void interpolate(double t, double[] out) {
+        double theta = (t - this.t0) / this.h;
+        double theta1 = theta - 1;
+        for (int i = 0; i < out.length; i++) {
+            double difference = this.y1[i] - this.y0[i];
+            out[i] = this.y0[i] + theta * difference
+                    + theta * theta1 * ((1 - 2 * theta) * difference + theta1 * this.h * this.f0[i] + theta * this.h * this.f1[i]);
+        }
+    }
+
+    /** Sends the interpolated solution at every output time outputStart + index*outputStep inside the stored step to the listener
+     *
+     * @param outputStart time the output grid is counted from
+     * @param outputStep spacing of the output grid
+     * @param index index of the first output time not sent yet
+     * @param listener listener receiving the solution
+     * @return index of the first output time after the stored step
+     * @author Ogechi
+     */
+    public int output(double outputStart, double outputStep, int index, DenseOutputListener listener) {
+        double end = this.t0 + this.h;
+        double slack = 1e-9 * outputStep; //grid times within rounding of the step end belong to this step
+        double t = outputStart + index * outputStep;
+        while (t <= end + slack) {
+            interpolate(t, this.out);
+            listener.output(t, this.out);
+            index++;
+            t = outputStart + index * outputStep;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,12 @@
+/** Interface for classes receiving the solution of an OdeSolver at output times that are independent of the integration steps
+ * @author Ogechi
+ */
+public interface DenseOutputListener {
+    /** Receives the interpolated solution at one output time.
+     *
+     * @param t output time
+     * @param y values of the dependent variables at time t, owned by the solver and only valid during this call
+     * @author Ogechi
+     */
+    void output(double t, double[] y);
+}
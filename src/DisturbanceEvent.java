@@ -0,0 +1,24 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event marking a disturbance applied to the controllable by PIDController.simulate
+ * @author Ogechi
+ * @author Dylan
+ */
+@Name("cstr.Disturbance")
+@Label("Disturbance")
+@Category({"CSTR", "Simulation"})
+@Description("A disturbance of the schedule applied to the controllable")
+public class DisturbanceEvent extends jdk.jfr.Event {
+
+    @Label("Step")
+    int step; //index of the row the disturbance is applied in
+
+    @Label("Scheduled Time")
+    double scheduledTime; //simulated time of the disturbance in the schedule
+
+    @Label("Value")
+    double value; //new value of the disturbed variable
+}
@@ -0,0 +1,519 @@
+/** ODE Solver Class with the Dormand-Prince RK5(4) method with adaptive step size
+ * The fifth order solution is propagated and the embedded fourth order solution is only used for the error estimate.
+ * The last stage is evaluated at the new solution so it is reused as the first stage of the next step (first same as last),
+ * which costs six right-hand side evaluations per accepted step instead of seven.
+ * The error is measured with a scaled RMS norm over all components using separate absolute and relative tolerances,
+ * and the step size is chosen by a PI controller with safety factor and growth limits.
+ * Accepted steps are also checked for stiffness with the test of Hairer and Wanner, see {@link #isStiff()}.
+ * Like RK45, an instance owns its workspace for one system dimension and does not allocate while stepping.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class DormandPrince implements OdeSolver {
+
+    //Butcher tableau of the Dormand-Prince pair
+    private static final double C2 = 1.0/5, C3 = 3.0/10, C4 = 4.0/5, C5 = 8.0/9;
+    private static final double A21 = 1.0/5;
+    private static final double A31 = 3.0/40, A32 = 9.0/40;
+    private static final double A41 = 44.0/45, A42 = -56.0/15, A43 = 32.0/9;
+    private static final double A51 = 19372.0/6561, A52 = -25360.0/2187, A53 = 64448.0/6561, A54 = -212.0/729;
+    private static final double A61 = 9017.0/3168, A62 = -355.0/33, A63 = 46732.0/5247, A64 = 49.0/176, A65 = -5103.0/18656;
+    private static final double A71 = 35.0/384, A73 = 500.0/1113, A74 = 125.0/192, A75 = -2187.0/6784, A76 = 11.0/84;
+    //difference between the fifth and fourth order weights
+    private static final double E1 = 71.0/57600, E3 = -71.0/16695, E4 = 71.0/1920, E5 = -17253.0/339200, E6 = 22.0/525, E7 = -1.0/40;
+
+    //step size controller constants
+    private static final double SAFETY = 0.9; //safety factor applied to the optimal step size
+    private static final double MIN_SCALE = 0.2; //largest reduction of h in one step
+    private static final double MAX_SCALE = 10; //largest growth of h in one step
+    private static final double BETA = 0.04; //weight of the previous error in the PI controller
+    private static final double ALPHA = 0.2 - 0.75 * BETA; //weight of the current error in the PI controller
+    private static final double MIN_PREVIOUS_ERROR = 1e-4; //lower bound on the stored error so h does not jump after exact steps
+
+    //stiffness detection constants
+    private static final double STIFF_H_LAMBDA = 3.25; //h*lambda close to the stability boundary of the method on the negative real axis
+    private static final int STIFF_STEPS = 15; //steps near the stability boundary after which the problem is considered stiff
+    private static final int NON_STIFF_STEPS = 6; //steps away from the stability boundary after which the stiff step count is cleared
+
+    //IMPORTANT: these workspace arrays should not have getters and setters as they are helper variables, and could mess with calculations
+    private final int dimension;
+    private double[] k1;
+    private final double[] k2;
+    private final double[] k3;
+    private final double[] k4;
+    private final double[] k5;
+    private final double[] k6;
+    private double[] k7;
+    private final double[] temp; //stage argument for the next rhs evaluation
+    private final double[] nextY; //fifth order solution of the current trial step
+    private final DenseOutput denseOutput; //interpolant over the last accepted step
+
+    private double[] absoluteTolerances; //per component absolute tolerances, null to use the tolerance passed to integrate
+    private double[] relativeTolerances; //per component relative tolerances, null to use the tolerance passed to integrate
+    private double stepSize; //h used for the last accepted step
+    private double nextStepSize; //h proposed for the step after the last accepted step
+    private double previousError = MIN_PREVIOUS_ERROR; //scaled error of the last accepted step for the PI controller
+    private double warmStepSize; //h to start the next call to integrate with, 0 if there is no history
+    private double maxStepSize = Double.POSITIVE_INFINITY; //upper bound on h, unbounded by default
+    private SolverStatistics statistics; //statistics receiving every step, null when they are not collected
+    private double currentTime; //time reached by the last call to integrate
+    private int stiffSteps; //accepted steps with h*lambda near the stability boundary
+    private int nonStiffSteps; //consecutive accepted steps away from the stability boundary
+
+    /** Constructor for a Dormand-Prince integrator with a workspace sized for the given system
+     *
+     * @param dimension number of dependent variables in the systems to be solved
+     * @throws IllegalArgumentException if dimension is not greater than 0
+     * @author Ogechi
+     */
+    public DormandPrince(int dimension) {
+        if (dimension<=0) throw new IllegalArgumentException("Dormand-Prince dimension must be greater than 0");
+        this.dimension = dimension;
+        this.k1 = new double[dimension];
+        this.k2 = new double[dimension];
+        this.k3 = new double[dimension];
+        this.k4 = new double[dimension];
+        this.k5 = new double[dimension];
+        this.k6 = new double[dimension];
+        this.k7 = new double[dimension];
+        this.temp = new double[dimension];
+        this.nextY = new double[dimension];
+        this.denseOutput = new DenseOutput(dimension);
+    }
+
+    /** Accessor method for the dimension of the workspace
+     *
+     * @return number of dependent variables this integrator is sized for
+     * @author Ogechi
+     */
+    public int getDimension() {
+        return this.dimension;
+    }
+
+    /** Accessor method for the step size used by the last accepted step
+     *
+     * @return h of the last accepted step
+     * @author Ogechi
+     */
+    public double getStepSize() {
+        return this.stepSize;
+    }
+
+    /** Accessor method for the step size proposed after the last accepted step
+     *
+     * @return proposed h of the next step
+     * @author Ogechi
+     */
+    public double getNextStepSize() {
+        return this.nextStepSize;
+    }
+
+    /** Accessor method for the largest step size the solver may take
+     *
+     * @return upper bound on h
+     * @author Ogechi
+     */
+    public double getMaxStepSize() {
+        return this.maxStepSize;
+    }
+
+    /** Mutator method for the largest step size the solver may take
+     *
+     * @param maxStepSize upper bound on h which must be greater than 0, positive infinity for no bound
+     * @return true if updated and false if not
+     * @author Ogechi
+     */
+    public boolean setMaxStepSize(double maxStepSize) {
+        if (!(maxStepSize > 0)) return false;
+        this.maxStepSize = maxStepSize;
+        return true;
+    }
+
+    /** Mutator method for the statistics the solver records its steps in
+     *
+     * @param statistics statistics receiving every accepted and rejected step, or null to record nothing
+     * @author Ogechi
+     */
+    public void setStatistics(SolverStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /** Accessor method for the time reached by the last call to integrate
+     *
+     * @return end time of the last integration, earlier than the requested end time if it stopped because the problem became stiff
+     * @author Ogechi
+     */
+    public double getCurrentTime() {
+        return this.currentTime;
+    }
+
+    /** Returns true once the step size has been limited by stability rather than accuracy for STIFF_STEPS steps,
+     * so an implicit method would be cheaper. h*lambda is estimated from the last two stages, which are evaluated at
+     * the same time, as h*|k7 - k6|/|y(n+1) - y6|.
+     *
+     * @return true if the problem has been stiff over the recent steps
+     * @author Ogechi
+     */
+    public boolean isStiff() {
+        return this.stiffSteps >= STIFF_STEPS;
+    }
+
+    /** Mutator method for the step size the next call to integrate starts with, used to carry h over from another solver
+     *
+     * @param warmStepSize first step size which must be greater than 0
+     * @return true if updated and false if not
+     * @author Ogechi
+     */
+    boolean setWarmStepSize(double warmStepSize) {
+        if (!(warmStepSize > 0)) return false;
+        this.warmStepSize = warmStepSize;
+        return true;
+    }
+
+    /** Forgets the step size, error history and stiffness history kept from previous calls to integrate
+     *
+     * @author Ogechi
+     */
+    public void reset() {
+        this.warmStepSize = 0;
+        this.previousError = MIN_PREVIOUS_ERROR;
+        this.stiffSteps = 0;
+        this.nonStiffSteps = 0;
+    }
+
+    /** Accessor method for the absolute tolerances
+     *
+     * @return copy of the per component absolute tolerances, or null if the integrate tolerance is used
+     * @author Ogechi
+     */
+    public double[] getAbsoluteTolerances() {
+        return this.absoluteTolerances == null ? null : this.absoluteTolerances.clone();
+    }
+
+    /** Mutator method for the absolute tolerances
+     *
+     * @param absoluteTolerances per component absolute tolerances which must be non-negative, or null to use the integrate tolerance
+     * @return true if updated and false if not
+     * @author Ogechi
+     */
+    public boolean setAbsoluteTolerances(double[] absoluteTolerances) {
+        if (!isValidTolerances(absoluteTolerances)) return false;
+        this.absoluteTolerances = absoluteTolerances == null ? null : absoluteTolerances.clone();
+        return true;
+    }
+
+    /** Accessor method for the relative tolerances
+     *
+     * @return copy of the per component relative tolerances, or null if the integrate tolerance is used
+     * @author Ogechi
+     */
+    public double[] getRelativeTolerances() {
+        return this.relativeTolerances == null ? null : this.relativeTolerances.clone();
+    }
+
+    /** Mutator method for the relative tolerances
+     *
+     * @param relativeTolerances per component relative tolerances which must be non-negative, or null to use the integrate tolerance
+     * @return true if updated and false if not
+     * @author Ogechi
+     */
+    public boolean setRelativeTolerances(double[] relativeTolerances) {
+        if (!isValidTolerances(relativeTolerances)) return false;
+        this.relativeTolerances = relativeTolerances == null ? null : relativeTolerances.clone();
+        return true;
+    }
+
+    /** Helper method to validate a tolerance vector
+     *
+     * @param tolerances tolerance vector to check
+     * @return true if null or of the solver dimension with non-negative entries
+     * @author Ogechi
+     */
+    private boolean isValidTolerances(double[] tolerances) {
+        if (tolerances == null) return true;
+        if (tolerances.length != this.dimension) return false;
+        for (double tolerance : tolerances) {
+            if (tolerance < 0) return false;
+        }
+        return true;
+    }
+
+    /** Helper method to compute the scaled RMS norm of the error of the current trial step
+     * Each component error is divided by atol + rtol*max(|y|,|yNext|) before taking the root mean square
+     *
+     * @param y values at the start of the step
+     * @param h step size of the trial step
+     * @param tolerance tolerance used where no per component tolerance is set
+     * @return scaled error, the step is acceptable if it is not greater than 1
+     * @author Ogechi
+     */
+    private double errorNorm(double[] y, double h, double tolerance) {
+        double sum = 0;
+        for (int i = 0; i < this.dimension; i++) {
+            double atol = this.absoluteTolerances == null ? tolerance : this.absoluteTolerances[i];
+            double rtol = this.relativeTolerances == null ? tolerance : this.relativeTolerances[i];
+            double scale = atol + rtol * Math.max(Math.abs(y[i]), Math.abs(nextY[i]));
+            double error = h * (E1*k1[i] + E3*k3[i] + E4*k4[i] + E5*k5[i] + E6*k6[i] + E7*k7[i]) / scale;
+            sum += error * error;
+        }
+        return Math.sqrt(sum / this.dimension);
+    }
+
+    /** Helper method to estimate the size of the first step from the derivative at the initial point
+     * k1 must hold the derivative at (t0, y) and k2 is used as scratch space
+     *
+     * @param t0 initial time
+     * @param y values at t0
+     * @param endTime end time of the integration
+     * @param system system of differential equations
+     * @param tolerance tolerance used where no per component tolerance is set
+     * @return initial step size guess
+     * @author Ogechi
+     */
+    private double initialStepSize(double t0, double[] y, double endTime, OdeSystem system, double tolerance) {
+        double d0 = 0;
+        double d1 = 0;
+        for (int i = 0; i < this.dimension; i++) {
+            double atol = this.absoluteTolerances == null ? tolerance : this.absoluteTolerances[i];
+            double rtol = this.relativeTolerances == null ? tolerance : this.relativeTolerances[i];
+            double scale = atol + rtol * Math.abs(y[i]);
+            d0 += (y[i] / scale) * (y[i] / scale);
+            d1 += (k1[i] / scale) * (k1[i] / scale);
+        }
+        d0 = Math.sqrt(d0 / this.dimension);
+        d1 = Math.sqrt(d1 / this.dimension);
+        double h0 = (d0 < 1e-5 || d1 < 1e-5) ? 1e-6 : 0.01 * d0 / d1;
+        h0 = Math.min(h0, endTime - t0);
+
+        //explicit Euler step to estimate the second derivative
+        for (int i = 0; i < this.dimension; i++) {
+            temp[i] = y[i] + h0 * k1[i];
+        }
+        system.rhs(t0 + h0, temp, k2);
+        double d2 = 0;
+        for (int i = 0; i < this.dimension; i++) {
+            double atol = this.absoluteTolerances == null ? tolerance : this.absoluteTolerances[i];
+            double rtol = this.relativeTolerances == null ? tolerance : this.relativeTolerances[i];
+            double scale = atol + rtol * Math.abs(y[i]);
+            double difference = (k2[i] - k1[i]) / scale;
+            d2 += difference * difference;
+        }
+        d2 = Math.sqrt(d2 / this.dimension) / h0;
+
+        double h1 = Math.max(d1, d2) <= 1e-15 ? Math.max(1e-6, h0 * 1e-3) : Math.pow(0.01 / Math.max(d1, d2), 0.2);
+        return Math.min(100 * h0, h1);
+    }
+
+    /**
+     * Takes one accepted Dormand-Prince step, repeating trial steps until the scaled error is acceptable.
+     * k1 must hold the derivative at (x, y). The accepted values are written to the internal workspace, the
+     * derivative at the new point is left in k1 for the next step and the step sizes are stored in stepSize and nextStepSize.
+     *
+     * @param x Current time.
+     * @param y Array of values of the dependent variables at x.
+     * @param h Initial step size.
+     * @param system System of differential equations, every component is evaluated once per stage.
+     * @param tolerance Tolerance used where no per component tolerance is set.
+     * @param endTime End time for the integration.
+     * @author Ogechi
+     */
+    private void dopriStep(double x, double[] y, double h, OdeSystem system, double tolerance, double endTime) {
+        int n = this.dimension;
+        double requested = Math.min(h, this.maxStepSize); //step size asked for before it is shortened to land on endTime
+        boolean rejected = false;
+
+        while (true) {
+            h = Math.min(Math.min(h, this.maxStepSize), endTime - x);
+
+            for (int i = 0; i < n; i++) {
+                temp[i] = y[i] + h * (A21*k1[i]);
+            }
+            system.rhs(x + C2*h, temp, k2);
+
+            for (int i = 0; i < n; i++) {
+                temp[i] = y[i] + h * (A31*k1[i] + A32*k2[i]);
+            }
+            system.rhs(x + C3*h, temp, k3);
+
+            for (int i = 0; i < n; i++) {
+                temp[i] = y[i] + h * (A41*k1[i] + A42*k2[i] + A43*k3[i]);
+            }
+            system.rhs(x + C4*h, temp, k4);
+
+            for (int i = 0; i < n; i++) {
+                temp[i] = y[i] + h * (A51*k1[i] + A52*k2[i] + A53*k3[i] + A54*k4[i]);
+            }
+            system.rhs(x + C5*h, temp, k5);
+
+            for (int i = 0; i < n; i++) {
+                temp[i] = y[i] + h * (A61*k1[i] + A62*k2[i] + A63*k3[i] + A64*k4[i] + A65*k5[i]);
+            }
+            system.rhs(x + h, temp, k6);
+
+            for (int i = 0; i < n; i++) {
+                nextY[i] = y[i] + h * (A71*k1[i] + A73*k3[i] + A74*k4[i] + A75*k5[i] + A76*k6[i]);
+            }
+            system.rhs(x + h, nextY, k7);
+
+            double error = errorNorm(y, h, tolerance);
+            double currentFactor = Math.pow(error, ALPHA);
+
+            if (error <= 1) {
+                //PI controller, the previous error damps oscillations of h between steps
+                double factor = currentFactor / Math.pow(this.previousError, BETA) / SAFETY;
+                factor = Math.max(1 / MAX_SCALE, Math.min(1 / MIN_SCALE, factor));
+                double next = h / factor;
+                if (rejected) next = Math.min(next, h); //do not grow right after a rejection
+                this.previousError = Math.max(error, MIN_PREVIOUS_ERROR);
+                this.stepSize = h;
+                this.nextStepSize = next;
+                //a step shortened to land on endTime says nothing about the size the dynamics allow, keep the requested one
+                this.warmStepSize = (!rejected && h < requested) ? Math.max(next, requested) : next;
+                updateStiffness(h);
+                if (this.statistics != null) this.statistics.recordAcceptedStep(h);
+
+                //first same as last, the derivative at the new point starts the next step
+                double[] swap = k1;
+                k1 = k7;
+                k7 = swap;
+                return;
+            }
+            if (this.statistics != null) this.statistics.recordRejectedStep(h);
+            rejected = true;
+            h = h / Math.min(1 / MIN_SCALE, currentFactor / SAFETY);
+        }
+    }
+
+    /** Helper method to update the stiffness history after an accepted step, temp must still hold the argument of the sixth stage
+     *
+     * @param h step size of the accepted step
+     * @author Ogechi
+     */
+    private void updateStiffness(double h) {
+        double numerator = 0;
+        double denominator = 0;
+        for (int i = 0; i < this.dimension; i++) {
+            double difference = k7[i] - k6[i];
+            numerator += difference * difference;
+            difference = nextY[i] - temp[i];
+            denominator += difference * difference;
+        }
+        if (denominator > 0 && h * h * numerator > STIFF_H_LAMBDA * STIFF_H_LAMBDA * denominator) {
+            this.stiffSteps++;
+            this.nonStiffSteps = 0;
+        } else if (++this.nonStiffSteps >= NON_STIFF_STEPS) {
+            this.stiffSteps = 0;
+        }
+    }
+
+    /**Integrates a system of ordinary differential equations in place using the Dormand-Prince method.
+     * No arrays are allocated, y is overwritten with the values at the end time.
+     * The step size and error history of the previous call are kept, so only a cold start estimates the first step.
+     *
+     * @param t0 Initial Time
+     * @param y Values of the dependent variables at t0, replaced by the values at endTime
+     * @param endTime End time for the integration
+     * @param system System of differential equations evaluated for all components at once
+     * @param tolerance Tolerance used as absolute and relative tolerance for components without their own tolerances
+     * @throws IllegalArgumentException if y does not match the dimension of the integrator
+     * @author Ogechi
+     */
+    public void integrate(double t0, double[] y, double endTime, OdeSystem system, double tolerance) {
+        integrate(t0, y, endTime, system, tolerance, 0, null);
+    }
+
+    /**Integrates a system of ordinary differential equations in place using the Dormand-Prince method
+     * and sends the solution at t0 + k*outputStep to the listener by cubic Hermite interpolation within each accepted step,
+     * so the step size is only limited by the tolerance. The derivative at the end of the step is already known from
+     * the last stage, so dense output costs no extra evaluations.
+     *
+     * @param t0 Initial Time
+     * @param y Values of the dependent variables at t0, replaced by the values at endTime
+     * @param endTime End time for the integration
+     * @param system System of differential equations evaluated for all components at once
+     * @param tolerance Tolerance used as absolute and relative tolerance for components without their own tolerances
+     * @param outputStep spacing of the output times after t0, ignored if listener is null
+     * @param listener listener receiving the solution at each output time up to endTime, or null for no dense output
+     * @throws IllegalArgumentException if y does not match the dimension of the integrator or outputStep is not greater than 0
+     * @author Ogechi
+     */
+    public void integrate(double t0, double[] y, double endTime, OdeSystem system, double tolerance, double outputStep, DenseOutputListener listener) {
+        if (y.length!=this.dimension) throw new IllegalArgumentException("Initial values do not match the Dormand-Prince dimension");
+        if (listener!=null && !(outputStep > 0)) throw new IllegalArgumentException("Output step must be greater than 0");
+        integrate(t0, y, endTime, system, tolerance, t0, outputStep, 1, listener, false);
+    }
+
+    /**Integrates a system of ordinary differential equations in place using the Dormand-Prince method,
+     * optionally stopping early once the problem is stiff so another solver can continue from getCurrentTime().
+     *
+     * @param t0 Initial Time
+     * @param y Values of the dependent variables at t0, replaced by the values at the time reached
+     * @param endTime End time for the integration
+     * @param system System of differential equations evaluated for all components at once
+     * @param tolerance Tolerance used as absolute and relative tolerance for components without their own tolerances
+     * @param outputStart time of output index 0, output times are outputStart + k*outputStep
+     * @param outputStep spacing of the output times, ignored if listener is null
+     * @param outputIndex index of the first output time after t0
+     * @param listener listener receiving the solution at each output time, or null for no dense output
+     * @param stopWhenStiff true to stop after the step at which isStiff() becomes true
+     * @return index of the first output time that has not been sent yet
+     * @author Ogechi
+     */
+    int integrate(double t0, double[] y, double endTime, OdeSystem system, double tolerance, double outputStart, double outputStep, int outputIndex, DenseOutputListener listener, boolean stopWhenStiff) {
+        double currentTime = t0;
+        this.currentTime = t0;
+        if (!(endTime > t0)) return outputIndex;
+
+        //the system may have changed since the last call so the derivative at t0 is always evaluated again
+        system.rhs(currentTime, y, k1);
+        double h = this.warmStepSize > 0 ? this.warmStepSize : initialStepSize(t0, y, endTime, system, tolerance);
+
+        while (currentTime < endTime) {
+            dopriStep(currentTime, y, h, system, tolerance, endTime);
+            if (listener != null) {
+                //after the first same as last swap k7 holds the derivative at the start and k1 the one at the end
+                denseOutput.setStep(currentTime, this.stepSize, y, k7, nextY, k1);
+                outputIndex = denseOutput.output(outputStart, outputStep, outputIndex, listener);
+            }
+            System.arraycopy(nextY, 0, y, 0, this.dimension);
+            h = this.nextStepSize;
+            //land exactly on the end time instead of leaving a rounding sized step
+            currentTime = this.stepSize == endTime - currentTime ? endTime : currentTime + this.stepSize;
+            if (stopWhenStiff && isStiff()) break;
+        }
+        this.currentTime = currentTime;
+        return outputIndex;
+    }
+
+    /**Solves a system of ordinary differential equations using the Dormand-Prince method.
+     *
+     * @param t0 Initial Time
+     * @param y0 Initial values of the dependent variables
+     * @param endTime End time for the integration
+     * @param system System of differential equations evaluated for all components at once
+     * @param tolerance Tolerance used as absolute and relative tolerance
+     * @return Array containing the final values of the dependent variables after simulating the system until the specified end time
+     * @author Ogechi
+     */
+    public static double[] solve(double t0, double[] y0, double endTime, OdeSystem system, double tolerance) {
+        double[] currentY = new double[y0.length];
+
+        System.arraycopy(y0, 0, currentY, 0, y0.length);
+        new DormandPrince(y0.length).integrate(t0, currentY, endTime, system, tolerance);
+
+        return currentY;
+    }
+
+    /**Main method used to test the validity of the Dormand-Prince solution
+     * Uses the same initial value problem as RK45, the analytical solution at t = 2 is 5.305471950534675
+     * @param args
+     * @author Ogechi
+     */
+    public static void main(String[] args) {
+        OdeSystem system = (t, y, dydt) -> dydt[0] = y[0] - Math.pow(t, 2) + 1;
+        double[] y0 = {0.5};
+        System.out.println(solve(0, y0, 2, system, 0.00001)[0]);
+        System.out.println(RK45.solve(0, y0, 2, system, 0.00001)[0]);
+        System.out.println(Math.pow(2 + 1, 2) - 0.5 * Math.exp(2));
+    }
+}
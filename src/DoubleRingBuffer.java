@@ -0,0 +1,235 @@
+/**
+ * Growable first in first out queue of (time, value) pairs stored in two parallel primitive ring arrays.
+ * Enqueue, peek and dequeue are O(1) and nothing is allocated per element, the arrays only double when the queue is full.
+ * Used for the dead time pipeline of controller actions and for the disturbance schedule.
+ *
+ * @author Ogechi
+ * @author Dylan
+ */
+public class DoubleRingBuffer implements Cloneable {
+
+    private static final int DEFAULT_CAPACITY = 16; //capacity of a queue created without a size hint
+
+    private double[] times; //time of each pair, indexed through mask
+    private double[] values; //value of each pair, indexed through mask
+    private int mask; //capacity - 1, the capacity is always a power of 2 so an index wraps with a bitwise and
+    private int head; //index of the front pair
+    private int size; //number of pairs in the queue
+
+    /**
+     * Creates a new empty queue with the default capacity.
+     * @author Ogechi
+     */
+    public DoubleRingBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new empty queue with room for at least the given number of pairs before it has to grow.
+     *
+     * @param initialCapacity number of pairs the queue can hold before growing
+     * @throws IllegalArgumentException if initial capacity is not greater than 0 or too large for an array
+     * @author Ogechi
+     */
+    public DoubleRingBuffer(int initialCapacity) {
+        if (initialCapacity < 1) throw new IllegalArgumentException("Initial capacity must be greater than 0");
+        if (initialCapacity > (1 << 30)) throw new IllegalArgumentException("Initial capacity is too large");
+        int capacity = Integer.highestOneBit(initialCapacity);
+        if (capacity < initialCapacity) capacity <<= 1;
+        this.times = new double[capacity];
+        this.values = new double[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Creates a new queue holding the pairs of a queue of {time, value} arrays in the same order, the source is not modified.
+     *
+     * @param pairs queue of arrays holding a time at index 0 and a value at index 1
+     * @throws IllegalArgumentException if the queue is null or one of its arrays is null or shorter than 2
+     * @author Ogechi
+     */
+    public DoubleRingBuffer(Queue<double[]> pairs) {
+        this(DEFAULT_CAPACITY);
+        if (pairs == null) throw new IllegalArgumentException("Error, queue of pairs cannot be null");
+        Queue<double[]> copy = pairs.clone();
+        while (!copy.isEmpty()) {
+            double[] pair = copy.dequeue();
+            if (pair == null || pair.length < 2) throw new IllegalArgumentException("Error, every pair must hold a time and a value");
+            enqueue(pair[0], pair[1]);
+        }
+    }
+
+    /** Copy constructor for the ring buffer, the arrays are deep copied
+     *
+     * @param source source queue to copy
+     * @throws IllegalArgumentException if source is null
+     * @author Ogechi
+     */
+    public DoubleRingBuffer(DoubleRingBuffer source) {
+        if (source == null) throw new IllegalArgumentException("Error, copy of null DoubleRingBuffer object");
+        this.times = source.times.clone();
+        this.values = source.values.clone();
+        this.mask = source.mask;
+        this.head = source.head;
+        this.size = source.size;
+    }
+
+    /** Clone method for the ring buffer
+     *
+     * @return deep copy of the queue
+     * @author Ogechi
+     */
+    @Override
+    public DoubleRingBuffer clone() {
+        return new DoubleRingBuffer(this);
+    }
+
+    /**
+     * Adds a pair to the end of the queue, doubling the arrays if the queue is full.
+     *
+     * @param time time of the pair
+     * @param value value of the pair
+     * @author Ogechi
+     */
+    public void enqueue(double time, double value) {
+        if (this.size > this.mask) grow();
+        int tail = (this.head + this.size) & this.mask;
+        this.times[tail] = time;
+        this.values[tail] = value;
+        this.size++;
+    }
+
+    /**
+     * Removes the pair at the front of the queue and returns its value.
+     *
+     * @return value of the pair removed from the front of the queue
+     * @throws NullPointerException if the queue is empty
+     * @author Ogechi
+     */
+    public double dequeue() {
+        if (this.size == 0) throw new NullPointerException("Error, dequeue from an empty queue");
+        double value = this.values[this.head];
+        this.head = (this.head + 1) & this.mask;
+        this.size--;
+        return value;
+    }
+
+    /**
+     * Retrieves, but does not remove, the time of the pair at the front of the queue.
+     *
+     * @return time of the front pair
+     * @throws NullPointerException if the queue is empty
+     * @author Ogechi
+     */
+    public double peekTime() {
+        if (this.size == 0) throw new NullPointerException("Error, peek at an empty queue");
+        return this.times[this.head];
+    }
+
+    /**
+     * Retrieves, but does not remove, the value of the pair at the front of the queue.
+     *
+     * @return value of the front pair
+     * @throws NullPointerException if the queue is empty
+     * @author Ogechi
+     */
+    public double peekValue() {
+        if (this.size == 0) throw new NullPointerException("Error, peek at an empty queue");
+        return this.values[this.head];
+    }
+
+    /**
+     * Checks if the queue is empty.
+     *
+     * @return true if the queue is empty, false otherwise
+     * @author Ogechi
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Accessor method for the number of pairs in the queue.
+     *
+     * @return number of pairs in the queue
+     * @author Ogechi
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Accessor method for the number of pairs the queue can hold before it grows.
+     *
+     * @return capacity of the arrays
+     * @author Ogechi
+     */
+    public int getCapacity() {
+        return this.mask + 1;
+    }
+
+    /**
+     * Removes every pair from the queue, the arrays are kept for reuse.
+     * @author Ogechi
+     */
+    public void clear() {
+        this.head = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Helper method doubling the arrays and moving the pairs to the start of the new arrays in order.
+     * @throws IllegalStateException if the queue cannot grow any further
+     * @author Ogechi
+     */
+    private void grow() {
+        int capacity = this.mask + 1;
+        if (capacity > (1 << 29)) throw new IllegalStateException("Error, queue cannot grow any further");
+        double[] newTimes = new double[2 * capacity];
+        double[] newValues = new double[2 * capacity];
+        int firstPart = capacity - this.head; //pairs from head up to the end of the old arrays
+        System.arraycopy(this.times, this.head, newTimes, 0, firstPart);
+        System.arraycopy(this.times, 0, newTimes, firstPart, this.head);
+        System.arraycopy(this.values, this.head, newValues, 0, firstPart);
+        System.arraycopy(this.values, 0, newValues, firstPart, this.head);
+        this.times = newTimes;
+        this.values = newValues;
+        this.mask = 2 * capacity - 1;
+        this.head = 0;
+    }
+
+    /** Equals method for the ring buffer, two queues are equal if they hold the same pairs in the same order whatever their capacity
+     *
+     * @param comparator queue to compare
+     * @return true if equal, false if not
+     * @author Ogechi
+     */
+    @Override
+    public boolean equals(Object comparator) {
+        if (comparator == null || comparator.getClass() != this.getClass()) return false;
+        DoubleRingBuffer other = (DoubleRingBuffer) comparator;
+        if (this.size != other.size) return false;
+        for (int i = 0; i < this.size; i++) {
+            int a = (this.head + i) & this.mask;
+            int b = (other.head + i) & other.mask;
+            if (Double.compare(this.times[a], other.times[b]) != 0 || Double.compare(this.values[a], other.values[b]) != 0) return false;
+        }
+        return true;
+    }
+
+    /** Hash code method for the ring buffer, consistent with equals so it depends on the pairs in order and not on the capacity
+     *
+     * @return hash of the pairs from oldest to newest
+     * @author Ogechi
+     */
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < this.size; i++) {
+            int index = (this.head + i) & this.mask;
+            hash = 31 * hash + Double.hashCode(this.times[index]);
+            hash = 31 * hash + Double.hashCode(this.values[index]);
+        }
+        return hash;
+    }
+}
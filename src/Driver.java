@@ -1,7 +1,7 @@
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.util.*;
 import java.util.regex.PatternSyntaxException;
 
@@ -13,55 +13,274 @@ import java.util.regex.PatternSyntaxException;
  * The input file should contain key-value pairs separated by a colon (":"). The keys are used to
  * identify and retrieve specific parameters for initializing the simulation.
  *
- * The output of the simulation is written to a CSV file, and the file name for output is also specified
- * in the input file.
+ * The output of the simulation is written row by row to a CSV file as it is produced, and the file name for output is also specified
+ * in the input file. A binary file and keeping only every few rows are optional.
  *
  * @author Ogechi
  */
 public class Driver {
 
     /**
-     * The main method of the `Driver` class. It reads input parameters from a file, initializes the
-     * reactor, controller, and reaction, and performs a simulation using the PID controller. The output
-     * of the simulation is written to a CSV file.
+     * The main method of the `Driver` class. It reads the path of an input file from the standard input and runs
+     * the simulation it describes, see run. Given arguments, it runs a batch of input files instead, see BatchDriver.
      *
-     * @param args Command line arguments (not used).
+     * @param args Command line arguments, none for a single input file, or a directory or glob of input files followed by
+     *             the optional number of simulations to run at the same time and the optional path of the batch summary.
      * @throws IOException If an error occurs during file reading or writing.
      * @author Ogechi
      */
     public static void main(String[] args) throws IOException {
-        Reaction reaction;
-        String[] header = null;
-        CSTRReactor cstrReactor;
-        boolean isControlled;
-        PIDController pidController;
-        String SEPARATOR = ",";
+        if (args.length > 0) {
+            BatchDriver.main(args);
+            return;
+        }
         Scanner scanner = new Scanner(System.in);
         System.out.println("Enter file path for information input (i.e. src/TestCase2_PI): ");
         String fileName = scanner.nextLine();
         scanner.close();
+        run(fileName);
+    }
+
+    /**
+     * Reads input parameters from a file, initializes the reactor, controller, and reaction, and performs
+     * a simulation using the PID controller. The output of the simulation is written to the file named in the input file.
+     *
+     * @param fileName Path of the input file.
+     * @return Path of the output file.
+     * @throws IOException If an error occurs during file reading or writing.
+     * @author Ogechi
+     */
+    public static String run(String fileName) throws IOException {
+        return run(fileName, populateFromFile(fileName), false, null, System.out).getOutputFile();
+    }
+
+    /**
+     * Initializes the reactor, controller, and reaction described by the parameters of an input file, and performs
+     * a simulation using the PID controller. The output of the simulation is written to the file named in the parameters.
+     *
+     * @param fileName Path of the input file, only used to name the result.
+     * @param dict Parameters read by populateFromFile.
+     * @param measureMetrics True to measure the performance metrics even if the parameters name no metrics file.
+     * @param executor Executor running the candidates of an autotuned controller, or null for a new one using every available processor.
+     * @param log Stream receiving the messages about the files written and the tuning, or null for none.
+     * @return Completed result holding the output file, the work done and the performance metrics if they were measured,
+     *         its wall time covers everything but reading the input file.
+     * @throws IOException If an error occurs during file writing.
+     * @throws IllegalArgumentException If a parameter is missing or has an invalid value.
+     * @author Ogechi
+     */
+    public static ScenarioResult run(String fileName, Map<String, String> dict, boolean measureMetrics, SimulationExecutor executor, PrintStream log) throws IOException {
+        long start = System.nanoTime();
+        String[] header = null;
+        String SEPARATOR = ",";
         String fileOutName = null;
-        Map<String, String> dict = populateFromFile(fileName);
 
 
         //attempt to initialize file population parameters from the populated dictionary
         try {
-            fileOutName = dict.get("populate to file");
+            //every sink writes to this path, the one the batch driver checks for duplicates
+            fileOutName = getOutputFile(dict);
             header = dict.get("header").split(",");
         } catch(NullPointerException e){
             throw new IllegalArgumentException("Element of File population parameter information value is null");
         } catch (PatternSyntaxException e){
-            System.out.println("Ensure the list of headers are delimited by commas");
+            if (log != null) log.println("Ensure the list of headers are delimited by commas");
+        }
+
+        PIDController pidController = createController(dict);
+
+        //optional autotuning, the tuned controller replaces the one from the file and its closed-loop response is written as usual
+        if (dict.get("autotune") != null) {
+            PIDTuner.OBJECTIVE objective = PIDTuner.getObjectiveByLabel(dict.get("autotune"));
+            if (objective == null) throw new IllegalArgumentException("Autotune must be IAE, ISE or ITAE");
+            PIDTuner tuner = new PIDTuner(pidController, objective);
+            try {
+                if ((dict.get("max overshoot") != null && !tuner.setMaxOvershoot(Double.parseDouble(dict.get("max overshoot"))))
+                        || (dict.get("max settling time") != null && !tuner.setMaxSettlingTime(Double.parseDouble(dict.get("max settling time"))))
+                        || (dict.get("settling band") != null && !tuner.setSettlingBand(Double.parseDouble(dict.get("settling band"))))) {
+                    throw new IllegalArgumentException("Max overshoot, max settling time and settling band cannot be negative");
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Ensure max overshoot, max settling time and settling band consist of double values");
+            }
+            double startingObjective = tuner.evaluate(pidController);
+            if (executor != null) {
+                pidController = tuner.tune(executor);
+            } else {
+                try (SimulationExecutor tuningExecutor = new SimulationExecutor()) {
+                    pidController = tuner.tune(tuningExecutor);
+                }
+            }
+            if (log != null) {
+                log.println("Tuned controller gain : " + pidController.getControllerGain());
+                log.println("Tuned integrating time constant : " + pidController.getIntegratingTimeConstant());
+                log.println("Tuned derivative time constant : " + pidController.getDerivativeTimeConstant());
+                log.println(objective + " from " + startingObjective + " to " + tuner.getBestObjective() + " after " + tuner.getEvaluationCount() + " candidates, " + tuner.getCancelledCount() + " of them cancelled early");
+            }
+        }
+
+        //rows are written as they are produced, so only the optional decimation changes how much of the run reaches the file
+        SimulationSink sink;
+        String outputFile;
+        if ("columnar".equalsIgnoreCase(dict.get("output format"))) {
+            ColumnarSink columnarSink = new ColumnarSink(fileOutName, header);
+            outputFile = columnarSink.getFilePath();
+            sink = columnarSink;
+        } else if ("compressed".equalsIgnoreCase(dict.get("output format"))) {
+            double errorBound = 0;
+            if (dict.get("output error bound") != null) {
+                try {
+                    errorBound = Double.parseDouble(dict.get("output error bound"));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Output error bound must be a double value");
+                }
+            }
+            CompressedSink compressedSink = new CompressedSink(fileOutName, header, errorBound);
+            outputFile = compressedSink.getFilePath();
+            sink = compressedSink;
+        } else if ("binary".equalsIgnoreCase(dict.get("output format"))) {
+            BinarySink binarySink = new BinarySink(fileOutName);
+            outputFile = binarySink.getFilePath();
+            sink = binarySink;
+        } else {
+            int[] columns = null;
+            int precision = CsvResultWriter.EXACT;
+            try {
+                if (dict.get("output columns") != null) {
+                    String[] str = dict.get("output columns").split(SEPARATOR);
+                    columns = new int[str.length];
+                    for (int i = 0; i < str.length; i++) {
+                        columns[i] = Integer.parseInt(str[i].trim());
+                    }
+                }
+                if (dict.get("output precision") != null) {
+                    precision = Integer.parseInt(dict.get("output precision"));
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Output columns and output precision must consist of integer values");
+            }
+            if (columns != null) {
+                //the header in the input file names every result column, keep the names of the written ones
+                String[] selectedHeader = new String[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    selectedHeader[i] = columns[i] >= 0 && columns[i] < header.length ? header[columns[i]] : "";
+                }
+                header = selectedHeader;
+            }
+            CsvSink csvSink = new CsvSink(fileOutName, header, columns, precision);
+            outputFile = csvSink.getFilePath();
+            sink = csvSink;
+        }
+        if (dict.get("output interval") != null) {
+            try {
+                sink = new DecimatingSink(sink, Integer.parseInt(dict.get("output interval")));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Output interval must be an integer");
+            }
+        }
+
+        //optional performance summary, measured while the rows pass on to the output file so the file is never read back
+        PerformanceMetricsSink metricsSink = null;
+        if (dict.get("metrics file") != null || measureMetrics) {
+            try {
+                metricsSink = dict.get("settling band") != null
+                        ? PerformanceMetricsSink.forController(pidController, Double.parseDouble(dict.get("settling band")), sink)
+                        : PerformanceMetricsSink.forController(pidController, sink);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Settling band must be a double value");
+            }
+            sink = metricsSink;
+        }
+
+        long rhsEvaluations = ((Reactor) pidController.getControllable()).getRhsEvaluationCount();
+        //a failed simulation aborts the sink, which removes the partial file only if it created it
+        pidController.simulate(sink);
+        rhsEvaluations = ((Reactor) pidController.getControllable()).getRhsEvaluationCount() - rhsEvaluations;
+        if (log != null) log.println("Output file generated or overwritten called: " + outputFile);
+        if (pidController.getFilledRowCount() > 0 && log != null) {
+            log.println("Steady state from t = " + pidController.getSteadyStateTime() + ", " + pidController.getFilledRowCount() + " of " + (int) pidController.getNumberOfSteps()
+                    + " rows filled instead of simulated, skipping " + pidController.getSkippedTime() + " of simulated time and saving about "
+                    + String.format(Locale.ROOT, "%.1f", pidController.getEstimatedTimeSaved()) + " ms");
+        }
+        //the solver switches are logged here rather than by the solver, which may run on a worker thread
+        double[] switchTimes = pidController.getStiffnessSwitchTimes();
+        for (int i = 0; i < switchTimes.length && log != null; i++) {
+            log.println("Solver switched to " + (i % 2 == 0 ? "Rosenbrock (stiff)" : "Dormand-Prince (non-stiff)") + " at t = " + switchTimes[i]);
         }
+        if (metricsSink != null && dict.get("metrics file") != null) {
+            metricsSink.getMetrics().writeSummary(dict.get("metrics file"));
+            if (log != null) log.println("Performance summary generated or overwritten called: " + dict.get("metrics file"));
+        }
+        if (pidController.getSolverStatistics() != null) {
+            pidController.getSolverStatistics().write(dict.get("solver statistics file"));
+            if (log != null) log.println("Solver statistics generated or overwritten called: " + dict.get("solver statistics file"));
+        }
+        return new ScenarioResult(fileName, ScenarioResult.STATUS.COMPLETED, null, (System.nanoTime() - start) / 1e6, outputFile,
+                (int) pidController.getNumberOfSteps(), pidController.getFilledRowCount(), pidController.getSkippedTime(), pidController.getEstimatedTimeSaved(),
+                rhsEvaluations, metricsSink == null ? null : metricsSink.getMetrics());
+    }
+
+    /**
+     * Returns the path of the file the simulation described by the parameters of an input file is written to, which is the
+     * "populate to file" value with the extension of the output format appended if it does not have it.
+     *
+     * @param dict Parameters read by populateFromFile.
+     * @return Path of the output file.
+     * @throws IllegalArgumentException If the parameters have no "populate to file" value.
+     * @author Ogechi
+     */
+    public static String getOutputFile(Map<String, String> dict) {
+        String fileOutName = dict.get("populate to file");
+        if (fileOutName == null) throw new IllegalArgumentException("Element of File population parameter information value is null");
+        if ("columnar".equalsIgnoreCase(dict.get("output format"))) {
+            return ColumnarSink.withExtension(fileOutName);
+        } else if ("compressed".equalsIgnoreCase(dict.get("output format"))) {
+            return CompressedSink.withExtension(fileOutName);
+        } else if ("binary".equalsIgnoreCase(dict.get("output format"))) {
+            return BinarySink.withExtension(fileOutName);
+        }
+        return CsvSink.withExtension(fileOutName);
+    }
+
+    /**
+     * Initializes the reaction, reactor and controller described by the parameters of an input file, including the optional
+     * solver and steady state settings, ready to be simulated.
+     *
+     * @param dict Parameters read by populateFromFile.
+     * @return New controller of a new reactor.
+     * @throws IllegalArgumentException If a parameter is missing or has an invalid value.
+     * @author Ogechi
+     */
+    public static PIDController createController(Map<String, String> dict) {
+        ControllerSetupEvent event = new ControllerSetupEvent();
+        event.begin();
+        Reaction reaction;
+        ReactionNetwork reactionNetwork = null;
+        CSTRReactor cstrReactor;
+        boolean isControlled;
+        PIDController pidController;
+        String SEPARATOR = ",";
 
         //attempt to initialize Reaction parameters from the populated dictionary
         try{
-            reaction = new Reaction(dict.get("reaction equation"), Double.parseDouble(dict.get("k")));
+            if (dict.get("reaction equations") != null) {
+                //network of reactions, the first one also stands in as the reactor's single reaction
+                String[] equations = dict.get("reaction equations").split(";");
+                String[] str = dict.get("rate constants").split(SEPARATOR);
+                double[] rateConstants = new double[str.length];
+                for (int i = 0; i < str.length; i++){
+                    rateConstants[i] = Double.parseDouble(str[i].trim());
+                }
+                reactionNetwork = new ReactionNetwork(equations, rateConstants);
+                reaction = reactionNetwork.getReaction(0);
+            } else {
+                reaction = new Reaction(dict.get("reaction equation"), Double.parseDouble(dict.get("k")));
+            }
 
         } catch(NullPointerException e){
             throw new IllegalArgumentException("Element of Reaction parameter information value is null");
         } catch (NumberFormatException e){
-            throw new IllegalArgumentException("k must be a double");
+            throw new IllegalArgumentException("k and rate constants must be doubles");
         }
 
 
@@ -87,6 +306,10 @@ public class Driver {
             } else {
                 cstrReactor = new CSTRReactor(V, initialFlow, reaction, initialConcentrations, inletConcentrations, Integer.parseInt(dict.get("controlled")), true);
             }
+            cstrReactor.setSolverType(OdeSolver.getSolverTypeByLabel(dict.get("solver")));
+            if (reactionNetwork != null && !cstrReactor.setReactionNetwork(reactionNetwork)) {
+                throw new IllegalArgumentException("The reaction network has " + reactionNetwork.getSpeciesCount() + " species but " + initialConcentrations.length + " initial concentrations were given");
+            }
 
         } catch (NullPointerException e){
             throw new IllegalArgumentException("Element of Reactor information value is null");
@@ -100,6 +323,9 @@ public class Driver {
             double endTime = Double.parseDouble(dict.get("end time"));
             double timeStep = Double.parseDouble(dict.get("time step"));
             double tolerance = Double.parseDouble(dict.get("tolerance"));
+            //tolerances in existing input files were chosen when every integration step was one time step long,
+            //ten time steps per integration step keeps those results while the solver interpolates the rows in between
+            cstrReactor.setMaxStepSize(dict.get("max step size") == null ? 10 * timeStep : Double.parseDouble(dict.get("max step size")));
             Queue<double[]> disturbances = new Queue<>();
             if(!(dict.get("disturbances")).contains(";")){
                 String[] s = dict.get("disturbances").trim().split(",");
@@ -136,15 +362,34 @@ public class Driver {
         }catch(NullPointerException e){
             throw new IllegalArgumentException("Element of PIDController information value is null");
         } catch (NumberFormatException e){
-            throw new IllegalArgumentException("Ensure start time, end time, time step, tolerance, controller gain, integrating time constant derivative time constant, and dead time consist of double values");
+            throw new IllegalArgumentException("Ensure start time, end time, time step, tolerance, max step size, controller gain, integrating time constant derivative time constant, and dead time consist of double values");
         } catch (CloneNotSupportedException e) {
             throw new RuntimeException(e);
         }
 
-        double[][] simulation = pidController.simulate();
+        //optional steady state detection, the rows after the run has stayed steady for the window repeat the steady state
+        try {
+            if ((dict.get("steady state tolerance") != null && !pidController.setSteadyStateTolerance(Double.parseDouble(dict.get("steady state tolerance"))))
+                    || (dict.get("steady state band") != null && !pidController.setSteadyStateBand(Double.parseDouble(dict.get("steady state band"))))
+                    || (dict.get("steady state window") != null && !pidController.setSteadyStateWindow(Double.parseDouble(dict.get("steady state window"))))) {
+                throw new IllegalArgumentException("Steady state tolerance, band and window cannot be negative");
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Ensure steady state tolerance, band and window consist of double values");
+        }
+
+        //optional solver statistics, the solver does no extra work without them
+        if (dict.get("solver statistics file") != null) pidController.setCollectSolverStatistics(true);
 
-        populateToFile(fileOutName, simulation, header);
-        System.out.println("CSV file output generated or overwritten called: " + fileOutName + ".csv");
+        if (event.shouldCommit()) {
+            event.controllerType = pidController.getControllerType().toString();
+            event.solverType = cstrReactor.getSolverType().toString();
+            event.steps = (long) pidController.getNumberOfSteps();
+            event.timeStep = pidController.getTimeStep();
+            event.deadTime = pidController.getDeadTime();
+            event.commit();
+        }
+        return pidController;
     }
 
     /**
@@ -164,6 +409,9 @@ public class Driver {
      * <li>"is controlled": Boolean indicating whether the reactor is controlled.</li>
      * <li>"reaction equation": Equation representing the chemical reaction.</li>
      * <li>"k": Reaction rate constant.</li>
+     * <li>"reaction equations": Optional reaction network replacing "reaction equation" (semicolon-separated equations),
+     * concentrations are then given per species in order of first appearance in the equations.</li>
+     * <li>"rate constants": Rate constant of each equation of the network (comma-separated).</li>
      * <li>"controller type": Type of the PID controller.</li>
      * <li>"start time": Start time of the simulation.</li>
      * <li>"end time": End time of the simulation.</li>
@@ -175,6 +423,29 @@ public class Driver {
      * <li>"set point": Set point for the controlled variable.</li>
      * <li>"dead time": Dead time in the system.</li>
      * <li>"disturbances": Disturbances applied during the simulation (semicolon-separated pairs of time and magnitude).</li>
+     * <li>"solver": Optional integration method, RK45 (default), Dormand-Prince, Rosenbrock for stiff reactions or Auto to switch between Dormand-Prince and Rosenbrock as the stiffness changes.</li>
+     * <li>"max step size": Optional largest integration step, ten time steps if not given.</li>
+     * <li>"output format": Optional file format, CSV (default), binary for a file of doubles read with BinarySink.read,
+     * columnar for a file of named columns read with ColumnarResultFile and converted to and from CSV with it,
+     * or compressed for a compact file read back row by row with CompressedResultReader.</li>
+     * <li>"output error bound": Optional largest error of the values except the time in a compressed file, lossless if not given or 0.</li>
+     * <li>"output interval": Optional number of time steps per output row, every time step if not given.</li>
+     * <li>"output columns": Optional indices of the result columns written to a CSV file (comma-separated, 0 is the time), all if not given.</li>
+     * <li>"output precision": Optional number of significant digits written to a CSV file, exact values if not given or 0.</li>
+     * <li>"autotune": Optional objective, IAE, ISE or ITAE, minimized by tuning the controller gain and time constants before the
+     * simulation, the values given for them are the starting point and the output holds the response of the tuned controller.</li>
+     * <li>"max overshoot": Optional largest overshoot of the controlled variable past the set point allowed while tuning.</li>
+     * <li>"max settling time": Optional largest settling time allowed while tuning.</li>
+     * <li>"settling band": Optional largest error counted as settled, 2 % of the set point if not given.</li>
+     * <li>"steady state tolerance": Optional largest rate of change of every output counted as steady, the rows after the run has
+     * stayed steady for the steady state window with no disturbance left repeat the steady state, every row is simulated if not given or 0.</li>
+     * <li>"steady state band": Optional largest error of a controlled run counted as steady, any error if not given.</li>
+     * <li>"steady state window": Optional time the run must stay steady, at least the dead time, one time step if not given.</li>
+     * <li>"metrics file": Optional file to which IAE, ISE, ITAE, overshoot, rise time, settling time and controller effort of the
+     * simulation are written, measured while it runs.</li>
+     * <li>"solver statistics file": Optional file to which the right-hand side evaluations, accepted and rejected steps, step size
+     * histogram, time in the right-hand side and work per control interval of the solver are written, as JSON if the name ends
+     * with .json and as CSV otherwise.</li>
      * </ul>
      *
      * @param strFileName Path of the file.
@@ -182,9 +453,10 @@ public class Driver {
      * @throws FileNotFoundException If the specified file is not found.
      * @author Ogechi
      */
-    private static Map<String,String> populateFromFile(String strFileName) throws FileNotFoundException {
+    public static Map<String,String> populateFromFile(String strFileName) throws FileNotFoundException {
+        InputParsingEvent event = new InputParsingEvent();
+        event.begin();
         String SEPARATOR = ":";
-        Scanner scanner = new Scanner(new File(strFileName));
 
         Map<String, String> dictionary = new HashMap<>();
 
@@ -203,6 +475,8 @@ public class Driver {
         // Reaction info
         dictionary.put("reaction equation", null);
         dictionary.put("k", null);
+        dictionary.put("reaction equations", null);
+        dictionary.put("rate constants", null);
 
         //controller info
 
@@ -218,58 +492,59 @@ public class Driver {
         dictionary.put("dead time", null);
         dictionary.put("disturbances", null);
 
+        //solver info, optional and RK45 if not given
+        dictionary.put("solver", null);
+        dictionary.put("max step size", null);
 
-        while (scanner.hasNext()){
-            String str  = scanner.nextLine();
+        //output info, optional and a CSV row for every time step if not given
+        dictionary.put("output format", null);
+        dictionary.put("output interval", null);
+        dictionary.put("output columns", null);
+        dictionary.put("output precision", null);
+        dictionary.put("output error bound", null);
 
-            if(!str.isEmpty() && !str.trim().equals("") && !str.trim().equals(System.lineSeparator())){
-                String[] currentStr = str.split(SEPARATOR,2);
-                if (currentStr.length == 2){
-                    if (dictionary.containsKey(currentStr[0].trim())){
-                        dictionary.put(currentStr[0].toLowerCase().trim(),currentStr[1].trim());
-                    }else{
-                        throw new IllegalArgumentException("incorrect name format of variable name in .csv file: " + currentStr[0]);
-                    }
-                } else{
-                    throw new IllegalArgumentException("Incorrect file format. should be in form: 'Variable name : value' " + currentStr[0]);
-                }
-            }
-        }
-        return dictionary;
-    }
+        //tuning info, optional and the controller is simulated as given if not given
+        dictionary.put("autotune", null);
+        dictionary.put("max overshoot", null);
+        dictionary.put("max settling time", null);
+        dictionary.put("settling band", null);
 
-    /**
-     * Populates a CSV file with the simulation results.
-     *
-     * @param filePath Path of the output file.
-     * @param data Simulation data to be written to the file.
-     * @param header Header for the CSV file.
-     * @author Ogechi
-     */
-    private static void populateToFile(String filePath, double[][] data, String[] header){
-        if (!filePath.toLowerCase().endsWith(".csv")) {
-            filePath += ".csv";
-        }
-        File file = new File(filePath);
+        //steady state info, optional and every row is simulated if not given
+        dictionary.put("steady state tolerance", null);
+        dictionary.put("steady state band", null);
+        dictionary.put("steady state window", null);
 
-        try{
-            FileWriter outputFile = new FileWriter(file);
+        //performance info, optional and no summary is written if not given
+        dictionary.put("metrics file", null);
 
-            for (String s: header) {
-                outputFile.append(s);
-                outputFile.append(",");
-            }
-            outputFile.append('\n');
-            for (double[] d: data){
-                for (double value : d) {
-                    outputFile.append(Double.toString(value));
-                    outputFile.append(",");
+        //solver statistics info, optional and not collected if not given
+        dictionary.put("solver statistics file", null);
+
+
+        //the file is closed even if a line is invalid, batches read many input files in one process
+        try (Scanner scanner = new Scanner(new File(strFileName))) {
+            while (scanner.hasNext()){
+                String str  = scanner.nextLine();
+
+                if(!str.isEmpty() && !str.trim().equals("") && !str.trim().equals(System.lineSeparator())){
+                    String[] currentStr = str.split(SEPARATOR,2);
+                    if (currentStr.length == 2){
+                        if (dictionary.containsKey(currentStr[0].trim())){
+                            dictionary.put(currentStr[0].toLowerCase().trim(),currentStr[1].trim());
+                        }else{
+                            throw new IllegalArgumentException("incorrect name format of variable name in .csv file: " + currentStr[0]);
+                        }
+                    } else{
+                        throw new IllegalArgumentException("Incorrect file format. should be in form: 'Variable name : value' " + currentStr[0]);
+                    }
                 }
-                outputFile.append("\n");
             }
-            outputFile.close();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         }
+        if (event.shouldCommit()) {
+            event.file = strFileName;
+            event.parameters = (int) dictionary.values().stream().filter(Objects::nonNull).count();
+            event.commit();
+        }
+        return dictionary;
     }
 }
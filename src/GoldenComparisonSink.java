@@ -0,0 +1,171 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/** Simulation sink comparing every row with the same row of a golden CSV result file as the rows are produced, so neither result is held in memory
+ * A value is within tolerance if it differs from the golden value by at most the absolute tolerance plus the relative tolerance times the golden value.
+ * Golden files are the files written by CsvSink, with a header of column names and every value followed by a comma.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class GoldenComparisonSink implements SimulationSink {
+
+    private final String goldenPath; //path of the golden CSV file
+    private final double absoluteTolerance; //difference allowed for a golden value of 0
+    private final double relativeTolerance; //difference allowed per unit of the golden value
+    private BufferedReader golden; //golden file, open between start and finish
+    private String[] names; //column names from the golden header
+    private int rowCount; //rows compared
+    private double largestError; //largest absolute difference
+    private double largestRatio; //largest difference relative to its tolerance, above 1 if a value is out of tolerance
+    private String worstColumn; //column of the largest ratio
+    private String mismatch; //reason the results cannot be compared, null if they have the same shape
+
+    /** Constructor for a golden comparison sink
+     *
+     * @param goldenPath path of the golden CSV file
+     * @param absoluteTolerance difference allowed for a golden value of 0
+     * @param relativeTolerance difference allowed per unit of the golden value
+     * @throws IllegalArgumentException if golden path is null, a tolerance is negative or both are 0
+     * @author Ogechi
+     */
+    public GoldenComparisonSink(String goldenPath, double absoluteTolerance, double relativeTolerance) {
+        if (goldenPath == null) throw new IllegalArgumentException("Golden path cannot be null");
+        if (!(absoluteTolerance >= 0) || !(relativeTolerance >= 0) || absoluteTolerance + relativeTolerance == 0) {
+            throw new IllegalArgumentException("Error, tolerances cannot be negative and one must be greater than 0");
+        }
+        this.goldenPath = goldenPath;
+        this.absoluteTolerance = absoluteTolerance;
+        this.relativeTolerance = relativeTolerance;
+    }
+
+    /** Accessor method for the rows compared
+     *
+     * @return rows compared with the golden file so far
+     * @author Ogechi
+     */
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /** Accessor method for the largest difference
+     *
+     * @return largest absolute difference between a value and its golden value so far
+     * @author Ogechi
+     */
+    public double getLargestError() {
+        return this.largestError;
+    }
+
+    /** Accessor method for the largest difference relative to its tolerance
+     *
+     * @return largest difference divided by the tolerance of its golden value, above 1 if a value is out of tolerance
+     * @author Ogechi
+     */
+    public double getLargestRatio() {
+        return this.largestRatio;
+    }
+
+    /** Accessor method for the column of the largest difference relative to its tolerance
+     *
+     * @return name of the column from the golden header, "none" if every value matched exactly
+     * @author Ogechi
+     */
+    public String getWorstColumn() {
+        return this.worstColumn;
+    }
+
+    /** Accessor method for the mismatch in shape
+     *
+     * @return reason the results could not be compared, null if they have the same number of rows and columns
+     * @author Ogechi
+     */
+    public String getMismatch() {
+        return this.mismatch;
+    }
+
+    /** Returns whether the results matched the golden file
+     *
+     * @return true if the results have the shape of the golden file and every value is within tolerance
+     * @author Ogechi
+     */
+    public boolean isWithinTolerance() {
+        return this.mismatch == null && this.largestRatio <= 1;
+    }
+
+    /** Opens the golden file and reads its header
+     *
+     * @param columnCount number of values in every row
+     * @param rowCount number of rows that will follow
+     * @throws RuntimeException if the golden file cannot be read
+     * @author Ogechi
+     */
+    @Override
+    public void start(int columnCount, int rowCount) {
+        this.rowCount = 0;
+        this.largestError = 0;
+        this.largestRatio = 0;
+        this.worstColumn = "none";
+        this.mismatch = null;
+        try {
+            this.golden = new BufferedReader(new FileReader(this.goldenPath, StandardCharsets.UTF_8));
+            String header = this.golden.readLine();
+            this.names = header == null ? new String[0] : header.split(",");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Compares a row with the next row of the golden file
+     *
+     * @param row values of the row
+     * @throws RuntimeException if the golden file cannot be read
+     * @author Ogechi
+     */
+    @Override
+    public void accept(double[] row) {
+        if (this.mismatch != null) return;
+        try {
+            String line = this.golden.readLine();
+            if (line == null) {
+                this.mismatch = "more rows than the golden file";
+                return;
+            }
+            //split drops the empty value after the last comma
+            String[] values = line.split(",");
+            if (values.length != row.length) {
+                this.mismatch = "row " + this.rowCount + " has " + row.length + " values and the golden file " + values.length;
+                return;
+            }
+            for (int j = 0; j < row.length; j++) {
+                double expected = Double.parseDouble(values[j]);
+                double error = Math.abs(row[j] - expected);
+                double ratio = Double.isNaN(error) ? Double.POSITIVE_INFINITY : error / (this.absoluteTolerance + this.relativeTolerance * Math.abs(expected));
+                this.largestError = Math.max(this.largestError, error);
+                if (ratio > this.largestRatio) {
+                    this.largestRatio = ratio;
+                    this.worstColumn = j < this.names.length ? this.names[j].trim() : Integer.toString(j);
+                }
+            }
+            this.rowCount++;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Checks that the golden file has no rows left and closes it
+     *
+     * @throws RuntimeException if the golden file cannot be read
+     * @author Ogechi
+     */
+    @Override
+    public void finish() {
+        try {
+            if (this.mismatch == null && this.golden.readLine() != null) this.mismatch = "fewer rows than the golden file";
+            this.golden.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/** Simulation sink copying every row into an array with the layout returned by PIDController.simulate()
+ * The array is allocated once when the simulation starts, it is the only sink whose memory grows with the run length.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class InMemorySink implements SimulationSink {
+
+    private double[][] results; //rows received so far, allocated at start
+    private int rowsReceived; //number of rows copied into results
+
+    /** Constructor for an empty sink
+     *
+     * @author Ogechi
+     */
+    public InMemorySink() {
+        this.results = new double[0][];
+    }
+
+    /** Allocates the results for a new simulation, replacing those of any earlier one
+     *
+     * @param columnCount number of values in every row
+     * @param rowCount number of rows that will follow
+     * @throws IllegalArgumentException if column count or row count is negative
+     * @author Ogechi
+     */
+    @Override
+    public void start(int columnCount, int rowCount) {
+        if (columnCount < 0 || rowCount < 0) throw new IllegalArgumentException("Column count and row count cannot be negative");
+        this.results = new double[rowCount][columnCount];
+        this.rowsReceived = 0;
+    }
+
+    /** Copies a row into the results
+     *
+     * @param row values of the row
+     * @throws IllegalArgumentException if more rows are received than given at start or the row length does not match
+     * @author Ogechi
+     */
+    @Override
+    public void accept(double[] row) {
+        if (this.rowsReceived == this.results.length) throw new IllegalArgumentException("Error, more rows received than given at start");
+        if (row.length != this.results[this.rowsReceived].length) throw new IllegalArgumentException("Error, row length does not match the column count");
+        System.arraycopy(row, 0, this.results[this.rowsReceived], 0, row.length);
+        this.rowsReceived++;
+    }
+
+    /** Nothing is held open, the results stay available
+     *
+     * @author Ogechi
+     */
+    @Override
+    public void finish() {
+    }
+
+    /** Accessor method for the results, rows that were not received yet are 0
+     *
+     * @return array of rows, not copied
+     * @author Ogechi
+     */
+    public double[][] getResults() {
+        return this.results;
+    }
+
+    /** Accessor method for the number of rows received since the last start
+     *
+     * @return number of rows received
+     * @author Ogechi
+     */
+    public int getRowsReceived() {
+        return this.rowsReceived;
+    }
+}
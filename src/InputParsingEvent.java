@@ -0,0 +1,22 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event spanning the parsing of an input file by Driver.populateFromFile
+ * @author Ogechi
+ * @author Dylan
+ */
+@Name("cstr.InputParsing")
+@Label("Input Parsing")
+@Category({"CSTR", "Simulation"})
+@Description("Reading the parameters of a simulation from its input file")
+public class InputParsingEvent extends jdk.jfr.Event {
+
+    @Label("File")
+    String file; //path of the input file
+
+    @Label("Parameters")
+    @Description("Parameters given a value by the file")
+    int parameters; //keys with a value after parsing
+}
@@ -0,0 +1,24 @@
+/** Interface for systems of ordinary differential equations that can evaluate their Jacobian analytically
+ * Implicit solvers use the Jacobian instead of approximating it by finite differences.
+ * @author Ogechi
+ * @author Dylan
+ */
+public interface JacobianOdeSystem extends OdeSystem {
+    /** Evaluates the Jacobian matrix df/dy of the right-hand side.
+     *
+     * @param t time
+     * @param y array of dependent variables at time t
+     * @param dfdy square matrix filled so that dfdy[i][j] is the derivative of dy_i/dt with respect to y_j
+     * @author Ogechi
+     */
+    void jacobian(double t, double[] y, double[][] dfdy);
+
+    /** Returns true if the right-hand side does not depend explicitly on time, so df/dt is 0.
+     *
+     * @return true for autonomous systems, false if solvers have to account for df/dt
+     * @author Ogechi
+     */
+    default boolean isAutonomous() {
+        return false;
+    }
+}
@@ -0,0 +1,115 @@
+/** Dense LU decomposition with partial pivoting for the linear systems of implicit ODE solvers
+ * The workspace is allocated once so a factorization can be computed and reused for many solves without allocating.
+ * @author Ogechi
+ */
+public class LUDecomposition {
+
+    private final int dimension;
+    private final double[][] lu; //unit lower triangle below the diagonal and upper triangle on and above it
+    private final int[] pivot; //row of the original matrix held in each row of lu
+    private boolean isSingular;
+
+    /** Constructor for an LU decomposition of square matrices of the given size
+     *
+     * @param dimension number of rows and columns
+     * @throws IllegalArgumentException if dimension is not greater than 0
+     * @author Ogechi
+     */
+    public LUDecomposition(int dimension) {
+        if (dimension<=0) throw new IllegalArgumentException("LU dimension must be greater than 0");
+        this.dimension = dimension;
+        this.lu = new double[dimension][dimension];
+        this.pivot = new int[dimension];
+    }
+
+    /** Factors a matrix, the matrix passed in is copied and not modified
+     *
+     * @param matrix square matrix to factor
+     * @return true if the matrix is non-singular, false otherwise
+     * @author Ogechi
+     */
+    public boolean factor(double[][] matrix) {
+        int n = this.dimension;
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(matrix[i], 0, this.lu[i], 0, n);
+            this.pivot[i] = i;
+        }
+        this.isSingular = false;
+
+        for (int k = 0; k < n; k++) {
+            //partial pivoting on the largest entry of the column
+            int p = k;
+            double max = Math.abs(this.lu[k][k]);
+            for (int i = k + 1; i < n; i++) {
+                if (Math.abs(this.lu[i][k]) > max) {
+                    max = Math.abs(this.lu[i][k]);
+                    p = i;
+                }
+            }
+            if (max == 0) {
+                this.isSingular = true;
+                return false;
+            }
+            if (p != k) {
+                double[] row = this.lu[p];
+                this.lu[p] = this.lu[k];
+                this.lu[k] = row;
+                int index = this.pivot[p];
+                this.pivot[p] = this.pivot[k];
+                this.pivot[k] = index;
+            }
+            double[] rowK = this.lu[k];
+            for (int i = k + 1; i < n; i++) {
+                double[] rowI = this.lu[i];
+                double factor = rowI[k] / rowK[k];
+                rowI[k] = factor;
+                for (int j = k + 1; j < n; j++) {
+                    rowI[j] -= factor * rowK[j];
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Accessor method for the singularity of the last factored matrix
+     *
+     * @return true if the last factorization found a singular matrix
+     * @author Ogechi
+     */
+    public boolean isSingular() {
+        return this.isSingular;
+    }
+
+    /** Solves A x = b in place with the last factorization
+     *
+     * @param b right-hand side, replaced by the solution x
+     * @param work scratch array of the same dimension
+     * @throws IllegalStateException if the last factored matrix was singular
+     * @author Ogechi
+     */
+    public void solve(double[] b, double[] work) {
+        if (this.isSingular) throw new IllegalStateException("Cannot solve with a singular matrix");
+        int n = this.dimension;
+        for (int i = 0; i < n; i++) {
+            work[i] = b[this.pivot[i]];
+        }
+        //forward substitution with the unit lower triangle
+        for (int i = 0; i < n; i++) {
+            double sum = work[i];
+            double[] row = this.lu[i];
+            for (int j = 0; j < i; j++) {
+                sum -= row[j] * work[j];
+            }
+            work[i] = sum;
+        }
+        //back substitution with the upper triangle
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = work[i];
+            double[] row = this.lu[i];
+            for (int j = i + 1; j < n; j++) {
+                sum -= row[j] * work[j];
+            }
+            b[i] = sum / row[i];
+        }
+    }
+}
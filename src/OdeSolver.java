@@ -0,0 +1,123 @@
+/** Interface for adaptive step size integrators of an OdeSystem
+ * Solver instances own their workspace and are meant to be used by one thread at a time
+ * @author Ogechi
+ * @author Dylan
+ */
+public interface OdeSolver {
+
+    enum SOLVER_TYPE {
+        RK45, DORMAND_PRINCE, ROSENBROCK, AUTO
+    } //integration method to use
+
+    /** Returns the number of dependent variables the solver workspace is sized for
+     *
+     * @return dimension of the solver
+     * @author Ogechi
+     */
+    int getDimension();
+
+    /** Returns the step size used by the last accepted step
+     *
+     * @return h of the last accepted step, 0 before the first step
+     * @author Ogechi
+     */
+    double getStepSize();
+
+    /** Integrates a system of ordinary differential equations in place from t0 to endTime.
+     * The first step size is carried over from the previous call if there was one, see {@link #reset()}.
+     *
+     * @param t0 Initial Time
+     * @param y Values of the dependent variables at t0, replaced by the values at endTime
+     * @param endTime End time for the integration
+     * @param system System of differential equations evaluated for all components at once
+     * @param tolerance Tolerance for the adaptive step size control
+     * @author Ogechi
+     */
+    void integrate(double t0, double[] y, double endTime, OdeSystem system, double tolerance);
+
+    /** Integrates a system of ordinary differential equations in place from t0 to endTime and sends the solution
+     * at t0 + k*outputStep, for every k with an output time up to endTime, to the listener.
+     * Output values are interpolated within accepted steps so the output spacing does not limit the step size.
+     *
+     * @param t0 Initial Time
+     * @param y Values of the dependent variables at t0, replaced by the values at endTime
+     * @param endTime End time for the integration
+     * @param system System of differential equations evaluated for all components at once
+     * @param tolerance Tolerance for the adaptive step size control
+     * @param outputStep spacing of the output times after t0, ignored if listener is null
+     * @param listener listener receiving the solution at each output time, or null for no dense output
+     * @author Ogechi
+     */
+    void integrate(double t0, double[] y, double endTime, OdeSystem system, double tolerance, double outputStep, DenseOutputListener listener);
+
+    /** Mutator method for the largest step size the solver may take
+     *
+     * @param maxStepSize upper bound on h which must be greater than 0, positive infinity for no bound
+     * @return true if updated and false if not
+     * @author Ogechi
+     */
+    boolean setMaxStepSize(double maxStepSize);
+
+    /** Mutator method for the statistics the solver records its steps in
+     *
+     * @param statistics statistics receiving every accepted and rejected step, or null to record nothing
+     * @author Ogechi
+     */
+    void setStatistics(SolverStatistics statistics);
+
+    /** Forgets the step size and error history kept from previous calls to integrate, so the next call starts cold.
+     * Solvers otherwise start each call with the step size that the previous call ended with.
+     *
+     * @author Ogechi
+     */
+    void reset();
+
+    /** Creates a solver of the given type
+     *
+     * @param type integration method
+     * @param dimension number of dependent variables in the systems to be solved
+     * @return new solver instance with its own workspace
+     * @throws IllegalArgumentException if type is null or dimension is not greater than 0
+     * @author Ogechi
+     */
+    static OdeSolver create(SOLVER_TYPE type, int dimension) {
+        if (type==null) throw new IllegalArgumentException("Solver type cannot be null");
+        switch (type) {
+            case DORMAND_PRINCE:
+                return new DormandPrince(dimension);
+            case ROSENBROCK:
+                return new Rosenbrock(dimension);
+            case AUTO:
+                return new StiffnessSwitchingSolver(dimension);
+            default:
+                return new RK45(dimension);
+        }
+    }
+
+    /** Method to take solver type string from file and return enumerated type. Will return RK45 if not recognized or null
+     *
+     * @param label takes solver type string
+     * @return solver enumerated type
+     * @author Ogechi
+     */
+    static SOLVER_TYPE getSolverTypeByLabel(String label){
+        if (label==null) return SOLVER_TYPE.RK45;
+        switch(label.trim().toUpperCase()){
+            case "DORMAND-PRINCE":
+            case "DORMAND_PRINCE":
+            case "DOPRI5":
+                return SOLVER_TYPE.DORMAND_PRINCE;
+
+            case "ROSENBROCK":
+            case "ODE23S":
+                return SOLVER_TYPE.ROSENBROCK;
+
+            case "AUTO":
+            case "LSODA":
+                return SOLVER_TYPE.AUTO;
+
+            default:
+                return SOLVER_TYPE.RK45;
+        }
+    }
+}
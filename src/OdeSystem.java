@@ -0,0 +1,20 @@
+/** Interface for classes describing a coupled system of first order ordinary differential equations
+ * @author Ogechi
+ * @author Dylan
+ */
+public interface OdeSystem {
+    /** Evaluates the right-hand side of the system dy/dt = f(t, y) for every component at once.
+     *
+     * <p>Unlike {@link DifferentialEquation}, which only sees a single component, the full state vector is available
+     * so that coupled components are evaluated consistently at each Runge-Kutta stage. Implementations must write
+     * every entry of dydt and must not keep a reference to y or dydt since the solver reuses both arrays.</p>
+     * @param t time
+     * @param y array of dependent variables at time t
+     * @param dydt array to be filled with the rate of change of each dependent variable
+     * @see RK45
+     * @author Ogechi
+     * @author Dylan
+     */
+    void rhs(double t, double[] y, double[] dydt);
+
+}
@@ -1,3 +1,5 @@
+import java.util.Arrays;
+
 /** Class for PID control loops for transient processes
  * @author Dylan
  * @author Ogechi
@@ -30,7 +32,15 @@ public class PIDController implements Cloneable{
     private double deadTime; //dead time
     private double g_previousTime;
     private Controllable controllable;
-    private Queue<double[]> disturbances;
+    private DoubleRingBuffer disturbances; //disturbance schedule of {time, value} pairs in time order
+    private double steadyStateTolerance; //largest rate of change of every output counted as steady, 0 to always simulate up to the end time
+    private double steadyStateBand = Double.POSITIVE_INFINITY; //largest absolute error of a controlled run counted as steady
+    private double steadyStateWindow; //time a run must stay steady before the remaining rows are filled
+    private double steadyStateTime = Double.NaN; //time of the first filled row of the last simulation, NaN if it was simulated up to the end
+    private int filledRows; //rows of the last simulation filled with the steady state instead of simulated
+    private long simulatedNanos; //wall time the last simulation spent on the rows it simulated, in nanoseconds
+    private boolean collectSolverStatistics; //true to collect the solver statistics of every simulation of a reactor
+    private SolverStatistics solverStatistics; //solver statistics of the last simulation, null if they were not collected
 
     /** Constructor for the abstract PID controller class
      *
@@ -43,9 +53,9 @@ public class PIDController implements Cloneable{
      * @param controllerType controller type which must be a type of PID or uncontrolled
      * @param deadTime dead time for PID controller
      * @param tolerance tolerance for error between RK4 and RK5 method
-     * @param disturbances changes to steady state
+     * @param disturbances changes to steady state as {time, value} arrays in time order, copied into a ring buffer
      * @param setPoint Set point for the controller
-     * @throws IllegalArgumentException if end time is before start time or time step is too large for the range given (<1 step) or if controller type is null or if dead time is negative or if tolerance not greater than 0
+     * @throws IllegalArgumentException if end time is before start time or time step is too large for the range given (<1 step) or if controller type is null or if dead time is negative or if tolerance not greater than 0 or if a disturbance does not hold a time and a value
      * @author Dylan
      */
     public PIDController(double startTime, double endTime, double timeStep, double controllerGain, double integratingTimeConstant, double derivativeTimeConstant, CONTROLLER_TYPE controllerType, double deadTime, Controllable controllable, double tolerance, Queue<double[]> disturbances, double setPoint) throws CloneNotSupportedException {
@@ -67,17 +77,17 @@ public class PIDController implements Cloneable{
         this.deadTime = deadTime;
         this.controllable = controllable.clone();
         this.tolerance=tolerance;
-        this.disturbances = disturbances.clone();
+        this.disturbances = new DoubleRingBuffer(disturbances);
         this.setPoint = setPoint;
         resetGlobalVariables();
         this.g_previousTime = startTime;
 
     }
 
-    /** Copy constructor for the abstract PID controller class
+    /** Copy constructor for the abstract PID controller class, the controllable object is deep copied
      *
      * @param source an object of the abstract PID controller class
-     * @throws IllegalArgumentException if o object to copy is null
+     * @throws IllegalArgumentException if o object to copy is null or its controllable cannot be copied
      * @author Dylan
      */
     public PIDController(PIDController source) {
@@ -103,7 +113,20 @@ public class PIDController implements Cloneable{
         this.g_output=source.g_output;
         this.disturbances = source.disturbances.clone();
         this.g_previousTime=source.g_previousTime;
-        this.controllable=source.controllable;
+        this.steadyStateTolerance=source.steadyStateTolerance;
+        this.steadyStateBand=source.steadyStateBand;
+        this.steadyStateWindow=source.steadyStateWindow;
+        this.steadyStateTime=source.steadyStateTime;
+        this.filledRows=source.filledRows;
+        this.simulatedNanos=source.simulatedNanos;
+        this.collectSolverStatistics=source.collectSolverStatistics;
+        this.solverStatistics=source.solverStatistics==null ? null : source.solverStatistics.clone();
+        try {
+            //each copy owns its controllable so copies can be simulated independently, including on other threads
+            this.controllable=source.controllable.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalArgumentException("Error, controllable object could not be copied: " + e.getMessage());
+        }
     }
 
     /** Clone method to call the copy constructor
@@ -340,6 +363,169 @@ public class PIDController implements Cloneable{
         return true;
     }
 
+    /** Accessor method for the controllable object
+     *
+     * @return copy of the controllable object
+     * @throws IllegalArgumentException if the controllable cannot be copied
+     * @author Ogechi
+     */
+    public Controllable getControllable() {
+        try {
+            return this.controllable.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalArgumentException("Error, controllable object could not be copied: " + e.getMessage());
+        }
+    }
+
+    /** Mutator method for the controllable object, which is copied so later changes to the argument do not reach the controller
+     *
+     * @param controllable controllable object to simulate
+     * @return true if updated, false if null or it cannot be copied
+     * @author Ogechi
+     */
+    public boolean setControllable(Controllable controllable) {
+        if (controllable==null) return false;
+        try {
+            this.controllable = controllable.clone();
+        } catch (CloneNotSupportedException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /** Accessor method for the steady state tolerance
+     *
+     * @return largest rate of change of every output counted as steady, 0 if steady state detection is off
+     * @author Ogechi
+     */
+    public double getSteadyStateTolerance() {
+        return this.steadyStateTolerance;
+    }
+    /** Mutator method for the steady state tolerance, which turns steady state detection on when greater than 0
+     * Once every output of the controllable, and the controller output of a controlled run, changes by less than the tolerance
+     * per unit time for the steady state window with no disturbance left, the remaining rows repeat the steady state.
+     *
+     * @param steadyStateTolerance largest rate of change counted as steady, 0 to simulate every run up to the end time
+     * @return true if updated, false if negative
+     * @author Ogechi
+     */
+    public boolean setSteadyStateTolerance(double steadyStateTolerance) {
+        if (!(steadyStateTolerance>=0)) return false;
+        this.steadyStateTolerance=steadyStateTolerance;
+        return true;
+    }
+    /** Accessor method for the steady state band
+     *
+     * @return largest absolute error of a controlled run counted as steady
+     * @author Ogechi
+     */
+    public double getSteadyStateBand() {
+        return this.steadyStateBand;
+    }
+    /** Mutator method for the steady state band, so a controlled run stuck away from its set point, for example with a saturated
+     * output, is simulated up to the end time
+     *
+     * @param steadyStateBand largest absolute error counted as steady, infinite to only look at the rates of change
+     * @return true if updated, false if negative
+     * @author Ogechi
+     */
+    public boolean setSteadyStateBand(double steadyStateBand) {
+        if (!(steadyStateBand>=0)) return false;
+        this.steadyStateBand=steadyStateBand;
+        return true;
+    }
+    /** Accessor method for the steady state window
+     *
+     * @return time a run must stay steady before the remaining rows are filled
+     * @author Ogechi
+     */
+    public double getSteadyStateWindow() {
+        return this.steadyStateWindow;
+    }
+    /** Mutator method for the steady state window, a controlled run also stays steady for at least the dead time so every
+     * controller action still on its way has been taken while steady
+     *
+     * @param steadyStateWindow time a run must stay steady before the remaining rows are filled
+     * @return true if updated, false if negative
+     * @author Ogechi
+     */
+    public boolean setSteadyStateWindow(double steadyStateWindow) {
+        if (!(steadyStateWindow>=0)) return false;
+        this.steadyStateWindow=steadyStateWindow;
+        return true;
+    }
+    /** Accessor method for the time the last simulation reached steady state
+     *
+     * @return time of the first row filled with the steady state, NaN if the last simulation ran up to the end time
+     * @author Ogechi
+     */
+    public double getSteadyStateTime() {
+        return this.steadyStateTime;
+    }
+    /** Accessor method for the number of rows filled by the last simulation
+     *
+     * @return rows filled with the steady state instead of simulated, 0 if the last simulation ran up to the end time
+     * @author Ogechi
+     */
+    public int getFilledRowCount() {
+        return this.filledRows;
+    }
+    /** Accessor method for the simulated time the last simulation filled instead of simulating it
+     *
+     * @return time covered by the filled rows, 0 if the last simulation ran up to the end time
+     * @author Ogechi
+     */
+    public double getSkippedTime() {
+        return this.filledRows * this.timeStep;
+    }
+    /** Accessor method for the wall time the steady state detection saved in the last simulation, estimated from the time
+     * the simulated rows took on average
+     *
+     * @return wall time in milliseconds the filled rows would have taken to simulate, 0 if the last simulation ran up to the end time
+     * @author Ogechi
+     */
+    public double getEstimatedTimeSaved() {
+        long simulatedRows = (long) this.numberOfSteps - this.filledRows;
+        return this.filledRows == 0 || simulatedRows <= 0 ? 0 : this.simulatedNanos / 1e6 * this.filledRows / simulatedRows;
+    }
+    /** Accessor method for whether solver statistics are collected
+     *
+     * @return true if every simulation collects the statistics of the solver of its reactor
+     * @author Ogechi
+     */
+    public boolean getCollectSolverStatistics() {
+        return this.collectSolverStatistics;
+    }
+    /** Mutator method for whether solver statistics are collected, off by default so simulations do no extra work
+     * Collected statistics are also committed as a JFR event at the end of every simulation.
+     *
+     * @param collectSolverStatistics true to collect the statistics of every simulation
+     * @return true if updated, false if statistics are requested and the controllable is not a reactor
+     * @author Ogechi
+     */
+    public boolean setCollectSolverStatistics(boolean collectSolverStatistics) {
+        if (collectSolverStatistics && !(this.controllable instanceof Reactor)) return false;
+        this.collectSolverStatistics=collectSolverStatistics;
+        return true;
+    }
+    /** Accessor method for the solver statistics of the last simulation
+     *
+     * @return statistics of the last simulation, or null if they were not collected
+     * @author Ogechi
+     */
+    public SolverStatistics getSolverStatistics() {
+        return this.solverStatistics;
+    }
+    /** Accessor method for the times at which the AUTO solver of the reactor switched methods
+     * The reactor keeps its solver, so the times of every simulation of this controller are kept in order.
+     *
+     * @return switch times in order, even entries to Rosenbrock and odd entries back to Dormand-Prince,
+     *         empty if the controllable is not a reactor using the AUTO solver
+     * @author Ogechi
+     */
+    public double[] getStiffnessSwitchTimes() {
+        return this.controllable instanceof Reactor ? ((Reactor) this.controllable).getStiffnessSwitchTimes() : new double[0];
+    }
     /** Reset method for global variables
      * @author Dylan
      */
@@ -443,6 +629,8 @@ public class PIDController implements Cloneable{
     }
 
     /** Method to simulate PID controller
+     * A controller instance and its controllable are confined to the thread calling simulate, use clone() or
+     * SimulationExecutor to run several simulations concurrently
      * @author Ogechi
      * @author Dylan
      * @return double array holding simulation results
@@ -456,152 +644,340 @@ public class PIDController implements Cloneable{
      * simulation [n-1] : D
      */
     public double[][] simulate(){
+        InMemorySink results = new InMemorySink();
+        simulate(results);
+        return results.getResults();
+    }
+
+    /** Method to simulate PID controller and stream every row of results to a sink as soon as it is complete
+     * Only one row is held at a time, so memory does not grow with the number of time steps unless the sink keeps the rows.
+     * Rows have the layout of the array returned by simulate(), controlled simulations have n columns as listed there
+     * and uncontrolled simulations have the time, the controllable output values, the disturbed and the manipulated variable.
+     * @param sink sink receiving the column count and row count, then every row in time order, then the end of the simulation,
+     *             or abort instead if the simulation fails after starting it so its file is closed and removed
+     * @throws IllegalArgumentException if sink is null
+     * @author Ogechi
+     * @author Dylan
+     */
+    public void simulate(SimulationSink sink){
+        if (sink==null) throw new IllegalArgumentException("Simulation sink cannot be null");
+
+        int rows = (int) this.numberOfSteps;
+        long start = System.nanoTime();
+        this.steadyStateTime = Double.NaN;
+        this.filledRows = 0;
+        this.simulatedNanos = 0;
+        this.solverStatistics = null;
+        if (this.collectSolverStatistics && this.controllable instanceof Reactor) {
+            this.solverStatistics = new SolverStatistics();
+            ((Reactor) this.controllable).setSolverStatistics(this.solverStatistics);
+        }
+        boolean started = false; //true once the sink has been started, so a failed simulation aborts it
+        try {
+            if(this.controllable.getIsControlled()){
+                //number of variables to store
+                int n = this.controllable.getInitialValues().length + 6;
+                //controller actions waiting out the dead time, one is enqueued per step so the capacity covers the whole pipeline
+                DoubleRingBuffer queue = new DoubleRingBuffer((int) Math.min(Math.ceil(this.deadTime / this.timeStep) + 2, this.numberOfSteps));
+
+                double[] row = new double[n]; //row being produced, reused for every step once the sink has received it
+                double error;
+                double[] temp;
+                sink.start(n, rows);
+                started = true;
+
+                //initialize the first row with initial values
+                row[0] = this.startTime;
+
+                this.g_processVariable = this.controllable.getControlledVar();
+                simulateProportionalStep(setPoint - g_processVariable);
+
+                this.g_output = g_P;
+
+                row[n-5] = this.controllable.getDisturbedVar();
+                row[n-4] = this.controllable.getManipulatedVar();
+                row[n-3] = this.g_P;
+                row[n-2] = this.g_I;
+                row[n-1] = this.g_D;
+                sink.accept(row);
 
-        double[][] g_simulation;
-        if(this.controllable.getIsControlled()){
-            //number of variables to store
-            int n = this.controllable.getInitialValues().length + 6;
-            Queue<double[]> queue = new Queue<>();
-
-            g_simulation = new double[(int) (this.numberOfSteps)][n]; // +1 is for testing to log controller output -> delete later
-            double error;
-            double[] temp;
-
-            //initialize the first row with initial values
-            g_simulation[0][0] = this.startTime;
-            for(int i = 0; i < this.controllable.getInitialValues().length; i++){
-                g_simulation[0][i+1] = 0;
-            }
-
-            this.g_processVariable = this.controllable.getControlledVar();
-            simulateProportionalStep(setPoint - g_processVariable);
+                temp = this.controllable.getInitialValues();
 
-            this.g_output = g_P;
+                queue.enqueue(this.g_previousTime + this.timeStep, this.g_output);
+
+                int step = 1;
+                double steadySince = Double.NaN; //time of the first row of the current steady stretch, NaN while the run is not steady
+                double previousOutput = this.g_output; //controller output of the previous step
+
+                while (step < numberOfSteps) {
+                    ControlIntervalEvent intervalEvent = new ControlIntervalEvent();
+                    intervalEvent.begin();
+                    Arrays.fill(row, 0);
+                    row[0] = this.g_previousTime + this.timeStep;
+                    error = this.setPoint - this.g_processVariable;
+                    simulateProportionalStep(error);
+                    simulateIntegralStep(error);
+
+                    // Check if disturbance action takes place, if not then continue
+                    if (!this.disturbances.isEmpty()) {
+                        if (this.disturbances.peekTime() <= this.g_previousTime + this.timeStep) {
+                            applyDisturbance(step);
+                        }
+                    }
 
-            g_simulation[0][n-5] = this.controllable.getDisturbedVar();
-            g_simulation[0][n-4] = this.controllable.getManipulatedVar();
-            g_simulation[0][n-3] = this.g_P;
-            g_simulation[0][n-2] = this.g_I;
-            g_simulation[0][n-1] = this.g_D;
+                    // Check if controlled action takes place
+                    if (!queue.isEmpty()) {
+                        if (queue.peekTime() <= this.g_previousTime + this.timeStep) {
+                            DeadTimeDeliveryEvent deliveryEvent = new DeadTimeDeliveryEvent();
+                            deliveryEvent.begin();
+                            double deliveryTime = queue.peekTime();
+                            double action = queue.dequeue();
+                            row[n - 4] = action;
+                            this.controllable.setManipulatedVariable(action);
+                            if (deliveryEvent.shouldCommit()) {
+                                deliveryEvent.step = step;
+                                deliveryEvent.deliveryTime = deliveryTime;
+                                deliveryEvent.action = action;
+                                deliveryEvent.queued = queue.size();
+                                deliveryEvent.commit();
+                            }
+                        } else {
+                            row[n - 4] = this.controllable.getManipulatedVar();
+                        }
+                    }
 
-            temp = this.controllable.getInitialValues();
+                    // Get System output
+                    this.controllable.getSystemOutput(this.g_previousTime, this.g_previousTime + this.timeStep, this.tolerance);
+                    // Tabulate System output to the row
+                    for (int i = 0; i < n - 6; i++) {
+                        row[i + 1] = temp[i];
+                    }
+                    temp = this.controllable.getInitialValues();
+
+                    // Set the processVariable since output has been updated
+                    this.g_processVariable = this.controllable.getControlledVar();  // Assuming the last element is the controlled variable
+
+                    // Calculate derivative based on the updated processVariable
+                    simulateDerivativeStep(this.g_processVariable);
+
+                    // Set the output variable
+                    this.g_output = compute();
+
+                    // Store PID values in the row and hand it to the sink
+                    row[n - 5] = this.controllable.getDisturbedVar();
+                    row[n - 3] = this.g_P;
+                    row[n - 2] = this.g_I;
+                    row[n - 1] = this.g_D;
+                    sink.accept(row);
+                    if (intervalEvent.shouldCommit()) {
+                        intervalEvent.step = step;
+                        intervalEvent.rows = 1;
+                        intervalEvent.time = row[0];
+                        intervalEvent.stepSize = getSolverStepSize();
+                        intervalEvent.error = error;
+                        intervalEvent.controllerOutput = this.g_output;
+                        intervalEvent.commit();
+                    }
 
-            queue.enqueue(new double[]{this.g_previousTime + this.timeStep,this.g_output});
+                    // Track how long the run has been steady, the row holds the outputs before this step and temp the outputs after it
+                    if (this.steadyStateTolerance > 0) {
+                        double largestChange = this.steadyStateTolerance * this.timeStep;
+                        boolean steady = this.disturbances.isEmpty() && Math.abs(this.setPoint - this.g_processVariable) <= this.steadyStateBand
+                                && Math.abs(this.g_output - previousOutput) <= largestChange;
+                        for (int i = 0; steady && i < n - 6; i++) {
+                            steady = Math.abs(temp[i] - row[i + 1]) <= largestChange;
+                        }
+                        previousOutput = this.g_output;
+                        if (!steady) {
+                            steadySince = Double.NaN;
+                        } else if (Double.isNaN(steadySince)) {
+                            steadySince = row[0];
+                        }
+                    }
 
-            int step = 1;
+                    // Enqueue the controller action
+                    queue.enqueue(this.g_previousTime + this.deadTime, this.g_output);
 
-            while (step < numberOfSteps) {
-                g_simulation[step][0] = this.g_previousTime + this.timeStep;
-                error = this.setPoint - this.g_processVariable;
-                simulateProportionalStep(error);
-                simulateIntegralStep(error);
+                    // Update the previous time
+                    this.g_previousTime += timeStep;
 
-                // Check if disturbance action takes place, if not then continue
-                if (!this.disturbances.isEmpty()) {
-                    if (this.disturbances.peek()[0] <= this.g_previousTime + this.timeStep) {
-                        this.controllable.simulateDisturbance(disturbances.dequeue()[1]);
-                    }
-                }
+                    // Move to the next step
+                    step++;
 
-                // Check if controlled action takes place
-                if (!queue.isEmpty()) {
-                    //temp = queue.peek();
-                    if (queue.peek()[0] <= this.g_previousTime + this.timeStep) {
-                        g_simulation[step][n - 4] = queue.peek()[1];
-                        this.controllable.setManipulatedVariable(queue.peek()[1]);
-                        queue.dequeue();
-                    } else {
-                        g_simulation[step][n - 4] = this.controllable.getManipulatedVar();
+                    // Steady for the whole window and the dead time, so the actions still on their way are steady too
+                    if (!Double.isNaN(steadySince) && row[0] - steadySince >= Math.max(this.steadyStateWindow, this.deadTime)) {
+                        for (int i = 0; i < n - 6; i++) {
+                            row[i + 1] = temp[i];
+                        }
+                        fillSteadyState(sink, row, step, start);
+                        break;
                     }
                 }
+            } else {
+                int n = this.controllable.getInitialValues().length+ 3;
+                double[] row = new double[n]; //row being produced, reused for every step once the sink has received it
+                double[] temp;
+                sink.start(n, rows);
+                started = true;
+
+                //initialize the first row with initial values
+                row[0] = this.startTime;
+                row[n-1] = this.controllable.getManipulatedVar();
+                row[n-2] = this.controllable.getDisturbedVar();
+                sink.accept(row);
 
-                // Get System output
-                this.controllable.getSystemOutput(this.g_previousTime, this.g_previousTime + this.timeStep, this.tolerance);
-                // Tabulate System output to simulation array
-                for (int i = 0; i < n - 6; i++) {
-                    g_simulation[step][i + 1] = temp[i];
-                }
                 temp = this.controllable.getInitialValues();
 
-                // Set the processVariable since output has been updated
-                this.g_processVariable = this.controllable.getControlledVar();  // Assuming the last element is the controlled variable
-
-                // Calculate derivative based on the updated processVariable
-                simulateDerivativeStep(this.g_processVariable);
-
-                // Set the output variable
-                this.g_output = compute();
-
-                // Store PID values in simulation
-                g_simulation[step][n - 5] = this.controllable.getDisturbedVar();
-                g_simulation[step][n - 3] = this.g_P;
-                g_simulation[step][n - 2] = this.g_I;
-                g_simulation[step][n - 1] = this.g_D;
-                //g_simulation[step][n - 1 + 1] = this.g_output; // +1 is for testing to log controller output -> delete later
-
-                // Enqueue the controller action
-                queue.enqueue(new double[]{this.g_previousTime + this.deadTime, this.g_output});
-
-                // Update the previous time
-                this.g_previousTime += timeStep;
-
-                // Move to the next step
-                step++;
-            }
-        } else {
-            int n = this.controllable.getInitialValues().length+ 3;
-            g_simulation = new double[(int)this.numberOfSteps][n];
-            double[] temp;
-
-            //initialize the first row with initial values
-            g_simulation[0][0] = this.startTime;
-            for(int i = 0; i < this.controllable.getInitialValues().length; i++){
-                g_simulation[0][i+1] = 0;
-            }
-
-            g_simulation[0][n-1] = this.controllable.getManipulatedVar();
-            g_simulation[0][n-2] = this.controllable.getDisturbedVar();
-
-
-            temp = this.controllable.getInitialValues();
+                int step = 1;
+                //with steady state detection segments last at most one window, so steadiness is checked after each window
+                int windowSteps = this.steadyStateTolerance > 0 ? Math.max(1, (int) Math.ceil(this.steadyStateWindow / this.timeStep)) : Integer.MAX_VALUE;
+                double[] largestRate = new double[1]; //largest rate of change between rows of the current segment
+
+                while (step < numberOfSteps) {
+                    ControlIntervalEvent intervalEvent = new ControlIntervalEvent();
+                    intervalEvent.begin();
+                    double error = this.setPoint - this.g_processVariable;
+
+                    // Check if disturbance action takes place, if not then continue
+                    if (!this.disturbances.isEmpty()) {
+                        if (this.disturbances.peekTime() <= this.g_previousTime + this.timeStep) {
+                            applyDisturbance(step);
+                        }
+                    }
 
-            int step = 1;
+                    // Nothing changes the inputs until the next disturbance, so the whole segment is one integration
+                    // and the rows in between are produced from the solver's dense output instead of restarting it every time step
+                    int segmentSteps = 1;
+                    double segmentEndTime = this.g_previousTime + this.timeStep;
+                    while (step + segmentSteps < numberOfSteps && segmentSteps < windowSteps && (this.disturbances.isEmpty() || this.disturbances.peekTime() > segmentEndTime + this.timeStep)) {
+                        segmentEndTime += this.timeStep;
+                        segmentSteps++;
+                    }
 
-            while (step < numberOfSteps) {
-                g_simulation[step][0] = this.g_previousTime + this.timeStep;
+                    // The first row of the segment holds the output at the start of the segment, each row holds the output at the start of its time step
+                    double segmentStartTime = this.g_previousTime;
+                    row[n-1] = this.controllable.getManipulatedVar();
+                    row[n-2] = this.controllable.getDisturbedVar();
+                    row[0] = this.g_previousTime + this.timeStep;
+                    this.g_previousTime += timeStep;
+                    largestRate[0] = 0;
+                    for (int i = 0; i < n - 3; i++) {
+                        if (this.steadyStateTolerance > 0) largestRate[0] = Math.max(largestRate[0], Math.abs(temp[i] - row[i + 1]) / this.timeStep);
+                        row[i + 1] = temp[i];
+                    }
+                    sink.accept(row);
+
+                    // The remaining rows of the segment are sent to the sink as the solver passes their output times
+                    final int rowsInSegment = segmentSteps;
+                    this.controllable.getSystemOutput(segmentStartTime, segmentEndTime, this.tolerance, this.timeStep, (t, y) -> {
+                        if (Math.round((t - segmentStartTime) / this.timeStep) < rowsInSegment) {
+                            row[0] = this.g_previousTime + this.timeStep;
+                            this.g_previousTime += timeStep;
+                            if (this.steadyStateTolerance > 0) {
+                                for (int i = 0; i < y.length; i++) {
+                                    largestRate[0] = Math.max(largestRate[0], Math.abs(y[i] - row[i + 1]) / this.timeStep);
+                                }
+                            }
+                            System.arraycopy(y, 0, row, 1, y.length);
+                            sink.accept(row);
+                        }
+                    });
+                    temp = this.controllable.getInitialValues();
+
+                    // Set the processVariable since output has been updated
+                    this.g_processVariable = this.controllable.getControlledVar();  // Assuming the last element is the controlled variable
+                    if (intervalEvent.shouldCommit()) {
+                        intervalEvent.step = step;
+                        intervalEvent.rows = segmentSteps;
+                        intervalEvent.time = segmentStartTime + this.timeStep;
+                        intervalEvent.stepSize = getSolverStepSize();
+                        intervalEvent.error = error;
+                        intervalEvent.controllerOutput = this.controllable.getManipulatedVar();
+                        intervalEvent.commit();
+                    }
 
-                // Check if disturbance action takes place, if not then continue
-                if (!this.disturbances.isEmpty()) {
-                    if (this.disturbances.peek()[0] <= this.g_previousTime + this.timeStep) {
-                        this.controllable.simulateDisturbance(disturbances.dequeue()[1]);
+                    // Move to the next segment
+                    step += segmentSteps;
+
+                    // A whole window without a change faster than the tolerance and no disturbance left, the rest of the run is steady
+                    if (this.steadyStateTolerance > 0 && segmentSteps >= windowSteps && this.disturbances.isEmpty()) {
+                        for (int i = 0; i < n - 3; i++) {
+                            largestRate[0] = Math.max(largestRate[0], Math.abs(temp[i] - row[i + 1]) / this.timeStep);
+                        }
+                        if (largestRate[0] <= this.steadyStateTolerance) {
+                            for (int i = 0; i < n - 3; i++) {
+                                row[i + 1] = temp[i];
+                            }
+                            fillSteadyState(sink, row, step, start);
+                            break;
+                        }
                     }
                 }
-                g_simulation[step][n-1] = this.controllable.getManipulatedVar();
-                g_simulation[step][n-2] = this.controllable.getDisturbedVar();
-
-
-                // Get System output
-                this.controllable.getSystemOutput(this.g_previousTime, this.g_previousTime + this.timeStep, this.tolerance);
-                // Tabulate System output to simulation array
-                for (int i = 0; i < n - 3; i++) {
-                    g_simulation[step][i + 1] = temp[i];
+            }
+        } catch (RuntimeException | Error e) {
+            //aborting the sink closes and removes its file, a failure while aborting is attached to the one that stopped the simulation
+            if (started) {
+                try {
+                    sink.abort();
+                } catch (RuntimeException abortFailure) {
+                    e.addSuppressed(abortFailure);
                 }
-                temp = this.controllable.getInitialValues();
-
-                // Set the processVariable since output has been updated
-                this.g_processVariable = this.controllable.getControlledVar();  // Assuming the last element is the controlled variable
-
+            }
+            throw e;
+        } finally {
+            resetGlobalVariables();
+            if (this.solverStatistics != null) ((Reactor) this.controllable).setSolverStatistics(null);
+        }
+        sink.finish();
+        if (this.solverStatistics != null) this.solverStatistics.commitEvent(((Reactor) this.controllable).getSolverType());
+    }
 
+    /** Helper method applying the next disturbance of the schedule to the controllable
+     *
+     * @param step index of the row the disturbance is applied in
+     * @author Ogechi
+     */
+    private void applyDisturbance(int step) {
+        DisturbanceEvent event = new DisturbanceEvent();
+        event.begin();
+        double scheduledTime = this.disturbances.peekTime();
+        double value = this.disturbances.dequeue();
+        this.controllable.simulateDisturbance(value);
+        if (event.shouldCommit()) {
+            event.step = step;
+            event.scheduledTime = scheduledTime;
+            event.value = value;
+            event.commit();
+        }
+    }
 
-                // Update the previous time
-                this.g_previousTime += timeStep;
+    /** Helper method reading the step size of the solver for the control interval events
+     *
+     * @return h of the last step accepted by the solver of the reactor, NaN if the controllable is not a reactor
+     * @author Ogechi
+     */
+    private double getSolverStepSize() {
+        return this.controllable instanceof Reactor ? ((Reactor) this.controllable).getLastStepSize() : Double.NaN;
+    }
 
-                // Move to the next step
-                step++;
-            }
+    /** Helper method sending the remaining rows of a steady run to the sink, each a copy of the steady row at its own time
+     *
+     * @param sink sink receiving the rows
+     * @param row steady row, its time is overwritten
+     * @param step index of the first row to fill
+     * @param start value of System.nanoTime() when the simulation started, to time the simulated rows
+     * @author Ogechi
+     */
+    private void fillSteadyState(SimulationSink sink, double[] row, int step, long start) {
+        this.simulatedNanos = System.nanoTime() - start;
+        this.steadyStateTime = this.g_previousTime + this.timeStep;
+        while (step < this.numberOfSteps) {
+            row[0] = this.g_previousTime + this.timeStep;
+            this.g_previousTime += this.timeStep;
+            sink.accept(row);
+            this.filledRows++;
+            step++;
         }
-        resetGlobalVariables();
-        return g_simulation;
     }
 
     /** Method to take controller type string from file and return enumerated type. Will return uncontrolled if not a subset of PID
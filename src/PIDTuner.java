@@ -0,0 +1,574 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Tunes the gain and time constants of a PIDController by minimizing the integrated error of its closed-loop response
+ * The search is a Nelder-Mead simplex over the logarithms of the parameters, so they stay positive and are searched on a
+ * relative scale. Each iteration evaluates the reflection, expansion and both contractions at the same time on cloned
+ * controllers, and every candidate is cancelled as soon as its integrated error, which only grows during a run, reaches
+ * the worst vertex of the simplex, or as soon as it breaks the overshoot constraint. Candidates the iteration turns out
+ * not to need are cancelled as soon as the reflection is known.
+ * <p>
+ * Errors are measured on the controlled concentration of the reactor from the first time step on, as the set point minus
+ * the controlled variable. Overshoot is the furthest the controlled variable goes past the set point on the side opposite
+ * to its first error, and settling time is the time from the start until the error last leaves the settling band.
+ * </p>
+ * @author Ogechi
+ * @author Dylan
+ */
+public class PIDTuner {
+
+    public enum OBJECTIVE {
+        IAE, ISE, ITAE
+    } //integral of the absolute error, of the squared error, or of the time weighted absolute error
+
+    private static final double REFLECTION = 1; //Nelder-Mead coefficients, standard values
+    private static final double EXPANSION = 2;
+    private static final double CONTRACTION = 0.5;
+    private static final double SHRINK = 0.5;
+
+    private final PIDController base; //controller every candidate starts from
+    private final OBJECTIVE objective; //integrated error to minimize
+    private final boolean tuneIntegral; //true if the controller type uses the integrating time constant
+    private final boolean tuneDerivative; //true if the controller type uses the derivative time constant
+    private double maxOvershoot = Double.POSITIVE_INFINITY; //largest overshoot allowed
+    private double maxSettlingTime = Double.POSITIVE_INFINITY; //largest settling time allowed
+    private double settlingBand; //largest absolute error counted as settled
+    private double initialStep = 0.5; //size of the starting simplex, in natural logarithm of the parameters
+    private double parameterTolerance = 1e-3; //search stops when no vertex differs from the best by more than this in logarithm
+    private int maxEvaluations = 200; //search stops after this many candidates
+
+    //outcome of the last call to tune
+    private double bestObjective = Double.NaN; //objective of the tuned controller
+    private final AtomicInteger evaluations = new AtomicInteger(); //candidates submitted
+    private final AtomicInteger cancellations = new AtomicInteger(); //candidates stopped before the end of their run
+
+    /** Constructor for a tuner of a controlled reactor
+     *
+     * @param base controller to tune, copied, its gain and time constants are the starting point of the search
+     * @param objective integrated error to minimize
+     * @throws IllegalArgumentException if base or objective is null, the controller is uncontrolled or does not control a reactor,
+     * or a parameter used by the controller type is not greater than 0
+     * @author Ogechi
+     */
+    public PIDTuner(PIDController base, OBJECTIVE objective) {
+        if (base == null) throw new IllegalArgumentException("Controller to tune cannot be null");
+        if (objective == null) throw new IllegalArgumentException("Objective cannot be null");
+        PIDController.CONTROLLER_TYPE type = base.getControllerType();
+        Controllable controllable = base.getControllable();
+        if (type == PIDController.CONTROLLER_TYPE.UNCONTROLLED || !controllable.getIsControlled()) throw new IllegalArgumentException("Error, an uncontrolled simulation cannot be tuned");
+        if (!(controllable instanceof Reactor)) throw new IllegalArgumentException("Error, only controllers of a reactor can be tuned");
+        this.tuneIntegral = type == PIDController.CONTROLLER_TYPE.I || type == PIDController.CONTROLLER_TYPE.PI || type == PIDController.CONTROLLER_TYPE.ID || type == PIDController.CONTROLLER_TYPE.PID;
+        this.tuneDerivative = type == PIDController.CONTROLLER_TYPE.D || type == PIDController.CONTROLLER_TYPE.PD || type == PIDController.CONTROLLER_TYPE.ID || type == PIDController.CONTROLLER_TYPE.PID;
+        if (!(base.getControllerGain() > 0) || (this.tuneIntegral && !(base.getIntegratingTimeConstant() > 0)) || (this.tuneDerivative && !(base.getDerivativeTimeConstant() > 0))) {
+            throw new IllegalArgumentException("Error, the starting controller gain and time constants must be greater than 0");
+        }
+        this.base = base.clone();
+        this.objective = objective;
+        this.settlingBand = PerformanceMetricsSink.DEFAULT_BAND_FRACTION * Math.abs(base.getSetPoint());
+    }
+
+    /** Returns the objective with a label
+     *
+     * @param label label of the objective, IAE, ISE or ITAE
+     * @return objective with the label, or null if there is none
+     * @author Ogechi
+     */
+    public static OBJECTIVE getObjectiveByLabel(String label) {
+        switch (label.trim().toUpperCase()) {
+            case "IAE":
+                return OBJECTIVE.IAE;
+
+            case "ISE":
+                return OBJECTIVE.ISE;
+
+            case "ITAE":
+                return OBJECTIVE.ITAE;
+
+            default:
+                return null;
+        }
+    }
+
+    /** Mutator method for the overshoot constraint
+     *
+     * @param maxOvershoot largest overshoot allowed in units of the controlled variable, infinite for no constraint
+     * @return true if updated, false if negative or not a number
+     * @author Ogechi
+     */
+    public boolean setMaxOvershoot(double maxOvershoot) {
+        if (!(maxOvershoot >= 0)) return false;
+        this.maxOvershoot = maxOvershoot;
+        return true;
+    }
+
+    /** Mutator method for the settling time constraint
+     *
+     * @param maxSettlingTime largest settling time allowed, infinite for no constraint
+     * @return true if updated, false if negative or not a number
+     * @author Ogechi
+     */
+    public boolean setMaxSettlingTime(double maxSettlingTime) {
+        if (!(maxSettlingTime >= 0)) return false;
+        this.maxSettlingTime = maxSettlingTime;
+        return true;
+    }
+
+    /** Mutator method for the settling band, 2 % of the set point unless it is set
+     *
+     * @param settlingBand largest absolute error counted as settled
+     * @return true if updated, false if negative or not a number
+     * @author Ogechi
+     */
+    public boolean setSettlingBand(double settlingBand) {
+        if (!(settlingBand >= 0)) return false;
+        this.settlingBand = settlingBand;
+        return true;
+    }
+
+    /** Mutator method for the size of the starting simplex
+     *
+     * @param initialStep change of the natural logarithm of each parameter from the starting point, 0.5 changes it by about 65 %
+     * @return true if updated, false if not greater than 0
+     * @author Ogechi
+     */
+    public boolean setInitialStep(double initialStep) {
+        if (!(initialStep > 0)) return false;
+        this.initialStep = initialStep;
+        return true;
+    }
+
+    /** Mutator method for the convergence tolerance
+     *
+     * @param parameterTolerance largest relative difference of the parameters from the best vertex at which the search stops
+     * @return true if updated, false if not greater than 0
+     * @author Ogechi
+     */
+    public boolean setParameterTolerance(double parameterTolerance) {
+        if (!(parameterTolerance > 0)) return false;
+        this.parameterTolerance = parameterTolerance;
+        return true;
+    }
+
+    /** Mutator method for the evaluation budget
+     *
+     * @param maxEvaluations number of candidates after which the search stops
+     * @return true if updated, false if smaller than the starting simplex
+     * @author Ogechi
+     */
+    public boolean setMaxEvaluations(int maxEvaluations) {
+        if (maxEvaluations < getDimension() + 1) return false;
+        this.maxEvaluations = maxEvaluations;
+        return true;
+    }
+
+    /** Accessor method for the objective of the tuned controller
+     *
+     * @return objective of the best candidate of the last call to tune, NaN before the first
+     * @author Ogechi
+     */
+    public double getBestObjective() {
+        return this.bestObjective;
+    }
+
+    /** Accessor method for the number of candidates
+     *
+     * @return candidates submitted by the last call to tune
+     * @author Ogechi
+     */
+    public int getEvaluationCount() {
+        return this.evaluations.get();
+    }
+
+    /** Accessor method for the number of cancelled candidates
+     *
+     * @return candidates of the last call to tune stopped before the end of their run because they could no longer win
+     * or broke the overshoot constraint
+     * @author Ogechi
+     */
+    public int getCancelledCount() {
+        return this.cancellations.get();
+    }
+
+    /** Returns the number of tuned parameters, the gain and the time constants the controller type uses
+     *
+     * @return dimension of the search
+     * @author Ogechi
+     */
+    public int getDimension() {
+        return 1 + (this.tuneIntegral ? 1 : 0) + (this.tuneDerivative ? 1 : 0);
+    }
+
+    /** Evaluates the objective of a controller over a whole run on the calling thread
+     *
+     * @param controller controller of the same reactor to simulate, never modified
+     * @return objective, infinite if the run breaks a constraint or fails
+     * @author Ogechi
+     */
+    public double evaluate(PIDController controller) {
+        ObjectiveSink sink = new ObjectiveSink(controller, Double.POSITIVE_INFINITY, false);
+        try {
+            controller.clone().simulate(sink);
+        } catch (RuntimeException e) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return sink.getPenalizedValue();
+    }
+
+    /** Searches for the gain and time constants minimizing the objective under the constraints
+     * If the starting point breaks the constraints, a point meeting them is searched for first by minimizing how far the
+     * constraints are broken, with up to half of the evaluation budget, and the search of the objective starts from there.
+     *
+     * @param executor executor evaluating the candidates
+     * @return copy of the base controller with the tuned parameters
+     * @throws IllegalArgumentException if executor is null or no point meeting the constraints is found
+     * @throws RuntimeException if the calling thread is interrupted
+     * @author Ogechi
+     */
+    public PIDController tune(SimulationExecutor executor) {
+        if (executor == null) throw new IllegalArgumentException("Executor cannot be null");
+        this.evaluations.set(0);
+        this.cancellations.set(0);
+        double[] start = new double[getDimension()];
+        start[0] = Math.log(this.base.getControllerGain());
+        int p = 1;
+        if (this.tuneIntegral) start[p++] = Math.log(this.base.getIntegratingTimeConstant());
+        if (this.tuneDerivative) start[p] = Math.log(this.base.getDerivativeTimeConstant());
+
+        double[] best = search(executor, start, false, this.maxEvaluations);
+        if (best == null) {
+            double[] feasible = search(executor, start, true, this.maxEvaluations / 2);
+            best = feasible == null ? null : search(executor, feasible, false, this.maxEvaluations);
+            if (best == null) throw new IllegalArgumentException("Error, no controller meeting the constraints was found, relax them or start from other parameters");
+        }
+        return createController(best);
+    }
+
+    /** Helper method running the Nelder-Mead search from a starting point until it converges or the budget is spent
+     *
+     * @param executor executor evaluating the candidates
+     * @param start natural logarithm of the starting parameters
+     * @param feasibility true to minimize how far the constraints are broken and stop at the first point meeting them,
+     * false to minimize the objective under the constraints
+     * @param evaluationLimit count of candidates of the whole tuning at which the search stops
+     * @return natural logarithm of the best parameters, or null if no point meeting the constraints was found, for the
+     * objective if no vertex of the starting simplex meets them
+     * @author Ogechi
+     */
+    private double[] search(SimulationExecutor executor, double[] start, boolean feasibility, int evaluationLimit) {
+        int d = start.length;
+        double[][] simplex = new double[d + 1][];
+        simplex[0] = start.clone();
+        for (int i = 1; i <= d; i++) {
+            simplex[i] = start.clone();
+            simplex[i][i - 1] += this.initialStep;
+        }
+        double[] values = evaluateAll(executor, simplex, feasibility);
+        boolean feasible = false;
+        for (double value : values) feasible |= value < Double.POSITIVE_INFINITY;
+        if (!feasible) return null;
+
+        while (this.evaluations.get() < evaluationLimit) {
+            sortSimplex(simplex, values);
+            if (feasibility && values[0] == 0) return simplex[0];
+            if (simplexSize(simplex) <= this.parameterTolerance) break;
+            double worst = values[d];
+
+            double[] centroid = new double[d];
+            for (int i = 0; i < d; i++) {
+                for (int j = 0; j < d; j++) centroid[j] += simplex[i][j] / d;
+            }
+            double[] reflected = combine(centroid, simplex[d], -REFLECTION);
+            double[] expanded = combine(centroid, simplex[d], -REFLECTION * EXPANSION);
+            double[] outside = combine(centroid, simplex[d], -REFLECTION * CONTRACTION);
+            double[] inside = combine(centroid, simplex[d], CONTRACTION);
+
+            //every candidate is started now, none of them can be accepted with an objective at or above the worst vertex
+            Candidate reflection = submit(executor, reflected, worst, feasibility);
+            Candidate expansion = submit(executor, expanded, worst, feasibility);
+            Candidate outsideContraction = submit(executor, outside, worst, feasibility);
+            Candidate insideContraction = submit(executor, inside, worst, feasibility);
+
+            double reflectedValue = reflection.get();
+            double[] accepted = null;
+            double acceptedValue = 0;
+            if (reflectedValue < values[0]) {
+                outsideContraction.cancel();
+                insideContraction.cancel();
+                double expandedValue = expansion.get();
+                accepted = expandedValue < reflectedValue ? expanded : reflected;
+                acceptedValue = Math.min(expandedValue, reflectedValue);
+            } else if (reflectedValue < values[d - 1]) {
+                expansion.cancel();
+                outsideContraction.cancel();
+                insideContraction.cancel();
+                accepted = reflected;
+                acceptedValue = reflectedValue;
+            } else if (reflectedValue < worst) {
+                expansion.cancel();
+                insideContraction.cancel();
+                double outsideValue = outsideContraction.get();
+                if (outsideValue <= reflectedValue) {
+                    accepted = outside;
+                    acceptedValue = outsideValue;
+                }
+            } else {
+                expansion.cancel();
+                outsideContraction.cancel();
+                double insideValue = insideContraction.get();
+                if (insideValue < worst) {
+                    accepted = inside;
+                    acceptedValue = insideValue;
+                }
+            }
+            //wait for the cancelled candidates so the next iteration does not share the workers with them
+            expansion.get();
+            outsideContraction.get();
+            insideContraction.get();
+
+            if (accepted != null) {
+                simplex[d] = accepted;
+                values[d] = acceptedValue;
+            } else {
+                //shrink every vertex towards the best one
+                double[][] shrunk = new double[d][];
+                for (int i = 1; i <= d; i++) shrunk[i - 1] = combine(simplex[0], simplex[i], SHRINK);
+                double[] shrunkValues = evaluateAll(executor, shrunk, feasibility);
+                for (int i = 1; i <= d; i++) {
+                    simplex[i] = shrunk[i - 1];
+                    values[i] = shrunkValues[i - 1];
+                }
+            }
+        }
+        sortSimplex(simplex, values);
+        if (feasibility) return values[0] == 0 ? simplex[0] : null;
+        this.bestObjective = values[0];
+        return simplex[0];
+    }
+
+    /** Creates the controller of a point of the search
+     *
+     * @param point natural logarithm of the tuned parameters
+     * @return copy of the base controller with the parameters set
+     * @author Ogechi
+     */
+    private PIDController createController(double[] point) {
+        PIDController controller = this.base.clone();
+        controller.setControllerGain(Math.exp(point[0]));
+        int p = 1;
+        if (this.tuneIntegral) controller.setIntegratingTimeConstant(Math.exp(point[p++]));
+        if (this.tuneDerivative) controller.setDerivativeTimeConstant(Math.exp(point[p]));
+        return controller;
+    }
+
+    /** Helper method returning centroid + factor * (vertex - centroid) as a new point
+     *
+     * @param centroid centroid of the simplex without the vertex, or the vertex the others shrink towards
+     * @param vertex vertex to move
+     * @param factor signed distance in units of the distance from the centroid to the vertex
+     * @return new point
+     * @author Ogechi
+     */
+    private static double[] combine(double[] centroid, double[] vertex, double factor) {
+        double[] point = new double[centroid.length];
+        for (int j = 0; j < point.length; j++) point[j] = centroid[j] + factor * (vertex[j] - centroid[j]);
+        return point;
+    }
+
+    /** Helper method sorting the vertices by their objective, best first
+     *
+     * @param simplex vertices
+     * @param values objective of every vertex
+     * @author Ogechi
+     */
+    private static void sortSimplex(double[][] simplex, double[] values) {
+        for (int i = 1; i < values.length; i++) {
+            double value = values[i];
+            double[] vertex = simplex[i];
+            int j = i - 1;
+            while (j >= 0 && values[j] > value) {
+                values[j + 1] = values[j];
+                simplex[j + 1] = simplex[j];
+                j--;
+            }
+            values[j + 1] = value;
+            simplex[j + 1] = vertex;
+        }
+    }
+
+    /** Helper method measuring the simplex as the largest difference of a parameter logarithm from the best vertex
+     *
+     * @param simplex vertices, best first
+     * @return size of the simplex
+     * @author Ogechi
+     */
+    private static double simplexSize(double[][] simplex) {
+        double size = 0;
+        for (int i = 1; i < simplex.length; i++) {
+            for (int j = 0; j < simplex[0].length; j++) size = Math.max(size, Math.abs(simplex[i][j] - simplex[0][j]));
+        }
+        return size;
+    }
+
+    /** Helper method evaluating points concurrently and waiting for all of them
+     *
+     * @param executor executor evaluating the candidates
+     * @param points points to evaluate
+     * @param feasibility true to evaluate how far the constraints are broken instead of the objective
+     * @return objective of every point, infinite for those breaking a constraint
+     * @author Ogechi
+     */
+    private double[] evaluateAll(SimulationExecutor executor, double[][] points, boolean feasibility) {
+        Candidate[] candidates = new Candidate[points.length];
+        for (int i = 0; i < candidates.length; i++) candidates[i] = submit(executor, points[i], Double.POSITIVE_INFINITY, feasibility);
+        double[] values = new double[candidates.length];
+        for (int i = 0; i < candidates.length; i++) values[i] = candidates[i].get();
+        return values;
+    }
+
+    /** Helper method starting the evaluation of a candidate
+     *
+     * @param executor executor evaluating the candidate
+     * @param point natural logarithm of the parameters of the candidate
+     * @param bound objective at which the candidate can no longer be accepted and is cancelled
+     * @param feasibility true to evaluate how far the constraints are broken instead of the objective
+     * @return candidate being evaluated
+     * @author Ogechi
+     */
+    private Candidate submit(SimulationExecutor executor, double[] point, double bound, boolean feasibility) {
+        this.evaluations.incrementAndGet();
+        PIDController controller = createController(point);
+        ObjectiveSink objectiveSink = new ObjectiveSink(controller, feasibility ? Double.POSITIVE_INFINITY : bound, feasibility);
+        CancellableSink sink = new CancellableSink(objectiveSink);
+        Future<Double> value = executor.submit(() -> {
+            try {
+                controller.simulate(sink);
+            } catch (CancellationException e) {
+                this.cancellations.incrementAndGet();
+                return Double.POSITIVE_INFINITY;
+            } catch (RuntimeException e) {
+                //a candidate whose simulation fails, for example because its solver does not converge, is never accepted
+                return Double.POSITIVE_INFINITY;
+            }
+            return objectiveSink.getPenalizedValue();
+        });
+        return new Candidate(sink, value);
+    }
+
+    /** Candidate being evaluated, with the sink that cancels its simulation
+     * @author Ogechi
+     */
+    private static class Candidate {
+
+        private final CancellableSink sink; //sink of the candidate's simulation
+        private final Future<Double> value; //objective once the simulation has ended
+
+        private Candidate(CancellableSink sink, Future<Double> value) {
+            this.sink = sink;
+            this.value = value;
+        }
+
+        /** Stops the candidate at its next row, or before it starts
+         * @author Ogechi
+         */
+        private void cancel() {
+            this.sink.cancel();
+        }
+
+        /** Waits for the candidate's objective
+         *
+         * @return objective, infinite if the candidate was cancelled or breaks a constraint
+         * @throws RuntimeException if the calling thread is interrupted
+         * @author Ogechi
+         */
+        private double get() {
+            try {
+                return this.value.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for a tuning candidate", e);
+            } catch (ExecutionException e) {
+                return Double.POSITIVE_INFINITY;
+            }
+        }
+    }
+
+    /** Sink integrating the error of one run in constant memory, cancelling the run once its objective reaches a bound
+     * @author Ogechi
+     */
+    private class ObjectiveSink implements SimulationSink {
+
+        private final PerformanceMetricsSink metrics; //metrics of the run, the objective and the constraints are read from them
+        private final double bound; //objective at which the run is cancelled
+        private final boolean feasibility; //true to measure how far the constraints are broken instead of the objective
+        private double previousTime; //time measured up to the previous row
+        private double lateError; //integral of the error outside the settling band after the largest settling time allowed
+
+        private ObjectiveSink(PIDController controller, double bound, boolean feasibility) {
+            this.metrics = PerformanceMetricsSink.forController(controller, settlingBand, null);
+            this.bound = bound;
+            this.feasibility = feasibility;
+        }
+
+        @Override
+        public void start(int columnCount, int rowCount) {
+            this.metrics.start(columnCount, rowCount);
+            this.previousTime = 0;
+            this.lateError = 0;
+        }
+
+        @Override
+        public void accept(double[] row) {
+            this.metrics.accept(row);
+            double t = this.metrics.getElapsedTime();
+            if (t > maxSettlingTime) this.lateError += Math.max(0, Math.abs(this.metrics.getError()) - settlingBand) * (t - this.previousTime);
+            this.previousTime = t;
+
+            //the objective only grows and the overshoot only grows, so the run cannot win any more
+            if (getValue() >= this.bound) throw new CancellationException("Objective reached the worst vertex");
+            if (!this.feasibility && this.metrics.getOvershoot() > maxOvershoot) throw new CancellationException("Overshoot constraint broken");
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        /** Returns the objective of the rows received so far
+         *
+         * @return integrated error chosen as the objective
+         * @author Ogechi
+         */
+        private double getValue() {
+            switch (objective) {
+                case IAE:
+                    return this.metrics.getIntegralAbsoluteError();
+
+                case ISE:
+                    return this.metrics.getIntegralSquaredError();
+
+                default:
+                    return this.metrics.getIntegralTimeAbsoluteError();
+            }
+        }
+
+        /** Returns the objective of the run, infinite if it breaks a constraint, or how far it breaks the constraints
+         * The distance adds the overshoot above its limit and the integral of the error outside the settling band after the
+         * largest settling time, each relative to its limits, so it is 0 only if both constraints are met.
+         *
+         * @return objective with the constraints applied, or the distance from the constraints
+         * @author Ogechi
+         */
+        private double getPenalizedValue() {
+            PerformanceMetrics metrics = this.metrics.getMetrics();
+            if (this.feasibility) {
+                double distance = Math.max(0, metrics.getOvershoot() - maxOvershoot) / (maxOvershoot > 0 ? maxOvershoot : 1);
+                distance += this.lateError / ((settlingBand > 0 ? settlingBand : 1) * (maxSettlingTime > 0 ? maxSettlingTime : 1));
+                return Double.isNaN(distance) ? Double.POSITIVE_INFINITY : distance;
+            }
+            double value = getValue();
+            if (Double.isNaN(value) || metrics.getOvershoot() > maxOvershoot || metrics.getSettlingTime() > maxSettlingTime) return Double.POSITIVE_INFINITY;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,406 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/** Runs variants of a base PIDController in parallel, each with some of its parameters overridden
+ * Every run simulates its own clone of the base controller and keeps only a summary of its rows, so runs share no mutable
+ * state and the sweep scales with the number of workers of the SimulationExecutor. As each run ends its summary is appended
+ * to the results table and reported to the listener, and cancel() stops the running simulations at their next row and
+ * skips those that have not started.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class ParameterSweep {
+
+    public enum PARAMETER {
+        CONTROLLER_GAIN, INTEGRATING_TIME_CONSTANT, DERIVATIVE_TIME_CONSTANT, DEAD_TIME, SET_POINT, TOLERANCE, K, VOLUME, INITIAL_FLOW
+    } //parameters that can be swept, K, VOLUME and INITIAL_FLOW require the controllable to be a Reactor
+
+    private final PIDController base; //controller every run starts from
+    private final PARAMETER[] parameters; //parameters overridden in every run
+    private final double[][] variants; //values of the parameters for every run
+    private String[] columnNames; //names of the result columns in the table, or null to name them by index
+    private final AtomicBoolean cancelled = new AtomicBoolean(); //set by cancel(), shared by the sinks of every run
+
+    /** Constructor for a sweep over a list of variants
+     *
+     * @param base controller every run starts from, copied
+     * @param parameters parameters overridden in every run
+     * @param variants values of the parameters for every run, one array per run in the order of the parameters
+     * @throws IllegalArgumentException if any argument or element is null, or a variant does not have one value per parameter
+     * @author Ogechi
+     */
+    public ParameterSweep(PIDController base, PARAMETER[] parameters, double[][] variants) {
+        if (base == null) throw new IllegalArgumentException("Base controller cannot be null");
+        if (parameters == null || variants == null) throw new IllegalArgumentException("Parameters and variants cannot be null");
+        for (PARAMETER parameter : parameters) {
+            if (parameter == null) throw new IllegalArgumentException("Parameters cannot contain null");
+        }
+        this.variants = new double[variants.length][];
+        for (int i = 0; i < variants.length; i++) {
+            if (variants[i] == null || variants[i].length != parameters.length) throw new IllegalArgumentException("Error, variant " + i + " must have a value for each of the " + parameters.length + " parameters");
+            this.variants[i] = variants[i].clone();
+        }
+        this.base = base.clone();
+        this.parameters = parameters.clone();
+    }
+
+    /** Creates a sweep over every combination of the values of the parameters, the last parameter changing fastest
+     *
+     * @param base controller every run starts from, copied
+     * @param parameters parameters to sweep
+     * @param values values of each parameter, in the order of the parameters
+     * @return sweep with one run per combination
+     * @throws IllegalArgumentException if any argument or element is null, or the number of value arrays does not match the parameters
+     * @author Ogechi
+     */
+    public static ParameterSweep grid(PIDController base, PARAMETER[] parameters, double[][] values) {
+        if (parameters == null || values == null || values.length != parameters.length) throw new IllegalArgumentException("Error, the grid needs an array of values for every parameter");
+        int runCount = 1;
+        for (double[] parameterValues : values) {
+            if (parameterValues == null) throw new IllegalArgumentException("Grid values cannot be null");
+            runCount *= parameterValues.length;
+        }
+        double[][] variants = new double[runCount][parameters.length];
+        for (int i = 0; i < runCount; i++) {
+            int remainder = i;
+            for (int p = parameters.length - 1; p >= 0; p--) {
+                variants[i][p] = values[p][remainder % values[p].length];
+                remainder /= values[p].length;
+            }
+        }
+        return new ParameterSweep(base, parameters, variants);
+    }
+
+    /** Returns the parameter with a label, the labels being the keys used in Driver input files
+     *
+     * @param label label of the parameter, such as "controller gain" or "k"
+     * @return parameter with the label, or null if there is none
+     * @author Ogechi
+     */
+    public static PARAMETER getParameterByLabel(String label) {
+        switch (label) {
+            case "controller gain":
+                return PARAMETER.CONTROLLER_GAIN;
+
+            case "integrating time constant":
+                return PARAMETER.INTEGRATING_TIME_CONSTANT;
+
+            case "derivative time constant":
+                return PARAMETER.DERIVATIVE_TIME_CONSTANT;
+
+            case "dead time":
+                return PARAMETER.DEAD_TIME;
+
+            case "set point":
+                return PARAMETER.SET_POINT;
+
+            case "tolerance":
+                return PARAMETER.TOLERANCE;
+
+            case "k":
+                return PARAMETER.K;
+
+            case "volume":
+                return PARAMETER.VOLUME;
+
+            case "initial flow":
+                return PARAMETER.INITIAL_FLOW;
+
+            default:
+                return null;
+        }
+    }
+
+    /** Returns the label of a parameter, the inverse of getParameterByLabel
+     *
+     * @param parameter parameter
+     * @return label of the parameter
+     * @author Ogechi
+     */
+    public static String getLabel(PARAMETER parameter) {
+        return parameter.name().toLowerCase().replace('_', ' ');
+    }
+
+    /** Accessor method for the number of runs
+     *
+     * @return number of variants
+     * @author Ogechi
+     */
+    public int getRunCount() {
+        return this.variants.length;
+    }
+
+    /** Accessor method for the swept parameters
+     *
+     * @return copy of the parameters in the order of the variant values
+     * @author Ogechi
+     */
+    public PARAMETER[] getParameters() {
+        return this.parameters.clone();
+    }
+
+    /** Accessor method for the values of one run
+     *
+     * @param run index of the run
+     * @return copy of the values of the parameters in that run
+     * @throws IndexOutOfBoundsException if the run is out of range
+     * @author Ogechi
+     */
+    public double[] getVariant(int run) {
+        return this.variants[run].clone();
+    }
+
+    /** Mutator method for the names of the result columns, used to name the final values in the results table
+     *
+     * @param columnNames names of the result columns, or null to name them by index
+     * @return true if updated, false if the number of names does not match the column count
+     * @author Ogechi
+     */
+    public boolean setColumnNames(String[] columnNames) {
+        if (columnNames != null && columnNames.length != getColumnCount()) return false;
+        this.columnNames = columnNames == null ? null : columnNames.clone();
+        return true;
+    }
+
+    /** Returns the number of values in every row of a run, the layout of PIDController.simulate() for the base controllable
+     *
+     * @return number of result columns
+     * @author Ogechi
+     */
+    public int getColumnCount() {
+        Controllable controllable = this.base.getControllable();
+        return controllable.getInitialValues().length + (controllable.getIsControlled() ? 6 : 3);
+    }
+
+    /** Stops the sweep, safe to call from any thread including a listener
+     * Running simulations stop at their next row and runs that have not started are skipped, all of them end as CANCELLED.
+     *
+     * @author Ogechi
+     */
+    public void cancel() {
+        this.cancelled.set(true);
+    }
+
+    /** Accessor method for the cancellation flag
+     *
+     * @return true if cancel() has been called
+     * @author Ogechi
+     */
+    public boolean isCancelled() {
+        return this.cancelled.get();
+    }
+
+    /** Creates the controller of one run, a copy of the base controller with the parameters of the run set
+     *
+     * @param run index of the run
+     * @return new controller owned by the caller
+     * @throws IllegalArgumentException if a value is rejected by the controller or reactor, or a reactor parameter is swept on another controllable
+     * @throws IndexOutOfBoundsException if the run is out of range
+     * @author Ogechi
+     */
+    public PIDController createVariant(int run) {
+        PIDController controller = this.base.clone();
+        Controllable controllable = null;
+        for (int p = 0; p < this.parameters.length; p++) {
+            double value = this.variants[run][p];
+            boolean updated;
+            switch (this.parameters[p]) {
+                case CONTROLLER_GAIN:
+                    updated = controller.setControllerGain(value);
+                    break;
+                case INTEGRATING_TIME_CONSTANT:
+                    updated = controller.setIntegratingTimeConstant(value);
+                    break;
+                case DERIVATIVE_TIME_CONSTANT:
+                    updated = controller.setDerivativeTimeConstant(value);
+                    break;
+                case DEAD_TIME:
+                    updated = controller.setDeadTime(value);
+                    break;
+                case SET_POINT:
+                    updated = controller.setSetPoint(value);
+                    break;
+                case TOLERANCE:
+                    updated = value > 0 && controller.setTolerance(value);
+                    break;
+                default:
+                    //reactor parameters are set on one copy of the controllable, which replaces the controller's after the loop
+                    if (controllable == null) controllable = controller.getControllable();
+                    if (!(controllable instanceof Reactor)) throw new IllegalArgumentException("Error, " + getLabel(this.parameters[p]) + " can only be swept for a reactor");
+                    Reactor reactor = (Reactor) controllable;
+                    if (this.parameters[p] == PARAMETER.VOLUME) {
+                        updated = value > 0 && reactor.setVolume(value);
+                    } else if (this.parameters[p] == PARAMETER.INITIAL_FLOW) {
+                        updated = reactor.setInitialFlow(value);
+                    } else {
+                        if (reactor.getReactionNetwork() != null) throw new IllegalArgumentException("Error, k cannot be swept for a reactor with a reaction network");
+                        Reaction reaction = reactor.getReaction();
+                        updated = value >= 0 && reaction.setK(value) && reactor.setReaction(reaction);
+                    }
+            }
+            if (!updated) throw new IllegalArgumentException("Error, " + value + " is not a valid " + getLabel(this.parameters[p]));
+        }
+        if (controllable != null && !controller.setControllable(controllable)) throw new IllegalArgumentException("Error, controllable object could not be copied");
+        return controller;
+    }
+
+    /** Runs every variant on the executor and waits for the sweep to end
+     * Runs end in any order, the results table has one row per run in the order they ended, starting with the run index
+     * and ending with the performance metrics of the completed runs, measured with a settling band of 2 % of their set point.
+     *
+     * @param executor executor running the simulations
+     * @param resultsPath path of the CSV results table to create or overwrite, or null for no table
+     * @param listener listener receiving every result as it ends, or null
+     * @return results in the order of the runs
+     * @throws IllegalArgumentException if executor is null
+     * @throws RuntimeException if the results table cannot be written or the calling thread is interrupted
+     * @author Ogechi
+     */
+    public SweepResult[] run(SimulationExecutor executor, String resultsPath, SweepListener listener) {
+        if (executor == null) throw new IllegalArgumentException("Executor cannot be null");
+        SweepResult[] results = new SweepResult[this.variants.length];
+        try (ResultsTable table = new ResultsTable(resultsPath, listener)) {
+            Future<?>[] runs = new Future<?>[this.variants.length];
+            for (int i = 0; i < runs.length; i++) {
+                int run = i;
+                runs[i] = executor.submit(() -> {
+                    results[run] = simulateRun(run);
+                    table.add(results[run]);
+                    return null;
+                });
+            }
+            for (int i = 0; i < runs.length; i++) {
+                try {
+                    runs[i].get();
+                } catch (InterruptedException e) {
+                    cancel();
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for run " + i, e);
+                } catch (ExecutionException e) {
+                    //only the results table can fail here, failed simulations are recorded in their result
+                    throw new RuntimeException("Run " + i + " could not be recorded: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return results;
+    }
+
+    /** Helper method simulating one run and summarizing it, every failure is recorded in the result
+     *
+     * @param run index of the run
+     * @return result of the run
+     * @author Ogechi
+     */
+    private SweepResult simulateRun(int run) {
+        if (this.cancelled.get()) return new SweepResult(run, this.variants[run], SweepResult.STATUS.CANCELLED, null, 0, 0, null, null);
+        long start = System.nanoTime();
+        FinalRowSink summary = new FinalRowSink();
+        PerformanceMetricsSink metrics = null;
+        CancellableSink sink = null;
+        SweepResult.STATUS status = SweepResult.STATUS.COMPLETED;
+        String message = null;
+        try {
+            //the metrics are measured as the rows pass, the set point and so the settling band are those of the variant
+            PIDController controller = createVariant(run);
+            metrics = PerformanceMetricsSink.forController(controller, summary);
+            sink = new CancellableSink(metrics, this.cancelled);
+            controller.simulate(sink);
+        } catch (CancellationException e) {
+            status = SweepResult.STATUS.CANCELLED;
+        } catch (RuntimeException e) {
+            status = SweepResult.STATUS.FAILED;
+            message = e.getMessage();
+        }
+        return new SweepResult(run, this.variants[run], status, message, (System.nanoTime() - start) / 1e6, sink == null ? 0 : sink.getRowsReceived(),
+                summary.finalRow, status == SweepResult.STATUS.COMPLETED ? metrics.getMetrics() : null);
+    }
+
+    /** Sink keeping only the last row of a run
+     * @author Ogechi
+     */
+    private static class FinalRowSink implements SimulationSink {
+
+        private double[] finalRow; //copy of the last row received, null before the first
+
+        @Override
+        public void start(int columnCount, int rowCount) {
+            this.finalRow = null;
+        }
+
+        @Override
+        public void accept(double[] row) {
+            if (this.finalRow == null) this.finalRow = new double[row.length];
+            System.arraycopy(row, 0, this.finalRow, 0, row.length);
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+
+    /** Results table and progress of one call to run, shared by the worker threads
+     * Results are written and reported one at a time under the table's lock, the only point where the runs meet.
+     * @author Ogechi
+     */
+    private class ResultsTable implements AutoCloseable {
+
+        private final BufferedWriter writer; //open table, or null for no table
+        private final SweepListener listener; //listener receiving every result, or null
+        private boolean headerWritten; //the header is written with the first result, once the column count is known
+        private int finishedRuns; //runs recorded so far
+
+        private ResultsTable(String resultsPath, SweepListener listener) throws IOException {
+            this.writer = resultsPath == null ? null : new BufferedWriter(new FileWriter(resultsPath, StandardCharsets.UTF_8));
+            this.listener = listener;
+        }
+
+        /** Appends a result to the table, flushing it so the table can be followed while the sweep runs, and reports it
+         *
+         * @param result result of a run that ended
+         * @throws IOException if the table cannot be written
+         * @author Ogechi
+         */
+        private synchronized void add(SweepResult result) throws IOException {
+            this.finishedRuns++;
+            if (this.writer != null) {
+                double[] finalRow = result.getFinalRow();
+                if (!this.headerWritten) {
+                    this.writer.write("run");
+                    for (PARAMETER parameter : parameters) this.writer.write("," + getLabel(parameter));
+                    this.writer.write(",status,wall time (ms),rows");
+                    //cancelled and failed runs may end without a row, so the column count comes from the base controller
+                    int columnCount = columnNames != null ? columnNames.length : getColumnCount();
+                    for (int j = 0; j < columnCount; j++) {
+                        this.writer.write(",final " + (columnNames != null ? columnNames[j].trim() : Integer.toString(j)));
+                    }
+                    for (String label : PerformanceMetrics.getLabels()) this.writer.write("," + label);
+                    this.writer.newLine();
+                    this.headerWritten = true;
+                }
+                this.writer.write(Integer.toString(result.getRunIndex()));
+                for (double value : result.getParameterValues()) this.writer.write("," + value);
+                this.writer.write("," + result.getStatus() + "," + result.getWallTime() + "," + result.getRowCount());
+                for (double value : finalRow) this.writer.write("," + value);
+                if (result.getMetrics() != null) {
+                    for (double value : result.getMetrics().getValues()) this.writer.write("," + value);
+                }
+                this.writer.newLine();
+                this.writer.flush();
+            }
+            if (this.listener != null) this.listener.runFinished(result, this.finishedRuns, variants.length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.writer != null) this.writer.close();
+        }
+    }
+}
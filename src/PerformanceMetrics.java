@@ -0,0 +1,188 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/** Closed-loop performance of one simulation, measured by a PerformanceMetricsSink while the rows were produced
+ * Errors are the set point minus the controlled variable. Times are measured from the start of the simulation.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class PerformanceMetrics {
+
+    private static final String[] LABELS = {"IAE", "ISE", "ITAE", "overshoot", "rise time", "settling time", "controller effort"}; //labels of the values, in the order of getValues()
+
+    private final double integralAbsoluteError; //integral of the absolute error
+    private final double integralSquaredError; //integral of the squared error
+    private final double integralTimeAbsoluteError; //integral of the time times the absolute error
+    private final double overshoot; //largest error past the set point opposite to the first error
+    private final double riseTime; //time taken from 10 % to 90 % of the way to the set point, NaN if 90 % was never reached
+    private final double settlingTime; //time of the last row outside the settling band
+    private final boolean settled; //true if the last row is inside the settling band
+    private final double controllerEffort; //total variation of the manipulated variable
+    private final double duration; //time from the first row to the last row
+    private final int rowCount; //rows measured, the first one included
+
+    /** Constructor for performance metrics
+     *
+     * @param integralAbsoluteError integral of the absolute error
+     * @param integralSquaredError integral of the squared error
+     * @param integralTimeAbsoluteError integral of the time times the absolute error
+     * @param overshoot largest error past the set point opposite to the first error
+     * @param riseTime time taken from 10 % to 90 % of the way to the set point, NaN if 90 % was never reached
+     * @param settlingTime time of the last row outside the settling band, or the duration if the run has not settled
+     * @param settled true if the last row is inside the settling band
+     * @param controllerEffort total variation of the manipulated variable
+     * @param duration time from the first row to the last row
+     * @param rowCount rows measured
+     * @author Ogechi
+     */
+    public PerformanceMetrics(double integralAbsoluteError, double integralSquaredError, double integralTimeAbsoluteError, double overshoot,
+                              double riseTime, double settlingTime, boolean settled, double controllerEffort, double duration, int rowCount) {
+        this.integralAbsoluteError = integralAbsoluteError;
+        this.integralSquaredError = integralSquaredError;
+        this.integralTimeAbsoluteError = integralTimeAbsoluteError;
+        this.overshoot = overshoot;
+        this.riseTime = riseTime;
+        this.settlingTime = settlingTime;
+        this.settled = settled;
+        this.controllerEffort = controllerEffort;
+        this.duration = duration;
+        this.rowCount = rowCount;
+    }
+
+    /** Accessor method for the IAE
+     *
+     * @return integral of the absolute error
+     * @author Ogechi
+     */
+    public double getIntegralAbsoluteError() {
+        return this.integralAbsoluteError;
+    }
+
+    /** Accessor method for the ISE
+     *
+     * @return integral of the squared error
+     * @author Ogechi
+     */
+    public double getIntegralSquaredError() {
+        return this.integralSquaredError;
+    }
+
+    /** Accessor method for the ITAE
+     *
+     * @return integral of the time since the start times the absolute error
+     * @author Ogechi
+     */
+    public double getIntegralTimeAbsoluteError() {
+        return this.integralTimeAbsoluteError;
+    }
+
+    /** Accessor method for the overshoot
+     *
+     * @return largest distance the controlled variable went past the set point, 0 if it never did
+     * @author Ogechi
+     */
+    public double getOvershoot() {
+        return this.overshoot;
+    }
+
+    /** Accessor method for the rise time
+     *
+     * @return time taken from 10 % to 90 % of the way from the first error to the set point, NaN if 90 % was never reached
+     * @author Ogechi
+     */
+    public double getRiseTime() {
+        return this.riseTime;
+    }
+
+    /** Accessor method for the settling time
+     *
+     * @return time of the last row outside the settling band, the duration if the run ended outside it
+     * @author Ogechi
+     */
+    public double getSettlingTime() {
+        return this.settlingTime;
+    }
+
+    /** Accessor method for whether the run settled
+     *
+     * @return true if the run ended inside the settling band
+     * @author Ogechi
+     */
+    public boolean isSettled() {
+        return this.settled;
+    }
+
+    /** Accessor method for the controller effort
+     *
+     * @return sum of the absolute changes of the manipulated variable from row to row
+     * @author Ogechi
+     */
+    public double getControllerEffort() {
+        return this.controllerEffort;
+    }
+
+    /** Accessor method for the duration
+     *
+     * @return time from the first row to the last row
+     * @author Ogechi
+     */
+    public double getDuration() {
+        return this.duration;
+    }
+
+    /** Accessor method for the row count
+     *
+     * @return rows measured, the first one included
+     * @author Ogechi
+     */
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /** Returns the labels of the values, used as column names of tables of metrics
+     *
+     * @return labels in the order of getValues()
+     * @author Ogechi
+     */
+    public static String[] getLabels() {
+        return LABELS.clone();
+    }
+
+    /** Returns the metrics as an array, used as columns of tables of metrics
+     *
+     * @return IAE, ISE, ITAE, overshoot, rise time, settling time and controller effort, in the order of getLabels()
+     * @author Ogechi
+     */
+    public double[] getValues() {
+        return new double[]{this.integralAbsoluteError, this.integralSquaredError, this.integralTimeAbsoluteError, this.overshoot,
+                this.riseTime, this.settlingTime, this.controllerEffort};
+    }
+
+    /** Writes the metrics to a small text file with one "label : value" line per metric, the format of the input files
+     *
+     * @param filePath path of the summary file to create or overwrite
+     * @throws IllegalArgumentException if file path is null
+     * @throws RuntimeException if the file cannot be written
+     * @author Ogechi
+     */
+    public void writeSummary(String filePath) {
+        if (filePath == null) throw new IllegalArgumentException("File path cannot be null");
+        double[] values = getValues();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath, StandardCharsets.UTF_8))) {
+            for (int i = 0; i < LABELS.length; i++) {
+                writer.write(LABELS[i] + " : " + values[i]);
+                writer.newLine();
+            }
+            writer.write("settled : " + this.settled);
+            writer.newLine();
+            writer.write("duration : " + this.duration);
+            writer.newLine();
+            writer.write("rows : " + this.rowCount);
+            writer.newLine();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
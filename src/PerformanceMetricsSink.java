@@ -0,0 +1,261 @@
+/** Simulation sink measuring the closed-loop performance of a run while its rows are produced, optionally passing them on to another sink
+ * Every metric is updated row by row from the previous values only, so memory does not grow with the run length and the results never
+ * need to be read back. Errors are the set point minus the controlled variable and are integrated with rectangles over each time step.
+ * The first row holds the start time and the controller's first action rather than a reactor state, so its error is not counted.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class PerformanceMetricsSink implements SimulationSink {
+
+    public static final double DEFAULT_BAND_FRACTION = 0.02; //settling band relative to the set point when none is given
+    private static final double RISE_START = 0.9; //fraction of the first error left when the rise starts
+    private static final double RISE_END = 0.1; //fraction of the first error left when the rise ends
+
+    private final SimulationSink target; //sink receiving the rows, or null if only the metrics are needed
+    private final double setPoint; //set point the errors are measured from
+    private final int controlledColumn; //column of the controlled variable in the rows
+    private final int manipulatedColumn; //column of the manipulated variable in the rows
+    private final double settlingBand; //largest absolute error counted as settled
+    private int rowCount; //rows received since start
+    private double startTime; //time of the first row
+    private double previousTime; //time of the previous row
+    private double previousManipulated; //manipulated variable of the previous row
+    private double error; //error of the last row
+    private double integralAbsoluteError; //integral of the absolute error so far
+    private double integralSquaredError; //integral of the squared error so far
+    private double integralTimeAbsoluteError; //integral of the time times the absolute error so far
+    private double direction; //sign of the first non-zero error, 0 before it
+    private double referenceError; //absolute value of the first non-zero error
+    private double overshoot; //largest error past the set point opposite to the first error
+    private double riseStartTime; //time when 10 % of the way to the set point was first covered, NaN before
+    private double riseEndTime; //time when 90 % of the way to the set point was first covered, NaN before
+    private double lastOutsideTime; //time of the last row outside the settling band
+    private boolean settled; //true if the last row is inside the settling band
+    private double controllerEffort; //total variation of the manipulated variable so far
+
+    /** Constructor for a performance metrics sink
+     *
+     * @param target sink receiving the rows after they are measured, or null if only the metrics are needed
+     * @param setPoint set point of the controlled variable
+     * @param controlledColumn column of the controlled variable in the rows
+     * @param manipulatedColumn column of the manipulated variable in the rows
+     * @param settlingBand largest absolute error counted as settled
+     * @throws IllegalArgumentException if a column is not greater than 0 or the settling band is negative
+     * @author Ogechi
+     */
+    public PerformanceMetricsSink(SimulationSink target, double setPoint, int controlledColumn, int manipulatedColumn, double settlingBand) {
+        if (controlledColumn < 1 || manipulatedColumn < 1) throw new IllegalArgumentException("Columns must be greater than 0, column 0 is the time");
+        if (!(settlingBand >= 0)) throw new IllegalArgumentException("Settling band cannot be negative");
+        this.target = target;
+        this.setPoint = setPoint;
+        this.controlledColumn = controlledColumn;
+        this.manipulatedColumn = manipulatedColumn;
+        this.settlingBand = settlingBand;
+    }
+
+    /** Creates a sink measuring the runs of a controller, with the columns of its rows and a settling band of 2 % of its set point
+     *
+     * @param controller controller whose runs are measured
+     * @param target sink receiving the rows after they are measured, or null if only the metrics are needed
+     * @return new sink for runs of the controller
+     * @throws IllegalArgumentException if controller is null or does not control a reactor
+     * @author Ogechi
+     */
+    public static PerformanceMetricsSink forController(PIDController controller, SimulationSink target) {
+        if (controller == null) throw new IllegalArgumentException("Controller cannot be null");
+        return forController(controller, DEFAULT_BAND_FRACTION * Math.abs(controller.getSetPoint()), target);
+    }
+
+    /** Creates a sink measuring the runs of a controller, with the columns of its rows
+     *
+     * @param controller controller whose runs are measured
+     * @param settlingBand largest absolute error counted as settled
+     * @param target sink receiving the rows after they are measured, or null if only the metrics are needed
+     * @return new sink for runs of the controller
+     * @throws IllegalArgumentException if controller is null or does not control a reactor, or the settling band is negative
+     * @author Ogechi
+     */
+    public static PerformanceMetricsSink forController(PIDController controller, double settlingBand, SimulationSink target) {
+        if (controller == null) throw new IllegalArgumentException("Controller cannot be null");
+        Controllable controllable = controller.getControllable();
+        if (!(controllable instanceof Reactor)) throw new IllegalArgumentException("Error, performance metrics can only be measured for a reactor");
+        //rows of controlled runs end with the disturbed and manipulated variables and P, I and D, uncontrolled ones with the first two
+        int n = controllable.getInitialValues().length + (controllable.getIsControlled() ? 6 : 3);
+        int manipulatedColumn = controllable.getIsControlled() ? n - 4 : n - 1;
+        return new PerformanceMetricsSink(target, controller.getSetPoint(), 1 + ((Reactor) controllable).getControlled(), manipulatedColumn, settlingBand);
+    }
+
+    /** Accessor method for the settling band
+     *
+     * @return largest absolute error counted as settled
+     * @author Ogechi
+     */
+    public double getSettlingBand() {
+        return this.settlingBand;
+    }
+
+    /** Accessor method for the error of the last row
+     *
+     * @return set point minus the controlled variable of the last row, 0 before the second row
+     * @author Ogechi
+     */
+    public double getError() {
+        return this.error;
+    }
+
+    /** Accessor method for the time measured so far
+     *
+     * @return time from the first row to the last row received
+     * @author Ogechi
+     */
+    public double getElapsedTime() {
+        return this.previousTime - this.startTime;
+    }
+
+    /** Accessor method for the IAE so far, safe to read between rows to stop a run early
+     *
+     * @return integral of the absolute error up to the last row
+     * @author Ogechi
+     */
+    public double getIntegralAbsoluteError() {
+        return this.integralAbsoluteError;
+    }
+
+    /** Accessor method for the ISE so far
+     *
+     * @return integral of the squared error up to the last row
+     * @author Ogechi
+     */
+    public double getIntegralSquaredError() {
+        return this.integralSquaredError;
+    }
+
+    /** Accessor method for the ITAE so far
+     *
+     * @return integral of the time times the absolute error up to the last row
+     * @author Ogechi
+     */
+    public double getIntegralTimeAbsoluteError() {
+        return this.integralTimeAbsoluteError;
+    }
+
+    /** Accessor method for the overshoot so far
+     *
+     * @return largest distance the controlled variable went past the set point up to the last row
+     * @author Ogechi
+     */
+    public double getOvershoot() {
+        return this.overshoot;
+    }
+
+    /** Accessor method for whether the last row is settled
+     *
+     * @return true if the error of the last row is inside the settling band
+     * @author Ogechi
+     */
+    public boolean isSettled() {
+        return this.settled;
+    }
+
+    /** Returns the metrics of the rows received so far, the metrics of the whole run once it has finished
+     *
+     * @return new summary of the metrics
+     * @author Ogechi
+     */
+    public PerformanceMetrics getMetrics() {
+        double riseTime = this.direction == 0 ? 0 : this.riseEndTime - this.riseStartTime;
+        //a run still outside the band at its end has settled at the earliest at its end
+        double settlingTime = (this.settled ? this.lastOutsideTime : this.previousTime) - this.startTime;
+        return new PerformanceMetrics(this.integralAbsoluteError, this.integralSquaredError, this.integralTimeAbsoluteError, this.overshoot,
+                riseTime, settlingTime, this.settled, this.controllerEffort, getElapsedTime(), this.rowCount);
+    }
+
+    /** Resets the metrics and passes the shape of the results on to the target
+     *
+     * @param columnCount number of values in every row
+     * @param rowCount number of rows that will follow
+     * @throws IllegalArgumentException if the controlled or manipulated column is not in the rows
+     * @author Ogechi
+     */
+    @Override
+    public void start(int columnCount, int rowCount) {
+        if (this.controlledColumn >= columnCount || this.manipulatedColumn >= columnCount) {
+            throw new IllegalArgumentException("Controlled column " + this.controlledColumn + " or manipulated column " + this.manipulatedColumn + " is not in rows of " + columnCount + " values");
+        }
+        this.rowCount = 0;
+        this.startTime = 0;
+        this.previousTime = 0;
+        this.error = 0;
+        this.integralAbsoluteError = 0;
+        this.integralSquaredError = 0;
+        this.integralTimeAbsoluteError = 0;
+        this.direction = 0;
+        this.referenceError = 0;
+        this.overshoot = 0;
+        this.riseStartTime = Double.NaN;
+        this.riseEndTime = Double.NaN;
+        this.settled = true;
+        this.controllerEffort = 0;
+        if (this.target != null) this.target.start(columnCount, rowCount);
+    }
+
+    /** Updates the metrics with a row and passes it on to the target
+     *
+     * @param row values of the row
+     * @author Ogechi
+     */
+    @Override
+    public void accept(double[] row) {
+        double t = row[0];
+        double manipulated = row[this.manipulatedColumn];
+        if (this.rowCount++ == 0) {
+            this.startTime = t;
+            this.previousTime = t;
+            this.lastOutsideTime = t;
+        } else {
+            double error = this.setPoint - row[this.controlledColumn];
+            double absoluteError = Math.abs(error);
+            double dt = t - this.previousTime;
+            this.previousTime = t;
+            this.error = error;
+            this.integralAbsoluteError += absoluteError * dt;
+            this.integralSquaredError += error * error * dt;
+            this.integralTimeAbsoluteError += (t - this.startTime) * absoluteError * dt;
+            this.controllerEffort += Math.abs(manipulated - this.previousManipulated);
+
+            //overshoot and rise are measured against the first error, whichever side of the set point it is on
+            if (this.direction == 0 && error != 0) {
+                this.direction = Math.signum(error);
+                this.referenceError = absoluteError;
+            }
+            double remaining = this.direction * error;
+            this.overshoot = Math.max(this.overshoot, -remaining);
+            if (this.direction != 0) {
+                if (Double.isNaN(this.riseStartTime) && remaining <= RISE_START * this.referenceError) this.riseStartTime = t - this.startTime;
+                if (Double.isNaN(this.riseEndTime) && remaining <= RISE_END * this.referenceError) this.riseEndTime = t - this.startTime;
+            }
+            this.settled = absoluteError <= this.settlingBand;
+            if (!this.settled) this.lastOutsideTime = t;
+        }
+        this.previousManipulated = manipulated;
+        if (this.target != null) this.target.accept(row);
+    }
+
+    /** Passes the end of the simulation on to the target
+     *
+     * @author Ogechi
+     */
+    @Override
+    public void finish() {
+        if (this.target != null) this.target.finish();
+    }
+
+    /** Passes the failure of the simulation on to the target
+     *
+     * @author Ogechi
+     */
+    @Override
+    public void abort() {
+        if (this.target != null) this.target.abort();
+    }
+}
@@ -1,19 +1,116 @@
 /** ODE Solver Class with RK45 with adaptive step size
  * Also has a deprecated RK4 method previously used
  * A main method is included to solve an initial value problem with an analytical solution to validate the ODE solver methods included
- * All variables and methods in this class are static
+ * An RK45 instance owns the stage workspace for one system dimension so repeated steps do not allocate,
+ * the static solve methods remain for one-off integrations and create their own instance
  * @author Ogechi
  * @author Dylan
  */
-public class RK45 {
+public class RK45 implements OdeSolver {
 
-    //IMPORTANT: these static instance variables and should not have getters and setters as they are helper variables, and could mess with calculations
-    private static double[] k1;
-    private static double[] k2;
-    private static double[] k3;
-    private static double[] k4;
-    private static double[] k5;
-    private static double[] k6;
+    //IMPORTANT: these workspace arrays should not have getters and setters as they are helper variables, and could mess with calculations
+    private final int dimension;
+    private final double[] k1;
+    private final double[] k2;
+    private final double[] k3;
+    private final double[] k4;
+    private final double[] k5;
+    private final double[] k6;
+    private final double[] temp; //stage argument for the next rhs evaluation
+    private final double[] nextY; //fourth order solution of the last accepted step
+    private final double[] endDerivative; //derivative at the end of the last accepted step, only evaluated for dense output
+    private final DenseOutput denseOutput; //interpolant over the last accepted step
+    private double stepSize; //h used for the last accepted step
+    private double nextStepSize; //h proposed for the step after the last accepted step
+    private double warmStepSize; //h to start the next call to integrate with, 0 if there is no history
+    private double maxStepSize = Double.POSITIVE_INFINITY; //upper bound on h, unbounded by default
+    private SolverStatistics statistics; //statistics receiving every step, null when they are not collected
+
+    /** Constructor for an RK45 integrator with a workspace sized for the given system
+     *
+     * @param dimension number of dependent variables in the systems to be solved
+     * @throws IllegalArgumentException if dimension is not greater than 0
+     * @author Ogechi
+     */
+    public RK45(int dimension) {
+        if (dimension<=0) throw new IllegalArgumentException("RK45 dimension must be greater than 0");
+        this.dimension = dimension;
+        this.k1 = new double[dimension];
+        this.k2 = new double[dimension];
+        this.k3 = new double[dimension];
+        this.k4 = new double[dimension];
+        this.k5 = new double[dimension];
+        this.k6 = new double[dimension];
+        this.temp = new double[dimension];
+        this.nextY = new double[dimension];
+        this.endDerivative = new double[dimension];
+        this.denseOutput = new DenseOutput(dimension);
+    }
+
+    /** Accessor method for the dimension of the workspace
+     *
+     * @return number of dependent variables this integrator is sized for
+     * @author Ogechi
+     */
+    public int getDimension() {
+        return this.dimension;
+    }
+
+    /** Accessor method for the step size used by the last accepted step
+     *
+     * @return h of the last accepted step
+     * @author Ogechi
+     */
+    public double getStepSize() {
+        return this.stepSize;
+    }
+
+    /** Accessor method for the step size proposed after the last accepted step
+     *
+     * @return proposed h of the next step
+     * @author Ogechi
+     */
+    public double getNextStepSize() {
+        return this.nextStepSize;
+    }
+
+    /** Accessor method for the largest step size the solver may take
+     *
+     * @return upper bound on h
+     * @author Ogechi
+     */
+    public double getMaxStepSize() {
+        return this.maxStepSize;
+    }
+
+    /** Mutator method for the largest step size the solver may take
+     *
+     * @param maxStepSize upper bound on h which must be greater than 0, positive infinity for no bound
+     * @return true if updated and false if not
+     * @author Ogechi
+     */
+    public boolean setMaxStepSize(double maxStepSize) {
+        if (!(maxStepSize > 0)) return false;
+        this.maxStepSize = maxStepSize;
+        return true;
+    }
+
+    /** Mutator method for the statistics the solver records its steps in
+     *
+     * @param statistics statistics receiving every accepted and rejected step, or null to record nothing
+     * @author Ogechi
+     */
+    public void setStatistics(SolverStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /** Forgets the step size kept from previous calls to integrate
+     *
+     * @author Ogechi
+     */
+    public void reset() {
+        this.warmStepSize = 0;
+    }
 
     /**
      * Determines the y values at the next step for the given x value.
@@ -21,37 +118,23 @@ public class RK45 {
      * @param x independent variable of the differential equation
      * @param y array of dependent variables of differential equation
      * @param h height of integration step
-     * @param equation Array of differential equations to be solved
+     * @param system system of differential equations to be solved
      * @deprecated rk4 has been replaced with rk45 with adaptive step size
      * @return Array of y at next step value for each differential equation
      * @author Ogechi
      */
-    private static double[] rk4(double x, double[] y, double h, DifferentialEquation[] equation) {
+    private static double[] rk4(double x, double[] y, double h, OdeSystem system) {
         int n = y.length;
-        k1 = new double[n];
-        k2 = new double[n];
-        k3 = new double[n];
-        k4 = new double[n];
+        double[] k1 = new double[n];
+        double[] k2 = new double[n];
+        double[] k3 = new double[n];
+        double[] k4 = new double[n];
 
         // Update k1, k2, k3, and k4
-        for (int i = 0; i < n; i++) {
-            k1[i] = equation[i].apply(x, y[i]);
-        }
-
-        double[] temp = addArrays(y, multiplyArray(k1, h / 2.0));
-        for (int i = 0; i < n; i++) {
-            k2[i] = equation[i].apply(x + h / 2.0, temp[i]);
-        }
-
-        temp = addArrays(y, multiplyArray(k2, h / 2.0));
-        for (int i = 0; i < n; i++) {
-            k3[i] = equation[i].apply(x + h / 2.0, temp[i]);
-        }
-
-        temp = addArrays(y, multiplyArray(k3, h));
-        for (int i = 0; i < n; i++) {
-            k4[i] = equation[i].apply(x + h, temp[i]);
-        }
+        system.rhs(x, y, k1);
+        system.rhs(x + h / 2.0, addArrays(y, multiplyArray(k1, h / 2.0)), k2);
+        system.rhs(x + h / 2.0, addArrays(y, multiplyArray(k2, h / 2.0)), k3);
+        system.rhs(x + h, addArrays(y, multiplyArray(k3, h)), k4);
 
         // Update the state vector
         double[] result = new double[n];
@@ -64,85 +147,90 @@ public class RK45 {
 
     /**
      * Applies the Runge-Kutta-Fehlberg method for solving ordinary differential equations
-     * with adaptive step size control.
+     * with adaptive step size control. Trial steps are repeated until one is accepted, the accepted
+     * values are written to the internal workspace and the step sizes are stored in stepSize and nextStepSize.
+     * k1 must hold the derivative at (x, y), it does not depend on h so it is shared by all trial steps.
      *
      * @param x Current time.
      * @param y Array of initial values for dependent variables.
      * @param h Initial step size.
-     * @param equation Array of differential equations defining the system.
+     * @param system System of differential equations, every component is evaluated once per stage.
      * @param tolerance Tolerance for adaptive step size control.
      * @param endTime End time for the simulation.
-     * @return A linked list containing the final values of dependent variables, the next step size, and the step size used for the current calculation.
      * @author Ogechi
      */
-    private static SinglyLinkedList<Object> rk45Step(double x, double[] y, double h, DifferentialEquation[] equation, double tolerance, double endTime) {
+    private void rk45Step(double x, double[] y, double h, OdeSystem system, double tolerance, double endTime) {
 
-        int n = y.length; //initial value length storage integer
-
-        k1 = new double[n];
-        k2 = new double[n];
-        k3 = new double[n];
-        k4 = new double[n];
-        k5 = new double[n];
-        k6 = new double[n];
-        SinglyLinkedList<Object> list= new SinglyLinkedList<>();
+        int n = this.dimension; //initial value length storage integer
+        double requested = Math.min(h, this.maxStepSize); //step size asked for before it is shortened to land on endTime
+        boolean rejected = false;
 
         while(true){
-            int minIndex = 0;
-            h = Math.min(h, endTime - x);
+            h = Math.min(Math.min(h, this.maxStepSize), endTime - x);
 
+            double a1 = h / 4;
             for (int i = 0; i < n; i++) {
-                k1[i] = equation[i].apply(x, y[i]);
+                temp[i] = y[i] + k1[i] * a1;
             }
+            system.rhs(x + h / 4, temp, k2);
 
-            double[] temp = addArrays(y, multiplyArray(k1, h / 4));
+            a1 = 3*h / 32;
+            double a2 = 9 *h /32;
             for (int i = 0; i < n; i++) {
-                k2[i] = equation[i].apply(x + h / 4, temp[i]);
+                temp[i] = y[i] + k1[i] * a1 + k2[i] * a2;
             }
+            system.rhs(x + 3*h / 8, temp, k3);
 
-            temp = addArrays(addArrays(y, multiplyArray(k1, 3*h / 32)),multiplyArray(k2,9 *h /32));
+            a1 = 1932*h/2197;
+            a2 = -7200*h/2197;
+            double a3 = 7296*h/2197;
             for (int i = 0; i < n; i++) {
-                k3[i] = equation[i].apply(x + 3*h / 8, temp[i]);
+                temp[i] = y[i] + k1[i] * a1 + k2[i] * a2 + k3[i] * a3;
             }
+            system.rhs(x + 12*h/13, temp, k4);
 
-            temp = addArrays(addArrays(addArrays(y, multiplyArray(k1, 1932*h/2197)),multiplyArray(k2,-7200*h/2197)),multiplyArray(k3,7296*h/2197));
+            a1 = 439*h/216;
+            a2 = -8*h;
+            a3 = 3680*h/513;
+            double a4 = -845*h/4104;
             for (int i = 0; i < n; i++) {
-                k4[i] = equation[i].apply(x + 12*h/13, temp[i]);
+                temp[i] = y[i] + k1[i] * a1 + k2[i] * a2 + k3[i] * a3 + k4[i] * a4;
             }
+            system.rhs(x +h, temp, k5);
 
-            temp = addArrays(addArrays(addArrays(addArrays(y, multiplyArray(k1, 439*h/216)),multiplyArray(k2,-8*h)),multiplyArray(k3,3680*h/513)),multiplyArray(k4,-845*h/4104));
+            a1 = -8*h/27;
+            a2 = 2*h;
+            a3 = -3544*h/2565;
+            a4 = 1859*h/4104;
+            double a5 = -11*h/40;
             for (int i = 0; i < n; i++) {
-                k5[i] = equation[i].apply(x +h, temp[i]);
+                temp[i] = y[i] + k1[i] * a1 + k2[i] * a2 + k3[i] * a3 + k4[i] * a4 + k5[i] * a5;
             }
+            system.rhs(x +h/2, temp, k6);
 
-            temp = addArrays(addArrays(addArrays(addArrays(addArrays(y, multiplyArray(k1, -8*h/27)),multiplyArray(k2,2*h)),multiplyArray(k3,-3544*h/2565)),multiplyArray(k4,1859*h/4104)),multiplyArray(k5,-11*h/40));
-            for (int i = 0; i < n; i++) {
-                k6[i] = equation[i].apply(x +h/2, temp[i]);
-            }
-            double[][] result = new double[4][n];
             double min = Double.MAX_VALUE;
 
             for (int i = 0; i < n; i++) {
-                result[0][i] = y[i] + (25*k1[i]/216 + 1408* k3[i]/2565 + 2197*k4[i]/4104 - k5[i]/5) * h;
-                result[1][i] = y[i] + (16*k1[i]/135 + 6656* k3[i]/12825 + 28561*k4[i]/56430 - 9*k5[i]/50 + 2*k6[i]/55) * h;
-                result[2][i] = Math.abs(result[1][i]- result[0][i])/h;
-                result[3][i] = 0.84*Math.pow(tolerance/result[2][i],0.25);
-                if(result[2][i] < min) {
-                    min = result[2][i];
-                    minIndex = i;
+                nextY[i] = y[i] + (25*k1[i]/216 + 1408* k3[i]/2565 + 2197*k4[i]/4104 - k5[i]/5) * h;
+                double fifthOrder = y[i] + (16*k1[i]/135 + 6656* k3[i]/12825 + 28561*k4[i]/56430 - 9*k5[i]/50 + 2*k6[i]/55) * h;
+                double error = Math.abs(fifthOrder - nextY[i])/h;
+                if(error < min) {
+                    min = error;
                 }
             }
-            if (result[2][minIndex] <= tolerance){
-                //use a linked list instead of array to use less memory and quicker computation -> alternative was double[][] array with many unused spaces
-                list.add(result[0]); //array of next values
-                list.add(h * result[3][minIndex]); //next h
-                list.add(h); //h used for this step
+            double scale = 0.84*Math.pow(tolerance/min,0.25);
+            if (min <= tolerance){
+                this.nextStepSize = h * scale; //next h
+                this.stepSize = h; //h used for this step
+                //a step shortened to land on endTime says nothing about the size the dynamics allow, keep the requested one
+                this.warmStepSize = (!rejected && h < requested) ? Math.max(this.nextStepSize, requested) : this.nextStepSize;
+                if (this.statistics != null) this.statistics.recordAcceptedStep(h);
                 break;
             }
-            h = h * result[3][minIndex];
+            if (this.statistics != null) this.statistics.recordRejectedStep(h);
+            rejected = true;
+            h = h * scale;
         }
-        // Update k1, k2, k3, and k4
-        return list;
 
     }
 
@@ -178,35 +266,99 @@ public class RK45 {
         return result;
     }
 
+    /**Integrates a system of ordinary differential equations in place using the Runge-Kutta-Fehlberg method.
+     * No arrays are allocated, y is overwritten with the values at the end time.
+     * The first step uses the step size the previous call ended with, or half the interval if there is none.
+     *
+     * @param t0 Initial Time
+     * @param y Values of the dependent variables at t0, replaced by the values at endTime
+     * @param endTime End time for the simulation
+     * @param system System of differential equations evaluated for all components at once
+     * @param tolerance Tolerance for the adaptive step size control
+     * @throws IllegalArgumentException if y does not match the dimension of the integrator
+     * @author Ogechi
+     */
+    public void integrate(double t0, double[] y, double endTime, OdeSystem system, double tolerance) {
+        integrate(t0, y, endTime, system, tolerance, 0, null);
+    }
+
+    /**Integrates a system of ordinary differential equations in place using the Runge-Kutta-Fehlberg method
+     * and sends the solution at t0 + k*outputStep to the listener by cubic Hermite interpolation within each accepted step,
+     * so the step size is only limited by the tolerance. The derivative at the end of each step is evaluated for the
+     * interpolant and reused as the first stage of the next step.
+     *
+     * @param t0 Initial Time
+     * @param y Values of the dependent variables at t0, replaced by the values at endTime
+     * @param endTime End time for the simulation
+     * @param system System of differential equations evaluated for all components at once
+     * @param tolerance Tolerance for the adaptive step size control
+     * @param outputStep spacing of the output times after t0, ignored if listener is null
+     * @param listener listener receiving the solution at each output time up to endTime, or null for no dense output
+     * @throws IllegalArgumentException if y does not match the dimension of the integrator or outputStep is not greater than 0
+     * @author Ogechi
+     */
+    public void integrate(double t0, double[] y, double endTime, OdeSystem system, double tolerance, double outputStep, DenseOutputListener listener) {
+        if (y.length!=this.dimension) throw new IllegalArgumentException("Initial values do not match the RK45 dimension");
+        if (listener!=null && !(outputStep > 0)) throw new IllegalArgumentException("Output step must be greater than 0");
+        double h = this.warmStepSize > 0 ? this.warmStepSize : (endTime-t0)/2; //initial guess of h
+        double currentTime = t0;
+        int outputIndex = 1;
+
+        if (currentTime < endTime) system.rhs(currentTime, y, k1);
+        while (currentTime < endTime) {
+            rk45Step(currentTime, y, h, system, tolerance, endTime);
+            double nextTime = currentTime + this.stepSize;
+            if (listener != null) {
+                system.rhs(nextTime, nextY, endDerivative);
+                denseOutput.setStep(currentTime, this.stepSize, y, k1, nextY, endDerivative);
+                outputIndex = denseOutput.output(t0, outputStep, outputIndex, listener);
+                System.arraycopy(endDerivative, 0, k1, 0, this.dimension);
+            }
+            System.arraycopy(nextY, 0, y, 0, this.dimension);
+            h = this.nextStepSize;
+            currentTime = nextTime;
+            if (listener == null && currentTime < endTime) system.rhs(currentTime, y, k1);
+        }
+    }
+
     /**Solves a system of ordinary differential equations using the Runge-Kutta-Fehlberg method.
      *
      * @param t0 Initial Time
      * @param y0 Initial values of the dependent variables
      * @param endTime End time for the simulation
-     * @param equations Array of differential equaitons defining the system
+     * @param system System of differential equations evaluated for all components at once
      * @param tolerance Tolerance for the adaptive step size control
      * @return Array containing the final values of the dependent variables after simulating the system until the specified end time
      * @author Ogechi
      */
-    public static double[] solve(double t0, double[] y0, double endTime, DifferentialEquation[] equations, double tolerance) {
-        double h = (endTime-t0)/2; //initial guess of h
-
+    public static double[] solve(double t0, double[] y0, double endTime, OdeSystem system, double tolerance) {
         double[] currentY = new double[y0.length];
 
         System.arraycopy(y0, 0, currentY, 0, y0.length);
-        double currentTime = t0;
-        SinglyLinkedList<Object> temp;
-
-        while (currentTime < endTime) {
-            temp = rk45Step(currentTime, currentY, h, equations, tolerance, endTime);
-            currentY = (double[]) temp.getFirst().getElement();
-            h = (double) temp.getAt(1).getElement();
-            currentTime += (double) temp.getLast().getElement();
-        }
+        new RK45(y0.length).integrate(t0, currentY, endTime, system, tolerance);
 
         return currentY;
     }
 
+    /**Solves a set of uncoupled ordinary differential equations using the Runge-Kutta-Fehlberg method.
+     * Each equation only sees its own component, use {@link #solve(double, double[], double, OdeSystem, double)} for coupled systems.
+     *
+     * @param t0 Initial Time
+     * @param y0 Initial values of the dependent variables
+     * @param endTime End time for the simulation
+     * @param equations Array of differential equaitons defining the system
+     * @param tolerance Tolerance for the adaptive step size control
+     * @return Array containing the final values of the dependent variables after simulating the system until the specified end time
+     * @author Ogechi
+     */
+    public static double[] solve(double t0, double[] y0, double endTime, DifferentialEquation[] equations, double tolerance) {
+        return solve(t0, y0, endTime, (t, y, dydt) -> {
+            for (int i = 0; i < y.length; i++) {
+                dydt[i] = equations[i].apply(t, y[i]);
+            }
+        }, tolerance);
+    }
+
     /**Main method used to test the validity of the RK45 solution
      * @param args
      * @author Ogechi
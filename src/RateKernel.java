@@ -0,0 +1,32 @@
+/** Read-only view of reaction kinetics used by the mol balances on the solver hot path
+ * Implemented by Reaction and ReactionNetwork. The methods only read the kinetics, so reactors hand out their own instance
+ * through this interface instead of a defensive copy.
+ * @author Ogechi
+ * @author Dylan
+ */
+public interface RateKernel {
+    /** Returns the number of species the kinetics are written for
+     *
+     * @return number of species, reactants first for a single reaction and in global index order for a network
+     * @author Ogechi
+     */
+    int getSpeciesCount();
+
+    /** Evaluates the reaction rates and adds the net production rate of every species to dcdt
+     *
+     * @param concentrations array of concentrations
+     * @param dcdt array of rates of change the production rates are added to
+     * @throws NullPointerException if an array passed in is null
+     * @author Ogechi
+     */
+    void addSpeciesRates(double[] concentrations, double[] dcdt) throws NullPointerException;
+
+    /** Adds the derivative of the production rate of every species with respect to every concentration to dfdy
+     *
+     * @param concentrations array of concentrations
+     * @param dfdy matrix the derivatives are added to, dfdy[i][j] for production of species i with respect to concentration j
+     * @throws NullPointerException if an array passed in is null
+     * @author Ogechi
+     */
+    void addJacobian(double[] concentrations, double[][] dfdy) throws NullPointerException;
+}
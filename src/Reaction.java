@@ -1,14 +1,20 @@
 /** Reaction class
+ * The rate law is compiled into a kernel when the reaction is built: integer reaction orders evaluated by multiplication
+ * chains instead of Math.pow, and signed stoichiometric coefficients (negative for reactants, positive for products)
+ * so one pass over the species writes every dC/dt contribution from a single evaluation of the rate.
+ * Species are indexed with the reactants first and the products after them, in the order of the equation.
  * @author Ogechi
  * @author Dylan
  */
-public class Reaction implements Cloneable{
+public class Reaction implements Cloneable, RateKernel{
 
     private Species[] reactants;
     private int delimiter;
     private Species[] products;
     private Species limitingReactant;
     private double k;
+    private int[] orders; //compiled reaction order of each reactant
+    private double[] stoichiometry; //compiled signed stoichiometric coefficient of each species, reactants first
 
     /** Constructor for reaction object
      *
@@ -20,6 +26,7 @@ public class Reaction implements Cloneable{
         parseReactionEquation(rEquation);
         this.k = k;
         this.delimiter = reactants.length;
+        compileKernel();
     }
 
     /** Copy constructor for reaction object
@@ -42,6 +49,8 @@ public class Reaction implements Cloneable{
         this.limitingReactant = source.limitingReactant;
         this.k = source.k;
         this.delimiter = source.delimiter;
+        this.orders = source.orders.clone();
+        this.stoichiometry = source.stoichiometry.clone();
     }
 
     /** Clone method for reaction object
@@ -92,7 +101,20 @@ public class Reaction implements Cloneable{
      * @author Ogechi
      */
     public Species[] getProducts() {
-        return products.clone();
+        Species[] copy = new Species[products.length];
+        for(int i =0; i<copy.length; i++){
+            copy[i] = products[i].clone();
+        }
+        return copy;
+    }
+
+    /** Accessor method for the compiled stoichiometric coefficients
+     *
+     * @return signed coefficient of each species, negative for reactants and positive for products
+     * @author Ogechi
+     */
+    public double[] getStoichiometricCoefficients() {
+        return stoichiometry.clone();
     }
 
     public int getDelimiter() {
@@ -141,6 +163,7 @@ public class Reaction implements Cloneable{
         for(int i = 0; i < products.length; i++) {
             this.products[i] = products[i].clone();
         }
+        compileKernel();
         return true;
     }
 
@@ -161,6 +184,7 @@ public class Reaction implements Cloneable{
             this.reactants[i] = reactants[i].clone();
         }
         setDelimeter(reactants.length -1);
+        compileKernel();
 
         return true;
     }
@@ -217,6 +241,41 @@ public class Reaction implements Cloneable{
         }
     }
 
+    /** Private method to compile the reactant orders and signed stoichiometric coefficients used by the rate kernel
+     *
+     * @author Ogechi
+     */
+    private void compileKernel() {
+        this.orders = new int[reactants.length];
+        this.stoichiometry = new double[reactants.length + products.length];
+        for (int i = 0; i < reactants.length; i++) {
+            this.orders[i] = reactants[i].getCoefficient();
+            this.stoichiometry[i] = -reactants[i].getCoefficient();
+        }
+        for (int i = 0; i < products.length; i++) {
+            this.stoichiometry[reactants.length + i] = products[i].getCoefficient();
+        }
+    }
+
+    /** Helper method to raise a concentration to an integer reaction order by repeated squaring
+     * Orders are small so this is a short chain of multiplications, correctly rounded for orders up to 2. Also used by ReactionNetwork.
+     *
+     * @param base concentration
+     * @param exponent reaction order, negative orders divide
+     * @return base to the power of exponent
+     * @author Ogechi
+     */
+    static double integerPower(double base, int exponent) {
+        if (exponent < 0) return 1 / integerPower(base, -exponent);
+        double result = 1;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) result *= base;
+            exponent >>= 1;
+            if (exponent > 0) base *= base;
+        }
+        return result;
+    }
+
     /** Private method to parse reaction equation into products and reactants using the String regex "->"
      *
      * @param rEquation takes reaction equation string
@@ -260,9 +319,12 @@ public class Reaction implements Cloneable{
     private Species parseSpecies(String speciesString) {
         speciesString = speciesString.trim();
         int coefficient = 1;
-        if (speciesString.matches(".*\\d.*")) {
-            coefficient = Integer.parseInt(speciesString.split(" ")[0]);
-            speciesString = speciesString.replaceAll(".*\\d.*", "").trim(); // Remove coefficients
+        //only a leading number is a coefficient so names such as H2O keep their digits, "2 A" and "2A" are both accepted
+        if (speciesString.matches("\\d+\\s*\\D.*")) {
+            int nameStart = 0;
+            while (Character.isDigit(speciesString.charAt(nameStart))) nameStart++;
+            coefficient = Integer.parseInt(speciesString.substring(0, nameStart));
+            speciesString = speciesString.substring(nameStart).trim(); // Remove coefficients
         }
         return new Species(speciesString, coefficient);
     }
@@ -278,21 +340,97 @@ public class Reaction implements Cloneable{
      * @author Dylan
      */
     public double calculateReactionRate(double[] concentrations, int currentSpecies) throws NullPointerException{
+        double rate = calculateReactionRate(concentrations);
+
+        //added check to determine if consumption or generation
+        if (isReactant(currentSpecies)) {
+            rate=rate*(-1);
+        }
+        return rate;
+    }
+
+    /**
+     * Calculates the unsigned rate of the reaction with the specified concentrations, evaluated once for all species.
+     * Assumes the order of species in the concentrations array matches the order of species in the reactants array.
+     * @param concentrations  array of concentrations
+     * @return reaction rate, to be subtracted for reactants and added for products
+     * @throws NullPointerException if the reactants array or concentration array is null
+     * @author Ogechi
+     * @author Dylan
+     */
+    public double calculateReactionRate(double[] concentrations) throws NullPointerException{
         if(reactants == null || concentrations == null){
             throw new NullPointerException("Reactants and concentrations cannot be null");
         }
         double prod = 1;
 
-        for(int i = 0; i < reactants.length; i++) {
-            prod *= Math.pow(concentrations[i], reactants[i].getCoefficient());
+        for(int i = 0; i < orders.length; i++) {
+            prod *= integerPower(concentrations[i], orders[i]);
         }
+        return k*prod;
+    }
 
-        //added check to determine if consumption or generation
-        if ((currentSpecies+1)<=this.reactants.length) {
-            prod=prod*(-1);
+    /**
+     * Rate kernel, evaluates the rate once and adds the contribution of the reaction to the rate of change of every species.
+     * Assumes the order of species in the arrays matches the reactants followed by the products.
+     * @param concentrations array of concentrations
+     * @param dcdt array of rates of change, the stoichiometric coefficient times the rate is added to each species
+     * @throws NullPointerException if an array passed in is null
+     * @author Ogechi
+     */
+    public void addSpeciesRates(double[] concentrations, double[] dcdt) throws NullPointerException{
+        if(concentrations == null || dcdt == null){
+            throw new NullPointerException("Concentrations and rates of change cannot be null");
+        }
+        double rate = calculateReactionRate(concentrations);
+        int n = Math.min(stoichiometry.length, dcdt.length);
+        for(int i = 0; i < n; i++) {
+            dcdt[i] += stoichiometry[i]*rate;
+        }
+    }
+
+    /**
+     * Adds the stoichiometric coefficient of each species times the derivatives of the rate to the Jacobian, without allocating.
+     * Assumes the order of species in the arrays matches the reactants followed by the products.
+     * @param concentrations array of concentrations
+     * @param dfdy matrix the derivative of each species production rate with respect to each concentration is added to
+     * @throws NullPointerException if an array passed in is null
+     * @author Ogechi
+     */
+    public void addJacobian(double[] concentrations, double[][] dfdy) throws NullPointerException{
+        if(concentrations == null || dfdy == null){
+            throw new NullPointerException("Concentrations and Jacobian cannot be null");
+        }
+        int n = Math.min(stoichiometry.length, dfdy.length);
+        for(int j = 0; j < orders.length; j++) {
+            //product rule, only the factor of species j is differentiated so zero concentrations are handled exactly
+            double derivative = k * orders[j] * integerPower(concentrations[j], orders[j] - 1);
+            for(int i = 0; i < orders.length; i++) {
+                if (i != j) derivative *= integerPower(concentrations[i], orders[i]);
+            }
+            for(int i = 0; i < n; i++) {
+                dfdy[i][j] += stoichiometry[i]*derivative;
+            }
         }
-        return k*prod;
     }
 
+    /** Accessor method for the number of species
+     *
+     * @return number of reactants and products
+     * @author Ogechi
+     */
+    public int getSpeciesCount() {
+        return stoichiometry.length;
+    }
+
+    /** Determines if the species at the given index of the concentrations array is consumed by the reaction
+     *
+     * @param species index of the species in the concentrations array
+     * @return true if the species is a reactant, false if it is a product
+     * @author Dylan
+     */
+    public boolean isReactant(int species) {
+        return (species+1)<=this.reactants.length;
+    }
 
 }
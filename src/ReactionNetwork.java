@@ -0,0 +1,379 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/** Network of coupled reactions over a global species index
+ * Every equation is parsed with the Reaction parser and species are numbered in the order they first appear across the equations.
+ * The network is compiled into sparse structures: the reactant orders of each rate law, and the stoichiometric matrix S
+ * (species by reactions) stored both by species rows and by reaction columns. One right-hand side evaluates every rate
+ * and then dC/dt = S*r as a sparse matrix-vector product, so the cost grows with the number of nonzeros rather than
+ * with reactions times species.
+ * The compiled structure never changes after construction and is shared between copies, only the rate constants and the
+ * rate workspace are copied, so each copy can be used by its own thread.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class ReactionNetwork implements Cloneable, RateKernel {
+
+    private final String[] equations; //reaction equations in the order given
+    private final double[] k; //rate constant of each reaction
+    private final String[] speciesNames; //species names by global index
+    private final HashMap<String, Integer> speciesIndex; //global index of each species name
+
+    //rate laws, the reactants of reaction r are entries orderStart[r] to orderStart[r+1]-1
+    private final int[] orderStart;
+    private final int[] orderSpecies; //global index of the reactant
+    private final int[] orderExponent; //reaction order of the reactant
+
+    //stoichiometric matrix by species rows, the reactions of species i are entries rowStart[i] to rowStart[i+1]-1
+    private final int[] rowStart;
+    private final int[] rowReaction;
+    private final double[] rowCoefficient;
+
+    //the same matrix by reaction columns, the species of reaction r are entries columnStart[r] to columnStart[r+1]-1
+    private final int[] columnStart;
+    private final int[] columnSpecies;
+    private final double[] columnCoefficient;
+
+    //IMPORTANT: workspace array, should not have getters and setters as it is a helper variable
+    private final double[] rates;
+
+    /** Constructor for a reaction network
+     *
+     * @param equations reaction equations with a -> deliminator, species with the same name are the same species in every equation
+     * @param k rate constant of each reaction
+     * @throws IllegalArgumentException if the arrays are null, empty, contain null or differ in length, or an equation cannot be parsed
+     * @author Ogechi
+     */
+    public ReactionNetwork(String[] equations, double[] k) {
+        if (equations==null || k==null) throw new IllegalArgumentException("Reaction equations and rate constants cannot be null");
+        if (equations.length==0) throw new IllegalArgumentException("A reaction network needs at least one reaction");
+        if (equations.length!=k.length) throw new IllegalArgumentException("Each reaction equation needs one rate constant");
+        this.equations = equations.clone();
+        this.k = k.clone();
+
+        //parse every equation and assign global indices in order of first appearance
+        int reactions = equations.length;
+        this.speciesIndex = new HashMap<>();
+        ArrayList<String> names = new ArrayList<>();
+        Species[][] reactants = new Species[reactions][];
+        Species[][] products = new Species[reactions][];
+        for (int r = 0; r < reactions; r++) {
+            if (equations[r]==null) throw new IllegalArgumentException("Reaction equation " + r + " cannot be null");
+            Reaction reaction;
+            try {
+                reaction = new Reaction(equations[r], k[r]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Failed to parse reaction equation " + r + " (" + equations[r] + "): " + e.getMessage());
+            }
+            reactants[r] = reaction.getReactants();
+            products[r] = reaction.getProducts();
+            for (Species species : reactants[r]) addSpecies(species.getName(), names);
+            for (Species species : products[r]) addSpecies(species.getName(), names);
+        }
+        this.speciesNames = names.toArray(new String[0]);
+        int n = this.speciesNames.length;
+
+        //rate laws, a species listed more than once on the reactant side adds up its orders
+        int[][] orders = new int[reactions][];
+        int orderCount = 0;
+        for (int r = 0; r < reactions; r++) {
+            orders[r] = new int[n];
+            for (Species species : reactants[r]) orders[r][this.speciesIndex.get(species.getName())] += species.getCoefficient();
+            for (int i = 0; i < n; i++) if (orders[r][i] != 0) orderCount++;
+        }
+        this.orderStart = new int[reactions + 1];
+        this.orderSpecies = new int[orderCount];
+        this.orderExponent = new int[orderCount];
+        int entry = 0;
+        for (int r = 0; r < reactions; r++) {
+            this.orderStart[r] = entry;
+            for (int i = 0; i < n; i++) {
+                if (orders[r][i] == 0) continue;
+                this.orderSpecies[entry] = i;
+                this.orderExponent[entry] = orders[r][i];
+                entry++;
+            }
+        }
+        this.orderStart[reactions] = entry;
+
+        //net stoichiometric coefficients, species on both sides such as catalysts cancel and are not stored
+        int[][] coefficients = new int[reactions][];
+        int nonZeros = 0;
+        for (int r = 0; r < reactions; r++) {
+            coefficients[r] = new int[n];
+            for (Species species : reactants[r]) coefficients[r][this.speciesIndex.get(species.getName())] -= species.getCoefficient();
+            for (Species species : products[r]) coefficients[r][this.speciesIndex.get(species.getName())] += species.getCoefficient();
+            for (int i = 0; i < n; i++) if (coefficients[r][i] != 0) nonZeros++;
+        }
+        this.columnStart = new int[reactions + 1];
+        this.columnSpecies = new int[nonZeros];
+        this.columnCoefficient = new double[nonZeros];
+        entry = 0;
+        for (int r = 0; r < reactions; r++) {
+            this.columnStart[r] = entry;
+            for (int i = 0; i < n; i++) {
+                if (coefficients[r][i] == 0) continue;
+                this.columnSpecies[entry] = i;
+                this.columnCoefficient[entry] = coefficients[r][i];
+                entry++;
+            }
+        }
+        this.columnStart[reactions] = entry;
+        this.rowStart = new int[n + 1];
+        this.rowReaction = new int[nonZeros];
+        this.rowCoefficient = new double[nonZeros];
+        entry = 0;
+        for (int i = 0; i < n; i++) {
+            this.rowStart[i] = entry;
+            for (int r = 0; r < reactions; r++) {
+                if (coefficients[r][i] == 0) continue;
+                this.rowReaction[entry] = r;
+                this.rowCoefficient[entry] = coefficients[r][i];
+                entry++;
+            }
+        }
+        this.rowStart[n] = entry;
+
+        this.rates = new double[reactions];
+    }
+
+    /** Copy constructor for a reaction network, the compiled structure is shared since it never changes
+     *
+     * @param source reaction network to copy
+     * @throws IllegalArgumentException cannot copy null reaction network
+     * @author Ogechi
+     */
+    public ReactionNetwork(ReactionNetwork source) {
+        if (source==null) throw new IllegalArgumentException("Error, cannot copy null reaction network object");
+        this.equations = source.equations;
+        this.k = source.k.clone();
+        this.speciesNames = source.speciesNames;
+        this.speciesIndex = source.speciesIndex;
+        this.orderStart = source.orderStart;
+        this.orderSpecies = source.orderSpecies;
+        this.orderExponent = source.orderExponent;
+        this.rowStart = source.rowStart;
+        this.rowReaction = source.rowReaction;
+        this.rowCoefficient = source.rowCoefficient;
+        this.columnStart = source.columnStart;
+        this.columnSpecies = source.columnSpecies;
+        this.columnCoefficient = source.columnCoefficient;
+        this.rates = new double[source.rates.length];
+    }
+
+    /** Clone method for reaction network
+     *
+     * @return a copy of the reaction network
+     * @author Ogechi
+     */
+    @Override
+    public ReactionNetwork clone() {
+        return new ReactionNetwork(this);
+    }
+
+    /** Helper method to give a species name the next global index if it does not have one yet
+     *
+     * @param name species name
+     * @param names species names in order of their index
+     * @author Ogechi
+     */
+    private void addSpecies(String name, ArrayList<String> names) {
+        if (this.speciesIndex.containsKey(name)) return;
+        this.speciesIndex.put(name, names.size());
+        names.add(name);
+    }
+
+    /** Accessor method for the number of species
+     *
+     * @return number of species in the network, the length of the concentration arrays it works on
+     * @author Ogechi
+     */
+    public int getSpeciesCount() {
+        return this.speciesNames.length;
+    }
+
+    /** Accessor method for the number of reactions
+     *
+     * @return number of reactions in the network
+     * @author Ogechi
+     */
+    public int getReactionCount() {
+        return this.equations.length;
+    }
+
+    /** Accessor method for the number of nonzero entries of the stoichiometric matrix
+     *
+     * @return number of nonzero net stoichiometric coefficients
+     * @author Ogechi
+     */
+    public int getNonZeroCount() {
+        return this.rowCoefficient.length;
+    }
+
+    /** Accessor method for the species names
+     *
+     * @return species names in order of their global index
+     * @author Ogechi
+     */
+    public String[] getSpeciesNames() {
+        return this.speciesNames.clone();
+    }
+
+    /** Returns the global index of a species
+     *
+     * @param name species name
+     * @return index of the species in the concentration arrays, or -1 if it is not in the network
+     * @author Ogechi
+     */
+    public int getSpeciesIndex(String name) {
+        Integer index = this.speciesIndex.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /** Accessor method for the reaction equations
+     *
+     * @return reaction equations in the order given
+     * @author Ogechi
+     */
+    public String[] getEquations() {
+        return this.equations.clone();
+    }
+
+    /** Returns a single reaction of the network
+     *
+     * @param reaction index of the reaction
+     * @return new reaction object for the equation and rate constant, its species are indexed locally
+     * @throws IllegalArgumentException if the index is out of range
+     * @author Ogechi
+     */
+    public Reaction getReaction(int reaction) {
+        if (reaction<0 || reaction>=this.equations.length) throw new IllegalArgumentException("Reaction index out of range");
+        return new Reaction(this.equations[reaction], this.k[reaction]);
+    }
+
+    /** Accessor method for a rate constant
+     *
+     * @param reaction index of the reaction
+     * @return rate constant of the reaction
+     * @throws IllegalArgumentException if the index is out of range
+     * @author Ogechi
+     */
+    public double getK(int reaction) {
+        if (reaction<0 || reaction>=this.k.length) throw new IllegalArgumentException("Reaction index out of range");
+        return this.k[reaction];
+    }
+
+    /** Mutator method for a rate constant
+     *
+     * @param reaction index of the reaction
+     * @param k rate constant
+     * @return true if updated and false if the index is out of range
+     * @author Ogechi
+     */
+    public boolean setK(int reaction, double k) {
+        if (reaction<0 || reaction>=this.k.length) return false;
+        this.k[reaction] = k;
+        return true;
+    }
+
+    /** Returns the stoichiometric matrix as a dense matrix, meant for output and checks rather than evaluation
+     *
+     * @return matrix with one row per species and one column per reaction
+     * @author Ogechi
+     */
+    public double[][] getStoichiometricMatrix() {
+        double[][] matrix = new double[this.speciesNames.length][this.equations.length];
+        for (int i = 0; i < this.speciesNames.length; i++) {
+            for (int entry = this.rowStart[i]; entry < this.rowStart[i + 1]; entry++) {
+                matrix[i][this.rowReaction[entry]] = this.rowCoefficient[entry];
+            }
+        }
+        return matrix;
+    }
+
+    /** Calculates the rate of every reaction, k times the product of the reactant concentrations raised to their orders
+     *
+     * @param concentrations concentration of each species by global index
+     * @param rates array filled with the rate of each reaction
+     * @throws NullPointerException if an array passed in is null
+     * @author Ogechi
+     */
+    public void calculateReactionRates(double[] concentrations, double[] rates) throws NullPointerException {
+        if (concentrations == null || rates == null) throw new NullPointerException("Concentrations and rates cannot be null");
+        for (int r = 0; r < this.k.length; r++) {
+            double prod = this.k[r];
+            for (int entry = this.orderStart[r]; entry < this.orderStart[r + 1]; entry++) {
+                prod *= Reaction.integerPower(concentrations[this.orderSpecies[entry]], this.orderExponent[entry]);
+            }
+            rates[r] = prod;
+        }
+    }
+
+    /** Rate kernel of the network, evaluates every rate once and adds S*r to the rate of change of every species
+     *
+     * @param concentrations concentration of each species by global index
+     * @param dcdt array of rates of change, the net production rate of each species by reaction is added to it
+     * @throws NullPointerException if an array passed in is null
+     * @author Ogechi
+     */
+    public void addSpeciesRates(double[] concentrations, double[] dcdt) throws NullPointerException {
+        if (dcdt == null) throw new NullPointerException("Rates of change cannot be null");
+        calculateReactionRates(concentrations, this.rates);
+        for (int i = 0; i < this.speciesNames.length; i++) {
+            double sum = 0;
+            for (int entry = this.rowStart[i]; entry < this.rowStart[i + 1]; entry++) {
+                sum += this.rowCoefficient[entry] * this.rates[this.rowReaction[entry]];
+            }
+            dcdt[i] += sum;
+        }
+    }
+
+    /** Adds the Jacobian of the net production rates, S times dr/dC, to the given matrix
+     * Only the nonzero orders and stoichiometric coefficients of each reaction are visited.
+     *
+     * @param concentrations concentration of each species by global index
+     * @param dfdy matrix the derivative of each species production rate with respect to each concentration is added to
+     * @throws NullPointerException if an array passed in is null
+     * @author Ogechi
+     */
+    public void addJacobian(double[] concentrations, double[][] dfdy) throws NullPointerException {
+        if (concentrations == null || dfdy == null) throw new NullPointerException("Concentrations and Jacobian cannot be null");
+        for (int r = 0; r < this.k.length; r++) {
+            for (int entry = this.orderStart[r]; entry < this.orderStart[r + 1]; entry++) {
+                //product rule, only the factor of this reactant is differentiated so zero concentrations are handled exactly
+                int j = this.orderSpecies[entry];
+                double derivative = this.k[r] * this.orderExponent[entry] * Reaction.integerPower(concentrations[j], this.orderExponent[entry] - 1);
+                for (int other = this.orderStart[r]; other < this.orderStart[r + 1]; other++) {
+                    if (other != entry) derivative *= Reaction.integerPower(concentrations[this.orderSpecies[other]], this.orderExponent[other]);
+                }
+                for (int column = this.columnStart[r]; column < this.columnStart[r + 1]; column++) {
+                    dfdy[this.columnSpecies[column]][j] += this.columnCoefficient[column] * derivative;
+                }
+            }
+        }
+    }
+
+    /** Equals method for reaction network
+     *
+     * @param comparator object to compare
+     * @return true if the equations and rate constants are equal, otherwise returns false
+     * @author Ogechi
+     */
+    public boolean equals(Object comparator) {
+        if (comparator==null) return false;
+        if (comparator.getClass()!=this.getClass()) return false;
+        ReactionNetwork specificComparator = (ReactionNetwork)comparator;
+        return Arrays.equals(this.equations, specificComparator.equations) && Arrays.equals(this.k, specificComparator.k);
+    }
+
+    /** Hash code method for reaction network, consistent with equals
+     *
+     * @return hash of the equations and rate constants
+     * @author Ogechi
+     */
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(this.equations) + Arrays.hashCode(this.k);
+    }
+}
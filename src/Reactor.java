@@ -3,10 +3,11 @@
  * @author Dylan
  *
  */
-public abstract class Reactor implements Controllable, DifferentialEquation, Cloneable {
+public abstract class Reactor implements Controllable, JacobianOdeSystem, Cloneable {
 
     private double volume; //reactor volume
     private Reaction reaction; //reaction taking place
+    private ReactionNetwork reactionNetwork; //network of reactions taking place instead of the single reaction, null if not used
     private double[] inletConcentrations; //inlet concentrations -> what is this for then if it is not initial or current?
 
     private double[] initialConcentrations; //initial concentrations in the reactor
@@ -18,8 +19,14 @@ public abstract class Reactor implements Controllable, DifferentialEquation, Clo
 
     private int controlled; //the controlled variable in order with 0 as the first species
     private double currentFlow; //current flow rate
-    private int currentSpeciesNumber; //starting with 0 the species to update
+    private int currentSpeciesNumber; //starting with 0 the species to update, no longer needed since rhs evaluates all species at once
     private boolean isControlled; //boolean for controlled vs uncontrolled
+    private OdeSolver.SOLVER_TYPE solverType; //integration method used for the reactor balances
+    private double maxStepSize; //largest integration step, positive infinity for no bound
+    private OdeSolver solver; //integrator workspace reused for every step of this reactor, never shared with copies so each copy is thread-confined
+    private long rhsEvaluations; //right-hand side evaluations of this reactor, including those of the reactor it was copied from
+    private SolverStatistics solverStatistics; //statistics of the solver of this reactor, null when they are not collected
+    private JacobianOdeSystem timedSystem; //this reactor with every rhs evaluation timed, null when statistics are not collected
 
 
     /** Constructor for the abstract reactor class
@@ -71,6 +78,8 @@ public abstract class Reactor implements Controllable, DifferentialEquation, Clo
         }
         this.currentSpeciesNumber = 0;
         this.isControlled = isControlled;
+        this.solverType = OdeSolver.SOLVER_TYPE.RK45;
+        this.maxStepSize = Double.POSITIVE_INFINITY;
     }
 
     /** Copy constructor for the abstract reactor class
@@ -85,11 +94,18 @@ public abstract class Reactor implements Controllable, DifferentialEquation, Clo
         if (source==null) throw new IllegalArgumentException("Error, copy of null PIDController object");
 
         this.reaction = source.reaction.clone();
+        this.reactionNetwork = source.reactionNetwork == null ? null : source.reactionNetwork.clone();
         this.volume=source.volume;
         this.initialFlow=source.initialFlow;
         this.currentFlow=source.currentFlow;
         this.isControlled=source.isControlled;
+        this.controlled=source.controlled;
         this.currentSpeciesNumber=source.currentSpeciesNumber;
+        this.solverType=source.solverType;
+        this.maxStepSize=source.maxStepSize;
+        this.rhsEvaluations=source.rhsEvaluations;
+        //copies collect their own statistics, starting from those of the source
+        if (source.solverStatistics!=null) setSolverStatistics(source.solverStatistics.clone());
 
         this.initialConcentrations = new double[source.initialConcentrations.length];
         for(int i=0;i<source.initialConcentrations.length; i++){
@@ -161,6 +177,39 @@ public abstract class Reactor implements Controllable, DifferentialEquation, Clo
         return true;
     }
 
+    /** Read-only view of the kinetics used in the mol balances, the reaction network if one is set and otherwise the single reaction
+     * The internal instance is returned without a copy since it is read on every right-hand side evaluation,
+     * it must not be modified or handed out by subclasses.
+     *
+     * @return kinetics of the reactor
+     * @author Ogechi
+     */
+    protected RateKernel getRateKernel() {
+        return this.reactionNetwork != null ? this.reactionNetwork : this.reaction;
+    }
+
+    /** Accessor method for the reaction network
+     *
+     * @return copy of the reaction network, or null if the reactor uses its single reaction
+     * @author Ogechi
+     */
+    public ReactionNetwork getReactionNetwork() {
+        return this.reactionNetwork == null ? null : this.reactionNetwork.clone();
+    }
+
+    /** Mutator method for the reaction network, which replaces the single reaction in the mol balances when it is set
+     * Concentrations are then indexed by the global species index of the network.
+     *
+     * @param reactionNetwork reaction network with one species per concentration, or null to use the single reaction again
+     * @return true if updated and false if the number of species does not match the concentrations
+     * @author Ogechi
+     */
+    public boolean setReactionNetwork(ReactionNetwork reactionNetwork) {
+        if (reactionNetwork!=null && reactionNetwork.getSpeciesCount()!=this.currentConcentrations.length) return false;
+        this.reactionNetwork = reactionNetwork == null ? null : reactionNetwork.clone();
+        return true;
+    }
+
     /** Accessor method for initial volumetric flow rate
      *
      * @return initial volumetric flow rate
@@ -228,6 +277,16 @@ public abstract class Reactor implements Controllable, DifferentialEquation, Clo
         return initialConcentrations;
     }
 
+    /** Read-only view of the initial concentrations, returned without a copy for the mol balances on the solver hot path
+     * The array must not be modified, use setInitialConcentrations to change it.
+     *
+     * @return internal array of initial concentrations
+     * @author Ogechi
+     */
+    protected double[] getInitialConcentrationsView() {
+        return this.initialConcentrations;
+    }
+
     /** Mutator method for initial concentrations
      *
      * @param initialConcentrations array of initial concentrations each of which must be non-negative
@@ -305,6 +364,149 @@ public abstract class Reactor implements Controllable, DifferentialEquation, Clo
         return true;
     }
 
+    /** Accessor method for the integrator of this reactor, created on first use with a workspace sized to the number of species
+     *
+     * @return integrator of the current solver type owned by this reactor
+     * @author Ogechi
+     */
+    protected OdeSolver getSolver() {
+        if (this.solver==null || this.solver.getDimension()!=this.currentConcentrations.length) {
+            this.solver = OdeSolver.create(this.solverType, this.currentConcentrations.length);
+            this.solver.setMaxStepSize(this.maxStepSize);
+            this.solver.setStatistics(this.solverStatistics);
+        }
+        return this.solver;
+    }
+
+    /** Accessor method for the step size of the last step the solver of this reactor accepted
+     *
+     * @return h of the last accepted step, 0 if the reactor has not been integrated yet
+     * @author Ogechi
+     */
+    public double getLastStepSize() {
+        return this.solver==null ? 0 : this.solver.getStepSize();
+    }
+
+    /** Accessor method for the times at which the AUTO solver of this reactor switched between the explicit and the implicit method
+     *
+     * @return switch times in order as given by StiffnessSwitchingSolver.getSwitchTimes, empty for the other solver types
+     *         or before the reactor is integrated
+     * @author Ogechi
+     */
+    public double[] getStiffnessSwitchTimes() {
+        return this.solver instanceof StiffnessSwitchingSolver ? ((StiffnessSwitchingSolver) this.solver).getSwitchTimes() : new double[0];
+    }
+
+    /** Accessor method for the system the solver integrates, the reactor itself unless statistics are collected
+     *
+     * @return this reactor, or a view of it timing every rhs evaluation if statistics are collected
+     * @author Ogechi
+     */
+    protected JacobianOdeSystem getOdeSystem() {
+        return this.timedSystem==null ? this : this.timedSystem;
+    }
+
+    /** Accessor method for the solver statistics
+     *
+     * @return statistics collected by this reactor and its solver, or null if they are not collected
+     * @author Ogechi
+     */
+    public SolverStatistics getSolverStatistics() {
+        return this.solverStatistics;
+    }
+
+    /** Mutator method for the solver statistics, which are kept by reference so they can be read after a simulation
+     * Without statistics the solver and the rhs do no extra work, with them every rhs evaluation is timed.
+     *
+     * @param solverStatistics statistics to record the work of the solver in, or null to stop collecting statistics
+     * @return true
+     * @author Ogechi
+     */
+    public boolean setSolverStatistics(SolverStatistics solverStatistics) {
+        this.solverStatistics = solverStatistics;
+        this.timedSystem = solverStatistics==null ? null : new JacobianOdeSystem() {
+            @Override
+            public void rhs(double t, double[] y, double[] dydt) {
+                long start = System.nanoTime();
+                Reactor.this.rhs(t, y, dydt);
+                solverStatistics.recordRhsEvaluation(System.nanoTime() - start);
+            }
+
+            @Override
+            public void jacobian(double t, double[] y, double[][] dfdy) {
+                Reactor.this.jacobian(t, y, dfdy);
+            }
+
+            @Override
+            public boolean isAutonomous() {
+                return Reactor.this.isAutonomous();
+            }
+        };
+        if (this.solver!=null) this.solver.setStatistics(solverStatistics);
+        return true;
+    }
+
+    /** Accessor method for the solver type
+     *
+     * @return integration method used for the reactor balances
+     * @author Ogechi
+     */
+    public OdeSolver.SOLVER_TYPE getSolverType() {
+        return this.solverType;
+    }
+
+    /** Mutator method for the solver type
+     *
+     * @param solverType integration method used for the reactor balances
+     * @return true if updated and false if not
+     * @author Ogechi
+     */
+    public boolean setSolverType(OdeSolver.SOLVER_TYPE solverType) {
+        if (solverType==null) return false;
+        if (solverType!=this.solverType) this.solver = null;
+        this.solverType = solverType;
+        return true;
+    }
+
+    /** Accessor method for the largest integration step
+     *
+     * @return largest step size the solver may take
+     * @author Ogechi
+     */
+    public double getMaxStepSize() {
+        return this.maxStepSize;
+    }
+
+    /** Mutator method for the largest integration step
+     *
+     * @param maxStepSize largest step size the solver may take, must be greater than 0, positive infinity for no bound
+     * @return true if updated and false if not
+     * @author Ogechi
+     */
+    public boolean setMaxStepSize(double maxStepSize) {
+        if (!(maxStepSize > 0)) return false;
+        this.maxStepSize = maxStepSize;
+        if (this.solver != null) this.solver.setMaxStepSize(maxStepSize);
+        return true;
+    }
+
+    /** Accessor method for the number of right-hand side evaluations
+     *
+     * @return evaluations of rhs by the solvers of this reactor, counted over the copies it was made from
+     * @author Ogechi
+     */
+    public long getRhsEvaluationCount() {
+        return this.rhsEvaluations;
+    }
+
+    /** Counts one right-hand side evaluation, called by the rhs of subclasses
+     *
+     * @author Ogechi
+     */
+    protected void countRhsEvaluation() {
+        this.rhsEvaluations++;
+    }
+
     /** Accessor method for controlled
      *
      * @return controlled
@@ -338,6 +540,16 @@ public abstract class Reactor implements Controllable, DifferentialEquation, Clo
         return currentConcentrations;
     }
 
+    /** Read-only view of the current concentrations, returned without a copy for reads made every time step
+     * The array must not be modified, use setCurrentConcentrations to change it.
+     *
+     * @return internal array of current concentrations
+     * @author Ogechi
+     */
+    protected double[] getCurrentConcentrationsView() {
+        return this.currentConcentrations;
+    }
+
     /** Mutator method for current concentrations
      *
      * @param currentConcentrations array of current concentrations
@@ -355,6 +567,16 @@ public abstract class Reactor implements Controllable, DifferentialEquation, Clo
         return true;
     }
 
+    /** Reactor balances only depend on time through the state, so implicit solvers can skip df/dt
+     *
+     * @return true
+     * @author Ogechi
+     */
+    @Override
+    public boolean isAutonomous() {
+        return true;
+    }
+
     /** Equals method
      *
      * @param comparator object to compare to current objec
@@ -370,6 +592,7 @@ public abstract class Reactor implements Controllable, DifferentialEquation, Clo
 
         if (reactorComparator.volume!=this.volume) return false;
         if(!(reactorComparator.reaction.equals(this.reaction))) return false;
+        if (reactorComparator.reactionNetwork==null ? this.reactionNetwork!=null : !reactorComparator.reactionNetwork.equals(this.reactionNetwork)) return false;
         if (reactorComparator.inletConcentrations.length!=this.inletConcentrations.length) return false;
         if (reactorComparator.initialConcentrations.length!=this.initialConcentrations.length) return false;
         if (reactorComparator.currentConcentrations.length!=this.currentConcentrations.length) return false;
@@ -0,0 +1,150 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/** Driver class checking the shipped input files against their golden result files before a change to the solvers is adopted
+ * Every case of src/GoldenResults.csv is simulated and compared row by row and column by column with its golden CSV file as the
+ * rows are produced, a value passes if it is within the absolute tolerance plus the relative tolerance times the golden value.
+ * The right-hand side evaluations of each case are compared with the baseline in the same file, and the driver exits with status 1
+ * if a case drifts out of its tolerances or needs more evaluations than the baseline beyond the threshold. Evaluation counts do not
+ * depend on the machine, while wall times vary between runs and hosts, so the best wall time is only reported next to its baseline
+ * unless "--check-wall-time" also fails cases slower than the baseline beyond its threshold, on the machine the baseline was written on.
+ * Run it from the project folder, with "--write-baseline" to record the current wall times and evaluation counts as the baseline.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class RegressionDriver {
+
+    private static final String INDEX_PATH = "src/GoldenResults.csv"; //cases to check, relative to the project folder
+    private static final double WALL_TIME_RATIO = 2.0; //a case slower than its baseline wall time by more than this fails with --check-wall-time
+    private static final double RHS_RATIO = 1.05; //a case needing more right-hand side evaluations than its baseline by more than this fails
+    private static final int WARMUP_RUNS = 3; //untimed runs of each case before it is timed
+    private static final int TIMED_RUNS = 5; //timed runs of each case, the fastest is compared with the baseline
+
+    /** Main method checking every case of the index and exiting with status 1 if one of them failed
+     * @param args "--write-baseline" to record the measured wall times and evaluations as the new baseline,
+     *             "--check-wall-time" to also fail cases slower than their baseline wall time
+     * @throws IOException if the index, an input file or a golden file cannot be read
+     * @author Ogechi
+     */
+    public static void main(String[] args) throws IOException {
+        List<String> options = Arrays.asList(args);
+        boolean writeBaseline = options.contains("--write-baseline");
+        boolean checkWallTime = options.contains("--check-wall-time");
+        List<String[]> cases = readIndex(INDEX_PATH);
+        System.out.println("case, rows, worst column, largest error, largest error to tolerance, wall ms, baseline wall ms, rhs evaluations, baseline rhs evaluations, status");
+        int failures = 0;
+        for (String[] entry : cases) {
+            if (!checkCase(entry, writeBaseline, checkWallTime)) failures++;
+        }
+        if (writeBaseline) {
+            writeIndex(INDEX_PATH, cases);
+            System.out.println("Baseline written to " + INDEX_PATH);
+        }
+        System.out.println(failures == 0 ? "All " + cases.size() + " cases passed" : failures + " of " + cases.size() + " cases failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    /** Simulates a case, compares it with its golden file and its baseline, and prints one line of results
+     *
+     * @param entry input file, golden file, absolute tolerance, relative tolerance, baseline wall time in milliseconds and
+     * baseline right-hand side evaluations as read by readIndex, the last two are replaced by the measured ones if the baseline is written
+     * @param writeBaseline true to record the measured wall time and evaluations instead of comparing them
+     * @param checkWallTime true to fail the case if it is slower than its baseline wall time beyond the threshold, otherwise the
+     * wall time is only reported
+     * @return true if the case passed
+     * @throws IOException if the input file or the golden file cannot be read
+     * @author Ogechi
+     */
+    public static boolean checkCase(String[] entry, boolean writeBaseline, boolean checkWallTime) throws IOException {
+        Map<String, String> dict = Driver.populateFromFile(entry[0]);
+        PIDController base = Driver.createController(dict);
+        double absoluteTolerance = Double.parseDouble(entry[2]);
+        double relativeTolerance = Double.parseDouble(entry[3]);
+
+        //accuracy from the first run, the following ones only measure the wall time
+        GoldenComparisonSink comparison = new GoldenComparisonSink(entry[1], absoluteTolerance, relativeTolerance);
+        PIDController controller = base.clone();
+        controller.simulate(comparison);
+        long rhsEvaluations = ((Reactor) controller.getControllable()).getRhsEvaluationCount() - ((Reactor) base.getControllable()).getRhsEvaluationCount();
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < WARMUP_RUNS + TIMED_RUNS; run++) {
+            InMemorySink rows = new InMemorySink();
+            long start = System.nanoTime();
+            base.clone().simulate(rows);
+            if (run >= WARMUP_RUNS) best = Math.min(best, System.nanoTime() - start);
+        }
+        double wallTime = best / 1e6;
+
+        double baselineWallTime = Double.parseDouble(entry[4]);
+        double baselineRhs = Double.parseDouble(entry[5]);
+        List<String> problems = new ArrayList<>();
+        if (comparison.getMismatch() != null) problems.add(comparison.getMismatch());
+        else if (!comparison.isWithinTolerance()) problems.add("accuracy drift");
+        if (!writeBaseline && checkWallTime && wallTime > WALL_TIME_RATIO * baselineWallTime) problems.add("wall time regression");
+        if (!writeBaseline && rhsEvaluations > RHS_RATIO * baselineRhs) problems.add("rhs evaluation regression");
+        String status = problems.isEmpty() ? "PASS" : "FAIL " + String.join(" and ", problems);
+        if (!writeBaseline && !checkWallTime && wallTime > WALL_TIME_RATIO * baselineWallTime) status += " (wall time above the baseline, not checked)";
+        System.out.printf(Locale.ROOT, "%s, %d, %s, %.3g, %.3g, %.1f, %.1f, %d, %.0f, %s%n", entry[0], comparison.getRowCount(), comparison.getWorstColumn(),
+                comparison.getLargestError(), comparison.getLargestRatio(), wallTime, baselineWallTime, rhsEvaluations, baselineRhs, status);
+
+        if (writeBaseline) {
+            entry[4] = String.format(Locale.ROOT, "%.1f", wallTime);
+            entry[5] = Long.toString(rhsEvaluations);
+        }
+        return problems.isEmpty();
+    }
+
+    /** Reads the cases to check
+     *
+     * @param path path of the index, with a header and lines of input file, golden file, absolute tolerance, relative tolerance,
+     * baseline wall time in milliseconds and baseline right-hand side evaluations, the baseline is optional
+     * @return entries of the index in order, each of six values
+     * @throws IOException if the index cannot be read
+     * @throws IllegalArgumentException if a line has fewer than four values
+     * @author Ogechi
+     */
+    public static List<String[]> readIndex(String path) throws IOException {
+        List<String[]> cases = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(path, StandardCharsets.UTF_8))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                String[] values = line.split(",");
+                if (values.length < 4) throw new IllegalArgumentException("Error, a case needs an input file, a golden file and two tolerances: " + line);
+                //cases without a baseline yet are given NaN, which no measurement fails against
+                String[] entry = Arrays.copyOf(values, 6);
+                for (int i = 0; i < entry.length; i++) entry[i] = i < values.length ? values[i].trim() : "NaN";
+                cases.add(entry);
+            }
+        }
+        return cases;
+    }
+
+    /** Writes the cases to check with their baseline, read back by readIndex
+     *
+     * @param path path of the index to overwrite
+     * @param cases entries of the index in order
+     * @throws IOException if the index cannot be written
+     * @author Ogechi
+     */
+    public static void writeIndex(String path, List<String[]> cases) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(path, StandardCharsets.UTF_8))) {
+            writer.write("input file, golden file, absolute tolerance, relative tolerance, baseline wall ms, baseline rhs evaluations");
+            writer.newLine();
+            for (String[] entry : cases) {
+                writer.write(String.join(", ", entry));
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,484 @@
+/** ODE Solver Class with an L-stable Rosenbrock method for stiff systems
+ * Uses the modified Rosenbrock pair of order 2(3) by Shampine and Reichelt (the method of MATLAB's ode23s).
+ * Each step solves linear systems with W = I - h*d*J instead of iterating, so the step size is limited by accuracy only,
+ * not by the stability of explicit stages when reaction or flow time constants are much shorter than the time step.
+ * The second order solution stays second order for any approximation of J (it is a W-method), so the Jacobian and the
+ * LU factorization of W are reused across steps and across calls to integrate while h stays within 20% of the h W was
+ * factored for. They are refreshed after a rejected step, when h moves further, or after MAX_JACOBIAN_AGE steps.
+ * The Jacobian is taken from JacobianOdeSystem if the system implements it, otherwise it is approximated by finite differences.
+ * Accepted steps are also checked for the end of stiffness, see {@link #isNonStiff()}.
+ * Like the explicit solvers, an instance owns its workspace for one system dimension and does not allocate while stepping.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class Rosenbrock implements OdeSolver {
+
+    private static final double D = 1 / (2 + Math.sqrt(2)); //diagonal coefficient of the method
+    private static final double E32 = 6 + Math.sqrt(2);
+
+    //step size controller constants
+    private static final double SAFETY = 0.8; //safety factor applied to the optimal step size
+    private static final double MIN_SCALE = 0.2; //largest reduction of h in one step
+    private static final double MAX_SCALE = 5; //largest growth of h in one step
+    private static final double REUSE_BAND = 0.2; //relative change of h for which W is not factored again
+    private static final int MAX_JACOBIAN_AGE = 10; //accepted steps after which the Jacobian is evaluated again
+
+    //non-stiffness detection constants
+    private static final double NON_STIFF_H_LAMBDA = 1; //h*lambda well inside the stability region of the explicit methods
+    private static final int NON_STIFF_STEPS = 15; //consecutive steps inside that region after which the problem is considered non-stiff
+
+    //IMPORTANT: these workspace arrays should not have getters and setters as they are helper variables, and could mess with calculations
+    private final int dimension;
+    private final double[][] jacobian;
+    private final double[][] w; //I - h*d*J before factoring
+    private final LUDecomposition lu;
+    private double[] f0; //derivative at the start of the step
+    private final double[] f1; //derivative at the midpoint stage
+    private double[] f2; //derivative at the end of the step
+    private final double[] k1;
+    private final double[] k2;
+    private final double[] k3;
+    private final double[] dfdt; //time derivative of the right-hand side
+    private final double[] temp; //stage argument for the next rhs evaluation
+    private final double[] work; //scratch space for the LU solves and finite differences
+    private final double[] nextY; //second order solution of the current trial step
+    private final DenseOutput denseOutput; //interpolant over the last accepted step
+
+    private double stepSize; //h used for the last accepted step
+    private double nextStepSize; //h proposed for the step after the last accepted step
+    private double warmStepSize; //h to start the next call to integrate with, 0 if there is no history
+    private double maxStepSize = Double.POSITIVE_INFINITY; //upper bound on h, unbounded by default
+    private SolverStatistics statistics; //statistics receiving every step, null when they are not collected
+    private double factoredStepSize; //h the current LU factorization of W was computed for, 0 if there is none
+    private int jacobianAge; //accepted steps since the Jacobian was evaluated, -1 if there is none
+    private boolean isAutonomous; //true if df/dt is known to be 0 for the system being integrated
+    private long jacobianEvaluations; //number of Jacobian evaluations since construction
+    private long factorizations; //number of LU factorizations since construction
+    private double jacobianNorm; //infinity norm of the Jacobian, an upper bound on the magnitude of its eigenvalues
+    private double currentTime; //time reached by the last call to integrate
+    private int nonStiffSteps; //consecutive accepted steps with h*lambda inside the stability region of the explicit methods
+
+    /** Constructor for a Rosenbrock integrator with a workspace sized for the given system
+     *
+     * @param dimension number of dependent variables in the systems to be solved
+     * @throws IllegalArgumentException if dimension is not greater than 0
+     * @author Ogechi
+     */
+    public Rosenbrock(int dimension) {
+        if (dimension<=0) throw new IllegalArgumentException("Rosenbrock dimension must be greater than 0");
+        this.dimension = dimension;
+        this.jacobian = new double[dimension][dimension];
+        this.w = new double[dimension][dimension];
+        this.lu = new LUDecomposition(dimension);
+        this.f0 = new double[dimension];
+        this.f1 = new double[dimension];
+        this.f2 = new double[dimension];
+        this.k1 = new double[dimension];
+        this.k2 = new double[dimension];
+        this.k3 = new double[dimension];
+        this.dfdt = new double[dimension];
+        this.temp = new double[dimension];
+        this.work = new double[dimension];
+        this.nextY = new double[dimension];
+        this.denseOutput = new DenseOutput(dimension);
+        this.jacobianAge = -1;
+    }
+
+    /** Accessor method for the dimension of the workspace
+     *
+     * @return number of dependent variables this integrator is sized for
+     * @author Ogechi
+     */
+    public int getDimension() {
+        return this.dimension;
+    }
+
+    /** Accessor method for the step size used by the last accepted step
+     *
+     * @return h of the last accepted step
+     * @author Ogechi
+     */
+    public double getStepSize() {
+        return this.stepSize;
+    }
+
+    /** Accessor method for the step size proposed after the last accepted step
+     *
+     * @return proposed h of the next step
+     * @author Ogechi
+     */
+    public double getNextStepSize() {
+        return this.nextStepSize;
+    }
+
+    /** Accessor method for the number of Jacobian evaluations
+     *
+     * @return Jacobian evaluations since the solver was created
+     * @author Ogechi
+     */
+    public long getJacobianEvaluations() {
+        return this.jacobianEvaluations;
+    }
+
+    /** Accessor method for the number of LU factorizations
+     *
+     * @return LU factorizations since the solver was created
+     * @author Ogechi
+     */
+    public long getFactorizations() {
+        return this.factorizations;
+    }
+
+    /** Accessor method for the largest step size the solver may take
+     *
+     * @return upper bound on h
+     * @author Ogechi
+     */
+    public double getMaxStepSize() {
+        return this.maxStepSize;
+    }
+
+    /** Mutator method for the largest step size the solver may take
+     *
+     * @param maxStepSize upper bound on h which must be greater than 0, positive infinity for no bound
+     * @return true if updated and false if not
+     * @author Ogechi
+     */
+    public boolean setMaxStepSize(double maxStepSize) {
+        if (!(maxStepSize > 0)) return false;
+        this.maxStepSize = maxStepSize;
+        return true;
+    }
+
+    /** Mutator method for the statistics the solver records its steps in
+     *
+     * @param statistics statistics receiving every accepted and rejected step, or null to record nothing
+     * @author Ogechi
+     */
+    public void setStatistics(SolverStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /** Accessor method for the time reached by the last call to integrate
+     *
+     * @return end time of the last integration, earlier than the requested end time if it stopped because the problem stopped being stiff
+     * @author Ogechi
+     */
+    public double getCurrentTime() {
+        return this.currentTime;
+    }
+
+    /** Returns true once h times the infinity norm of the Jacobian has stayed below NON_STIFF_H_LAMBDA for NON_STIFF_STEPS
+     * steps, so the step size is limited by accuracy and an explicit method would be stable with it.
+     * The norm bounds the magnitude of every eigenvalue, so the test errs on the side of staying implicit.
+     *
+     * @return true if the problem has not been stiff over the recent steps
+     * @author Ogechi
+     */
+    public boolean isNonStiff() {
+        return this.nonStiffSteps >= NON_STIFF_STEPS;
+    }
+
+    /** Mutator method for the step size the next call to integrate starts with, used to carry h over from another solver
+     *
+     * @param warmStepSize first step size which must be greater than 0
+     * @return true if updated and false if not
+     * @author Ogechi
+     */
+    boolean setWarmStepSize(double warmStepSize) {
+        if (!(warmStepSize > 0)) return false;
+        this.warmStepSize = warmStepSize;
+        return true;
+    }
+
+    /** Forgets the step size, Jacobian, factorization and stiffness history kept from previous calls to integrate
+     *
+     * @author Ogechi
+     */
+    public void reset() {
+        this.warmStepSize = 0;
+        this.factoredStepSize = 0;
+        this.jacobianAge = -1;
+        this.nonStiffSteps = 0;
+    }
+
+    /** Helper method to evaluate the Jacobian and df/dt at the start of the step, f0 must hold the derivative at (x, y)
+     *
+     * @param x current time
+     * @param y values of the dependent variables at x
+     * @param system system of differential equations
+     * @author Ogechi
+     */
+    private void evaluateJacobian(double x, double[] y, OdeSystem system) {
+        if (system instanceof JacobianOdeSystem) {
+            ((JacobianOdeSystem) system).jacobian(x, y, this.jacobian);
+        } else {
+            //forward differences one column at a time
+            System.arraycopy(y, 0, this.temp, 0, this.dimension);
+            for (int j = 0; j < this.dimension; j++) {
+                double delta = Math.sqrt(Math.ulp(1.0)) * Math.max(Math.abs(y[j]), 1e-5);
+                this.temp[j] = y[j] + delta;
+                system.rhs(x, this.temp, this.work);
+                for (int i = 0; i < this.dimension; i++) {
+                    this.jacobian[i][j] = (this.work[i] - this.f0[i]) / delta;
+                }
+                this.temp[j] = y[j];
+            }
+        }
+        this.jacobianNorm = 0;
+        for (int i = 0; i < this.dimension; i++) {
+            double rowSum = 0;
+            for (int j = 0; j < this.dimension; j++) {
+                rowSum += Math.abs(this.jacobian[i][j]);
+            }
+            this.jacobianNorm = Math.max(this.jacobianNorm, rowSum);
+        }
+        this.jacobianAge = 0;
+        this.jacobianEvaluations++;
+    }
+
+    /** Helper method to evaluate df/dt at the start of the step by a forward difference in time, f0 must hold the derivative at (x, y)
+     *
+     * @param x current time
+     * @param y values of the dependent variables at x
+     * @param system system of differential equations
+     * @author Ogechi
+     */
+    private void evaluateTimeDerivative(double x, double[] y, OdeSystem system) {
+        double delta = Math.sqrt(Math.ulp(1.0)) * Math.max(Math.abs(x), 1);
+        system.rhs(x + delta, y, this.work);
+        for (int i = 0; i < this.dimension; i++) {
+            this.dfdt[i] = (this.work[i] - this.f0[i]) / delta;
+        }
+    }
+
+    /** Helper method to form and factor W = I - h*d*J for the given step size
+     *
+     * @param h step size
+     * @author Ogechi
+     */
+    private void factor(double h) {
+        double hd = h * D;
+        for (int i = 0; i < this.dimension; i++) {
+            for (int j = 0; j < this.dimension; j++) {
+                this.w[i][j] = -hd * this.jacobian[i][j];
+            }
+            this.w[i][i] += 1;
+        }
+        if (!this.lu.factor(this.w)) throw new IllegalStateException("Rosenbrock iteration matrix is singular for h = " + h);
+        this.factoredStepSize = h;
+        this.factorizations++;
+    }
+
+    /** Helper method to compute the scaled RMS norm of the error of the current trial step, k3 must hold the third stage
+     *
+     * @param y values at the start of the step
+     * @param h step size of the trial step
+     * @param tolerance tolerance used as absolute and relative tolerance
+     * @return scaled error, the step is acceptable if it is not greater than 1
+     * @author Ogechi
+     */
+    private double errorNorm(double[] y, double h, double tolerance) {
+        double sum = 0;
+        for (int i = 0; i < this.dimension; i++) {
+            double scale = tolerance + tolerance * Math.max(Math.abs(y[i]), Math.abs(nextY[i]));
+            double error = h / 6 * (k1[i] - 2 * k2[i] + k3[i]) / scale;
+            sum += error * error;
+        }
+        return Math.sqrt(sum / this.dimension);
+    }
+
+    /**
+     * Takes one accepted Rosenbrock step, repeating trial steps until the scaled error is acceptable.
+     * f0 must hold the derivative at (x, y). The accepted values are written to the internal workspace, the
+     * derivative at the new point is left in f0 for the next step and the step sizes are stored in stepSize and nextStepSize.
+     *
+     * @param x Current time.
+     * @param y Array of values of the dependent variables at x.
+     * @param h Initial step size.
+     * @param system System of differential equations.
+     * @param tolerance Tolerance used as absolute and relative tolerance.
+     * @param endTime End time for the integration.
+     * @author Ogechi
+     */
+    private void rosenbrockStep(double x, double[] y, double h, OdeSystem system, double tolerance, double endTime) {
+        int n = this.dimension;
+        double requested = Math.min(h, this.maxStepSize); //step size asked for before it is shortened to land on endTime
+        boolean rejected = false;
+
+        if (!this.isAutonomous) evaluateTimeDerivative(x, y, system);
+
+        while (true) {
+            h = Math.min(Math.min(h, this.maxStepSize), endTime - x);
+
+            //reuse J and the factorization of W unless they are too old or were computed for a different step size
+            boolean isStale = this.jacobianAge < 0 || this.jacobianAge >= MAX_JACOBIAN_AGE || (rejected && this.jacobianAge > 0);
+            if (isStale) evaluateJacobian(x, y, system);
+            if (isStale || Math.abs(h - this.factoredStepSize) > REUSE_BAND * this.factoredStepSize) factor(h);
+            double hd = h * D;
+
+            for (int i = 0; i < n; i++) {
+                k1[i] = f0[i] + (this.isAutonomous ? 0 : hd * dfdt[i]);
+            }
+            lu.solve(k1, work);
+
+            for (int i = 0; i < n; i++) {
+                temp[i] = y[i] + 0.5 * h * k1[i];
+            }
+            system.rhs(x + 0.5 * h, temp, f1);
+
+            for (int i = 0; i < n; i++) {
+                k2[i] = f1[i] - k1[i];
+            }
+            lu.solve(k2, work);
+            for (int i = 0; i < n; i++) {
+                k2[i] += k1[i];
+                nextY[i] = y[i] + h * k2[i];
+            }
+            system.rhs(x + h, nextY, f2);
+
+            for (int i = 0; i < n; i++) {
+                k3[i] = f2[i] - E32 * (k2[i] - f1[i]) - 2 * (k1[i] - f0[i]) + (this.isAutonomous ? 0 : hd * dfdt[i]);
+            }
+            lu.solve(k3, work);
+
+            double error = errorNorm(y, h, tolerance);
+            //the error estimate is third order
+            double scale = error == 0 ? MAX_SCALE : Math.max(MIN_SCALE, Math.min(MAX_SCALE, SAFETY * Math.pow(error, -1.0 / 3)));
+
+            if (error <= 1) {
+                double next = h * scale;
+                if (rejected) next = Math.min(next, h); //do not grow right after a rejection
+                this.stepSize = h;
+                this.nextStepSize = next;
+                //a step shortened to land on endTime says nothing about the size the dynamics allow, keep the requested one
+                this.warmStepSize = (!rejected && h < requested) ? Math.max(next, requested) : next;
+                this.jacobianAge++;
+                this.nonStiffSteps = h * this.jacobianNorm <= NON_STIFF_H_LAMBDA ? this.nonStiffSteps + 1 : 0;
+                if (this.statistics != null) this.statistics.recordAcceptedStep(h);
+
+                //the derivative at the new point starts the next step
+                double[] swap = f0;
+                f0 = f2;
+                f2 = swap;
+                return;
+            }
+            if (this.statistics != null) this.statistics.recordRejectedStep(h);
+            rejected = true;
+            h = h * scale;
+        }
+    }
+
+    /**Integrates a system of ordinary differential equations in place using the Rosenbrock method.
+     * y is overwritten with the values at the end time.
+     *
+     * @param t0 Initial Time
+     * @param y Values of the dependent variables at t0, replaced by the values at endTime
+     * @param endTime End time for the integration
+     * @param system System of differential equations evaluated for all components at once
+     * @param tolerance Tolerance used as absolute and relative tolerance
+     * @throws IllegalArgumentException if y does not match the dimension of the integrator
+     * @author Ogechi
+     */
+    public void integrate(double t0, double[] y, double endTime, OdeSystem system, double tolerance) {
+        integrate(t0, y, endTime, system, tolerance, 0, null);
+    }
+
+    /**Integrates a system of ordinary differential equations in place using the Rosenbrock method
+     * and sends the solution at t0 + k*outputStep to the listener by cubic Hermite interpolation within each accepted step.
+     * The derivative at the end of the step is already evaluated by the method, so dense output costs no extra evaluations.
+     *
+     * @param t0 Initial Time
+     * @param y Values of the dependent variables at t0, replaced by the values at endTime
+     * @param endTime End time for the integration
+     * @param system System of differential equations evaluated for all components at once
+     * @param tolerance Tolerance used as absolute and relative tolerance
+     * @param outputStep spacing of the output times after t0, ignored if listener is null
+     * @param listener listener receiving the solution at each output time up to endTime, or null for no dense output
+     * @throws IllegalArgumentException if y does not match the dimension of the integrator or outputStep is not greater than 0
+     * @author Ogechi
+     */
+    public void integrate(double t0, double[] y, double endTime, OdeSystem system, double tolerance, double outputStep, DenseOutputListener listener) {
+        if (y.length!=this.dimension) throw new IllegalArgumentException("Initial values do not match the Rosenbrock dimension");
+        if (listener!=null && !(outputStep > 0)) throw new IllegalArgumentException("Output step must be greater than 0");
+        integrate(t0, y, endTime, system, tolerance, t0, outputStep, 1, listener, false);
+    }
+
+    /**Integrates a system of ordinary differential equations in place using the Rosenbrock method,
+     * optionally stopping early once the problem is no longer stiff so another solver can continue from getCurrentTime().
+     *
+     * @param t0 Initial Time
+     * @param y Values of the dependent variables at t0, replaced by the values at the time reached
+     * @param endTime End time for the integration
+     * @param system System of differential equations evaluated for all components at once
+     * @param tolerance Tolerance used as absolute and relative tolerance
+     * @param outputStart time of output index 0, output times are outputStart + k*outputStep
+     * @param outputStep spacing of the output times, ignored if listener is null
+     * @param outputIndex index of the first output time after t0
+     * @param listener listener receiving the solution at each output time, or null for no dense output
+     * @param stopWhenNonStiff true to stop after the step at which isNonStiff() becomes true
+     * @return index of the first output time that has not been sent yet
+     * @author Ogechi
+     */
+    int integrate(double t0, double[] y, double endTime, OdeSystem system, double tolerance, double outputStart, double outputStep, int outputIndex, DenseOutputListener listener, boolean stopWhenNonStiff) {
+        this.currentTime = t0;
+        if (!(endTime > t0)) return outputIndex;
+
+        this.isAutonomous = system instanceof JacobianOdeSystem && ((JacobianOdeSystem) system).isAutonomous();
+        double currentTime = t0;
+        //the system may have changed since the last call so the derivative at t0 is always evaluated again
+        system.rhs(currentTime, y, f0);
+        double h = this.warmStepSize > 0 ? this.warmStepSize : (endTime - t0) / 2; //initial guess of h
+
+        while (currentTime < endTime) {
+            rosenbrockStep(currentTime, y, h, system, tolerance, endTime);
+            if (listener != null) {
+                //after the swap f2 holds the derivative at the start and f0 the one at the end
+                denseOutput.setStep(currentTime, this.stepSize, y, f2, nextY, f0);
+                outputIndex = denseOutput.output(outputStart, outputStep, outputIndex, listener);
+            }
+            System.arraycopy(nextY, 0, y, 0, this.dimension);
+            h = this.nextStepSize;
+            //land exactly on the end time instead of leaving a rounding sized step
+            currentTime = this.stepSize == endTime - currentTime ? endTime : currentTime + this.stepSize;
+            if (stopWhenNonStiff && isNonStiff()) break;
+        }
+        this.currentTime = currentTime;
+        return outputIndex;
+    }
+
+    /**Solves a system of ordinary differential equations using the Rosenbrock method.
+     *
+     * @param t0 Initial Time
+     * @param y0 Initial values of the dependent variables
+     * @param endTime End time for the integration
+     * @param system System of differential equations evaluated for all components at once
+     * @param tolerance Tolerance used as absolute and relative tolerance
+     * @return Array containing the final values of the dependent variables after simulating the system until the specified end time
+     * @author Ogechi
+     */
+    public static double[] solve(double t0, double[] y0, double endTime, OdeSystem system, double tolerance) {
+        double[] currentY = new double[y0.length];
+
+        System.arraycopy(y0, 0, currentY, 0, y0.length);
+        new Rosenbrock(y0.length).integrate(t0, currentY, endTime, system, tolerance);
+
+        return currentY;
+    }
+
+    /**Main method used to test the validity of the Rosenbrock solution
+     * Uses the same initial value problem as RK45, the analytical solution at t = 2 is 5.305471950534675,
+     * then a stiff linear problem y' = -1000(y - cos t) whose solution quickly follows cos t
+     * @param args
+     * @author Ogechi
+     */
+    public static void main(String[] args) {
+        OdeSystem system = (t, y, dydt) -> dydt[0] = y[0] - Math.pow(t, 2) + 1;
+        System.out.println(solve(0, new double[]{0.5}, 2, system, 0.00001)[0]);
+        System.out.println(Math.pow(2 + 1, 2) - 0.5 * Math.exp(2));
+
+        OdeSystem stiff = (t, y, dydt) -> dydt[0] = -1000 * (y[0] - Math.cos(t));
+        System.out.println(solve(0, new double[]{0}, 2, stiff, 0.00001)[0]);
+        System.out.println(DormandPrince.solve(0, new double[]{0}, 2, stiff, 0.00001)[0]);
+    }
+}
@@ -0,0 +1,167 @@
+/** Summary of one input file run by BatchDriver, written as one row of the batch summary
+ * Only the output file, the amount of work and the performance metrics of the run are kept, so a batch of any size holds a few values per file in memory.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class ScenarioResult {
+
+    public enum STATUS {
+        COMPLETED, FAILED
+    } //how the run ended
+
+    private final String scenarioFile; //path of the input file
+    private final STATUS status; //how the run ended
+    private final String message; //reason the run failed, null otherwise
+    private final double wallTime; //wall time of the run in milliseconds
+    private final String outputFile; //path of the file the results were written to, null if the run failed
+    private final int rowCount; //rows of the simulation, filled rows included
+    private final int filledRowCount; //rows filled from the steady state instead of simulated
+    private final double skippedTime; //simulated time covered by the filled rows
+    private final double timeSaved; //estimated wall time in milliseconds the filled rows would have taken to simulate
+    private final long rhsEvaluations; //right-hand side evaluations of the simulation
+    private final PerformanceMetrics metrics; //performance of the completed run, null if it failed
+
+    /** Constructor for a scenario result
+     *
+     * @param scenarioFile path of the input file
+     * @param status how the run ended
+     * @param message reason the run failed, or null
+     * @param wallTime wall time of the run in milliseconds
+     * @param outputFile path of the file the results were written to, or null if the run failed
+     * @param rowCount rows of the simulation, filled rows included
+     * @param filledRowCount rows filled from the steady state instead of simulated
+     * @param skippedTime simulated time covered by the filled rows
+     * @param timeSaved estimated wall time in milliseconds the filled rows would have taken to simulate
+     * @param rhsEvaluations right-hand side evaluations of the simulation
+     * @param metrics performance of the run, or null if it failed
+     * @throws IllegalArgumentException if scenario file or status is null
+     * @author Ogechi
+     */
+    public ScenarioResult(String scenarioFile, STATUS status, String message, double wallTime, String outputFile, int rowCount, int filledRowCount,
+                          double skippedTime, double timeSaved, long rhsEvaluations, PerformanceMetrics metrics) {
+        if (scenarioFile == null) throw new IllegalArgumentException("Scenario file cannot be null");
+        if (status == null) throw new IllegalArgumentException("Status cannot be null");
+        this.scenarioFile = scenarioFile;
+        this.status = status;
+        this.message = message;
+        this.wallTime = wallTime;
+        this.outputFile = outputFile;
+        this.rowCount = rowCount;
+        this.filledRowCount = filledRowCount;
+        this.skippedTime = skippedTime;
+        this.timeSaved = timeSaved;
+        this.rhsEvaluations = rhsEvaluations;
+        this.metrics = metrics;
+    }
+
+    /** Creates the result of a run that failed before it produced an output file
+     *
+     * @param scenarioFile path of the input file
+     * @param message reason the run failed
+     * @param wallTime wall time of the run in milliseconds
+     * @return new failed result
+     * @author Ogechi
+     */
+    public static ScenarioResult failed(String scenarioFile, String message, double wallTime) {
+        return new ScenarioResult(scenarioFile, STATUS.FAILED, message, wallTime, null, 0, 0, 0, 0, 0, null);
+    }
+
+    /** Accessor method for the input file
+     *
+     * @return path of the input file
+     * @author Ogechi
+     */
+    public String getScenarioFile() {
+        return this.scenarioFile;
+    }
+
+    /** Accessor method for the status
+     *
+     * @return how the run ended
+     * @author Ogechi
+     */
+    public STATUS getStatus() {
+        return this.status;
+    }
+
+    /** Accessor method for the failure message
+     *
+     * @return reason the run failed, null if it completed
+     * @author Ogechi
+     */
+    public String getMessage() {
+        return this.message;
+    }
+
+    /** Accessor method for the wall time
+     *
+     * @return wall time of the run in milliseconds
+     * @author Ogechi
+     */
+    public double getWallTime() {
+        return this.wallTime;
+    }
+
+    /** Accessor method for the output file
+     *
+     * @return path of the file the results were written to, null if the run failed
+     * @author Ogechi
+     */
+    public String getOutputFile() {
+        return this.outputFile;
+    }
+
+    /** Accessor method for the row count
+     *
+     * @return rows of the simulation, filled rows included
+     * @author Ogechi
+     */
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /** Accessor method for the filled row count
+     *
+     * @return rows filled from the steady state instead of simulated
+     * @author Ogechi
+     */
+    public int getFilledRowCount() {
+        return this.filledRowCount;
+    }
+
+    /** Accessor method for the skipped time
+     *
+     * @return simulated time covered by the rows filled from the steady state
+     * @author Ogechi
+     */
+    public double getSkippedTime() {
+        return this.skippedTime;
+    }
+
+    /** Accessor method for the time saved
+     *
+     * @return estimated wall time in milliseconds the filled rows would have taken to simulate, 0 if every row was simulated
+     * @author Ogechi
+     */
+    public double getTimeSaved() {
+        return this.timeSaved;
+    }
+
+    /** Accessor method for the right-hand side evaluations
+     *
+     * @return right-hand side evaluations of the simulation
+     * @author Ogechi
+     */
+    public long getRhsEvaluations() {
+        return this.rhsEvaluations;
+    }
+
+    /** Accessor method for the performance metrics
+     *
+     * @return performance of the run, null if it failed
+     * @author Ogechi
+     */
+    public PerformanceMetrics getMetrics() {
+        return this.metrics;
+    }
+}
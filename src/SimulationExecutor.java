@@ -0,0 +1,128 @@
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/** Runs many PIDController simulations concurrently on a work-stealing ForkJoinPool
+ * Every submitted controller is cloned first, so each job owns its controller, controllable and solver workspace
+ * and no mutable state is shared between threads. Results are identical to calling simulate() on a clone in a single thread.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class SimulationExecutor implements AutoCloseable {
+
+    private final ForkJoinPool pool; //work-stealing pool running the simulations
+
+    /** Constructor for an executor using every available processor
+     *
+     * @author Ogechi
+     */
+    public SimulationExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Constructor for an executor with the given number of worker threads
+     *
+     * @param parallelism number of simulations to run at the same time
+     * @throws IllegalArgumentException if parallelism is not greater than 0
+     * @author Ogechi
+     */
+    public SimulationExecutor(int parallelism) {
+        if (parallelism<=0) throw new IllegalArgumentException("Parallelism must be greater than 0");
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /** Accessor method for the number of worker threads
+     *
+     * @return parallelism of the pool
+     * @author Ogechi
+     */
+    public int getParallelism() {
+        return this.pool.getParallelism();
+    }
+
+    /** Submits a simulation of a copy of the controller, the controller passed in is never modified
+     *
+     * @param controller controller to simulate
+     * @return future holding the simulation results in the layout of PIDController.simulate()
+     * @throws IllegalArgumentException if controller is null
+     * @author Ogechi
+     */
+    public Future<double[][]> submit(PIDController controller) {
+        if (controller==null) throw new IllegalArgumentException("Controller to simulate cannot be null");
+        PIDController copy = controller.clone();
+        return this.pool.submit(() -> copy.simulate());
+    }
+
+    /** Submits a task to the pool, for callers such as ParameterSweep that build and simulate their own controllers
+     * The task must not share mutable state with other tasks, every controller it simulates should be its own copy.
+     *
+     * @param task task to run
+     * @param <T> type of the task's result
+     * @return future holding the task's result
+     * @throws IllegalArgumentException if task is null
+     * @author Ogechi
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        if (task==null) throw new IllegalArgumentException("Task to run cannot be null");
+        return this.pool.submit(task);
+    }
+
+    /** Simulates every controller concurrently and waits for all of them to finish
+     *
+     * @param controllers controllers to simulate
+     * @return simulation results in the same order as the controllers
+     * @throws IllegalArgumentException if controllers or any of its elements are null
+     * @throws RuntimeException if a simulation fails or the calling thread is interrupted
+     * @author Ogechi
+     */
+    public double[][][] simulateAll(PIDController[] controllers) {
+        if (controllers==null) throw new IllegalArgumentException("Controllers to simulate cannot be null");
+        ForkJoinTask<double[][]>[] tasks = newTaskArray(controllers.length);
+        for (int i = 0; i < controllers.length; i++) {
+            if (controllers[i]==null) throw new IllegalArgumentException("Controller " + i + " to simulate cannot be null");
+            PIDController copy = controllers[i].clone();
+            tasks[i] = this.pool.submit(() -> copy.simulate());
+        }
+
+        double[][][] results = new double[controllers.length][][];
+        for (int i = 0; i < tasks.length; i++) {
+            try {
+                results[i] = tasks[i].get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for simulation " + i, e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Simulation " + i + " failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /** Helper method to create a generic task array
+     *
+     * @param length number of tasks
+     * @return empty array of tasks
+     * @author Ogechi
+     */
+    @SuppressWarnings("unchecked")
+    private static ForkJoinTask<double[][]>[] newTaskArray(int length) {
+        return (ForkJoinTask<double[][]>[]) new ForkJoinTask<?>[length];
+    }
+
+    /** Stops accepting simulations and waits for the running ones to finish
+     *
+     * @author Ogechi
+     */
+    @Override
+    public void close() {
+        this.pool.shutdown();
+        try {
+            this.pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
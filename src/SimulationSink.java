@@ -0,0 +1,38 @@
+/** Interface for classes receiving the results of PIDController.simulate row by row as they are produced
+ * A sink is told the shape of the results first, then receives every row in time order, then the end of the simulation.
+ * A simulation failing after the sink started ends with abort instead of finish, a sink whose start fails has nothing left open.
+ * The simulation keeps only the row it is working on, so a sink that does not hold on to rows keeps memory independent of the run length.
+ * @author Ogechi
+ * @author Dylan
+ */
+public interface SimulationSink {
+    /** Receives the shape of the results before the first row
+     *
+     * @param columnCount number of values in every row
+     * @param rowCount number of rows that will follow
+     * @author Ogechi
+     */
+    void start(int columnCount, int rowCount);
+
+    /** Receives one row of results
+     *
+     * @param row values of the row, owned by the simulation and only valid during this call
+     * @author Ogechi
+     */
+    void accept(double[] row);
+
+    /** Receives the end of the simulation after the last row, releasing anything held open
+     *
+     * @author Ogechi
+     */
+    void finish();
+
+    /** Receives the end of a simulation that failed after the sink started, releasing anything held open
+     * The default finishes the sink, sinks writing a file remove it instead so a partial run never looks like a complete one.
+     *
+     * @author Ogechi
+     */
+    default void abort() {
+        finish();
+    }
+}
@@ -0,0 +1,377 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/** Work done by the solver of a reactor during a simulation, collected only while a reactor has statistics attached
+ * Solvers record every accepted and rejected step with its step size, the reactor records every right-hand side evaluation
+ * with the time it took, and every call to integrate is one interval, which is one control interval of a controlled run and
+ * one segment between disturbances of an uncontrolled run. Bookkeeping is the time spent integrating outside the right-hand side,
+ * so it includes the solver arithmetic, the dense output and the rows handed to the sink from the dense output listener.
+ * Accepted step sizes are counted in a histogram with one bin per decade.
+ * Instances are not thread-safe, like the reactor and solver they belong to.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class SolverStatistics implements Cloneable {
+
+    public static final int HISTOGRAM_MIN_EXPONENT = -8; //decade of the lowest histogram bin, smaller step sizes are counted in the underflow bin
+    public static final int HISTOGRAM_MAX_EXPONENT = 2; //decade above the highest histogram bin, larger step sizes are counted in the overflow bin
+    private static final String[] LABELS = {"rhs evaluations", "accepted steps", "rejected steps", "min step size", "max step size",
+            "rhs ms", "bookkeeping ms", "intervals", "mean rhs evaluations per interval", "max rhs evaluations per interval",
+            "max steps per interval"}; //labels of the values, in the order of getValues()
+
+    private long rhsEvaluations; //right-hand side evaluations
+    private long rhsNanos; //time spent in the right-hand side
+    private long acceptedSteps; //accepted steps
+    private long rejectedSteps; //rejected trial steps
+    private double minStepSize = Double.POSITIVE_INFINITY; //smallest accepted step size
+    private double maxStepSize; //largest accepted step size
+    private long[] histogram; //accepted steps per decade of step size, underflow first and overflow last
+    private long intervals; //calls to integrate
+    private long integrationNanos; //time spent in calls to integrate
+    private long maxIntervalRhsEvaluations; //most right-hand side evaluations in one interval
+    private long maxIntervalSteps; //most accepted and rejected steps in one interval
+    private long intervalStartNanos; //time the current interval started
+    private long intervalStartRhsEvaluations; //right-hand side evaluations when the current interval started
+    private long intervalStartSteps; //accepted and rejected steps when the current interval started
+
+    /** Constructor for empty solver statistics
+     *
+     * @author Ogechi
+     */
+    public SolverStatistics() {
+        this.histogram = new long[HISTOGRAM_MAX_EXPONENT - HISTOGRAM_MIN_EXPONENT + 2];
+    }
+
+    /** Copy constructor for solver statistics
+     *
+     * @param source statistics to copy
+     * @throws IllegalArgumentException if source is null
+     * @author Ogechi
+     */
+    public SolverStatistics(SolverStatistics source) {
+        if (source == null) throw new IllegalArgumentException("Error, copy of null SolverStatistics object");
+        this.rhsEvaluations = source.rhsEvaluations;
+        this.rhsNanos = source.rhsNanos;
+        this.acceptedSteps = source.acceptedSteps;
+        this.rejectedSteps = source.rejectedSteps;
+        this.minStepSize = source.minStepSize;
+        this.maxStepSize = source.maxStepSize;
+        this.histogram = source.histogram.clone();
+        this.intervals = source.intervals;
+        this.integrationNanos = source.integrationNanos;
+        this.maxIntervalRhsEvaluations = source.maxIntervalRhsEvaluations;
+        this.maxIntervalSteps = source.maxIntervalSteps;
+        this.intervalStartNanos = source.intervalStartNanos;
+        this.intervalStartRhsEvaluations = source.intervalStartRhsEvaluations;
+        this.intervalStartSteps = source.intervalStartSteps;
+    }
+
+    /** Clone method to call the copy constructor
+     *
+     * @return a copy of the statistics
+     * @author Ogechi
+     */
+    public SolverStatistics clone() {
+        return new SolverStatistics(this);
+    }
+
+    /** Records one right-hand side evaluation
+     *
+     * @param nanos time the evaluation took in nanoseconds
+     * @author Ogechi
+     */
+    public void recordRhsEvaluation(long nanos) {
+        this.rhsEvaluations++;
+        this.rhsNanos += nanos;
+    }
+
+    /** Records one accepted step
+     *
+     * @param stepSize h of the step
+     * @author Ogechi
+     */
+    public void recordAcceptedStep(double stepSize) {
+        this.acceptedSteps++;
+        this.minStepSize = Math.min(this.minStepSize, stepSize);
+        this.maxStepSize = Math.max(this.maxStepSize, stepSize);
+        int bin = (int) Math.floor(Math.log10(stepSize)) - HISTOGRAM_MIN_EXPONENT + 1;
+        this.histogram[Math.max(0, Math.min(this.histogram.length - 1, bin))]++;
+    }
+
+    /** Records one rejected trial step
+     *
+     * @param stepSize h of the rejected trial step
+     * @author Ogechi
+     */
+    public void recordRejectedStep(double stepSize) {
+        this.rejectedSteps++;
+    }
+
+    /** Starts an interval, called before each call to integrate
+     *
+     * @author Ogechi
+     */
+    public void startInterval() {
+        this.intervalStartRhsEvaluations = this.rhsEvaluations;
+        this.intervalStartSteps = this.acceptedSteps + this.rejectedSteps;
+        this.intervalStartNanos = System.nanoTime();
+    }
+
+    /** Ends the interval started last, called after each call to integrate
+     *
+     * @author Ogechi
+     */
+    public void endInterval() {
+        this.integrationNanos += System.nanoTime() - this.intervalStartNanos;
+        this.intervals++;
+        this.maxIntervalRhsEvaluations = Math.max(this.maxIntervalRhsEvaluations, this.rhsEvaluations - this.intervalStartRhsEvaluations);
+        this.maxIntervalSteps = Math.max(this.maxIntervalSteps, this.acceptedSteps + this.rejectedSteps - this.intervalStartSteps);
+    }
+
+    /** Accessor method for the right-hand side evaluations
+     *
+     * @return right-hand side evaluations recorded
+     * @author Ogechi
+     */
+    public long getRhsEvaluations() {
+        return this.rhsEvaluations;
+    }
+
+    /** Accessor method for the accepted steps
+     *
+     * @return accepted steps recorded
+     * @author Ogechi
+     */
+    public long getAcceptedSteps() {
+        return this.acceptedSteps;
+    }
+
+    /** Accessor method for the rejected steps
+     *
+     * @return rejected trial steps recorded
+     * @author Ogechi
+     */
+    public long getRejectedSteps() {
+        return this.rejectedSteps;
+    }
+
+    /** Accessor method for the smallest step size
+     *
+     * @return smallest accepted step size, positive infinity if no step was accepted
+     * @author Ogechi
+     */
+    public double getMinStepSize() {
+        return this.minStepSize;
+    }
+
+    /** Accessor method for the largest step size
+     *
+     * @return largest accepted step size, 0 if no step was accepted
+     * @author Ogechi
+     */
+    public double getMaxStepSize() {
+        return this.maxStepSize;
+    }
+
+    /** Accessor method for the step size histogram
+     *
+     * @return copy of the accepted steps per bin, bin i counts step sizes from getHistogramLowerBound(i) up to getHistogramLowerBound(i + 1)
+     * @author Ogechi
+     */
+    public long[] getHistogram() {
+        return this.histogram.clone();
+    }
+
+    /** Returns the smallest step size counted in a histogram bin
+     *
+     * @param bin index of the bin
+     * @return lower bound of the bin, 0 for the underflow bin
+     * @throws IllegalArgumentException if bin is not a bin of the histogram
+     * @author Ogechi
+     */
+    public static double getHistogramLowerBound(int bin) {
+        if (bin < 0 || bin > HISTOGRAM_MAX_EXPONENT - HISTOGRAM_MIN_EXPONENT + 1) throw new IllegalArgumentException("Error, no histogram bin " + bin);
+        return bin == 0 ? 0 : Math.pow(10, HISTOGRAM_MIN_EXPONENT + bin - 1);
+    }
+
+    /** Accessor method for the time spent in the right-hand side
+     *
+     * @return nanoseconds spent evaluating the right-hand side
+     * @author Ogechi
+     */
+    public long getRhsNanos() {
+        return this.rhsNanos;
+    }
+
+    /** Returns the time spent integrating outside the right-hand side
+     *
+     * @return nanoseconds spent in calls to integrate minus the nanoseconds spent in the right-hand side
+     * @author Ogechi
+     */
+    public long getBookkeepingNanos() {
+        return this.integrationNanos - this.rhsNanos;
+    }
+
+    /** Accessor method for the intervals
+     *
+     * @return calls to integrate recorded, one per control interval of a controlled run
+     * @author Ogechi
+     */
+    public long getIntervals() {
+        return this.intervals;
+    }
+
+    /** Returns the mean work per interval
+     *
+     * @return right-hand side evaluations divided by the intervals, 0 if there was none
+     * @author Ogechi
+     */
+    public double getMeanRhsEvaluationsPerInterval() {
+        return this.intervals == 0 ? 0 : (double) this.rhsEvaluations / this.intervals;
+    }
+
+    /** Accessor method for the largest work in one interval
+     *
+     * @return most right-hand side evaluations in one interval
+     * @author Ogechi
+     */
+    public long getMaxIntervalRhsEvaluations() {
+        return this.maxIntervalRhsEvaluations;
+    }
+
+    /** Accessor method for the most steps in one interval
+     *
+     * @return most accepted and rejected steps in one interval
+     * @author Ogechi
+     */
+    public long getMaxIntervalSteps() {
+        return this.maxIntervalSteps;
+    }
+
+    /** Returns the labels of the values, used as names of the statistics in files
+     *
+     * @return labels in the order of getValues()
+     * @author Ogechi
+     */
+    public static String[] getLabels() {
+        return LABELS.clone();
+    }
+
+    /** Returns the statistics other than the histogram as an array
+     *
+     * @return values in the order of getLabels(), times in milliseconds
+     * @author Ogechi
+     */
+    public double[] getValues() {
+        return new double[]{this.rhsEvaluations, this.acceptedSteps, this.rejectedSteps, this.minStepSize, this.maxStepSize,
+                this.rhsNanos / 1e6, getBookkeepingNanos() / 1e6, this.intervals, getMeanRhsEvaluationsPerInterval(),
+                this.maxIntervalRhsEvaluations, this.maxIntervalSteps};
+    }
+
+    /** Writes the statistics to a CSV file of "statistic, value" lines followed by one line per histogram bin
+     *
+     * @param filePath path of the file to create or overwrite
+     * @throws IllegalArgumentException if file path is null
+     * @throws RuntimeException if the file cannot be written
+     * @author Ogechi
+     */
+    public void writeCsv(String filePath) {
+        if (filePath == null) throw new IllegalArgumentException("File path cannot be null");
+        double[] values = getValues();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath, StandardCharsets.UTF_8))) {
+            writer.write("statistic, value");
+            writer.newLine();
+            for (int i = 0; i < LABELS.length; i++) {
+                writer.write(LABELS[i] + ", " + formatValue(values[i]));
+                writer.newLine();
+            }
+            for (int i = 0; i < this.histogram.length; i++) {
+                writer.write("steps with h from " + getHistogramLowerBound(i) + ", " + this.histogram[i]);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Writes the statistics to a JSON file with one member per statistic and the histogram as an array of bins
+     *
+     * @param filePath path of the file to create or overwrite
+     * @throws IllegalArgumentException if file path is null
+     * @throws RuntimeException if the file cannot be written
+     * @author Ogechi
+     */
+    public void writeJson(String filePath) {
+        if (filePath == null) throw new IllegalArgumentException("File path cannot be null");
+        double[] values = getValues();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath, StandardCharsets.UTF_8))) {
+            writer.write("{");
+            writer.newLine();
+            for (int i = 0; i < LABELS.length; i++) {
+                //JSON has no infinity, a run without steps has no smallest step size
+                String value = Double.isInfinite(values[i]) ? "null" : formatValue(values[i]);
+                writer.write("  \"" + LABELS[i] + "\": " + value + ",");
+                writer.newLine();
+            }
+            writer.write("  \"histogram\": [");
+            writer.newLine();
+            for (int i = 0; i < this.histogram.length; i++) {
+                writer.write("    {\"lower bound\": " + getHistogramLowerBound(i) + ", \"steps\": " + this.histogram[i] + "}" + (i < this.histogram.length - 1 ? "," : ""));
+                writer.newLine();
+            }
+            writer.write("  ]");
+            writer.newLine();
+            writer.write("}");
+            writer.newLine();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Helper method to write counts without a fraction
+     *
+     * @param value value to write
+     * @return value as an integer if it is whole, otherwise as a double
+     * @author Ogechi
+     */
+    private static String formatValue(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    /** Writes the statistics to a JSON file if the path ends with .json, otherwise to a CSV file
+     *
+     * @param filePath path of the file to create or overwrite
+     * @throws IllegalArgumentException if file path is null
+     * @throws RuntimeException if the file cannot be written
+     * @author Ogechi
+     */
+    public void write(String filePath) {
+        if (filePath == null) throw new IllegalArgumentException("File path cannot be null");
+        if (filePath.toLowerCase().endsWith(".json")) writeJson(filePath);
+        else writeCsv(filePath);
+    }
+
+    /** Commits the statistics as a JFR event, which costs nothing beyond the check when no recording has the event enabled
+     *
+     * @param solverType solver the statistics were collected for
+     * @author Ogechi
+     */
+    public void commitEvent(OdeSolver.SOLVER_TYPE solverType) {
+        SolverStatisticsEvent event = new SolverStatisticsEvent();
+        if (!event.isEnabled()) return;
+        event.solverType = String.valueOf(solverType);
+        event.rhsEvaluations = this.rhsEvaluations;
+        event.acceptedSteps = this.acceptedSteps;
+        event.rejectedSteps = this.rejectedSteps;
+        event.minStepSize = this.minStepSize;
+        event.maxStepSize = this.maxStepSize;
+        event.rhsNanos = this.rhsNanos;
+        event.bookkeepingNanos = getBookkeepingNanos();
+        event.intervals = this.intervals;
+        event.maxIntervalRhsEvaluations = this.maxIntervalRhsEvaluations;
+        event.maxIntervalSteps = this.maxIntervalSteps;
+        event.commit();
+    }
+}
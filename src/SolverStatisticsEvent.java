@@ -0,0 +1,52 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/** JFR event holding the solver statistics of one simulation, committed by SolverStatistics at the end of a simulation
+ * Record with -XX:StartFlightRecording and read the events named cstr.SolverStatistics with jfr print or JDK Mission Control.
+ * @author Ogechi
+ * @author Dylan
+ */
+@Name("cstr.SolverStatistics")
+@Label("Solver Statistics")
+@Category({"CSTR", "Solver"})
+@Description("Work done by the solver of a reactor during one simulation")
+public class SolverStatisticsEvent extends jdk.jfr.Event {
+
+    @Label("Solver Type")
+    String solverType; //solver the statistics were collected for
+
+    @Label("RHS Evaluations")
+    long rhsEvaluations; //right-hand side evaluations
+
+    @Label("Accepted Steps")
+    long acceptedSteps; //accepted steps
+
+    @Label("Rejected Steps")
+    long rejectedSteps; //rejected trial steps
+
+    @Label("Min Step Size")
+    double minStepSize; //smallest accepted step size
+
+    @Label("Max Step Size")
+    double maxStepSize; //largest accepted step size
+
+    @Label("RHS Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long rhsNanos; //time spent in the right-hand side
+
+    @Label("Bookkeeping Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long bookkeepingNanos; //time spent integrating outside the right-hand side
+
+    @Label("Intervals")
+    long intervals; //calls to integrate
+
+    @Label("Max RHS Evaluations Per Interval")
+    long maxIntervalRhsEvaluations; //most right-hand side evaluations in one interval
+
+    @Label("Max Steps Per Interval")
+    long maxIntervalSteps; //most accepted and rejected steps in one interval
+}
@@ -0,0 +1,26 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event marking a switch of StiffnessSwitchingSolver between the explicit and the implicit method
+ * @author Ogechi
+ * @author Dylan
+ */
+@Name("cstr.StiffnessSwitch")
+@Label("Stiffness Switch")
+@Category({"CSTR", "Solver"})
+@Description("A switch of the AUTO solver between Dormand-Prince and Rosenbrock as the stiffness of the problem changes")
+public class StiffnessSwitchEvent extends jdk.jfr.Event {
+
+    @Label("Simulated Time")
+    double time; //simulated time of the switch
+
+    @Label("Stiff")
+    @Description("True for a switch to Rosenbrock, false for a switch back to Dormand-Prince")
+    boolean stiff; //true if the implicit method takes over
+
+    @Label("Step Size")
+    @Description("Step size h the method taking over starts with")
+    double stepSize; //first step size of the method taking over
+}
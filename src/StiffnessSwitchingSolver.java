@@ -0,0 +1,215 @@
+import java.util.Arrays;
+
+/** ODE Solver Class that switches between an explicit and an implicit method as the problem changes, in the style of LSODA
+ * Integration starts with Dormand-Prince, which checks every accepted step for a step size limited by stability.
+ * Once the problem is stiff the integration continues with the Rosenbrock method from the same point, and it switches back
+ * when h times the Jacobian norm shows the explicit method would be stable with the step size accuracy allows.
+ * The method in use and the detection history are kept across calls to integrate, so a reactor that is pushed into a
+ * stiff regime by a disturbance in the middle of a run switches there and keeps the implicit method for the following time steps.
+ * Every switch is recorded with the time it happened at, see getSwitchTimes, and reported as a cstr.StiffnessSwitch flight recorder
+ * event. It is printed only if asked for with setLogSwitches, Driver logs the switches of a run once it has finished instead.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class StiffnessSwitchingSolver implements OdeSolver {
+
+    public static final int MAX_RECORDED_SWITCHES = 1024; //switch times kept, a run switching more often only counts the later switches
+    private final DormandPrince explicitSolver; //solver for the non-stiff parts of the run
+    private final Rosenbrock implicitSolver; //solver for the stiff parts of the run
+    private boolean isStiff; //true while the implicit solver is in use
+    private boolean logSwitches; //true to print every switch, false by default since solvers run on worker threads
+    private double[] switchTimes; //times at which the method was switched, in order, in the first recorded entries
+    private int switchCount; //number of switches since the solver was created, recorded or not
+
+    /** Constructor for a switching integrator with workspaces sized for the given system
+     *
+     * @param dimension number of dependent variables in the systems to be solved
+     * @throws IllegalArgumentException if dimension is not greater than 0
+     * @author Ogechi
+     */
+    public StiffnessSwitchingSolver(int dimension) {
+        this.explicitSolver = new DormandPrince(dimension);
+        this.implicitSolver = new Rosenbrock(dimension);
+        this.switchTimes = new double[8];
+    }
+
+    /** Accessor method for the dimension of the workspace
+     *
+     * @return number of dependent variables this integrator is sized for
+     * @author Ogechi
+     */
+    public int getDimension() {
+        return this.explicitSolver.getDimension();
+    }
+
+    /** Returns true while the implicit method is in use
+     *
+     * @return true if the problem is currently treated as stiff
+     * @author Ogechi
+     */
+    public boolean getIsStiff() {
+        return this.isStiff;
+    }
+
+    /** Accessor method for the times at which the method was switched
+     *
+     * @return times of the first MAX_RECORDED_SWITCHES switches in order, even entries are switches to the implicit method
+     *         and odd entries back to the explicit one
+     * @author Ogechi
+     */
+    public double[] getSwitchTimes() {
+        return Arrays.copyOf(this.switchTimes, Math.min(this.switchCount, MAX_RECORDED_SWITCHES));
+    }
+
+    /** Accessor method for the number of switches
+     *
+     * @return number of switches since the solver was created, including those past MAX_RECORDED_SWITCHES
+     * @author Ogechi
+     */
+    public int getSwitchCount() {
+        return this.switchCount;
+    }
+
+    /** Accessor method for whether switches are printed
+     *
+     * @return true if every switch is printed, false by default
+     * @author Ogechi
+     */
+    public boolean getLogSwitches() {
+        return this.logSwitches;
+    }
+
+    /** Mutator method for whether switches are printed, switch times are recorded either way
+     *
+     * @param logSwitches true to print every switch
+     * @return true
+     * @author Ogechi
+     */
+    public boolean setLogSwitches(boolean logSwitches) {
+        this.logSwitches = logSwitches;
+        return true;
+    }
+
+    /** Accessor method for the step size used by the last accepted step of the method in use
+     *
+     * @return h of the last accepted step
+     * @author Ogechi
+     */
+    public double getStepSize() {
+        return this.isStiff ? this.implicitSolver.getStepSize() : this.explicitSolver.getStepSize();
+    }
+
+    /** Mutator method for the largest step size the solvers may take
+     *
+     * @param maxStepSize upper bound on h which must be greater than 0, positive infinity for no bound
+     * @return true if updated and false if not
+     * @author Ogechi
+     */
+    public boolean setMaxStepSize(double maxStepSize) {
+        if (!(maxStepSize > 0)) return false;
+        this.explicitSolver.setMaxStepSize(maxStepSize);
+        this.implicitSolver.setMaxStepSize(maxStepSize);
+        return true;
+    }
+
+    /** Mutator method for the statistics both solvers record their steps in
+     *
+     * @param statistics statistics receiving every accepted and rejected step, or null to record nothing
+     * @author Ogechi
+     */
+    public void setStatistics(SolverStatistics statistics) {
+        this.explicitSolver.setStatistics(statistics);
+        this.implicitSolver.setStatistics(statistics);
+    }
+
+    /** Forgets the history of both solvers and starts the next call to integrate with the explicit method again
+     * The recorded switch times are kept.
+     *
+     * @author Ogechi
+     */
+    public void reset() {
+        this.explicitSolver.reset();
+        this.implicitSolver.reset();
+        this.isStiff = false;
+    }
+
+    /** Helper method to switch to the other method at the given time
+     * The solver taking over starts cold except for its first step, which is the step size the other solver would have taken.
+     *
+     * @param time time of the switch
+     * @author Ogechi
+     */
+    private void switchMethod(double time) {
+        double warmStepSize = this.isStiff ? this.implicitSolver.getNextStepSize() : this.explicitSolver.getNextStepSize();
+        if (this.isStiff) {
+            this.explicitSolver.reset();
+            this.explicitSolver.setWarmStepSize(warmStepSize);
+        } else {
+            this.implicitSolver.reset();
+            this.implicitSolver.setWarmStepSize(warmStepSize);
+        }
+        this.isStiff = !this.isStiff;
+        if (this.switchCount < MAX_RECORDED_SWITCHES) {
+            if (this.switchCount == this.switchTimes.length) this.switchTimes = Arrays.copyOf(this.switchTimes, 2 * this.switchCount);
+            this.switchTimes[this.switchCount] = time;
+        }
+        this.switchCount++;
+        StiffnessSwitchEvent event = new StiffnessSwitchEvent();
+        if (event.shouldCommit()) {
+            event.time = time;
+            event.stiff = this.isStiff;
+            event.stepSize = warmStepSize;
+            event.commit();
+        }
+        if (this.logSwitches) {
+            System.out.println("Switched to " + (this.isStiff ? "Rosenbrock (stiff)" : "Dormand-Prince (non-stiff)") + " at t = " + time);
+        }
+    }
+
+    /**Integrates a system of ordinary differential equations in place, switching methods where the stiffness changes.
+     *
+     * @param t0 Initial Time
+     * @param y Values of the dependent variables at t0, replaced by the values at endTime
+     * @param endTime End time for the integration
+     * @param system System of differential equations evaluated for all components at once
+     * @param tolerance Tolerance used as absolute and relative tolerance
+     * @throws IllegalArgumentException if y does not match the dimension of the integrator
+     * @author Ogechi
+     */
+    public void integrate(double t0, double[] y, double endTime, OdeSystem system, double tolerance) {
+        integrate(t0, y, endTime, system, tolerance, 0, null);
+    }
+
+    /**Integrates a system of ordinary differential equations in place, switching methods where the stiffness changes,
+     * and sends the solution at t0 + k*outputStep to the listener. Output times continue across switches.
+     *
+     * @param t0 Initial Time
+     * @param y Values of the dependent variables at t0, replaced by the values at endTime
+     * @param endTime End time for the integration
+     * @param system System of differential equations evaluated for all components at once
+     * @param tolerance Tolerance used as absolute and relative tolerance
+     * @param outputStep spacing of the output times after t0, ignored if listener is null
+     * @param listener listener receiving the solution at each output time up to endTime, or null for no dense output
+     * @throws IllegalArgumentException if y does not match the dimension of the integrator or outputStep is not greater than 0
+     * @author Ogechi
+     */
+    public void integrate(double t0, double[] y, double endTime, OdeSystem system, double tolerance, double outputStep, DenseOutputListener listener) {
+        if (y.length!=this.getDimension()) throw new IllegalArgumentException("Initial values do not match the solver dimension");
+        if (listener!=null && !(outputStep > 0)) throw new IllegalArgumentException("Output step must be greater than 0");
+
+        double currentTime = t0;
+        int outputIndex = 1;
+        while (currentTime < endTime) {
+            //a switch detected at the end of the previous call is made before the first step of this one
+            if (this.isStiff ? this.implicitSolver.isNonStiff() : this.explicitSolver.isStiff()) switchMethod(currentTime);
+
+            if (this.isStiff) {
+                outputIndex = this.implicitSolver.integrate(currentTime, y, endTime, system, tolerance, t0, outputStep, outputIndex, listener, true);
+                currentTime = this.implicitSolver.getCurrentTime();
+            } else {
+                outputIndex = this.explicitSolver.integrate(currentTime, y, endTime, system, tolerance, t0, outputStep, outputIndex, listener, true);
+                currentTime = this.explicitSolver.getCurrentTime();
+            }
+        }
+    }
+}
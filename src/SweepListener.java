@@ -0,0 +1,14 @@
+/** Interface for classes following the progress of a ParameterSweep
+ * @author Ogechi
+ */
+public interface SweepListener {
+    /** Receives the result of a run as soon as it has ended. Calls come from the worker threads but never at the same time,
+     * so an implementation needs no locking of its own, and it should return quickly since other runs wait to report.
+     *
+     * @param result result of the run that ended
+     * @param finishedRuns number of runs ended so far, this one included
+     * @param totalRuns number of runs in the sweep
+     * @author Ogechi
+     */
+    void runFinished(SweepResult result, int finishedRuns, int totalRuns);
+}
@@ -0,0 +1,118 @@
+/** Summary of one run of a ParameterSweep, written as one row of the results table
+ * Only the final row and the performance metrics of the run are kept, so a sweep of any size holds a few values per run in memory.
+ * @author Ogechi
+ * @author Dylan
+ */
+public class SweepResult {
+
+    public enum STATUS {
+        COMPLETED, CANCELLED, FAILED
+    } //how the run ended
+
+    private final int runIndex; //index of the run in the sweep
+    private final double[] parameterValues; //values of the swept parameters, in the order of the sweep
+    private final STATUS status; //how the run ended
+    private final String message; //reason the run failed, null otherwise
+    private final double wallTime; //wall time of the run in milliseconds, 0 if it never started
+    private final int rowCount; //rows produced before the run ended
+    private final double[] finalRow; //last row produced, empty if there was none
+    private final PerformanceMetrics metrics; //performance of the completed run, null if it did not complete
+
+    /** Constructor for a sweep result
+     *
+     * @param runIndex index of the run in the sweep
+     * @param parameterValues values of the swept parameters, copied
+     * @param status how the run ended
+     * @param message reason the run failed, or null
+     * @param wallTime wall time of the run in milliseconds
+     * @param rowCount rows produced before the run ended
+     * @param finalRow last row produced, copied, or null if there was none
+     * @param metrics performance of the run, or null if it did not complete
+     * @throws IllegalArgumentException if parameter values or status is null
+     * @author Ogechi
+     */
+    public SweepResult(int runIndex, double[] parameterValues, STATUS status, String message, double wallTime, int rowCount, double[] finalRow, PerformanceMetrics metrics) {
+        if (parameterValues == null) throw new IllegalArgumentException("Parameter values cannot be null");
+        if (status == null) throw new IllegalArgumentException("Status cannot be null");
+        this.runIndex = runIndex;
+        this.parameterValues = parameterValues.clone();
+        this.status = status;
+        this.message = message;
+        this.wallTime = wallTime;
+        this.rowCount = rowCount;
+        this.finalRow = finalRow == null ? new double[0] : finalRow.clone();
+        this.metrics = metrics;
+    }
+
+    /** Accessor method for the run index
+     *
+     * @return index of the run in the sweep
+     * @author Ogechi
+     */
+    public int getRunIndex() {
+        return this.runIndex;
+    }
+
+    /** Accessor method for the parameter values
+     *
+     * @return copy of the values of the swept parameters, in the order of the sweep
+     * @author Ogechi
+     */
+    public double[] getParameterValues() {
+        return this.parameterValues.clone();
+    }
+
+    /** Accessor method for the status
+     *
+     * @return how the run ended
+     * @author Ogechi
+     */
+    public STATUS getStatus() {
+        return this.status;
+    }
+
+    /** Accessor method for the failure message
+     *
+     * @return reason the run failed, or null if it did not fail
+     * @author Ogechi
+     */
+    public String getMessage() {
+        return this.message;
+    }
+
+    /** Accessor method for the wall time
+     *
+     * @return wall time of the run in milliseconds
+     * @author Ogechi
+     */
+    public double getWallTime() {
+        return this.wallTime;
+    }
+
+    /** Accessor method for the row count
+     *
+     * @return rows produced before the run ended
+     * @author Ogechi
+     */
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /** Accessor method for the final row
+     *
+     * @return copy of the last row produced, in the layout of PIDController.simulate(), empty if there was none
+     * @author Ogechi
+     */
+    public double[] getFinalRow() {
+        return this.finalRow.clone();
+    }
+
+    /** Accessor method for the performance metrics
+     *
+     * @return performance of the run measured while it ran, null if it did not complete
+     * @author Ogechi
+     */
+    public PerformanceMetrics getMetrics() {
+        return this.metrics;
+    }
+}
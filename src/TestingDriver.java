@@ -22,6 +22,42 @@ public class TestingDriver {
         //testSpecies();
         //un-comment next line to test the PID controller class
         //testPIDController();
+        //un-comment next line to test that the RK45 step loop does not allocate
+        //testRK45Allocation();
+        //un-comment next line to test that concurrent simulations match single-threaded ones
+        //testConcurrentSimulation();
+        //un-comment next line to test the reaction network class
+        //testReactionNetwork();
+        //un-comment next line to test that the reactor mol balances read state without copying
+        //testReactorRhsAllocation();
+        //un-comment next line to test the ring buffer used for the dead time and disturbance queues
+        //testDoubleRingBuffer();
+        //un-comment next line to test the sinks streaming simulation results
+        //testSimulationSinks();
+        //un-comment next line to test the buffered CSV result writer
+        //testCsvResultWriter();
+        //un-comment next line to test the columnar result file and its conversion to and from CSV
+        //testColumnarResultFile();
+        //un-comment next line to test the compressed result files in lossless and bounded error mode
+        //testCompressedResults();
+        //un-comment next line to test the parallel parameter sweep, its results table and its cancellation
+        //testParameterSweep();
+        //un-comment next line to test the PID tuner and its constraints
+        //testPIDTuner();
+        //un-comment next line to test the closed-loop performance metrics measured while simulating
+        //testPerformanceMetrics();
+        //un-comment next line to test the steady state detection filling the end of steady runs
+        //testSteadyStateDetection();
+        //un-comment next line to test the golden result comparison and the evaluation count of the regression driver
+        //testRegressionHarness();
+        //un-comment next line to test the solver statistics and their CSV and JSON files
+        //testSolverStatistics();
+        //un-comment next line to test the flight recorder events of the simulation phases
+        //testFlightRecorderEvents();
+        //un-comment next line to test running a directory of input files at the same time with the batch driver
+        //testBatchDriver();
+        //un-comment next line to test the stiffness switching solver on a rate constant that jumps and falls back
+        //testStiffnessSwitchingSolver();
 
 
 
@@ -589,6 +625,1227 @@ public class TestingDriver {
 
     } //end of PID controller checks
 
+    /** Static method to test that repeated RK45 integrations on one instance allocate zero bytes once warmed up
+     * Uses the per-thread allocation counter of the HotSpot ThreadMXBean
+     * @author Ogechi
+     */
+    public static void testRK45Allocation() {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        OdeSystem system = (t, y, dydt) -> {
+            dydt[0] = -0.25 * y[0];
+            dydt[1] = 0.25 * y[0] - 0.1 * y[1];
+        };
+        RK45 solver = new RK45(2);
+        double[] y = {1, 0};
+        int intervals = 20000;
+
+        //warm up so the step loop is compiled before measuring
+        for (int i = 0; i < intervals; i++) {
+            solver.integrate(i * 0.05, y, (i + 1) * 0.05, system, 0.01);
+        }
+
+        y[0] = 1;
+        y[1] = 0;
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < intervals; i++) {
+            solver.integrate(i * 0.05, y, (i + 1) * 0.05, system, 0.01);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        System.out.println("RK45 allocation test, bytes allocated over " + intervals + " intervals (expected 0)");
+        System.out.println(allocated);
+        System.out.println(allocated == 0);
+    } //end of RK45 allocation checks
+
+    /** Static method to stress test SimulationExecutor against single-threaded simulations of the same controllers
+     * Results must match bit for bit
+     * @author Ogechi
+     */
+    public static void testConcurrentSimulation() {
+        int jobs = 64;
+        PIDController[] controllers = new PIDController[jobs];
+
+        try { //checked exception so this is needed
+            for (int j = 0; j < jobs; j++) {
+                Reaction reaction = new Reaction("A->B", 0.2);
+                CSTRReactor CSTR = new CSTRReactor(1, 0.05, reaction, new double[]{0.04, 0.16}, new double[]{0.2, 0}, 0, true);
+                Queue<double[]> disturbances = new Queue<>();
+                disturbances.enqueue(new double[]{0, 1.2});
+                //vary the gain so the jobs are not all identical
+                controllers[j] = new PIDController(-0.05, 100, 0.05, 5 + 0.1 * j, 1.807836, 0.27027, PIDController.CONTROLLER_TYPE.PID, 0.75, CSTR, 0.01, disturbances, 0.04);
+            }
+        } catch (CloneNotSupportedException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+
+        double[][][] expected = new double[jobs][][];
+        for (int j = 0; j < jobs; j++) {
+            expected[j] = controllers[j].clone().simulate();
+        }
+
+        System.out.println("Concurrent simulation test, results equal to single-threaded results (expected true)");
+        boolean equal = true;
+        //at least 4 workers so jobs interleave even on machines with few cores
+        try (SimulationExecutor executor = new SimulationExecutor(Math.max(4, Runtime.getRuntime().availableProcessors()))) {
+            for (int repeat = 0; repeat < 5; repeat++) {
+                double[][][] actual = executor.simulateAll(controllers);
+                for (int j = 0; j < jobs; j++) {
+                    if (!java.util.Arrays.deepEquals(expected[j], actual[j])) equal = false;
+                }
+            }
+        }
+        System.out.println(equal);
+    } //end of concurrent simulation checks
+
+    /** Static method to test methods in the ReactionNetwork Class
+     * Rates and Jacobian are compared with the single reaction kernels, and a one reaction network with the single reaction CSTR
+     * @author Ogechi
+     */
+    public static void testReactionNetwork() {
+        String[] equations = {"A + 2 B -> C", "C -> A", "H2O + C -> 2 D + H2O"};
+        double[] k = {0.5, 0.2, 3};
+        ReactionNetwork network = new ReactionNetwork(equations, k);
+
+        System.out.println("Species and reaction counts (expected 5 and 3)");
+        System.out.println(network.getSpeciesCount() + " " + network.getReactionCount());
+        System.out.println("Species names in order of first appearance, digits in names are kept (expected [A, B, C, H2O, D])");
+        System.out.println(java.util.Arrays.toString(network.getSpeciesNames()));
+        System.out.println("Nonzeros of the stoichiometric matrix, H2O is on both sides so it cancels (expected 7)");
+        System.out.println(network.getNonZeroCount());
+        System.out.println("Stoichiometric matrix");
+        System.out.println(java.util.Arrays.deepToString(network.getStoichiometricMatrix()));
+
+        //expected rates of change from the rate laws written out by hand
+        double[] c = {0.3, 0.7, 1.1, 55.5, 0.01};
+        double r1 = 0.5 * c[0] * c[1] * c[1];
+        double r2 = 0.2 * c[2];
+        double r3 = 3 * c[3] * c[2];
+        double[] expected = {-r1 + r2, -2 * r1, r1 - r2 - r3, 0, 2 * r3};
+        double[] dcdt = new double[5];
+        network.addSpeciesRates(c, dcdt);
+        double maxDifference = 0;
+        for (int i = 0; i < 5; i++) {
+            maxDifference = Math.max(maxDifference, Math.abs(dcdt[i] - expected[i]));
+        }
+        System.out.println("Largest difference from the hand written rates (expected close to 0)");
+        System.out.println(maxDifference);
+
+        //Jacobian against central differences of the rates
+        double[][] jacobian = new double[5][5];
+        network.addJacobian(c, jacobian);
+        maxDifference = 0;
+        for (int j = 0; j < 5; j++) {
+            double delta = 1e-6;
+            double[] plus = c.clone();
+            double[] minus = c.clone();
+            plus[j] += delta;
+            minus[j] -= delta;
+            double[] dcdtPlus = new double[5];
+            double[] dcdtMinus = new double[5];
+            network.addSpeciesRates(plus, dcdtPlus);
+            network.addSpeciesRates(minus, dcdtMinus);
+            for (int i = 0; i < 5; i++) {
+                maxDifference = Math.max(maxDifference, Math.abs(jacobian[i][j] - (dcdtPlus[i] - dcdtMinus[i]) / (2 * delta)));
+            }
+        }
+        System.out.println("Largest difference of the Jacobian from central differences (expected close to 0)");
+        System.out.println(maxDifference);
+
+        try {
+            new ReactionNetwork(new String[]{"A -> B"}, new double[]{1, 2});
+            System.out.println("Failed to catch mismatched rate constants");
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+
+        //a network of one reaction must simulate exactly like the single reaction
+        try {
+            Reaction reaction = new Reaction("A->B", 0.2);
+            CSTRReactor single = new CSTRReactor(1, 0.05, reaction, new double[]{0.04, 0.16}, new double[]{0.2, 0}, 0, true);
+            CSTRReactor networked = new CSTRReactor(single);
+            System.out.println("Network with the wrong number of species is rejected (expected false)");
+            System.out.println(networked.setReactionNetwork(network));
+            networked.setReactionNetwork(new ReactionNetwork(new String[]{"A->B"}, new double[]{0.2}));
+            Queue<double[]> disturbances = new Queue<>();
+            disturbances.enqueue(new double[]{0, 1.2});
+            PIDController singlePID = new PIDController(-0.05, 100, 0.05, 9.4375, 1.807836, 0.27027, PIDController.CONTROLLER_TYPE.PID, 0.75, single, 0.01, disturbances, 0.04);
+            PIDController networkPID = new PIDController(-0.05, 100, 0.05, 9.4375, 1.807836, 0.27027, PIDController.CONTROLLER_TYPE.PID, 0.75, networked, 0.01, disturbances, 0.04);
+            System.out.println("One reaction network simulates like the single reaction (expected true)");
+            System.out.println(java.util.Arrays.deepEquals(singlePID.simulate(), networkPID.simulate()));
+        } catch (CloneNotSupportedException e) {
+            System.out.println(e.getMessage());
+        }
+    } //end of reaction network checks
+
+    /** Static method to test that the CSTR right-hand side and Jacobian allocate zero bytes, for a single reaction and a network
+     * Uses the per-thread allocation counter of the HotSpot ThreadMXBean
+     * @author Ogechi
+     */
+    public static void testReactorRhsAllocation() {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        CSTRReactor single = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0.04, 0.16}, new double[]{0.2, 0}, 0, true);
+        CSTRReactor networked = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0.04, 0.16, 0}, new double[]{0.2, 0, 0}, 0, true);
+        networked.setReactionNetwork(new ReactionNetwork(new String[]{"A -> B", "2 B -> C"}, new double[]{0.2, 5}));
+        double[] y = {0.04, 0.16, 0.01};
+        double[] dydt = new double[3];
+        double[][] dfdy = new double[3][3];
+        int evaluations = 1_000_000;
+
+        for (CSTRReactor reactor : new CSTRReactor[]{single, networked}) {
+            int n = reactor.getCurrentConcentrations().length;
+            double[] state = java.util.Arrays.copyOf(y, n);
+            double[] rates = java.util.Arrays.copyOf(dydt, n);
+            double[][] jacobian = java.util.Arrays.copyOf(dfdy, n);
+            //warm up so the calls are compiled before measuring
+            for (int i = 0; i < evaluations; i++) {
+                reactor.rhs(0, state, rates);
+                reactor.jacobian(0, state, jacobian);
+            }
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < evaluations; i++) {
+                reactor.rhs(0, state, rates);
+                reactor.jacobian(0, state, jacobian);
+            }
+            long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+            System.out.println("Reactor right-hand side allocation test with " + n + " species, bytes allocated over " + evaluations + " evaluations (expected 0)");
+            System.out.println(allocated);
+            System.out.println(allocated == 0);
+        }
+    } //end of reactor right-hand side allocation checks
+
+    /** Static method to test the DoubleRingBuffer class against a queue of pairs, across wrap around and growth of the arrays
+     * @author Ogechi
+     */
+    public static void testDoubleRingBuffer() {
+        DoubleRingBuffer buffer = new DoubleRingBuffer(3);
+        java.util.ArrayDeque<double[]> reference = new java.util.ArrayDeque<>();
+        System.out.println("Capacity is rounded up to a power of 2 (expected 4)");
+        System.out.println(buffer.getCapacity());
+
+        //interleave enqueues and dequeues so the front moves around the arrays before they grow
+        boolean matches = true;
+        for (int i = 0; i < 1000; i++) {
+            buffer.enqueue(i, 2.0 * i);
+            reference.addLast(new double[]{i, 2.0 * i});
+            if (i % 3 == 2) {
+                matches &= buffer.peekTime() == reference.peekFirst()[0] && buffer.peekValue() == reference.peekFirst()[1];
+                matches &= buffer.dequeue() == reference.pollFirst()[1];
+            }
+        }
+        matches &= buffer.size() == reference.size();
+        System.out.println("Pairs come out in the order they went in through wrap around and growth (expected true)");
+        System.out.println(matches);
+
+        DoubleRingBuffer copy = buffer.clone();
+        System.out.println("Clone is equal and independent (expected true true false)");
+        System.out.println(copy.equals(buffer));
+        copy.dequeue();
+        System.out.println(copy.size() == buffer.size() - 1);
+        System.out.println(copy.equals(buffer));
+
+        System.out.println("Buffers with the same pairs are equal and hash alike whatever their capacity (expected true true)");
+        DoubleRingBuffer small = new DoubleRingBuffer(1);
+        DoubleRingBuffer large = new DoubleRingBuffer(64);
+        for (int i = 0; i < 5; i++) {
+            small.enqueue(i, -i);
+            large.enqueue(i, -i);
+        }
+        System.out.println(small.equals(large) + " " + (small.hashCode() == large.hashCode()));
+
+        Queue<double[]> disturbances = new Queue<>();
+        disturbances.enqueue(new double[]{0, 1.2});
+        disturbances.enqueue(new double[]{50, 0.8});
+        DoubleRingBuffer converted = new DoubleRingBuffer(disturbances);
+        System.out.println("Queue of pairs is copied in order and left unchanged (expected 0.0 1.2 50.0 0.8 false)");
+        System.out.println(converted.peekTime() + " " + converted.dequeue() + " " + converted.peekTime() + " " + converted.dequeue());
+        System.out.println(disturbances.isEmpty());
+
+        System.out.println("Invalid pair is rejected (expected exception)");
+        Queue<double[]> invalid = new Queue<>();
+        invalid.enqueue(new double[]{1});
+        try {
+            new DoubleRingBuffer(invalid);
+            System.out.println("no exception");
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+
+        System.out.println("Peek at an empty buffer (expected exception)");
+        buffer.clear();
+        try {
+            buffer.peekTime();
+            System.out.println("no exception");
+        } catch (NullPointerException e) {
+            System.out.println(e.getMessage());
+        }
+
+        //once the arrays have grown to the pipeline length, the steady enqueue and dequeue of a dead time pipeline allocates nothing
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < 100; i++) {
+            buffer.enqueue(i, i);
+        }
+        double checksum = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            buffer.enqueue(i, i);
+            checksum += buffer.dequeue();
+        }
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1_000_000; i++) {
+            buffer.enqueue(i, i);
+            checksum += buffer.dequeue();
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        System.out.println("Ring buffer allocation test, bytes allocated over 1000000 enqueue and dequeue pairs (expected 0)");
+        System.out.println(allocated + " (checksum " + checksum + ")");
+    } //end of ring buffer checks
+
+    /** Static method to test the simulation sinks against the array returned by simulate(), for a controlled and an uncontrolled reactor
+     * @author Ogechi
+     */
+    public static void testSimulationSinks() {
+        try {
+            Queue<double[]> disturbances = new Queue<>();
+            disturbances.enqueue(new double[]{0, 1.2});
+            disturbances.enqueue(new double[]{40, 0.8});
+            CSTRReactor controlledCSTR = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0.04, 0.16}, new double[]{0.2, 0}, 0, true);
+            CSTRReactor uncontrolledCSTR = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0, 0}, new double[]{0, 0});
+            PIDController controlled = new PIDController(-0.05, 100, 0.05, 9.4375, 1.807836, 0.27027, PIDController.CONTROLLER_TYPE.PID, 0.75, controlledCSTR, 0.01, disturbances, 0.04);
+            PIDController uncontrolled = new PIDController(-0.05, 100, 0.05, 0, 0, 0, PIDController.CONTROLLER_TYPE.UNCONTROLLED, 0, uncontrolledCSTR, 0.01, disturbances, 0);
+
+            for (PIDController controller : new PIDController[]{controlled, uncontrolled}) {
+                String name = controller == controlled ? "controlled" : "uncontrolled";
+                double[][] expected = controller.clone().simulate();
+
+                InMemorySink memory = new InMemorySink();
+                controller.clone().simulate(memory);
+                System.out.println("In-memory sink matches simulate() for the " + name + " reactor (expected true)");
+                System.out.println(java.util.Arrays.deepEquals(expected, memory.getResults()) && memory.getRowsReceived() == expected.length);
+
+                java.io.File binaryFile = java.io.File.createTempFile("sink", ".bin");
+                controller.clone().simulate(new BinarySink(binaryFile.getPath()));
+                System.out.println("Binary sink reads back exactly for the " + name + " reactor (expected true)");
+                System.out.println(java.util.Arrays.deepEquals(expected, BinarySink.read(binaryFile.getPath())));
+                binaryFile.delete();
+
+                java.io.File csvFile = java.io.File.createTempFile("sink", ".csv");
+                controller.clone().simulate(new CsvSink(csvFile.getPath(), new String[]{"Time"}));
+                java.util.List<String> lines = java.nio.file.Files.readAllLines(csvFile.toPath());
+                boolean csvMatches = lines.size() == expected.length + 1 && lines.get(0).equals("Time,");
+                for (int i = 0; csvMatches && i < expected.length; i++) {
+                    String[] values = lines.get(i + 1).split(",");
+                    for (int j = 0; j < expected[i].length; j++) {
+                        csvMatches &= Double.parseDouble(values[j]) == expected[i][j];
+                    }
+                }
+                System.out.println("CSV sink reads back exactly for the " + name + " reactor (expected true)");
+                System.out.println(csvMatches);
+                csvFile.delete();
+
+                InMemorySink decimated = new InMemorySink();
+                controller.clone().simulate(new DecimatingSink(decimated, 7));
+                double[][] kept = decimated.getResults();
+                boolean decimatedMatches = kept.length == decimated.getRowsReceived() && kept[kept.length - 1][0] == expected[expected.length - 1][0];
+                for (int i = 0; i < kept.length - 1; i++) {
+                    decimatedMatches &= java.util.Arrays.equals(kept[i], expected[7 * i]);
+                }
+                System.out.println("Decimating sink keeps every 7th row and the last one of " + expected.length + " rows for the " + name + " reactor (expected " + ((expected.length - 1) / 7 + 2) + " true)");
+                System.out.println(kept.length + " " + decimatedMatches);
+            }
+
+            System.out.println("Null sink is rejected (expected exception)");
+            try {
+                controlled.clone().simulate((SimulationSink) null);
+                System.out.println("no exception");
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+            }
+
+            //a week at one second steps, streamed through a sink that keeps one row an hour, never holds the 604800 rows
+            CSTRReactor weekCSTR = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0, 0}, new double[]{0, 0});
+            PIDController week = new PIDController(-1, 604800, 1, 0, 0, 0, PIDController.CONTROLLER_TYPE.UNCONTROLLED, 0, weekCSTR, 0.01, disturbances, 0);
+            com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+            long threadId = Thread.currentThread().getId();
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            InMemorySink hourly = new InMemorySink();
+            week.clone().simulate(new DecimatingSink(hourly, 3600));
+            long streamed = threadBean.getThreadAllocatedBytes(threadId) - before;
+            before = threadBean.getThreadAllocatedBytes(threadId);
+            week.clone().simulate();
+            long materialized = threadBean.getThreadAllocatedBytes(threadId) - before;
+            System.out.println("Week long run, MB allocated streaming hourly rows and MB allocated for the full array (expected much less streaming)");
+            System.out.printf("%.2f %.2f%n", streamed / 1e6, materialized / 1e6);
+        } catch (CloneNotSupportedException | java.io.IOException e) {
+            System.out.println(e.getMessage());
+        }
+    } //end of simulation sink checks
+
+    /** Static method to test the CsvResultWriter class, its scientific formatting against printf and its parallel writing against sequential writing
+     * @author Ogechi
+     */
+    public static void testCsvResultWriter() {
+        java.util.Random random = new java.util.Random(42);
+        byte[] buffer = new byte[64];
+        int values = 0;
+        int roundedMatches = 0;
+        int layoutMatches = 0;
+        for (int i = 0; i < 200_000; i++) {
+            double value = (random.nextBoolean() ? 1 : -1) * random.nextDouble() * Math.pow(10, random.nextInt(80) - 40);
+            int precision = 1 + random.nextInt(CsvResultWriter.MAX_PRECISION);
+            String actual = new String(buffer, 0, CsvResultWriter.formatScientific(value, precision, buffer, 0), java.nio.charset.StandardCharsets.US_ASCII);
+            java.math.BigDecimal rounded = new java.math.BigDecimal(value).round(new java.math.MathContext(precision, java.math.RoundingMode.HALF_UP));
+            values++;
+            if (new java.math.BigDecimal(actual).compareTo(rounded) == 0) roundedMatches++;
+            //printf rounds the shortest decimal of the value again, so only compare the layout where that cannot change the digits
+            if (precision > 11 || actual.equals(String.format(java.util.Locale.ROOT, "%." + (precision - 1) + "e", value))) layoutMatches++;
+        }
+        System.out.println("Scientific formatting, values correctly rounded half up and values laid out like printf (expected " + values + " " + values + ")");
+        System.out.println(roundedMatches + " " + layoutMatches);
+
+        System.out.println("Special values (expected 0.00000e+00 -0.00000e+00 NaN -Infinity 1.00000e+01 4.94066e-324 1.79769e+308)");
+        StringBuilder special = new StringBuilder();
+        for (double value : new double[]{0.0, -0.0, Double.NaN, Double.NEGATIVE_INFINITY, 9.999996, Double.MIN_VALUE, Double.MAX_VALUE}) {
+            special.append(new String(buffer, 0, CsvResultWriter.formatScientific(value, 6, buffer, 0), java.nio.charset.StandardCharsets.US_ASCII)).append(' ');
+        }
+        System.out.println(special.toString().trim());
+
+        try {
+            double[][] rows = new double[10_000][6];
+            for (double[] row : rows) {
+                for (int j = 0; j < row.length; j++) row[j] = random.nextGaussian() * Math.pow(10, random.nextInt(10) - 5);
+            }
+            String[] header = {"Time", "CA", "CB"};
+            int[] columns = {0, 2, 1};
+            java.io.File sequential = java.io.File.createTempFile("writer", ".csv");
+            java.io.File parallel = java.io.File.createTempFile("writer", ".csv");
+            for (int precision : new int[]{CsvResultWriter.EXACT, 6}) {
+                long sequentialBytes = CsvResultWriter.writeAll(sequential.getPath(), header, rows, columns, precision, 1);
+                long parallelBytes = CsvResultWriter.writeAll(parallel.getPath(), header, rows, columns, precision, 4);
+                System.out.println("Parallel writing matches sequential writing with precision " + precision + " (expected true true)");
+                System.out.println(java.util.Arrays.equals(java.nio.file.Files.readAllBytes(sequential.toPath()), java.nio.file.Files.readAllBytes(parallel.toPath())) + " " + (sequentialBytes == parallelBytes && sequentialBytes == sequential.length()));
+            }
+
+            java.util.List<String> lines = java.nio.file.Files.readAllLines(sequential.toPath());
+            String[] first = lines.get(1).split(",");
+            System.out.println("Selected columns are written in the given order (expected Time,CA,CB, and 3 values matching columns 0 2 1)");
+            System.out.println(lines.get(0) + " " + first.length + " " + (Math.abs(Double.parseDouble(first[1]) - rows[0][2]) <= 1e-5 * Math.abs(rows[0][2])));
+
+            CsvResultWriter.writeAll(sequential.getPath(), null, rows, null, CsvResultWriter.EXACT, 1);
+            lines = java.nio.file.Files.readAllLines(sequential.toPath());
+            boolean exact = true;
+            for (int i = 0; i < rows.length; i++) {
+                String[] line = lines.get(i).split(",");
+                for (int j = 0; j < rows[i].length; j++) exact &= Double.parseDouble(line[j]) == rows[i][j];
+            }
+            System.out.println("Exact values read back to the same doubles (expected true)");
+            System.out.println(exact);
+            sequential.delete();
+            parallel.delete();
+        } catch (java.io.IOException e) {
+            System.out.println(e.getMessage());
+        }
+
+        System.out.println("Invalid precision (expected exception)");
+        try {
+            new CsvSink("unused", new String[]{"Time"}, null, 18);
+            System.out.println("no exception");
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+    } //end of CSV result writer checks
+
+    /** Static method to test the ColumnarSink and ColumnarResultFile classes against the array returned by simulate() and against CSV files
+     * @author Ogechi
+     */
+    public static void testColumnarResultFile() {
+        try {
+            Queue<double[]> disturbances = new Queue<>();
+            disturbances.enqueue(new double[]{0, 1.2});
+            CSTRReactor CSTR = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0.04, 0.16}, new double[]{0.2, 0}, 0, true);
+            PIDController PID = new PIDController(-0.05, 1000, 0.05, 9.4375, 1.807836, 0.27027, PIDController.CONTROLLER_TYPE.PID, 0.75, CSTR, 0.01, disturbances, 0.04);
+            String[] header = {"Time", " CA", " CB", "CA0", " v0", " P", " I", " D"};
+            double[][] expected = PID.clone().simulate();
+
+            java.io.File columnar = java.io.File.createTempFile("results", ".col");
+            java.io.File csv = java.io.File.createTempFile("results", ".csv");
+            java.io.File convertedColumnar = java.io.File.createTempFile("converted", ".col");
+            java.io.File convertedCsv = java.io.File.createTempFile("converted", ".csv");
+
+            PID.clone().simulate(new ColumnarSink(columnar.getPath(), header));
+            try (ColumnarResultFile file = new ColumnarResultFile(columnar.getPath())) {
+                System.out.println("Columnar file reads back exactly (expected 20002 8 true)");
+                System.out.println(file.getRowCount() + " " + file.getColumnCount() + " " + java.util.Arrays.deepEquals(expected, file.readAll()));
+                System.out.println("Random access by row, column and name (expected true true true)");
+                double[] row = new double[file.getColumnCount()];
+                file.getRow(12345, row);
+                System.out.println(java.util.Arrays.equals(row, expected[12345]));
+                System.out.println(file.get(777, file.getColumnIndex("CB")) == expected[777][2]);
+                double[] column = file.getColumn(file.getColumnIndex("v0"));
+                boolean columnMatches = column.length == expected.length;
+                for (int i = 0; columnMatches && i < column.length; i++) columnMatches = column[i] == expected[i][4];
+                System.out.println(columnMatches);
+                System.out.println("Names keep their spaces (expected [Time,  CA,  CB, CA0,  v0,  P,  I,  D])");
+                System.out.println(java.util.Arrays.toString(file.getColumnNames()));
+            }
+
+            PID.clone().simulate(new CsvSink(csv.getPath(), header));
+            System.out.println("CSV converted to columnar reads back exactly, and back to CSV gives the same bytes (expected 20002 true true)");
+            System.out.println(ColumnarResultFile.fromCsv(csv.getPath(), convertedColumnar.getPath()));
+            try (ColumnarResultFile file = new ColumnarResultFile(convertedColumnar.getPath())) {
+                System.out.println(java.util.Arrays.deepEquals(expected, file.readAll()));
+            }
+            ColumnarResultFile.toCsv(convertedColumnar.getPath(), convertedCsv.getPath());
+            System.out.println(java.util.Arrays.equals(java.nio.file.Files.readAllBytes(csv.toPath()), java.nio.file.Files.readAllBytes(convertedCsv.toPath())));
+            System.out.println("Columnar file size against CSV size in bytes");
+            System.out.println(columnar.length() + " " + csv.length());
+
+            System.out.println("Column names not matching the rows are rejected (expected exception)");
+            try {
+                PID.clone().simulate(new ColumnarSink(columnar.getPath(), new String[]{"Time"}));
+                System.out.println("no exception");
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+            }
+
+            System.out.println("A malformed CSV file is rejected and leaves no columnar file (expected exception false)");
+            java.io.File malformed = java.io.File.createTempFile("malformed", ".csv");
+            java.nio.file.Files.write(malformed.toPath(), "Time,CA,\n0,0.04,\n0.05,abc,\n".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            convertedColumnar.delete();
+            try {
+                ColumnarResultFile.fromCsv(malformed.getPath(), convertedColumnar.getPath());
+                System.out.println("no exception");
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage().replace(malformed.getPath(), "file"));
+            }
+            System.out.println(convertedColumnar.exists());
+            malformed.delete();
+
+            System.out.println("A CSV file is not a columnar file (expected exception)");
+            try {
+                new ColumnarResultFile(csv.getPath()).close();
+                System.out.println("no exception");
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage().replace(csv.getPath(), "file"));
+            }
+            columnar.delete();
+            csv.delete();
+            convertedColumnar.delete();
+            convertedCsv.delete();
+        } catch (CloneNotSupportedException | java.io.IOException e) {
+            System.out.println(e.getMessage());
+        }
+    } //end of columnar result file checks
+
+    /** Static method to test the CompressedSink and CompressedResultReader classes against the array returned by simulate()
+     * @author Ogechi
+     */
+    public static void testCompressedResults() {
+        try {
+            Queue<double[]> disturbances = new Queue<>();
+            disturbances.enqueue(new double[]{0, 1.2});
+            CSTRReactor CSTR = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0.04, 0.16}, new double[]{0.2, 0}, 0, true);
+            PIDController PID = new PIDController(-0.05, 1000, 0.05, 9.4375, 1.807836, 0.27027, PIDController.CONTROLLER_TYPE.PID, 0.75, CSTR, 0.01, disturbances, 0.04);
+            String[] header = {"Time", " CA", " CB", "CA0", " v0", " P", " I", " D"};
+            double[][] expected = PID.clone().simulate();
+            long rawSize = 8L * expected.length * expected[0].length;
+            java.io.File file = java.io.File.createTempFile("results", ".gor");
+
+            CompressedSink lossless = new CompressedSink(file.getPath(), header);
+            PID.clone().simulate(lossless);
+            try (CompressedResultReader reader = new CompressedResultReader(file.getPath())) {
+                System.out.println("Lossless file reads back exactly (expected 20002 8 0.0 true)");
+                System.out.println(reader.getRowCount() + " " + reader.getColumnCount() + " " + reader.getErrorBound() + " " + java.util.Arrays.deepEquals(expected, reader.readAll()));
+                System.out.println("Names keep their spaces (expected [Time,  CA,  CB, CA0,  v0,  P,  I,  D])");
+                System.out.println(java.util.Arrays.toString(reader.getColumnNames()));
+            }
+            System.out.println("Lossless size against raw doubles in bytes, and the file size matches (expected true)");
+            System.out.println(lossless.getBytesWritten() + " " + rawSize);
+            System.out.println(lossless.getBytesWritten() == file.length());
+
+            for (double errorBound : new double[]{1e-9, 1e-6}) {
+                CompressedSink bounded = new CompressedSink(file.getPath(), header, errorBound);
+                PID.clone().simulate(bounded);
+                double maxError = 0;
+                boolean timeExact = true;
+                try (CompressedResultReader reader = new CompressedResultReader(file.getPath())) {
+                    double[] row = new double[reader.getColumnCount()];
+                    int i = 0;
+                    while (reader.nextRow(row)) {
+                        timeExact &= row[0] == expected[i][0];
+                        for (int j = 1; j < row.length; j++) maxError = Math.max(maxError, Math.abs(row[j] - expected[i][j]));
+                        i++;
+                    }
+                }
+                System.out.println("Error bound " + errorBound + " is kept and the time is exact (expected true true)");
+                System.out.println((maxError <= errorBound) + " " + timeExact);
+                System.out.println("Size against raw doubles in bytes");
+                System.out.println(bounded.getBytesWritten() + " " + rawSize);
+            }
+
+            System.out.println("Constant columns and exactly spaced times take one bit a row (expected true)");
+            CompressedSink constant = new CompressedSink(file.getPath(), null);
+            constant.start(4, 10000);
+            for (int i = 0; i < 10000; i++) constant.accept(new double[]{0.25 * i, 1, 0.2, 0});
+            constant.finish();
+            System.out.println(constant.getBytesWritten() < 4 * 10000 / 8 + 100);
+
+            System.out.println("Negative error bound (expected exception)");
+            try {
+                new CompressedSink(file.getPath(), header, -1e-6);
+                System.out.println("no exception");
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+            }
+
+            System.out.println("A columnar file is not a compressed file (expected exception)");
+            java.io.File columnar = java.io.File.createTempFile("results", ".col");
+            PID.clone().simulate(new ColumnarSink(columnar.getPath(), header));
+            try {
+                new CompressedResultReader(columnar.getPath()).close();
+                System.out.println("no exception");
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage().replace(columnar.getPath(), "file"));
+            }
+            file.delete();
+            columnar.delete();
+        } catch (CloneNotSupportedException | java.io.IOException e) {
+            System.out.println(e.getMessage());
+        }
+    } //end of compressed result checks
+
+    /** Static method to test the ParameterSweep class against sequential simulations of the same variants
+     * @author Ogechi
+     */
+    public static void testParameterSweep() {
+        try {
+            Queue<double[]> disturbances = new Queue<>();
+            disturbances.enqueue(new double[]{0, 1.2});
+            CSTRReactor CSTR = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0.04, 0.16}, new double[]{0.2, 0}, 0, true);
+            PIDController PID = new PIDController(-0.05, 100, 0.05, 9.4375, 1.807836, 0.27027, PIDController.CONTROLLER_TYPE.PID, 0.75, CSTR, 0.01, disturbances, 0.04);
+            String[] header = {"Time", " CA", " CB", "CA0", " v0", " P", " I", " D"};
+            ParameterSweep.PARAMETER[] parameters = {ParameterSweep.PARAMETER.CONTROLLER_GAIN, ParameterSweep.PARAMETER.INTEGRATING_TIME_CONSTANT, ParameterSweep.PARAMETER.VOLUME};
+            ParameterSweep sweep = ParameterSweep.grid(PID, parameters, new double[][]{{5, 9.4375, 15}, {1, 1.807836}, {1, 1.5}});
+
+            System.out.println("Grid size and order, the last parameter changes fastest (expected 12 [5.0, 1.807836, 1.5] [15.0, 1.0, 1.0])");
+            System.out.println(sweep.getRunCount() + " " + java.util.Arrays.toString(sweep.getVariant(3)) + " " + java.util.Arrays.toString(sweep.getVariant(8)));
+            System.out.println("Parameter labels round trip (expected true)");
+            boolean labels = true;
+            for (ParameterSweep.PARAMETER parameter : ParameterSweep.PARAMETER.values()) labels &= ParameterSweep.getParameterByLabel(ParameterSweep.getLabel(parameter)) == parameter;
+            System.out.println(labels);
+            System.out.println("Column names must match the result columns (expected false true)");
+            System.out.println(sweep.setColumnNames(new String[]{"Time"}) + " " + sweep.setColumnNames(header));
+
+            //each variant set by hand and simulated on this thread
+            double[][] expectedFinalRows = new double[sweep.getRunCount()][];
+            for (int i = 0; i < sweep.getRunCount(); i++) {
+                double[] variant = sweep.getVariant(i);
+                PIDController copy = PID.clone();
+                copy.setControllerGain(variant[0]);
+                copy.setIntegratingTimeConstant(variant[1]);
+                CSTRReactor reactor = (CSTRReactor) copy.getControllable();
+                reactor.setVolume(variant[2]);
+                copy.setControllable(reactor);
+                double[][] results = copy.simulate();
+                expectedFinalRows[i] = results[results.length - 1];
+            }
+
+            java.io.File table = java.io.File.createTempFile("sweep", ".csv");
+            int[] reported = new int[1];
+            SweepResult[] results;
+            try (SimulationExecutor executor = new SimulationExecutor(Math.max(4, Runtime.getRuntime().availableProcessors()))) {
+                results = sweep.run(executor, table.getPath(), (result, finishedRuns, totalRuns) -> reported[0]++);
+            }
+            boolean matches = true;
+            for (int i = 0; i < results.length; i++) {
+                matches &= results[i].getRunIndex() == i && results[i].getStatus() == SweepResult.STATUS.COMPLETED && results[i].getRowCount() == 2002;
+                matches &= java.util.Arrays.equals(expectedFinalRows[i], results[i].getFinalRow());
+            }
+            System.out.println("Every run completed with the final row of its sequential simulation, and was reported once (expected true 12)");
+            System.out.println(matches + " " + reported[0]);
+            java.util.List<String> lines = java.nio.file.Files.readAllLines(table.toPath());
+            System.out.println("Results table has a header and a row per run (expected 13)");
+            System.out.println(lines.size());
+            System.out.println(lines.get(0));
+
+            System.out.println("Invalid values fail their own run only (expected FAILED COMPLETED)");
+            ParameterSweep invalid = new ParameterSweep(PID, new ParameterSweep.PARAMETER[]{ParameterSweep.PARAMETER.DEAD_TIME}, new double[][]{{-1}, {0.5}});
+            try (SimulationExecutor executor = new SimulationExecutor(2)) {
+                results = invalid.run(executor, null, null);
+            }
+            System.out.println(results[0].getStatus() + " " + results[1].getStatus());
+            System.out.println(results[0].getMessage());
+
+            System.out.println("Cancelling from the listener stops the sweep (expected true true)");
+            ParameterSweep cancelled = ParameterSweep.grid(PID, new ParameterSweep.PARAMETER[]{ParameterSweep.PARAMETER.CONTROLLER_GAIN}, new double[][]{new double[40]});
+            try (SimulationExecutor executor = new SimulationExecutor(2)) {
+                results = cancelled.run(executor, null, (result, finishedRuns, totalRuns) -> {
+                    if (finishedRuns == 2) cancelled.cancel();
+                });
+            }
+            int completed = 0;
+            int cancelledRuns = 0;
+            for (SweepResult result : results) {
+                if (result.getStatus() == SweepResult.STATUS.COMPLETED) completed++;
+                if (result.getStatus() == SweepResult.STATUS.CANCELLED) cancelledRuns++;
+            }
+            System.out.println((completed >= 2 && completed < 40) + " " + (completed + cancelledRuns == 40));
+
+            System.out.println("Reactor parameters need a reactor without a reaction network for k (expected exception)");
+            CSTRReactor networkReactor = (CSTRReactor) PID.getControllable();
+            networkReactor.setReactionNetwork(new ReactionNetwork(new String[]{"A->B"}, new double[]{0.2}));
+            PIDController networkPID = PID.clone();
+            networkPID.setControllable(networkReactor);
+            try {
+                new ParameterSweep(networkPID, new ParameterSweep.PARAMETER[]{ParameterSweep.PARAMETER.K}, new double[][]{{0.3}}).createVariant(0);
+                System.out.println("no exception");
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+            }
+            table.delete();
+        } catch (CloneNotSupportedException | java.io.IOException e) {
+            System.out.println(e.getMessage());
+        }
+    } //end of parameter sweep checks
+
+    /** Static method to test the PIDTuner class on the shipped PID case over a shorter run
+     * @author Ogechi
+     */
+    public static void testPIDTuner() {
+        try {
+            Queue<double[]> disturbances = new Queue<>();
+            disturbances.enqueue(new double[]{0, 1.2});
+            CSTRReactor CSTR = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0.04, 0.16}, new double[]{0.2, 0}, 0, true);
+            PIDController PID = new PIDController(-0.05, 100, 0.05, 9.4375, 1.807836, 0.27027, PIDController.CONTROLLER_TYPE.PID, 0.75, CSTR, 0.01, disturbances, 0.04);
+
+            System.out.println("Objective labels (expected IAE ITAE null)");
+            System.out.println(PIDTuner.getObjectiveByLabel("IAE") + " " + PIDTuner.getObjectiveByLabel(" itae") + " " + PIDTuner.getObjectiveByLabel("MSE"));
+
+            PIDTuner tuner = new PIDTuner(PID, PIDTuner.OBJECTIVE.IAE);
+            System.out.println("Three parameters tuned for a PID controller, budget below the starting simplex rejected (expected 3 false)");
+            System.out.println(tuner.getDimension() + " " + tuner.setMaxEvaluations(3));
+            double startingIAE = tuner.evaluate(PID);
+            PIDController tuned;
+            try (SimulationExecutor executor = new SimulationExecutor(Math.max(4, Runtime.getRuntime().availableProcessors()))) {
+                tuned = tuner.tune(executor);
+            }
+            System.out.println("Tuned IAE is lower and matches a run of the tuned controller, candidates were cancelled early (expected true true true)");
+            System.out.println((tuner.getBestObjective() < startingIAE / 10) + " " + (tuner.evaluate(tuned) == tuner.getBestObjective()) + " " + (tuner.getCancelledCount() > 0));
+            System.out.println("Starting and tuned IAE, gain, integrating and derivative time constants");
+            System.out.println(startingIAE + " " + tuner.getBestObjective() + " " + tuned.getControllerGain() + " " + tuned.getIntegratingTimeConstant() + " " + tuned.getDerivativeTimeConstant());
+            System.out.println("Tuned controller keeps everything else (expected PID 0.75 0.04)");
+            System.out.println(tuned.getControllerType() + " " + tuned.getDeadTime() + " " + tuned.getSetPoint());
+
+            System.out.println("Overshoot constraint is met by the tuned controller although the starting one breaks it (expected true true)");
+            PIDTuner constrained = new PIDTuner(PID, PIDTuner.OBJECTIVE.IAE);
+            constrained.setMaxOvershoot(1e-4);
+            try (SimulationExecutor executor = new SimulationExecutor(2)) {
+                tuned = constrained.tune(executor);
+            }
+            double[][] results = tuned.simulate();
+            double overshoot = 0;
+            for (int i = 1; i < results.length; i++) overshoot = Math.max(overshoot, results[i][1] - 0.04);
+            System.out.println((constrained.evaluate(PID) == Double.POSITIVE_INFINITY) + " " + (overshoot <= 1e-4));
+
+            System.out.println("A P controller only tunes its gain (expected 1)");
+            PIDController proportional = PID.clone();
+            proportional.setControllerType(PIDController.CONTROLLER_TYPE.P);
+            System.out.println(new PIDTuner(proportional, PIDTuner.OBJECTIVE.ITAE).getDimension());
+
+            System.out.println("Time constants used by the controller type must be greater than 0 (expected exception)");
+            PIDController zero = PID.clone();
+            zero.setDerivativeTimeConstant(0);
+            try {
+                new PIDTuner(zero, PIDTuner.OBJECTIVE.IAE);
+                System.out.println("no exception");
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+            }
+
+            System.out.println("Uncontrolled simulations cannot be tuned (expected exception)");
+            try {
+                CSTRReactor uncontrolled = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0, 0}, new double[]{0.2, 0});
+                new PIDTuner(new PIDController(-0.05, 100, 0.05, 0, 0, 0, PIDController.CONTROLLER_TYPE.UNCONTROLLED, 0, uncontrolled, 0.01, disturbances, 0), PIDTuner.OBJECTIVE.IAE);
+                System.out.println("no exception");
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+            }
+        } catch (CloneNotSupportedException e) {
+            System.out.println(e.getMessage());
+        }
+    } //end of PID tuner checks
+
+    /** Static method to test the PerformanceMetricsSink and PerformanceMetrics classes
+     * @author Ogechi
+     */
+    public static void testPerformanceMetrics() {
+        //rows of time, controlled and manipulated variable, the first row is the placeholder the controller writes
+        double[][] rows = {{0, 0, 0}, {1, 0, 1}, {2, 0.5, 2}, {3, 0.95, 1}, {4, 1.1, 1}, {5, 1.02, 1}, {6, 1.0, 1}};
+        PerformanceMetricsSink sink = new PerformanceMetricsSink(null, 1, 1, 2, 0.06);
+        sink.start(3, rows.length);
+        for (double[] row : rows) sink.accept(row);
+        sink.finish();
+        PerformanceMetrics metrics = sink.getMetrics();
+        System.out.println("IAE, ISE and ITAE of a hand-made step response (expected 1.6700 1.2629 2.6500)");
+        System.out.printf("%.4f %.4f %.4f%n", metrics.getIntegralAbsoluteError(), metrics.getIntegralSquaredError(), metrics.getIntegralTimeAbsoluteError());
+        System.out.println("Overshoot, rise time, settling time, settled and controller effort (expected 0.1000 1.0000 4.0000 true 3.0000)");
+        System.out.printf("%.4f %.4f %.4f %b %.4f%n", metrics.getOvershoot(), metrics.getRiseTime(), metrics.getSettlingTime(), metrics.isSettled(), metrics.getControllerEffort());
+        System.out.println("Duration and rows measured (expected 6.0 7)");
+        System.out.println(metrics.getDuration() + " " + metrics.getRowCount());
+
+        try {
+            Queue<double[]> disturbances = new Queue<>();
+            disturbances.enqueue(new double[]{0, 1.2});
+            CSTRReactor CSTR = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0.04, 0.16}, new double[]{0.2, 0}, 0, true);
+            PIDController PID = new PIDController(-0.05, 100, 0.05, 9.4375, 1.807836, 0.27027, PIDController.CONTROLLER_TYPE.PID, 0.75, CSTR, 0.01, disturbances, 0.04);
+
+            //the metrics measured while simulating must be those of a second pass over the stored results
+            InMemorySink stored = new InMemorySink();
+            sink = PerformanceMetricsSink.forController(PID, stored);
+            PID.clone().simulate(sink);
+            metrics = sink.getMetrics();
+            double[][] results = stored.getResults();
+            double iae = 0;
+            double itae = 0;
+            double effort = 0;
+            for (int i = 1; i < results.length; i++) {
+                double dt = results[i][0] - results[i - 1][0];
+                iae += Math.abs(0.04 - results[i][1]) * dt;
+                itae += (results[i][0] - results[0][0]) * Math.abs(0.04 - results[i][1]) * dt;
+                effort += Math.abs(results[i][4] - results[i - 1][4]);
+            }
+            System.out.println("Rows are passed on unchanged, IAE, ITAE and effort match a second pass over them (expected true true true true)");
+            System.out.println(java.util.Arrays.deepEquals(results, PID.clone().simulate()) + " " + (metrics.getIntegralAbsoluteError() == iae)
+                    + " " + (metrics.getIntegralTimeAbsoluteError() == itae) + " " + (metrics.getControllerEffort() == effort));
+            System.out.println("Settling band is 2 % of the set point, the shipped tuning never settles (expected 8.0E-4 false)");
+            System.out.println(sink.getSettlingBand() + " " + metrics.isSettled());
+
+            java.io.File summary = java.io.File.createTempFile("metrics", ".txt");
+            summary.deleteOnExit();
+            metrics.writeSummary(summary.getPath());
+            java.util.List<String> lines = java.nio.file.Files.readAllLines(summary.toPath());
+            System.out.println("Summary file has a line per metric in the input file format (expected 10 IAE true)");
+            System.out.println(lines.size() + " " + lines.get(0).split(":")[0].trim() + " " + (Double.parseDouble(lines.get(0).split(":")[1]) == metrics.getIntegralAbsoluteError()));
+            System.out.println("Labels match the values (expected 7 7)");
+            System.out.println(PerformanceMetrics.getLabels().length + " " + metrics.getValues().length);
+            summary.delete();
+
+            System.out.println("Uncontrolled runs are measured too, their manipulated variable never moves (expected 0.0)");
+            CSTRReactor uncontrolled = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0, 0}, new double[]{0.2, 0});
+            PIDController open = new PIDController(-0.05, 100, 0.05, 0, 0, 0, PIDController.CONTROLLER_TYPE.UNCONTROLLED, 0, uncontrolled, 0.01, disturbances, 0.04);
+            sink = PerformanceMetricsSink.forController(open, null);
+            open.simulate(sink);
+            System.out.println(sink.getMetrics().getControllerEffort());
+        } catch (CloneNotSupportedException | java.io.IOException e) {
+            System.out.println(e.getMessage());
+        }
+
+        System.out.println("Settling band cannot be negative (expected exception)");
+        try {
+            new PerformanceMetricsSink(null, 1, 1, 2, -1);
+            System.out.println("no exception");
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+
+        System.out.println("Columns must be in the rows (expected exception)");
+        try {
+            new PerformanceMetricsSink(null, 1, 1, 5, 0).start(3, 1);
+            System.out.println("no exception");
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+    } //end of performance metrics checks
+
+    /** Static method to test the steady state detection of the PIDController class on the shipped cases
+     * @author Ogechi
+     */
+    public static void testSteadyStateDetection() {
+        try {
+            Queue<double[]> disturbances = new Queue<>();
+            disturbances.enqueue(new double[]{0, 0.2});
+            CSTRReactor uncontrolled = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0, 0}, new double[]{0, 0});
+            uncontrolled.setMaxStepSize(0.5);
+            PIDController open = new PIDController(-0.05, 1000, 0.05, 0, 0, 0, PIDController.CONTROLLER_TYPE.UNCONTROLLED, 0, uncontrolled, 0.01, disturbances, 0);
+
+            System.out.println("Detection is off by default (expected 0.0 Infinity 0.0)");
+            System.out.println(open.getSteadyStateTolerance() + " " + open.getSteadyStateBand() + " " + open.getSteadyStateWindow());
+            System.out.println("Negative tolerance, band and window are rejected (expected false false false)");
+            System.out.println(open.setSteadyStateTolerance(-1) + " " + open.setSteadyStateBand(-1) + " " + open.setSteadyStateWindow(-1));
+
+            double[][] full = open.clone().simulate();
+            PIDController steady = open.clone();
+            steady.setSteadyStateTolerance(1e-8);
+            steady.setSteadyStateWindow(10);
+            double[][] filled = steady.simulate();
+            double difference = 0;
+            for (int i = 0; i < full.length; i++) {
+                for (int j = 0; j < full[i].length; j++) difference = Math.max(difference, Math.abs(full[i][j] - filled[i][j]));
+            }
+            System.out.println("Uncontrolled run is steady long before the end, every row is still there and close to the full run (expected true true true true)");
+            System.out.println((steady.getSteadyStateTime() > 100 && steady.getSteadyStateTime() < 500) + " " + (filled.length == full.length)
+                    + " " + (steady.getFilledRowCount() > full.length / 2) + " " + (difference < 1e-6));
+            System.out.println("Filled rows keep the time of their step (expected true)");
+            System.out.println(filled[filled.length - 1][0] == full[full.length - 1][0]);
+            System.out.println("The skipped simulated time and the wall time saved are reported, none for the full run (expected true true 0.0 0.0)");
+            System.out.println((Math.abs(steady.getSkippedTime() - steady.getFilledRowCount() * 0.05) < 1e-9) + " " + (steady.getEstimatedTimeSaved() > 0)
+                    + " " + open.getSkippedTime() + " " + open.getEstimatedTimeSaved());
+            System.out.println("Copies keep the settings (expected 1.0E-8 10.0)");
+            System.out.println(steady.clone().getSteadyStateTolerance() + " " + steady.clone().getSteadyStateWindow());
+
+            System.out.println("A disturbance still queued keeps the run going past it (expected true)");
+            disturbances.enqueue(new double[]{400, 0.1});
+            PIDController disturbed = new PIDController(-0.05, 1000, 0.05, 0, 0, 0, PIDController.CONTROLLER_TYPE.UNCONTROLLED, 0, uncontrolled, 0.01, disturbances, 0);
+            disturbed.setSteadyStateTolerance(1e-8);
+            disturbed.setSteadyStateWindow(10);
+            disturbed.simulate();
+            System.out.println(disturbed.getSteadyStateTime() > 400);
+
+            disturbances = new Queue<>();
+            disturbances.enqueue(new double[]{0, 1.2});
+            CSTRReactor CSTR = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0.04, 0.16}, new double[]{0.2, 0}, 0, true);
+            CSTR.setMaxStepSize(0.5);
+            PIDController PID = new PIDController(-0.05, 1000, 0.05, 9.4375, 1.807836, 0.27027, PIDController.CONTROLLER_TYPE.PID, 0.75, CSTR, 0.01, disturbances, 0.04);
+            PID.setSteadyStateTolerance(1e-5);
+            PID.setSteadyStateWindow(10);
+            PIDController shipped = PID.clone();
+            shipped.simulate();
+            System.out.println("The shipped PID tuning keeps oscillating, so every row is simulated (expected NaN 0)");
+            System.out.println(shipped.getSteadyStateTime() + " " + shipped.getFilledRowCount());
+
+            PIDController tuned = PID.clone();
+            tuned.setControllerGain(1.565);
+            tuned.setIntegratingTimeConstant(1.289);
+            tuned.setDerivativeTimeConstant(0.3455);
+            tuned.simulate();
+            System.out.println("A tuned controller becomes steady once the slow product concentration has settled too (expected true)");
+            System.out.println(tuned.getFilledRowCount() > 0);
+
+            //with a loose tolerance the shipped tuning counts as steady on its rates, the band keeps its oscillating error out
+            PIDController loose = PID.clone();
+            loose.setSteadyStateTolerance(1);
+            PIDController banded = loose.clone();
+            banded.setSteadyStateBand(1e-6);
+            loose.simulate();
+            banded.simulate();
+            System.out.println("An error band tighter than the error keeps the run going (expected true NaN)");
+            System.out.println((loose.getFilledRowCount() > 0) + " " + banded.getSteadyStateTime());
+        } catch (CloneNotSupportedException e) {
+            System.out.println(e.getMessage());
+        }
+    } //end of steady state detection checks
+
+    /** Static method to test the GoldenComparisonSink class and the right-hand side evaluations counted by reactors, used by the RegressionDriver
+     * @author Ogechi
+     */
+    public static void testRegressionHarness() {
+        try {
+            Queue<double[]> disturbances = new Queue<>();
+            disturbances.enqueue(new double[]{0, 1.2});
+            CSTRReactor CSTR = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0.04, 0.16}, new double[]{0.2, 0}, 0, true);
+            CSTR.setMaxStepSize(0.5);
+            PIDController PID = new PIDController(-0.05, 100, 0.05, 9.4375, 1.807836, 0.27027, PIDController.CONTROLLER_TYPE.PID, 0.75, CSTR, 0.01, disturbances, 0.04);
+            String[] header = {"Time", " CA", " CB", "CA0", " v0", " P", " I", " D"};
+            java.io.File golden = java.io.File.createTempFile("golden", ".csv");
+            PID.clone().simulate(new CsvSink(golden.getPath(), header));
+
+            GoldenComparisonSink same = new GoldenComparisonSink(golden.getPath(), 1e-7, 1e-6);
+            PID.clone().simulate(same);
+            System.out.println("The same run matches its golden file exactly (expected true 2002 0.0 none)");
+            System.out.println(same.isWithinTolerance() + " " + same.getRowCount() + " " + same.getLargestRatio() + " " + same.getWorstColumn());
+
+            PIDController changed = PID.clone();
+            changed.setControllerGain(9.44);
+            GoldenComparisonSink drifted = new GoldenComparisonSink(golden.getPath(), 1e-7, 1e-6);
+            changed.simulate(drifted);
+            System.out.println("A changed gain drifts out of tolerance, most in the controller output columns (expected false null true)");
+            System.out.println(drifted.isWithinTolerance() + " " + drifted.getMismatch() + " " + drifted.getWorstColumn().matches("[v0PID]+"));
+            GoldenComparisonSink loose = new GoldenComparisonSink(golden.getPath(), 10, 0);
+            changed.clone().simulate(loose);
+            System.out.println("The same drift passes a loose tolerance (expected true)");
+            System.out.println(loose.isWithinTolerance());
+
+            PIDController shorter = PID.clone();
+            shorter.setEndTime(50);
+            GoldenComparisonSink truncated = new GoldenComparisonSink(golden.getPath(), 1e-7, 1e-6);
+            shorter.simulate(truncated);
+            System.out.println("A shorter run is a mismatch even though its rows match (expected false fewer rows than the golden file)");
+            System.out.println(truncated.isWithinTolerance() + " " + truncated.getMismatch());
+
+            System.out.println("Negative or zero tolerances are rejected (expected exception exception)");
+            for (double[] tolerances : new double[][]{{-1, 1e-6}, {0, 0}}) {
+                try {
+                    new GoldenComparisonSink(golden.getPath(), tolerances[0], tolerances[1]);
+                    System.out.println("no exception");
+                } catch (IllegalArgumentException e) {
+                    System.out.println("exception");
+                }
+            }
+
+            PIDController first = PID.clone();
+            PIDController second = PID.clone();
+            first.simulate();
+            second.simulate();
+            long evaluations = ((Reactor) first.getControllable()).getRhsEvaluationCount();
+            System.out.println("Runs count their right-hand side evaluations, the same for the same run, and copies keep the count (expected true true true)");
+            System.out.println((evaluations > 0) + " " + (evaluations == ((Reactor) second.getControllable()).getRhsEvaluationCount())
+                    + " " + (first.clone().getControllable() instanceof Reactor && ((Reactor) first.clone().getControllable()).getRhsEvaluationCount() == evaluations));
+            golden.delete();
+        } catch (CloneNotSupportedException | java.io.IOException e) {
+            System.out.println(e.getMessage());
+        }
+    } //end of regression harness checks
+
+    /** Static method to test the SolverStatistics class collected by PIDController, Reactor and the solvers
+     * @author Ogechi
+     */
+    public static void testSolverStatistics() {
+        try {
+            Queue<double[]> disturbances = new Queue<>();
+            disturbances.enqueue(new double[]{0, 1.2});
+            CSTRReactor CSTR = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0.04, 0.16}, new double[]{0.2, 0}, 0, true);
+            CSTR.setMaxStepSize(0.5);
+            PIDController PID = new PIDController(-0.05, 100, 0.05, 9.4375, 1.807836, 0.27027, PIDController.CONTROLLER_TYPE.PID, 0.75, CSTR, 0.01, disturbances, 0);
+
+            System.out.println("Statistics are off by default (expected false null)");
+            System.out.println(PID.getCollectSolverStatistics() + " " + PID.getSolverStatistics());
+
+            double[][] expected = PID.clone().simulate();
+            PIDController collecting = PID.clone();
+            collecting.setCollectSolverStatistics(true);
+            double[][] results = collecting.simulate();
+            SolverStatistics statistics = collecting.getSolverStatistics();
+            long binned = 0;
+            for (long steps : statistics.getHistogram()) binned += steps;
+            System.out.println("Collecting statistics does not change the results (expected true)");
+            System.out.println(java.util.Arrays.deepEquals(expected, results));
+            System.out.println("Every rhs evaluation and accepted step is counted, one interval per control interval (expected true true 2001)");
+            System.out.println((statistics.getRhsEvaluations() == ((Reactor) collecting.getControllable()).getRhsEvaluationCount() - ((Reactor) PID.getControllable()).getRhsEvaluationCount())
+                    + " " + (binned == statistics.getAcceptedSteps()) + " " + statistics.getIntervals());
+            System.out.println("Step sizes stay within the time step and the work per interval is at least one step (expected true true)");
+            System.out.println((statistics.getMinStepSize() > 0 && statistics.getMaxStepSize() <= 0.05 + 1e-12) + " " + (statistics.getMaxIntervalSteps() >= 1 && statistics.getMeanRhsEvaluationsPerInterval() >= 6));
+            System.out.println("The reactor stops collecting after the run and copies of the controller keep the statistics (expected null true)");
+            System.out.println(((Reactor) collecting.getControllable()).getSolverStatistics() + " " + (collecting.clone().getSolverStatistics().getRhsEvaluations() == statistics.getRhsEvaluations()));
+
+            CSTRReactor uncontrolled = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0.04, 0.16}, new double[]{1.2, 0});
+            uncontrolled.setSolverType(OdeSolver.SOLVER_TYPE.DORMAND_PRINCE);
+            uncontrolled.setMaxStepSize(0.5);
+            PIDController open = new PIDController(-0.05, 100, 0.05, 0, 0, 0, PIDController.CONTROLLER_TYPE.UNCONTROLLED, 0, uncontrolled, 0.01, disturbances, 0);
+            open.setCollectSolverStatistics(true);
+            open.simulate();
+            System.out.println("An uncontrolled run without disturbances is one interval of many steps (expected 1 true)");
+            System.out.println(open.getSolverStatistics().getIntervals() + " " + (open.getSolverStatistics().getAcceptedSteps() > 100));
+
+            java.io.File csv = java.io.File.createTempFile("statistics", ".csv");
+            java.io.File json = java.io.File.createTempFile("statistics", ".json");
+            statistics.write(csv.getPath());
+            statistics.write(json.getPath());
+            java.util.List<String> csvLines = java.nio.file.Files.readAllLines(csv.toPath());
+            String jsonText = new String(java.nio.file.Files.readAllBytes(json.toPath()), java.nio.charset.StandardCharsets.UTF_8);
+            System.out.println("CSV has a header, a line per statistic and a line per bin, JSON is picked by the extension (expected 24 " + statistics.getRhsEvaluations() + " true)");
+            System.out.println(csvLines.size() + " " + csvLines.get(1).split(", ")[1] + " " + (jsonText.startsWith("{") && jsonText.contains("\"histogram\"")));
+            System.out.println("Empty statistics have no smallest step size, written as null in JSON (expected Infinity true)");
+            new SolverStatistics().writeJson(json.getPath());
+            System.out.println(new SolverStatistics().getMinStepSize() + " " + new String(java.nio.file.Files.readAllBytes(json.toPath()), java.nio.charset.StandardCharsets.UTF_8).contains("\"min step size\": null"));
+            csv.delete();
+            json.delete();
+        } catch (CloneNotSupportedException | java.io.IOException e) {
+            System.out.println(e.getMessage());
+        }
+    } //end of solver statistics checks
+
+    /** Static method to test the flight recorder events committed by Driver, PIDController and CsvResultWriter
+     * @author Dylan
+     */
+    public static void testFlightRecorderEvents() {
+        try {
+            Queue<double[]> disturbances = new Queue<>();
+            disturbances.enqueue(new double[]{0, 1.2});
+            disturbances.enqueue(new double[]{2, 1});
+            CSTRReactor CSTR = new CSTRReactor(1, 0.05, new Reaction("A->B", 0.2), new double[]{0.04, 0.16}, new double[]{0.2, 0}, 0, true);
+            CSTR.setMaxStepSize(0.5);
+            PIDController PID = new PIDController(-0.05, 10, 0.05, 9.4375, 1.807836, 0.27027, PIDController.CONTROLLER_TYPE.PID, 0.75, CSTR, 0.01, disturbances, 0.04);
+            double[][] expected = PID.clone().simulate();
+
+            java.nio.file.Path file = java.nio.file.Files.createTempFile("simulation", ".jfr");
+            double[][] results;
+            try (jdk.jfr.Recording recording = new jdk.jfr.Recording()) {
+                recording.enable("cstr.ControlInterval").withoutStackTrace();
+                recording.enable("cstr.Disturbance");
+                recording.enable("cstr.DeadTimeDelivery").withoutStackTrace();
+                recording.start();
+                results = PID.clone().simulate();
+                recording.stop();
+                recording.dump(file);
+            }
+            int intervals = 0;
+            int disturbed = 0;
+            int delivered = 0;
+            boolean positiveSteps = true;
+            for (jdk.jfr.consumer.RecordedEvent event : jdk.jfr.consumer.RecordingFile.readAllEvents(file)) {
+                String name = event.getEventType().getName();
+                if (name.equals("cstr.ControlInterval")) {
+                    intervals++;
+                    positiveSteps &= event.getDouble("stepSize") > 0;
+                } else if (name.equals("cstr.Disturbance")) disturbed++;
+                else if (name.equals("cstr.DeadTimeDelivery")) delivered++;
+            }
+            java.nio.file.Files.delete(file);
+            System.out.println("Recording does not change the results (expected true)");
+            System.out.println(java.util.Arrays.deepEquals(expected, results));
+            System.out.println("One interval event per row, one disturbance event per disturbance, the dead time holds back the first actions (expected 201 2 true)");
+            System.out.println(intervals + " " + disturbed + " " + (delivered > 0 && delivered < intervals));
+            System.out.println("Every interval records the last step size of the solver (expected true)");
+            System.out.println(positiveSteps);
+        } catch (CloneNotSupportedException | java.io.IOException e) {
+            System.out.println(e.getMessage());
+        }
+    } //end of flight recorder event checks
+
+    /** Static method to test the BatchDriver class running a directory of input files with isolated failures
+     * @author Dylan
+     */
+    public static void testBatchDriver() {
+        try {
+            java.nio.file.Path folder = java.nio.file.Files.createTempDirectory("batch");
+            String scenario = new String(java.nio.file.Files.readAllBytes(java.nio.file.Paths.get("src/TestCase2_PI")), java.nio.charset.StandardCharsets.UTF_8)
+                    .replace("TestCase2_PI_Results", folder.resolve("PI_Results").toString()).replace("end time : 1000", "end time : 100");
+            java.nio.file.Files.write(folder.resolve("a_PI"), scenario.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            //the same output file once the .csv extension is appended
+            java.nio.file.Files.write(folder.resolve("b_PI_copy"), scenario.replace("PI_Results", "PI_Results.csv").getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            java.nio.file.Files.write(folder.resolve("c_broken"), "volume : abc".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            String summaryPath = folder.resolve("summary.csv").toString();
+
+            java.util.List<String> scenarios = BatchDriver.findScenarios(folder.toString());
+            System.out.println("Every file of the directory is an input file, a glob picks some of them (expected 3 2)");
+            System.out.println(scenarios.size() + " " + BatchDriver.findScenarios(folder + "/*_PI*").size());
+            ScenarioResult[] results;
+            try (SimulationExecutor executor = new SimulationExecutor(2)) {
+                results = BatchDriver.runAll(scenarios, executor, summaryPath, null);
+            }
+            java.util.List<String> summary = java.nio.file.Files.readAllLines(java.nio.file.Paths.get(summaryPath));
+            int completed = 0;
+            for (ScenarioResult result : results) if (result.getStatus() == ScenarioResult.STATUS.COMPLETED) completed++;
+            System.out.println("One of the two files writing the same output completes, the broken file fails alone (expected 1 FAILED)");
+            System.out.println(completed + " " + results[2].getStatus());
+            ScenarioResult done = results[0].getStatus() == ScenarioResult.STATUS.COMPLETED ? results[0] : results[1];
+            System.out.println("The completed file has its rows, work and metrics, and the output is written (expected 2002 true true true)");
+            System.out.println(done.getRowCount() + " " + (done.getRhsEvaluations() > 0) + " " + (done.getMetrics() != null) + " " + new java.io.File(done.getOutputFile()).exists());
+            System.out.println("The summary has a header and a line per input file (expected 4)");
+            System.out.println(summary.size());
+
+            //a simulation failing part way must abort its sink, which closes and removes the output file of a failed input file
+            int[] finished = new int[2];
+            SimulationSink failing = new SimulationSink() {
+                private int rows;
+
+                @Override
+                public void start(int columnCount, int rowCount) {
+                }
+
+                @Override
+                public void accept(double[] row) {
+                    if (++this.rows == 100) throw new IllegalStateException("Error, row 100 cannot be written");
+                }
+
+                @Override
+                public void finish() {
+                    finished[0]++;
+                }
+
+                @Override
+                public void abort() {
+                    finished[1]++;
+                }
+            };
+            String message = "none";
+            try {
+                Driver.createController(Driver.populateFromFile(folder.resolve("a_PI").toString())).simulate(failing);
+            } catch (IllegalStateException e) {
+                message = e.getMessage();
+            }
+            System.out.println("A failing simulation aborts its sink once instead of finishing it and passes the failure on (expected 0 1 Error, row 100 cannot be written)");
+            System.out.println(finished[0] + " " + finished[1] + " " + message);
+
+            //an aborted CSV sink deletes its partial file, a sink whose start fails leaves an earlier output alone
+            String partial = folder.resolve("partial.csv").toString();
+            CsvSink csvSink = new CsvSink(partial, new String[]{"Time", "CA"});
+            csvSink.start(2, 10);
+            csvSink.accept(new double[]{0, 0.04});
+            csvSink.abort();
+            String kept = folder.resolve("keep.csv").toString();
+            java.nio.file.Files.write(java.nio.file.Paths.get(kept), "Time,\n".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            java.util.Map<String, String> dict = Driver.populateFromFile(folder.resolve("a_PI").toString());
+            dict.put("populate to file", kept);
+            dict.put("output columns", "0, 99");
+            message = "none";
+            try {
+                Driver.run("keep", dict, false, null, null);
+            } catch (IllegalArgumentException e) {
+                message = e.getMessage();
+            }
+            System.out.println("The aborted file is removed, the earlier output survives a sink that fails to start (expected false true Column 99 is not in rows of 8 values)");
+            System.out.println(new java.io.File(partial).exists() + " " + new java.io.File(kept).exists() + " " + message);
+
+            for (java.io.File file : folder.toFile().listFiles()) file.delete();
+            java.nio.file.Files.delete(folder);
+        } catch (java.io.IOException e) {
+            System.out.println(e.getMessage());
+        }
+    } //end of batch driver checks
+
+    /** Static method to test the StiffnessSwitchingSolver class on a reaction whose rate constant jumps from 1 to 10000 at t = 5
+     * and back at t = 10, the concentration follows the feed and settles to 1/(1 + k) after each jump
+     * @author Ogechi
+     */
+    public static void testStiffnessSwitchingSolver() {
+        OdeSystem system = (t, y, dydt) -> dydt[0] = 1 - y[0] - (t >= 5 && t < 10 ? 10000 : 1) * y[0];
+        StiffnessSwitchingSolver solver = new StiffnessSwitchingSolver(1);
+        double[] y = {0};
+        for (int i = 0; i < 15; i++) {
+            solver.integrate(i, y, i + 1, system, 1e-6);
+        }
+        double[] switchTimes = solver.getSwitchTimes();
+        System.out.println("Switches are recorded without printing by default (expected false)");
+        System.out.println(solver.getLogSwitches());
+        System.out.println("The solution settles back to the non-stiff steady state (expected true)");
+        System.out.println(Math.abs(y[0] - 0.5) < 1e-4);
+        System.out.println("The solver switches to Rosenbrock in the stiff interval and back after it (expected 2 true true false)");
+        System.out.println(switchTimes.length + " " + (switchTimes.length == 2 && switchTimes[0] >= 5 && switchTimes[0] < 10)
+                + " " + (switchTimes.length == 2 && switchTimes[1] >= 10) + " " + solver.getIsStiff());
+
+        //a second order reaction only becomes stiff after the large feed disturbance at t = 50, the switch is read through the controller
+        try {
+            CSTRReactor CSTR = new CSTRReactor(1, 0.05, new Reaction("2 A->B", 100), new double[]{0, 0}, new double[]{0, 0});
+            CSTR.setSolverType(OdeSolver.SOLVER_TYPE.AUTO);
+            CSTR.setMaxStepSize(0.5);
+            Queue<double[]> disturbances = new Queue<>();
+            disturbances.enqueue(new double[]{0, 0.2});
+            disturbances.enqueue(new double[]{50, 2000});
+            PIDController PID = new PIDController(-0.05, 100, 0.05, 0, 0, 0, PIDController.CONTROLLER_TYPE.UNCONTROLLED, 0, CSTR, 1e-6, disturbances, 0);
+            java.nio.file.Path file = java.nio.file.Files.createTempFile("switches", ".jfr");
+            try (jdk.jfr.Recording recording = new jdk.jfr.Recording()) {
+                recording.enable("cstr.StiffnessSwitch").withoutStackTrace();
+                recording.start();
+                PID.simulate();
+                recording.stop();
+                recording.dump(file);
+            }
+            int events = 0;
+            for (jdk.jfr.consumer.RecordedEvent event : jdk.jfr.consumer.RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals("cstr.StiffnessSwitch") && event.getBoolean("stiff")) events++;
+            }
+            java.nio.file.Files.delete(file);
+            double[] controllerSwitches = PID.getStiffnessSwitchTimes();
+            System.out.println("The controller reads the switch to Rosenbrock after the disturbance, recorded as one event (expected true 1)");
+            System.out.println((controllerSwitches.length > 0 && controllerSwitches[0] >= 50) + " " + events);
+        } catch (CloneNotSupportedException | java.io.IOException e) {
+            System.out.println(e.getMessage());
+        }
+    } //end of stiffness switching solver checks
+
 
 
     }